@@ -20,9 +20,23 @@ CREATE TABLE MIGRATIONTOOLKIT_TABLECOPYTASKS (
     avgreaderrowthroughput numeric(10,2) NULL DEFAULT 0,
     copymethod NVARCHAR(255) NULL,
     keycolumns NVARCHAR(255) NULL,
+    batchsize int NOT NULL DEFAULT 0,
+    watermark DATETIME2 NULL,
+    lastsync DATETIME2 NULL,
     PRIMARY KEY (migrationid, targetnodeid, pipelinename)
 );
 
+-- kept across migrations, the next incremental migration continues from the watermarks
+IF OBJECT_ID ('MIGRATIONTOOLKIT_TABLECOPYWATERMARKS','U') IS NULL
+    CREATE TABLE MIGRATIONTOOLKIT_TABLECOPYWATERMARKS (
+        pipelinename NVARCHAR(255) NOT NULL,
+        sourcetablename NVARCHAR(255) NOT NULL,
+        watermark DATETIME2 NOT NULL,
+        migrationId NVARCHAR(255) NOT NULL,
+        lastupdate DATETIME2 NOT NULL,
+        PRIMARY KEY (pipelinename)
+    );
+
 DROP TABLE IF EXISTS MIGRATIONTOOLKIT_TABLECOPYBATCHES;
 
 CREATE TABLE MIGRATIONTOOLKIT_TABLECOPYBATCHES (
@@ -31,6 +45,8 @@ CREATE TABLE MIGRATIONTOOLKIT_TABLECOPYBATCHES (
     pipelinename NVARCHAR(255) NOT NULL,
     lowerBoundary NVARCHAR(255) NOT NULL,
     upperBoundary NVARCHAR(255) NULL,
+    leasedBy int NULL,
+    leaseExpiry DATETIME2 NULL,
     PRIMARY KEY (migrationid, batchId, pipelinename)
 );
 
@@ -44,7 +60,8 @@ CREATE TABLE MIGRATIONTOOLKIT_TABLECOPYSTATUS (
     total int NOT NULL DEFAULT 0,
     completed int NOT NULL DEFAULT 0,
     failed int NOT NULL DEFAULT 0,
-    status NVARCHAR(255) NOT NULL DEFAULT 'RUNNING'
+    status NVARCHAR(255) NOT NULL DEFAULT 'RUNNING',
+    syncstop char(1) NOT NULL DEFAULT '0'
     PRIMARY KEY (migrationid)
 );
 
@@ -58,17 +75,8 @@ AS
 BEGIN
     DECLARE @relevant_count integer = 0
     SET NOCOUNT ON
-    -- latest update overall = latest update timestamp of updated tasks
-    UPDATE s
-    SET s.lastUpdate = t.latestUpdate
-    FROM MIGRATIONTOOLKIT_TABLECOPYSTATUS s
-    INNER JOIN (
-        SELECT migrationId, MAX(lastUpdate) AS latestUpdate
-        FROM inserted
-        GROUP BY migrationId
-    ) AS t
-    ON s.migrationId = t.migrationId
-
+    -- progress updates maintain the latest update of the status themselves,
+    -- only tasks completing or failing are counted here
     SELECT @relevant_count = COUNT(pipelinename)
     FROM inserted
     WHERE failure = '1'
@@ -76,6 +84,17 @@ BEGIN
 
     IF @relevant_count > 0
     BEGIN
+        -- latest update overall = latest update timestamp of updated tasks
+        UPDATE s
+        SET s.lastUpdate = t.latestUpdate
+        FROM MIGRATIONTOOLKIT_TABLECOPYSTATUS s
+        INNER JOIN (
+            SELECT migrationId, MAX(lastUpdate) AS latestUpdate
+            FROM inserted
+            GROUP BY migrationId
+        ) AS t
+        ON s.migrationId = t.migrationId
+
         -- updated completed count when tasks completed
         UPDATE s
         SET s.completed = t.completed
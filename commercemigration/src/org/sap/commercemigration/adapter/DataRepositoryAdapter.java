@@ -4,6 +4,8 @@
 */
 package org.sap.commercemigration.adapter;
 
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
@@ -13,6 +15,12 @@ import org.sap.commercemigration.dataset.DataSet;
 public interface DataRepositoryAdapter {
 	long getRowCount(MigrationContext context, String table) throws Exception;
 
+	/**
+	 * @return the row count of the catalog statistics, or -1 if there are none or
+	 *         only modified rows are copied
+	 */
+	long getEstimatedRowCount(MigrationContext context, String table) throws Exception;
+
 	DataSet getAll(MigrationContext context, String table) throws Exception;
 
 	DataSet getBatchWithoutIdentifier(MigrationContext context, OffsetQueryDefinition queryDefinition) throws Exception;
@@ -22,4 +30,12 @@ public interface DataRepositoryAdapter {
 	DataSet getBatchMarkersOrderedByColumn(MigrationContext context, MarkersQueryDefinition queryDefinition)
 			throws Exception;
 
+	DataSet getNextBatchMarker(MigrationContext context, MarkersQueryDefinition queryDefinition) throws Exception;
+
+	DataSet getBatchOrderedByColumns(MigrationContext context, KeysetQueryDefinition queryDefinition)
+			throws Exception;
+
+	DataSet getNextKeysetMarker(MigrationContext context, KeysetMarkersQueryDefinition queryDefinition)
+			throws Exception;
+
 }
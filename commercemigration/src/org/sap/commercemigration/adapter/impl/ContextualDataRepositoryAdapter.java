@@ -4,6 +4,8 @@
 */
 package org.sap.commercemigration.adapter.impl;
 
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
@@ -14,32 +16,57 @@ import org.sap.commercemigration.dataset.DataSet;
 import org.sap.commercemigration.repository.DataRepository;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * Controls the way the repository is accessed by adapting the most common
- * reading operations based on the configured context
+ * reading operations based on the configured context. In incremental mode the
+ * rows modified after the watermark of a table are read, or after the
+ * configured timestamp for tables without watermark.
  */
 public class ContextualDataRepositoryAdapter implements DataRepositoryAdapter {
 
 	private DataRepository repository;
+	private Map<String, Instant> watermarks;
 
 	public ContextualDataRepositoryAdapter(DataRepository repository) {
+		this(repository, Collections.emptyMap());
+	}
+
+	/**
+	 * @param watermarks
+	 *            the latest modification time copied by a previous migration by
+	 *            source table
+	 */
+	public ContextualDataRepositoryAdapter(DataRepository repository, Map<String, Instant> watermarks) {
 		this.repository = repository;
+		this.watermarks = watermarks;
 	}
 
 	@Override
 	public long getRowCount(MigrationContext context, String table) throws Exception {
 		if (context.isIncrementalModeEnabled()) {
-			return repository.getRowCountModifiedAfter(table, getIncrementalTimestamp(context));
+			return repository.getRowCountModifiedAfter(table, getIncrementalTimestamp(context, table));
 		} else {
 			return repository.getRowCount(table);
 		}
 	}
 
+	@Override
+	public long getEstimatedRowCount(MigrationContext context, String table) throws Exception {
+		if (context.isIncrementalModeEnabled()) {
+			// statistics do not tell how many rows were modified
+			return -1;
+		} else {
+			return repository.getEstimatedRowCount(table);
+		}
+	}
+
 	@Override
 	public DataSet getAll(MigrationContext context, String table) throws Exception {
 		if (context.isIncrementalModeEnabled()) {
-			return repository.getAllModifiedAfter(table, getIncrementalTimestamp(context));
+			return repository.getAllModifiedAfter(table, getIncrementalTimestamp(context, table));
 		} else {
 			return repository.getAll(table);
 		}
@@ -49,7 +76,8 @@ public class ContextualDataRepositoryAdapter implements DataRepositoryAdapter {
 	public DataSet getBatchWithoutIdentifier(MigrationContext context, OffsetQueryDefinition queryDefinition)
 			throws Exception {
 		if (context.isIncrementalModeEnabled()) {
-			return repository.getBatchWithoutIdentifier(queryDefinition, getIncrementalTimestamp(context));
+			return repository.getBatchWithoutIdentifier(queryDefinition,
+					getIncrementalTimestamp(context, queryDefinition.getTable()));
 		} else {
 			return repository.getBatchWithoutIdentifier(queryDefinition);
 		}
@@ -59,7 +87,8 @@ public class ContextualDataRepositoryAdapter implements DataRepositoryAdapter {
 	public DataSet getBatchOrderedByColumn(MigrationContext context, SeekQueryDefinition queryDefinition)
 			throws Exception {
 		if (context.isIncrementalModeEnabled()) {
-			return repository.getBatchOrderedByColumn(queryDefinition, getIncrementalTimestamp(context));
+			return repository.getBatchOrderedByColumn(queryDefinition,
+					getIncrementalTimestamp(context, queryDefinition.getTable()));
 		} else {
 			return repository.getBatchOrderedByColumn(queryDefinition);
 		}
@@ -69,18 +98,56 @@ public class ContextualDataRepositoryAdapter implements DataRepositoryAdapter {
 	public DataSet getBatchMarkersOrderedByColumn(MigrationContext context, MarkersQueryDefinition queryDefinition)
 			throws Exception {
 		if (context.isIncrementalModeEnabled()) {
-			return repository.getBatchMarkersOrderedByColumn(queryDefinition, getIncrementalTimestamp(context));
+			return repository.getBatchMarkersOrderedByColumn(queryDefinition,
+					getIncrementalTimestamp(context, queryDefinition.getTable()));
 		} else {
 			return repository.getBatchMarkersOrderedByColumn(queryDefinition);
 		}
 	}
 
-	private Instant getIncrementalTimestamp(MigrationContext context) {
+	@Override
+	public DataSet getNextBatchMarker(MigrationContext context, MarkersQueryDefinition queryDefinition)
+			throws Exception {
+		if (context.isIncrementalModeEnabled()) {
+			return repository.getNextBatchMarker(queryDefinition,
+					getIncrementalTimestamp(context, queryDefinition.getTable()));
+		} else {
+			return repository.getNextBatchMarker(queryDefinition);
+		}
+	}
+
+	@Override
+	public DataSet getBatchOrderedByColumns(MigrationContext context, KeysetQueryDefinition queryDefinition)
+			throws Exception {
+		if (context.isIncrementalModeEnabled()) {
+			return repository.getBatchOrderedByColumns(queryDefinition,
+					getIncrementalTimestamp(context, queryDefinition.getTable()));
+		} else {
+			return repository.getBatchOrderedByColumns(queryDefinition);
+		}
+	}
+
+	@Override
+	public DataSet getNextKeysetMarker(MigrationContext context, KeysetMarkersQueryDefinition queryDefinition)
+			throws Exception {
+		if (context.isIncrementalModeEnabled()) {
+			return repository.getNextKeysetMarker(queryDefinition,
+					getIncrementalTimestamp(context, queryDefinition.getTable()));
+		} else {
+			return repository.getNextKeysetMarker(queryDefinition);
+		}
+	}
+
+	private Instant getIncrementalTimestamp(MigrationContext context, String table) {
+		Instant watermark = watermarks.get(table);
+		if (watermark != null) {
+			return watermark.minusSeconds(context.getIncrementalWatermarkMarginSeconds());
+		}
 		Instant incrementalTimestamp = context.getIncrementalTimestamp();
 		if (incrementalTimestamp == null) {
-			throw new IllegalStateException(
-					"Timestamp cannot be null in incremental mode. Set a timestamp using the property "
-							+ CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_TIMESTAMP);
+			throw new IllegalStateException("Timestamp cannot be null in incremental mode for table " + table
+					+ " without watermark. Set a timestamp using the property "
+					+ CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_TIMESTAMP);
 		}
 		return incrementalTimestamp;
 	}
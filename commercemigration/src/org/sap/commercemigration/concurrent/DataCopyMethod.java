@@ -5,5 +5,5 @@
 package org.sap.commercemigration.concurrent;
 
 public enum DataCopyMethod {
-	SEEK, OFFSET, DEFAULT
+	SEEK, KEYSET, OFFSET, DEFAULT
 }
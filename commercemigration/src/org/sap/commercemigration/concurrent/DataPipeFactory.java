@@ -7,8 +7,38 @@ package org.sap.commercemigration.concurrent;
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.service.DatabaseCopyBatch;
+import org.sap.commercemigration.service.DatabaseCopyTask;
+
+import java.time.Instant;
+import java.util.Set;
 
 @ThreadSafe
 public interface DataPipeFactory<T> {
 	DataPipe<T> create(CopyContext context, CopyContext.DataCopyItem item) throws Exception;
+
+	/**
+	 * Creates a pipe fed with batches leased from a pipeline scheduled to another
+	 * cluster node. Further batches are leased until none is left.
+	 *
+	 * @param task
+	 *            the task of the pipeline
+	 * @param leasedBatches
+	 *            the batches already leased to this node
+	 */
+	DataPipe<T> createForSharedBatches(CopyContext context, CopyContext.DataCopyItem item, DatabaseCopyTask task,
+			Set<DatabaseCopyBatch> leasedBatches) throws Exception;
+
+	/**
+	 * Creates a pipe fed with the rows of a copied table modified after the
+	 * watermark, read by the key column and in batches of the size the table was
+	 * copied with.
+	 *
+	 * @param task
+	 *            the task of the pipeline
+	 * @param watermark
+	 *            moved back by the configured margin
+	 */
+	DataPipe<T> createForChanges(CopyContext context, CopyContext.DataCopyItem item, DatabaseCopyTask task,
+			Instant watermark) throws Exception;
 }
@@ -0,0 +1,21 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent;
+
+import org.sap.commercemigration.DataThreadPoolConfig;
+import org.sap.commercemigration.context.CopyContext;
+
+/**
+ * Creates the executors running the reader or writer workers of a table.
+ */
+public interface DataWorkerExecutorFactory {
+	/**
+	 * @param config
+	 *            the pool size is the number of workers of the table
+	 */
+	DataWorkerExecutor<Boolean> create(CopyContext context, DataThreadPoolConfig config);
+
+	void destroy(DataWorkerExecutor<Boolean> executor);
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent.impl;
+
+import org.sap.commercemigration.concurrent.DataWorkerExecutor;
+import org.sap.commercemigration.concurrent.impl.task.DataReaderTask;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.service.DatabaseCopyBatch;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers the batches of a pipeline in chunks and submits their reader tasks
+ * once they are registered. The first chunk holds as many batches as there are
+ * reader workers, so reading starts right away, and the chunks double up to
+ * {@link #MAX_CHUNK_SIZE} batches.
+ */
+final class BatchRegistrar {
+
+	private static final int MAX_CHUNK_SIZE = 1000;
+
+	private final DatabaseCopyTaskRepository taskRepository;
+	private final CopyContext context;
+	private final CopyContext.DataCopyItem copyItem;
+	private final DataWorkerExecutor<Boolean> workerExecutor;
+	private final List<DatabaseCopyBatch> batches = new ArrayList<>();
+	private final List<DataReaderTask> readerTasks = new ArrayList<>();
+	private int chunkSize;
+
+	BatchRegistrar(DatabaseCopyTaskRepository taskRepository, CopyContext context, CopyContext.DataCopyItem copyItem,
+			DataWorkerExecutor<Boolean> workerExecutor) {
+		this.taskRepository = taskRepository;
+		this.context = context;
+		this.copyItem = copyItem;
+		this.workerExecutor = workerExecutor;
+		this.chunkSize = Math.max(1, context.getMigrationContext().getMaxParallelReaderWorkers());
+	}
+
+	void add(int batchId, Object lowerBoundary, Object upperBoundary, DataReaderTask readerTask) throws Exception {
+		DatabaseCopyBatch batch = new DatabaseCopyBatch();
+		batch.setMigrationId(context.getMigrationId());
+		batch.setBatchId(String.valueOf(batchId));
+		batch.setPipelinename(copyItem.getPipelineName());
+		batch.setLowerBoundary(lowerBoundary);
+		batch.setUpperBoundary(upperBoundary);
+		batches.add(batch);
+		readerTasks.add(readerTask);
+		if (batches.size() >= chunkSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * Registers the pending batches and submits their reader tasks. Must be called
+	 * after the last batch has been added.
+	 */
+	void flush() throws Exception {
+		if (batches.isEmpty()) {
+			return;
+		}
+		// a batch is registered before it is read, the writers complete it
+		taskRepository.scheduleBatches(context, copyItem, batches);
+		for (DataReaderTask readerTask : readerTasks) {
+			workerExecutor.safelyExecute(readerTask);
+		}
+		batches.clear();
+		readerTasks.clear();
+		chunkSize = Math.min(chunkSize * 2, MAX_CHUNK_SIZE);
+	}
+}
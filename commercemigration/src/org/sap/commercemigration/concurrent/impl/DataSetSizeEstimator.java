@@ -0,0 +1,67 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent.impl;
+
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
+
+import java.math.BigDecimal;
+
+/**
+ * Estimates the heap size of a page from a sample of its rows. The estimate
+ * only has to be good enough to bound the memory of the data pipe, so the
+ * sizes of the values are approximated by their type.
+ */
+final class DataSetSizeEstimator {
+
+	private static final int SAMPLE_ROWS = 32;
+	private static final int ROW_OVERHEAD = 16;
+	private static final int REFERENCE_SIZE = 8;
+
+	private DataSetSizeEstimator() {
+	}
+
+	static long estimate(DataSet dataSet) {
+		int rowCount = dataSet.getRowCount();
+		int columnCount = dataSet.getColumnCount();
+		if (rowCount == 0 || columnCount == 0) {
+			return 0;
+		}
+		int sampleRows = Math.min(rowCount, SAMPLE_ROWS);
+		long sampleSize = 0;
+		for (int i = 0; i < sampleRows; i++) {
+			// spread the sample over the page, rows of a batch are ordered by the batch column
+			int row = (int) ((long) i * rowCount / sampleRows);
+			sampleSize += ROW_OVERHEAD;
+			for (int column = 0; column < columnCount; column++) {
+				sampleSize += REFERENCE_SIZE + estimate(dataSet.getColumnValue(column, row));
+			}
+		}
+		return sampleSize * rowCount / sampleRows;
+	}
+
+	private static long estimate(Object value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof String) {
+			return 40 + 2L * ((String) value).length();
+		}
+		if (value instanceof byte[]) {
+			return 16 + ((byte[]) value).length;
+		}
+		if (value instanceof BigDecimal) {
+			return 40;
+		}
+		if (value instanceof Number || value instanceof Boolean) {
+			return 16;
+		}
+		if (value instanceof SpilledLob) {
+			// the content is kept in a temporary file
+			return 64;
+		}
+		return 32;
+	}
+}
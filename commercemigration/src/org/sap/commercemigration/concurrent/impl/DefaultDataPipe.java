@@ -9,6 +9,8 @@ import org.sap.commercemigration.concurrent.MaybeFinished;
 import org.sap.commercemigration.concurrent.PipeAbortedException;
 import org.sap.commercemigration.constants.CommercemigrationConstants;
 import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
 import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.slf4j.Logger;
@@ -68,10 +70,19 @@ public class DefaultDataPipe<T> implements DataPipe<T> {
 	private void flushPipe() throws Exception {
 		// make sure waiting queue offers can be flushed
 		while (getWaitersCount() > 0) {
-			queue.poll(defaultTimeout, TimeUnit.SECONDS);
+			release(queue.poll(defaultTimeout, TimeUnit.SECONDS));
 			size.decrementAndGet();
 		}
-		queue.clear();
+		MaybeFinished<T> element;
+		while ((element = queue.poll()) != null) {
+			release(element);
+		}
+	}
+
+	private void release(MaybeFinished<T> element) {
+		if (element != null && element.getValue() instanceof DataSet) {
+			SpilledLob.release((DataSet) element.getValue());
+		}
 	}
 
 	private boolean isAborted() throws Exception {
@@ -92,6 +103,8 @@ public class DefaultDataPipe<T> implements DataPipe<T> {
 		assertPipeNotAborted();
 		size.incrementAndGet();
 		if (!queue.offer(value, defaultTimeout, TimeUnit.SECONDS)) {
+			// the page never reaches a writer
+			release(value);
 			throw new RuntimeException("cannot put new item in time");
 		}
 	}
@@ -4,11 +4,18 @@
 */
 package org.sap.commercemigration.concurrent.impl;
 
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.fest.util.Collections;
 import org.sap.commercemigration.DataThreadPoolConfig;
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
+import org.sap.commercemigration.OffsetQueryDefinition;
+import org.sap.commercemigration.SeekQueryDefinition;
 import org.sap.commercemigration.adapter.DataRepositoryAdapter;
 import org.sap.commercemigration.adapter.impl.ContextualDataRepositoryAdapter;
 import org.sap.commercemigration.concurrent.DataCopyMethod;
@@ -16,62 +23,101 @@ import org.sap.commercemigration.concurrent.DataPipe;
 import org.sap.commercemigration.concurrent.DataPipeFactory;
 import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
 import org.sap.commercemigration.concurrent.DataWorkerExecutor;
-import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
+import org.sap.commercemigration.concurrent.DataWorkerExecutorFactory;
 import org.sap.commercemigration.concurrent.MaybeFinished;
+import org.sap.commercemigration.concurrent.PipeAbortedException;
+import org.sap.commercemigration.concurrent.impl.task.BatchKeysetDataReaderTask;
 import org.sap.commercemigration.concurrent.impl.task.BatchMarkerDataReaderTask;
 import org.sap.commercemigration.concurrent.impl.task.BatchOffsetDataReaderTask;
 import org.sap.commercemigration.concurrent.impl.task.DataReaderTask;
 import org.sap.commercemigration.concurrent.impl.task.DefaultDataReaderTask;
+import org.sap.commercemigration.concurrent.impl.task.LeasedBatchMarkerDataReaderTask;
 import org.sap.commercemigration.concurrent.impl.task.PipeTaskContext;
 import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.dataset.DataSet;
 import org.sap.commercemigration.performance.PerformanceCategory;
 import org.sap.commercemigration.performance.PerformanceRecorder;
 import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
 import org.sap.commercemigration.service.DatabaseCopyBatch;
+import org.sap.commercemigration.service.DatabaseCopyTask;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.sap.commercemigration.strategy.ReaderBatchSizeStrategy;
+import org.sap.commercemigration.strategy.impl.AdaptiveReaderBatchSizeStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.task.AsyncTaskExecutor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(DefaultDataPipeFactory.class);
 
+	private static final int MAX_BOUNDARY_LENGTH = 255;
+	private static final long SHARED_BATCHES_POLL_MILLIS = 5000;
+	private static final String MODIFIEDTS = "MODIFIEDTS";
+
 	private final DatabaseCopyTaskRepository taskRepository;
 	private final DatabaseCopyScheduler scheduler;
 	private final AsyncTaskExecutor executor;
-	private final DataThreadPoolFactory dataReadWorkerPoolFactory;
+	private final DataWorkerExecutorFactory dataReadWorkerExecutorFactory;
+	private final ReaderBatchSizeStrategy readerBatchSizeStrategy;
 
 	public DefaultDataPipeFactory(DatabaseCopyScheduler scheduler, DatabaseCopyTaskRepository taskRepository,
-			AsyncTaskExecutor executor, DataThreadPoolFactory dataReadWorkerPoolFactory) {
+			AsyncTaskExecutor executor, DataWorkerExecutorFactory dataReadWorkerExecutorFactory,
+			ReaderBatchSizeStrategy readerBatchSizeStrategy) {
 		this.scheduler = scheduler;
 		this.taskRepository = taskRepository;
 		this.executor = executor;
-		this.dataReadWorkerPoolFactory = dataReadWorkerPoolFactory;
+		this.dataReadWorkerExecutorFactory = dataReadWorkerExecutorFactory;
+		this.readerBatchSizeStrategy = readerBatchSizeStrategy;
 	}
 
 	@Override
 	public DataPipe<DataSet> create(CopyContext context, CopyContext.DataCopyItem item) throws Exception {
+		return createPipe(context, item,
+				(workerExecutor, pipe) -> scheduleWorkers(context, workerExecutor, pipe, item));
+	}
+
+	@Override
+	public DataPipe<DataSet> createForSharedBatches(CopyContext context, CopyContext.DataCopyItem item,
+			DatabaseCopyTask task, Set<DatabaseCopyBatch> leasedBatches) throws Exception {
+		return createPipe(context, item, (workerExecutor, pipe) -> scheduleSharedBatches(context, workerExecutor,
+				pipe, item, task, leasedBatches));
+	}
+
+	@Override
+	public DataPipe<DataSet> createForChanges(CopyContext context, CopyContext.DataCopyItem item,
+			DatabaseCopyTask task, Instant watermark) throws Exception {
+		return createPipe(context, item,
+				(workerExecutor, pipe) -> scheduleChanges(context, workerExecutor, pipe, item, task, watermark));
+	}
+
+	private DataPipe<DataSet> createPipe(CopyContext context, CopyContext.DataCopyItem item,
+			WorkerScheduler workerScheduler) throws Exception {
 		int dataPipeTimeout = context.getMigrationContext().getDataPipeTimeout();
 		int dataPipeCapacity = context.getMigrationContext().getDataPipeCapacity();
-		DataPipe<DataSet> pipe = new DefaultDataPipe<>(scheduler, taskRepository, context, item, dataPipeTimeout,
-				dataPipeCapacity);
+		DataPipe<DataSet> pipe;
+		if (context.getMigrationContext().isRingBufferDataPipeEnabled()) {
+			pipe = new RingBufferDataPipe<>(scheduler, taskRepository, context, item, dataPipeTimeout, dataPipeCapacity,
+					context.getMigrationContext().getDataPipeCapacityBytes());
+		} else {
+			pipe = new DefaultDataPipe<>(scheduler, taskRepository, context, item, dataPipeTimeout, dataPipeCapacity);
+		}
 		DataThreadPoolConfig threadPoolConfig = new DataThreadPoolConfigBuilder(context.getMigrationContext())
 				.withPoolSize(context.getMigrationContext().getMaxParallelReaderWorkers()).build();
-		final ThreadPoolTaskExecutor taskExecutor = dataReadWorkerPoolFactory.create(context, threadPoolConfig);
-		DataWorkerExecutor<Boolean> workerExecutor = new DefaultDataWorkerExecutor<>(taskExecutor);
+		DataWorkerExecutor<Boolean> workerExecutor = dataReadWorkerExecutorFactory.create(context, threadPoolConfig);
 		try {
 			executor.submit(() -> {
 				try {
-					scheduleWorkers(context, workerExecutor, pipe, item);
+					workerScheduler.schedule(workerExecutor, pipe);
 					workerExecutor.waitAndRethrowUncaughtExceptions();
 					pipe.put(MaybeFinished.finished(DataSet.EMPTY));
 				} catch (Exception e) {
@@ -85,12 +131,11 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 						Thread.currentThread().interrupt();
 					}
 				} finally {
-					if (taskExecutor != null) {
-						dataReadWorkerPoolFactory.destroy(taskExecutor);
-					}
+					dataReadWorkerExecutorFactory.destroy(workerExecutor);
 				}
 			});
 		} catch (Exception e) {
+			dataReadWorkerExecutorFactory.destroy(workerExecutor);
 			throw new RuntimeException("Error invoking reader tasks ", e);
 		}
 		return pipe;
@@ -98,26 +143,31 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 
 	private void scheduleWorkers(CopyContext context, DataWorkerExecutor<Boolean> workerExecutor,
 			DataPipe<DataSet> pipe, CopyContext.DataCopyItem copyItem) throws Exception {
-		DataRepositoryAdapter dataRepositoryAdapter = new ContextualDataRepositoryAdapter(
-				context.getMigrationContext().getDataSourceRepository());
+		DataRepositoryAdapter dataRepositoryAdapter = createDataRepositoryAdapter(context);
 		String table = copyItem.getSourceItem();
-		long totalRows = copyItem.getRowCount();
-		long pageSize = context.getMigrationContext().getReaderBatchSize();
 		try {
 			PerformanceRecorder recorder = context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_READ,
 					table);
 			recorder.start();
 
-			PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table, dataRepositoryAdapter, pageSize,
-					recorder, taskRepository);
-
 			String batchColumn = "";
+			Set<String> allColumnNames = context.getMigrationContext().getDataSourceRepository()
+					.getAllColumnNames(table);
+			if (context.getMigrationContext().isIncrementalWatermarkEnabled()
+					&& allColumnNames.stream().anyMatch(MODIFIEDTS::equalsIgnoreCase)) {
+				// taken before reading, rows modified while the table is copied are copied again by the next
+				// incremental migration
+				Instant watermark = context.getMigrationContext().getDataSourceRepository()
+						.getMaxModifiedTimestamp(table);
+				if (watermark != null) {
+					taskRepository.updateTaskWatermark(context, copyItem, watermark);
+				}
+			}
 			// help.sap.com/viewer/d0224eca81e249cb821f2cdf45a82ace/LATEST/en-US/08a27931a21441b59094c8a6aa2a880e.html
-			if (context.getMigrationContext().getDataSourceRepository().isAuditTable(table) && context
-					.getMigrationContext().getDataSourceRepository().getAllColumnNames(table).contains("ID")) {
+			if (allColumnNames.contains("ID")
+					&& context.getMigrationContext().getDataSourceRepository().isAuditTable(table)) {
 				batchColumn = "ID";
-			} else if (context.getMigrationContext().getDataSourceRepository().getAllColumnNames(table)
-					.contains("PK")) {
+			} else if (allColumnNames.contains("PK")) {
 				batchColumn = "PK";
 			}
 			LOG.debug("Using batchColumn: {}", batchColumn.isEmpty() ? "NONE" : batchColumn);
@@ -133,29 +183,55 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 					}
 					batchColumns = uniqueColumns.getAllResults().stream().map(row -> String.valueOf(row.get(0)))
 							.collect(Collectors.toSet());
-					taskRepository.updateTaskCopyMethod(context, copyItem, DataCopyMethod.OFFSET.toString());
-					taskRepository.updateTaskKeyColumns(context, copyItem, batchColumns);
-
-					List<Long> batches = null;
-					if (context.getMigrationContext().isSchedulerResumeEnabled()) {
-						Set<DatabaseCopyBatch> pendingBatchesForPipeline = taskRepository
-								.findPendingBatchesForPipeline(context, copyItem);
-						batches = pendingBatchesForPipeline.stream()
-								.map(b -> Long.valueOf(b.getLowerBoundary().toString())).collect(Collectors.toList());
-						taskRepository.resetPipelineBatches(context, copyItem);
+					List<String> keyColumns = uniqueColumns.getAllResults().stream()
+							.map(row -> String.valueOf(row.get(0))).distinct().collect(Collectors.toList());
+					if (context.getMigrationContext().isKeysetPaginationEnabled()
+							&& !containsNullableColumn(context, table, keyColumns)) {
+						scheduleKeysetBatches(context, workerExecutor, dataRepositoryAdapter, pipe, recorder, copyItem,
+								keyColumns);
 					} else {
-						batches = new ArrayList<>();
-						for (long offset = 0; offset < totalRows; offset += pageSize) {
-							batches.add(offset);
+						taskRepository.updateTaskCopyMethod(context, copyItem, DataCopyMethod.OFFSET.toString());
+						taskRepository.updateTaskKeyColumns(context, copyItem, batchColumns);
+						long pageSize = getPageSize(context, copyItem, () -> {
+							OffsetQueryDefinition sampleQuery = new OffsetQueryDefinition();
+							sampleQuery.setTable(table);
+							sampleQuery.setAllColumns(batchColumns);
+							sampleQuery.setBatchSize(AdaptiveReaderBatchSizeStrategy.SAMPLE_SIZE);
+							sampleQuery.setOffset(0);
+							return dataRepositoryAdapter.getBatchWithoutIdentifier(context.getMigrationContext(),
+									sampleQuery);
+						});
+						PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table,
+								dataRepositoryAdapter, pageSize, recorder, taskRepository);
+
+						List<Long> batches = null;
+						if (context.getMigrationContext().isSchedulerResumeEnabled()) {
+							Set<DatabaseCopyBatch> pendingBatchesForPipeline = taskRepository
+									.findPendingBatchesForPipeline(context, copyItem);
+							batches = pendingBatchesForPipeline.stream()
+									.map(b -> Long.valueOf(b.getLowerBoundary().toString()))
+									.collect(Collectors.toList());
+							taskRepository.resetPipelineBatches(context, copyItem);
+						} else {
+							batches = new ArrayList<>();
+							// the offsets must cover all rows, the task may have been scheduled with an estimate
+							long totalRows = context.getMigrationContext().isRowCountEstimateEnabled()
+									? dataRepositoryAdapter.getRowCount(context.getMigrationContext(), table)
+									: copyItem.getRowCount();
+							for (long offset = 0; offset < totalRows; offset += pageSize) {
+								batches.add(offset);
+							}
 						}
-					}
 
-					for (int batchId = 0; batchId < batches.size(); batchId++) {
-						long offset = batches.get(batchId);
-						DataReaderTask dataReaderTask = new BatchOffsetDataReaderTask(pipeTaskContext, batchId, offset,
-								batchColumns);
-						taskRepository.scheduleBatch(context, copyItem, batchId, offset, offset + pageSize);
-						workerExecutor.safelyExecute(dataReaderTask);
+						BatchRegistrar batchRegistrar = new BatchRegistrar(taskRepository, context, copyItem,
+								workerExecutor);
+						for (int batchId = 0; batchId < batches.size(); batchId++) {
+							long offset = batches.get(batchId);
+							DataReaderTask dataReaderTask = new BatchOffsetDataReaderTask(pipeTaskContext, batchId,
+									offset, batchColumns);
+							batchRegistrar.add(batchId, offset, offset + pageSize, dataReaderTask);
+						}
+						batchRegistrar.flush();
 					}
 				} else {
 					// If no unique columns available to do batch sorting, fallback to read all
@@ -166,7 +242,9 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 					if (context.getMigrationContext().isSchedulerResumeEnabled()) {
 						taskRepository.resetPipelineBatches(context, copyItem);
 					}
-					taskRepository.scheduleBatch(context, copyItem, 0, 0, totalRows);
+					taskRepository.scheduleBatch(context, copyItem, 0, 0, copyItem.getRowCount());
+					PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table, dataRepositoryAdapter,
+							context.getMigrationContext().getReaderBatchSize(), recorder, taskRepository);
 					DataReaderTask dataReaderTask = new DefaultDataReaderTask(pipeTaskContext);
 					workerExecutor.safelyExecute(dataReaderTask);
 				}
@@ -174,15 +252,29 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 				// do the pagination by value comparison
 				taskRepository.updateTaskCopyMethod(context, copyItem, DataCopyMethod.SEEK.toString());
 				taskRepository.updateTaskKeyColumns(context, copyItem, Lists.newArrayList(batchColumn));
+				String seekColumn = batchColumn;
+				long pageSize = getPageSize(context, copyItem, () -> {
+					SeekQueryDefinition sampleQuery = new SeekQueryDefinition();
+					sampleQuery.setTable(table);
+					sampleQuery.setColumn(seekColumn);
+					sampleQuery.setBatchSize(AdaptiveReaderBatchSizeStrategy.SAMPLE_SIZE);
+					return dataRepositoryAdapter.getBatchOrderedByColumn(context.getMigrationContext(), sampleQuery);
+				});
+				PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table, dataRepositoryAdapter,
+						pageSize, recorder, taskRepository);
 
-				List<List<Object>> batchMarkersList = null;
 				if (context.getMigrationContext().isSchedulerResumeEnabled()) {
-					batchMarkersList = new ArrayList<>();
+					List<List<Object>> batchMarkersList = new ArrayList<>();
 					Set<DatabaseCopyBatch> pendingBatchesForPipeline = taskRepository
 							.findPendingBatchesForPipeline(context, copyItem);
 					batchMarkersList.addAll(pendingBatchesForPipeline.stream()
 							.map(b -> Collections.list(b.getLowerBoundary())).collect(Collectors.toList()));
 					taskRepository.resetPipelineBatches(context, copyItem);
+					scheduleMarkerBatches(context, workerExecutor, pipeTaskContext, copyItem, batchColumn,
+							batchMarkersList);
+				} else if (context.getMigrationContext().isChainedBatchMarkersEnabled()) {
+					scheduleChainedMarkerBatches(context, workerExecutor, dataRepositoryAdapter, pipeTaskContext,
+							copyItem, batchColumn, pageSize);
 				} else {
 					MarkersQueryDefinition queryDefinition = new MarkersQueryDefinition();
 					queryDefinition.setTable(table);
@@ -190,30 +282,11 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 					queryDefinition.setBatchSize(pageSize);
 					DataSet batchMarkers = dataRepositoryAdapter
 							.getBatchMarkersOrderedByColumn(context.getMigrationContext(), queryDefinition);
-					batchMarkersList = batchMarkers.getAllResults();
+					scheduleMarkerBatches(context, workerExecutor, pipeTaskContext, copyItem, batchColumn,
+							batchMarkers.getAllResults());
 				}
-
-				for (int i = 0; i < batchMarkersList.size(); i++) {
-					List<Object> lastBatchMarkerRow = batchMarkersList.get(i);
-					Optional<List<Object>> nextBatchMarkerRow = Optional.empty();
-					int nextIndex = i + 1;
-					if (nextIndex < batchMarkersList.size()) {
-						nextBatchMarkerRow = Optional.of(batchMarkersList.get(nextIndex));
-					}
-					if (!Collections.isEmpty(lastBatchMarkerRow)) {
-						Object lastBatchValue = lastBatchMarkerRow.get(0);
-						Pair<Object, Object> batchMarkersPair = Pair.of(lastBatchValue,
-								nextBatchMarkerRow.map(v -> v.get(0)).orElseGet(() -> null));
-						DataReaderTask dataReaderTask = new BatchMarkerDataReaderTask(pipeTaskContext, i, batchColumn,
-								batchMarkersPair);
-						// After creating the task, we register the batch in the db for later use if
-						// necessary
-						taskRepository.scheduleBatch(context, copyItem, i, batchMarkersPair.getLeft(),
-								batchMarkersPair.getRight());
-						workerExecutor.safelyExecute(dataReaderTask);
-					} else {
-						throw new IllegalArgumentException("Invalid batch marker passed to task");
-					}
+				if (context.getMigrationContext().isBatchSharingEnabled()) {
+					awaitSharedBatches(context, workerExecutor, pipeTaskContext, copyItem, batchColumn);
 				}
 			}
 		} catch (Exception ex) {
@@ -225,4 +298,315 @@ public class DefaultDataPipeFactory implements DataPipeFactory<DataSet> {
 		}
 	}
 
+	/**
+	 * Pages through a composite unique key with chained marker seeks, so that
+	 * every batch is found through the index instead of skipping all preceding
+	 * rows like the OFFSET pagination does. On resume the marker pass is
+	 * repeated with the persisted batch size and only the pending batches are
+	 * read again.
+	 */
+	private void scheduleKeysetBatches(CopyContext context, DataWorkerExecutor<Boolean> workerExecutor,
+			DataRepositoryAdapter dataRepositoryAdapter, DataPipe<DataSet> pipe, PerformanceRecorder recorder,
+			CopyContext.DataCopyItem copyItem, List<String> keyColumns) throws Exception {
+		String table = copyItem.getSourceItem();
+		taskRepository.updateTaskCopyMethod(context, copyItem, DataCopyMethod.KEYSET.toString());
+		taskRepository.updateTaskKeyColumns(context, copyItem, keyColumns);
+		long pageSize = getPageSize(context, copyItem, () -> {
+			KeysetQueryDefinition sampleQuery = new KeysetQueryDefinition();
+			sampleQuery.setTable(table);
+			sampleQuery.setColumns(keyColumns);
+			sampleQuery.setBatchSize(AdaptiveReaderBatchSizeStrategy.SAMPLE_SIZE);
+			return dataRepositoryAdapter.getBatchOrderedByColumns(context.getMigrationContext(), sampleQuery);
+		});
+		PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table, dataRepositoryAdapter, pageSize,
+				recorder, taskRepository);
+
+		Set<Integer> pendingBatchIds = null;
+		if (context.getMigrationContext().isSchedulerResumeEnabled()) {
+			pendingBatchIds = taskRepository.findPendingBatchesForPipeline(context, copyItem).stream()
+					.map(b -> Integer.valueOf(b.getBatchId())).collect(Collectors.toSet());
+			taskRepository.resetPipelineBatches(context, copyItem);
+			if (pendingBatchIds.isEmpty()) {
+				return;
+			}
+		}
+
+		KeysetMarkersQueryDefinition queryDefinition = new KeysetMarkersQueryDefinition();
+		queryDefinition.setTable(table);
+		queryDefinition.setColumns(keyColumns);
+		queryDefinition.setBatchSize(pageSize);
+		BatchRegistrar batchRegistrar = new BatchRegistrar(taskRepository, context, copyItem, workerExecutor);
+		List<Object> lowerMarker = getNextKeysetMarker(context, dataRepositoryAdapter, queryDefinition);
+		for (int batchId = 0; lowerMarker != null; batchId++) {
+			queryDefinition.setLowerBoundary(lowerMarker);
+			List<Object> upperMarker = getNextKeysetMarker(context, dataRepositoryAdapter, queryDefinition);
+			if (pendingBatchIds == null || pendingBatchIds.contains(batchId)) {
+				DataReaderTask dataReaderTask = new BatchKeysetDataReaderTask(pipeTaskContext, batchId, keyColumns,
+						Pair.of(lowerMarker, upperMarker));
+				batchRegistrar.add(batchId, formatKeysetMarker(lowerMarker), formatKeysetMarker(upperMarker),
+						dataReaderTask);
+			}
+			lowerMarker = upperMarker;
+		}
+		batchRegistrar.flush();
+	}
+
+	private List<Object> getNextKeysetMarker(CopyContext context, DataRepositoryAdapter dataRepositoryAdapter,
+			KeysetMarkersQueryDefinition queryDefinition) throws Exception {
+		DataSet marker = dataRepositoryAdapter.getNextKeysetMarker(context.getMigrationContext(), queryDefinition);
+		if (!marker.isNotEmpty()) {
+			return null;
+		}
+		List<Object> values = new ArrayList<>(queryDefinition.getColumns().size());
+		for (int i = 0; i < queryDefinition.getColumns().size(); i++) {
+			values.add(marker.getColumnValue(i, 0));
+		}
+		return values;
+	}
+
+	/**
+	 * Composite markers are only persisted for monitoring; resumed pipelines
+	 * recalculate them.
+	 */
+	private String formatKeysetMarker(List<Object> marker) {
+		if (marker == null) {
+			return null;
+		}
+		return StringUtils.abbreviate(Joiner.on(',').useForNull("null").join(marker), MAX_BOUNDARY_LENGTH);
+	}
+
+	/**
+	 * Keyset comparisons do not match rows with null values in the key.
+	 */
+	private boolean containsNullableColumn(CopyContext context, String table, List<String> keyColumns)
+			throws Exception {
+		Set<String> nullableColumns = context.getMigrationContext().getDataSourceRepository()
+				.getNullableColumns(table);
+		Optional<String> nullableColumn = keyColumns.stream().filter(nullableColumns::contains).findFirst();
+		nullableColumn.ifPresent(column -> LOG.info(
+				"Unique column {} of table {} is nullable. Falling back to offset pagination", column, table));
+		return nullableColumn.isPresent();
+	}
+
+	private void scheduleMarkerBatches(CopyContext context, DataWorkerExecutor<Boolean> workerExecutor,
+			PipeTaskContext pipeTaskContext, CopyContext.DataCopyItem copyItem, String batchColumn,
+			List<List<Object>> batchMarkersList) throws Exception {
+		BatchRegistrar batchRegistrar = new BatchRegistrar(taskRepository, context, copyItem, workerExecutor);
+		for (int i = 0; i < batchMarkersList.size(); i++) {
+			List<Object> lastBatchMarkerRow = batchMarkersList.get(i);
+			Optional<List<Object>> nextBatchMarkerRow = Optional.empty();
+			int nextIndex = i + 1;
+			if (nextIndex < batchMarkersList.size()) {
+				nextBatchMarkerRow = Optional.of(batchMarkersList.get(nextIndex));
+			}
+			if (!Collections.isEmpty(lastBatchMarkerRow)) {
+				Object lastBatchValue = lastBatchMarkerRow.get(0);
+				Pair<Object, Object> batchMarkersPair = Pair.of(lastBatchValue,
+						nextBatchMarkerRow.map(v -> v.get(0)).orElseGet(() -> null));
+				scheduleMarkerBatch(context, batchRegistrar, pipeTaskContext, copyItem, i, batchColumn,
+						batchMarkersPair);
+			} else {
+				throw new IllegalArgumentException("Invalid batch marker passed to task");
+			}
+		}
+		batchRegistrar.flush();
+	}
+
+	/**
+	 * Finds the batch markers one batch at a time, each seek starting at the
+	 * previous marker. The batches are handed to the readers in chunks as soon as
+	 * their upper markers are known, so reading overlaps with the remaining seeks.
+	 */
+	private void scheduleChainedMarkerBatches(CopyContext context, DataWorkerExecutor<Boolean> workerExecutor,
+			DataRepositoryAdapter dataRepositoryAdapter, PipeTaskContext pipeTaskContext,
+			CopyContext.DataCopyItem copyItem, String batchColumn, long pageSize) throws Exception {
+		MarkersQueryDefinition queryDefinition = new MarkersQueryDefinition();
+		queryDefinition.setTable(copyItem.getSourceItem());
+		queryDefinition.setColumn(batchColumn);
+		queryDefinition.setBatchSize(pageSize);
+		BatchRegistrar batchRegistrar = new BatchRegistrar(taskRepository, context, copyItem, workerExecutor);
+		Object lowerMarker = getNextBatchMarker(context, dataRepositoryAdapter, queryDefinition);
+		for (int batchId = 0; lowerMarker != null; batchId++) {
+			queryDefinition.setLowerColumnBoundary(lowerMarker);
+			Object upperMarker = getNextBatchMarker(context, dataRepositoryAdapter, queryDefinition);
+			scheduleMarkerBatch(context, batchRegistrar, pipeTaskContext, copyItem, batchId, batchColumn,
+					Pair.of(lowerMarker, upperMarker));
+			lowerMarker = upperMarker;
+		}
+		batchRegistrar.flush();
+	}
+
+	private Object getNextBatchMarker(CopyContext context, DataRepositoryAdapter dataRepositoryAdapter,
+			MarkersQueryDefinition queryDefinition) throws Exception {
+		DataSet marker = dataRepositoryAdapter.getNextBatchMarker(context.getMigrationContext(), queryDefinition);
+		return marker.isNotEmpty() ? marker.getColumnValue(0, 0) : null;
+	}
+
+	private void scheduleMarkerBatch(CopyContext context, BatchRegistrar batchRegistrar,
+			PipeTaskContext pipeTaskContext, CopyContext.DataCopyItem copyItem, int batchId, String batchColumn,
+			Pair<Object, Object> batchMarkersPair) throws Exception {
+		DataReaderTask dataReaderTask;
+		if (context.getMigrationContext().isBatchSharingEnabled()) {
+			dataReaderTask = new LeasedBatchMarkerDataReaderTask(pipeTaskContext, copyItem, batchId, batchColumn,
+					batchMarkersPair);
+		} else {
+			dataReaderTask = new BatchMarkerDataReaderTask(pipeTaskContext, batchId, batchColumn, batchMarkersPair);
+		}
+		// After creating the task, we register the batch in the db for later use if
+		// necessary
+		batchRegistrar.add(batchId, batchMarkersPair.getLeft(), batchMarkersPair.getRight(), dataReaderTask);
+	}
+
+	/**
+	 * Waits until the batches leased by other nodes are written. Batches whose
+	 * lease has expired, because the node holding it has crashed, are leased again
+	 * and read by this node.
+	 */
+	private void awaitSharedBatches(CopyContext context, DataWorkerExecutor<Boolean> workerExecutor,
+			PipeTaskContext pipeTaskContext, CopyContext.DataCopyItem copyItem, String batchColumn) throws Exception {
+		int maxBatches = context.getMigrationContext().getMaxParallelReaderWorkers();
+		for (;;) {
+			workerExecutor.waitAndRethrowUncaughtExceptions();
+			// the batches read by this node may still wait for the writers
+			taskRepository.renewBatchLeases(context);
+			Set<DatabaseCopyBatch> batches = taskRepository.claimBatches(context, copyItem, maxBatches);
+			if (!batches.isEmpty()) {
+				LOG.info("Leased {} batches of table {} again", batches.size(), copyItem.getSourceItem());
+				scheduleLeasedBatches(workerExecutor, pipeTaskContext, batchColumn, batches);
+				continue;
+			}
+			if (!taskRepository.hasBatchesLeasedByOtherNodes(context, copyItem)) {
+				return;
+			}
+			assertSharedPipelineActive(context, copyItem);
+			Thread.sleep(SHARED_BATCHES_POLL_MILLIS);
+		}
+	}
+
+	/**
+	 * Reads the rows modified after the watermark between batch markers found
+	 * among these rows only. The batches of the previous read are completed, so
+	 * their ids are free again.
+	 */
+	private void scheduleChanges(CopyContext context, DataWorkerExecutor<Boolean> workerExecutor,
+			DataPipe<DataSet> pipe, CopyContext.DataCopyItem copyItem, DatabaseCopyTask task, Instant watermark)
+			throws Exception {
+		String table = copyItem.getSourceItem();
+		try {
+			DataRepositoryAdapter dataRepositoryAdapter = new ContextualDataRepositoryAdapter(
+					context.getMigrationContext().getDataSourceRepository(), ImmutableMap.of(table, watermark));
+			PerformanceRecorder recorder = context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_READ,
+					table);
+			recorder.start();
+			String batchColumn = task.getKeyColumns().get(0);
+			PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table, dataRepositoryAdapter,
+					task.getBatchSize(), recorder, taskRepository);
+			MarkersQueryDefinition queryDefinition = new MarkersQueryDefinition();
+			queryDefinition.setTable(table);
+			queryDefinition.setColumn(batchColumn);
+			queryDefinition.setBatchSize(task.getBatchSize());
+			List<List<Object>> batchMarkers = dataRepositoryAdapter
+					.getBatchMarkersOrderedByColumn(context.getMigrationContext(), queryDefinition).getAllResults();
+			BatchRegistrar batchRegistrar = new BatchRegistrar(taskRepository, context, copyItem, workerExecutor);
+			for (int batchId = 0; batchId < batchMarkers.size(); batchId++) {
+				Object lowerMarker = batchMarkers.get(batchId).get(0);
+				Object upperMarker = batchId + 1 < batchMarkers.size() ? batchMarkers.get(batchId + 1).get(0) : null;
+				DataReaderTask dataReaderTask = new BatchMarkerDataReaderTask(pipeTaskContext, batchId, batchColumn,
+						Pair.of(lowerMarker, upperMarker));
+				batchRegistrar.add(batchId, lowerMarker, upperMarker, dataReaderTask);
+			}
+			batchRegistrar.flush();
+		} catch (Exception ex) {
+			pipe.requestAbort(ex);
+			if (ex instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			throw new RuntimeException("Exception while reading modified rows", ex);
+		}
+	}
+
+	/**
+	 * Reads the batches leased from a pipeline of another node, the batch column
+	 * and size have been chosen by that node.
+	 */
+	private void scheduleSharedBatches(CopyContext context, DataWorkerExecutor<Boolean> workerExecutor,
+			DataPipe<DataSet> pipe, CopyContext.DataCopyItem copyItem, DatabaseCopyTask task,
+			Set<DatabaseCopyBatch> leasedBatches) throws Exception {
+		String table = copyItem.getSourceItem();
+		try {
+			DataRepositoryAdapter dataRepositoryAdapter = createDataRepositoryAdapter(context);
+			PerformanceRecorder recorder = context.getPerformanceProfiler().createRecorder(PerformanceCategory.DB_READ,
+					table);
+			recorder.start();
+			PipeTaskContext pipeTaskContext = new PipeTaskContext(context, pipe, table, dataRepositoryAdapter,
+					task.getBatchSize(), recorder, taskRepository);
+			String batchColumn = task.getKeyColumns().get(0);
+			int maxBatches = context.getMigrationContext().getMaxParallelReaderWorkers();
+			Set<DatabaseCopyBatch> batches = leasedBatches;
+			while (!batches.isEmpty()) {
+				LOG.debug("Leased {} batches of table {} from node {}", batches.size(), table, task.getTargetnodeId());
+				scheduleLeasedBatches(workerExecutor, pipeTaskContext, batchColumn, batches);
+				workerExecutor.waitAndRethrowUncaughtExceptions();
+				taskRepository.renewBatchLeases(context);
+				assertSharedPipelineActive(context, copyItem);
+				batches = taskRepository.claimBatches(context, copyItem, maxBatches);
+			}
+		} catch (Exception ex) {
+			pipe.requestAbort(ex);
+			if (ex instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			throw new RuntimeException("Exception while reading shared batches", ex);
+		}
+	}
+
+	private void scheduleLeasedBatches(DataWorkerExecutor<Boolean> workerExecutor, PipeTaskContext pipeTaskContext,
+			String batchColumn, Set<DatabaseCopyBatch> batches) throws Exception {
+		for (DatabaseCopyBatch batch : batches) {
+			DataReaderTask dataReaderTask = new BatchMarkerDataReaderTask(pipeTaskContext,
+					Integer.parseInt(batch.getBatchId()), batchColumn,
+					Pair.of(batch.getLowerBoundary(), batch.getUpperBoundary()));
+			workerExecutor.safelyExecute(dataReaderTask);
+		}
+	}
+
+	private void assertSharedPipelineActive(CopyContext context, CopyContext.DataCopyItem copyItem) throws Exception {
+		if (scheduler.isAborted(context)) {
+			throw new PipeAbortedException("Migration aborted");
+		}
+		if (taskRepository.findPipeline(context, copyItem).map(DatabaseCopyTask::isFailure).orElse(false)) {
+			throw new PipeAbortedException("Pipeline " + copyItem.getPipelineName() + " failed");
+		}
+	}
+
+	private DataRepositoryAdapter createDataRepositoryAdapter(CopyContext context) throws Exception {
+		MigrationContext migrationContext = context.getMigrationContext();
+		if (migrationContext.isIncrementalModeEnabled() && migrationContext.isIncrementalWatermarkEnabled()) {
+			return new ContextualDataRepositoryAdapter(migrationContext.getDataSourceRepository(),
+					taskRepository.findWatermarks(context));
+		}
+		return new ContextualDataRepositoryAdapter(migrationContext.getDataSourceRepository());
+	}
+
+	/**
+	 * Batch boundaries of resumed pipelines were calculated with the batch size of
+	 * the initial run, so it must not change.
+	 */
+	private long getPageSize(CopyContext context, CopyContext.DataCopyItem copyItem, Callable<DataSet> sampler)
+			throws Exception {
+		if (context.getMigrationContext().isSchedulerResumeEnabled()) {
+			Optional<Long> batchSize = taskRepository.findPipeline(context, copyItem)
+					.map(DatabaseCopyTask::getBatchSize).filter(size -> size > 0);
+			if (batchSize.isPresent()) {
+				return batchSize.get();
+			}
+		}
+		long pageSize = readerBatchSizeStrategy.getBatchSize(context, copyItem, sampler);
+		taskRepository.updateTaskBatchSize(context, copyItem, pageSize);
+		return pageSize;
+	}
+
+	private interface WorkerScheduler {
+		void schedule(DataWorkerExecutor<Boolean> workerExecutor, DataPipe<DataSet> pipe) throws Exception;
+	}
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent.impl;
+
+import org.sap.commercemigration.DataThreadPoolConfig;
+import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
+import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
+import org.sap.commercemigration.concurrent.DataWorkerExecutor;
+import org.sap.commercemigration.concurrent.DataWorkerExecutorFactory;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the workers of all tables in one shared thread pool if enabled, otherwise
+ * each table gets a pool of its own.
+ * <p>
+ * The shared pool has as many threads as the pools of all parallel tables
+ * together. Each table may run its share of the threads at the same time, the
+ * share grows as tables complete, so the last tables of a migration get all the
+ * threads.
+ */
+public class DefaultDataWorkerExecutorFactory implements DataWorkerExecutorFactory {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DefaultDataWorkerExecutorFactory.class);
+
+	private final DataThreadPoolFactory threadPoolFactory;
+	private final Object lock = new Object();
+
+	// guarded by lock
+	private ThreadPoolTaskExecutor sharedThreadPool;
+	private int sharedPoolSize;
+	private int activeExecutors;
+
+	public DefaultDataWorkerExecutorFactory(DataThreadPoolFactory threadPoolFactory) {
+		this.threadPoolFactory = threadPoolFactory;
+	}
+
+	@Override
+	public DataWorkerExecutor<Boolean> create(CopyContext context, DataThreadPoolConfig config) {
+		MigrationContext migrationContext = context.getMigrationContext();
+		if (!migrationContext.isSharedWorkerPoolEnabled()) {
+			return new DedicatedWorkerExecutor(threadPoolFactory.create(context, config));
+		}
+		synchronized (lock) {
+			if (sharedThreadPool == null) {
+				sharedPoolSize = config.getPoolSize() * migrationContext.getMaxParallelTableCopy();
+				sharedThreadPool = threadPoolFactory.create(context,
+						new DataThreadPoolConfigBuilder(migrationContext).withPoolSize(sharedPoolSize).build());
+				LOG.debug("Created shared worker pool with {} threads", sharedPoolSize);
+			}
+			activeExecutors++;
+			return new QuotaWorkerExecutor(new DefaultDataWorkerExecutor<>(sharedThreadPool));
+		}
+	}
+
+	@Override
+	public void destroy(DataWorkerExecutor<Boolean> executor) {
+		if (executor instanceof DedicatedWorkerExecutor) {
+			threadPoolFactory.destroy(((DedicatedWorkerExecutor) executor).threadPool);
+			return;
+		}
+		synchronized (lock) {
+			activeExecutors--;
+			if (activeExecutors == 0) {
+				// running workers of aborted tables still complete
+				threadPoolFactory.destroy(sharedThreadPool);
+				sharedThreadPool = null;
+			}
+			// the shares of the remaining tables grow
+			lock.notifyAll();
+		}
+	}
+
+	private int getQuota() {
+		return Math.max(1, (sharedPoolSize + activeExecutors - 1) / Math.max(1, activeExecutors));
+	}
+
+	private static class DedicatedWorkerExecutor extends DefaultDataWorkerExecutor<Boolean> {
+		private final ThreadPoolTaskExecutor threadPool;
+
+		DedicatedWorkerExecutor(ThreadPoolTaskExecutor threadPool) {
+			super(threadPool);
+			this.threadPool = threadPool;
+		}
+	}
+
+	/**
+	 * Blocks the submission of a worker while the table runs its share of the
+	 * shared pool. Threads not used by a table run the workers of others.
+	 */
+	private class QuotaWorkerExecutor implements DataWorkerExecutor<Boolean> {
+		private final DataWorkerExecutor<Boolean> delegate;
+
+		// guarded by lock
+		private int running;
+
+		QuotaWorkerExecutor(DataWorkerExecutor<Boolean> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Future<Boolean> safelyExecute(Callable<Boolean> callable) throws InterruptedException {
+			acquire();
+			try {
+				return delegate.safelyExecute(() -> {
+					try {
+						return callable.call();
+					} finally {
+						release();
+					}
+				});
+			} catch (InterruptedException | RuntimeException e) {
+				release();
+				throw e;
+			}
+		}
+
+		@Override
+		public void waitAndRethrowUncaughtExceptions() throws ExecutionException, InterruptedException {
+			delegate.waitAndRethrowUncaughtExceptions();
+		}
+
+		private void acquire() throws InterruptedException {
+			synchronized (lock) {
+				while (running >= getQuota()) {
+					lock.wait();
+				}
+				running++;
+			}
+		}
+
+		private void release() {
+			synchronized (lock) {
+				running--;
+				lock.notifyAll();
+			}
+		}
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent.impl;
+
+import org.sap.commercemigration.concurrent.DataPipe;
+import org.sap.commercemigration.concurrent.MaybeFinished;
+import org.sap.commercemigration.concurrent.PipeAbortedException;
+import org.sap.commercemigration.constants.CommercemigrationConstants;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
+import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free data pipe bounded by the estimated heap size of the pages it holds.
+ * The pages are handed over through a bounded ring buffer with a sequence
+ * number per slot: the reader workers claim slots by a CAS on the tail, the
+ * writer takes them from the head. Taking is also a CAS, as an abort drains the
+ * pipe from the thread requesting it.
+ * <p>
+ * An abort requested on this node is seen immediately. The migration status in
+ * the scheduler tables is checked by at most one thread per second, instead of
+ * on every put and get.
+ *
+ * @param <T>
+ */
+public class RingBufferDataPipe<T> implements DataPipe<T> {
+	private static final Logger LOG = LoggerFactory.getLogger(RingBufferDataPipe.class);
+
+	private static final long ABORT_CHECK_INTERVAL_MILLIS = 1000;
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	// slots are published by the volatile write of their sequence number
+	private final Object[] values;
+	private final long[] sizes;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong usedBytes = new AtomicLong();
+	private final AtomicInteger waiters = new AtomicInteger();
+	private final long capacityBytes;
+	private final long timeoutNanos;
+	private final AtomicReference<Exception> abortException = new AtomicReference<>();
+	private final AtomicLong nextAbortCheck = new AtomicLong();
+	private final CopyContext context;
+	private final CopyContext.DataCopyItem copyItem;
+	private final DatabaseCopyTaskRepository taskRepository;
+	private final DatabaseCopyScheduler scheduler;
+
+	/**
+	 * @param capacity
+	 *            maximum number of pages, rounded up to the next power of two
+	 * @param capacityBytes
+	 *            maximum estimated size of the pages. A single page exceeding it
+	 *            is accepted if the pipe is empty.
+	 */
+	public RingBufferDataPipe(DatabaseCopyScheduler scheduler, DatabaseCopyTaskRepository taskRepository,
+			CopyContext context, CopyContext.DataCopyItem copyItem, int timeoutInSeconds, int capacity,
+			long capacityBytes) {
+		this.taskRepository = taskRepository;
+		this.scheduler = scheduler;
+		this.context = context;
+		this.copyItem = copyItem;
+		int slots = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		this.values = new Object[slots];
+		this.sizes = new long[slots];
+		this.sequences = new AtomicLongArray(slots);
+		for (int i = 0; i < slots; i++) {
+			sequences.set(i, i);
+		}
+		this.mask = slots - 1;
+		this.capacityBytes = capacityBytes;
+		this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutInSeconds);
+	}
+
+	@Override
+	public void requestAbort(Exception cause) {
+		if (this.abortException.compareAndSet(null, cause)) {
+			if (context.getMigrationContext().isFailOnErrorEnabled()) {
+				try {
+					scheduler.abort(context);
+				} catch (Exception ex) {
+					LOG.warn("could not abort", ex);
+				}
+			}
+			try {
+				taskRepository.markTaskFailed(context, copyItem, cause);
+			} catch (Exception e) {
+				LOG.warn("could not update error status!", e);
+			}
+			flushPipe();
+		}
+	}
+
+	private void flushPipe() {
+		// waiting producers see the abort and give up their reservation
+		MaybeFinished<T> element;
+		while ((element = poll()) != null) {
+			release(element);
+		}
+	}
+
+	private void release(MaybeFinished<T> element) {
+		if (element.getValue() instanceof DataSet) {
+			SpilledLob.release((DataSet) element.getValue());
+		}
+	}
+
+	private boolean isAborted() throws Exception {
+		if (this.abortException.get() == null) {
+			long now = System.currentTimeMillis();
+			long next = nextAbortCheck.get();
+			if (now >= next && nextAbortCheck.compareAndSet(next, now + ABORT_CHECK_INTERVAL_MILLIS)
+					&& scheduler.isAborted(this.context)) {
+				requestAbort(new PipeAbortedException("Migration aborted"));
+			}
+		}
+		return this.abortException.get() != null;
+	}
+
+	private void assertPipeNotAborted() throws Exception {
+		if (isAborted()) {
+			throw new PipeAbortedException("Pipe aborted", this.abortException.get());
+		}
+	}
+
+	@Override
+	public void put(MaybeFinished<T> value) throws Exception {
+		try {
+			enqueue(value);
+		} catch (Exception e) {
+			// the page never reaches a writer, releasing it twice after a flush is harmless
+			release(value);
+			throw e;
+		}
+	}
+
+	private void enqueue(MaybeFinished<T> value) throws Exception {
+		assertPipeNotAborted();
+		long size = value.getValue() instanceof DataSet ? DataSetSizeEstimator.estimate((DataSet) value.getValue())
+				: 0;
+		long deadline = System.nanoTime() + timeoutNanos;
+		waiters.incrementAndGet();
+		try {
+			int round = 0;
+			while (!tryReserve(size)) {
+				if (!await(deadline, round++)) {
+					throw new RuntimeException("cannot put new item in time");
+				}
+			}
+			round = 0;
+			while (!offer(value, size)) {
+				if (!awaitOrUnreserve(deadline, round++, size)) {
+					throw new RuntimeException("cannot put new item in time");
+				}
+			}
+		} finally {
+			waiters.decrementAndGet();
+		}
+		// the pipe may have been flushed while the page was put
+		if (this.abortException.get() != null) {
+			flushPipe();
+			throw new PipeAbortedException("Pipe aborted", this.abortException.get());
+		}
+	}
+
+	@Override
+	public MaybeFinished<T> get() throws Exception {
+		assertPipeNotAborted();
+		long deadline = System.nanoTime() + timeoutNanos;
+		int round = 0;
+		MaybeFinished<T> element;
+		while ((element = poll()) == null) {
+			if (!await(deadline, round++)) {
+				throw new RuntimeException(String.format(
+						"cannot get new item in time. Consider increasing the value of the property '%s', '%s' or '%s'",
+						CommercemigrationConstants.MIGRATION_DATA_PIPE_TIMEOUT,
+						CommercemigrationConstants.MIGRATION_DATA_PIPE_CAPACITY,
+						CommercemigrationConstants.MIGRATION_DATA_PIPE_CAPACITY_BYTES));
+			}
+		}
+		return element;
+	}
+
+	@Override
+	public int size() {
+		return (int) (tail.get() - head.get());
+	}
+
+	@Override
+	public int getWaitersCount() {
+		return waiters.get();
+	}
+
+	private boolean tryReserve(long size) {
+		for (;;) {
+			long used = usedBytes.get();
+			if (used > 0 && used + size > capacityBytes) {
+				return false;
+			}
+			if (usedBytes.compareAndSet(used, used + size)) {
+				return true;
+			}
+		}
+	}
+
+	private boolean offer(MaybeFinished<T> value, long size) {
+		long pos = tail.get();
+		for (;;) {
+			int index = (int) (pos & mask);
+			long difference = sequences.get(index) - pos;
+			if (difference == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					values[index] = value;
+					sizes[index] = size;
+					sequences.set(index, pos + 1);
+					return true;
+				}
+				pos = tail.get();
+			} else if (difference < 0) {
+				// full
+				return false;
+			} else {
+				pos = tail.get();
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private MaybeFinished<T> poll() {
+		long pos = head.get();
+		for (;;) {
+			int index = (int) (pos & mask);
+			long difference = sequences.get(index) - (pos + 1);
+			if (difference == 0) {
+				if (head.compareAndSet(pos, pos + 1)) {
+					MaybeFinished<T> value = (MaybeFinished<T>) values[index];
+					long size = sizes[index];
+					values[index] = null;
+					sequences.set(index, pos + mask + 1);
+					usedBytes.addAndGet(-size);
+					return value;
+				}
+				pos = head.get();
+			} else if (difference < 0) {
+				// empty
+				return null;
+			} else {
+				pos = head.get();
+			}
+		}
+	}
+
+	private boolean awaitOrUnreserve(long deadline, int round, long size) throws Exception {
+		boolean waited = false;
+		try {
+			waited = await(deadline, round);
+			return waited;
+		} finally {
+			if (!waited) {
+				usedBytes.addAndGet(-size);
+			}
+		}
+	}
+
+	/**
+	 * Backs off with increasing park times, the pages are large enough that the
+	 * hand-over latency does not matter.
+	 *
+	 * @return false if the deadline has passed
+	 */
+	private boolean await(long deadline, int round) throws Exception {
+		assertPipeNotAborted();
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		long remaining = deadline - System.nanoTime();
+		if (remaining <= 0) {
+			return false;
+		}
+		LockSupport.parkNanos(Math.min(remaining, Math.min(MAX_PARK_NANOS, 1000L << Math.min(round, 10))));
+		return true;
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent.impl.task;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.sap.commercemigration.KeysetQueryDefinition;
+import org.sap.commercemigration.adapter.DataRepositoryAdapter;
+import org.sap.commercemigration.concurrent.MaybeFinished;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.performance.PerformanceUnit;
+
+import java.util.List;
+
+/**
+ * Reads the rows between two markers of a composite unique key.
+ */
+public class BatchKeysetDataReaderTask extends DataReaderTask {
+
+	private final List<String> batchColumns;
+	private final Pair<List<Object>, List<Object>> batchMarkersPair;
+	private final int batchId;
+
+	public BatchKeysetDataReaderTask(PipeTaskContext pipeTaskContext, int batchId, List<String> batchColumns,
+			Pair<List<Object>, List<Object>> batchMarkersPair) {
+		super(pipeTaskContext);
+		this.batchId = batchId;
+		this.batchColumns = batchColumns;
+		this.batchMarkersPair = batchMarkersPair;
+	}
+
+	@Override
+	protected Boolean internalRun() throws Exception {
+		process(batchMarkersPair.getLeft(), batchMarkersPair.getRight());
+		return Boolean.TRUE;
+	}
+
+	private void process(List<Object> lowerBoundary, List<Object> upperBoundary) throws Exception {
+		CopyContext ctx = getPipeTaskContext().getContext();
+		DataRepositoryAdapter adapter = getPipeTaskContext().getDataRepositoryAdapter();
+		KeysetQueryDefinition queryDefinition = new KeysetQueryDefinition();
+		queryDefinition.setBatchId(batchId);
+		queryDefinition.setTable(getPipeTaskContext().getTable());
+		queryDefinition.setColumns(batchColumns);
+		queryDefinition.setLowerBoundary(lowerBoundary);
+		queryDefinition.setUpperBoundary(upperBoundary);
+		queryDefinition.setBatchSize(getPipeTaskContext().getPageSize());
+		DataSet page = adapter.getBatchOrderedByColumns(ctx.getMigrationContext(), queryDefinition);
+		getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, page.getRowCount());
+		getPipeTaskContext().getPipe().put(MaybeFinished.of(page));
+	}
+}
@@ -45,7 +45,7 @@ public class BatchMarkerDataReaderTask extends DataReaderTask {
 		queryDefinition.setNextColumnValue(nextValue);
 		queryDefinition.setBatchSize(pageSize);
 		DataSet page = adapter.getBatchOrderedByColumn(ctx.getMigrationContext(), queryDefinition);
-		getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, pageSize);
+		getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, page.getRowCount());
 		getPipeTaskContext().getPipe().put(MaybeFinished.of(page));
 	}
 }
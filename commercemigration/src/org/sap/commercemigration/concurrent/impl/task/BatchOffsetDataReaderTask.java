@@ -45,7 +45,7 @@ public class BatchOffsetDataReaderTask extends DataReaderTask {
 		queryDefinition.setBatchSize(pageSize);
 		queryDefinition.setOffset(offset);
 		DataSet result = adapter.getBatchWithoutIdentifier(context.getMigrationContext(), queryDefinition);
-		getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, result.getAllResults().size());
+		getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, result.getRowCount());
 		getPipeTaskContext().getPipe().put(MaybeFinished.of(result));
 	}
 }
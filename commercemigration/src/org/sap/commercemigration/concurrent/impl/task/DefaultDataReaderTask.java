@@ -25,7 +25,7 @@ public class DefaultDataReaderTask extends DataReaderTask {
 		MigrationContext migrationContext = getPipeTaskContext().getContext().getMigrationContext();
 		DataSet all = getPipeTaskContext().getDataRepositoryAdapter().getAll(migrationContext,
 				getPipeTaskContext().getTable());
-		getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, all.getAllResults().size());
+		getPipeTaskContext().getRecorder().record(PerformanceUnit.ROWS, all.getRowCount());
 		getPipeTaskContext().getPipe().put(MaybeFinished.of(all));
 	}
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent.impl.task;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.sap.commercemigration.context.CopyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Leases the batch before reading it, so that it is read by one cluster node
+ * only. Batches leased by other nodes are skipped.
+ */
+public class LeasedBatchMarkerDataReaderTask extends BatchMarkerDataReaderTask {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LeasedBatchMarkerDataReaderTask.class);
+
+	private final CopyContext.DataCopyItem copyItem;
+	private final int batchId;
+	private boolean leased;
+
+	public LeasedBatchMarkerDataReaderTask(PipeTaskContext pipeTaskContext, CopyContext.DataCopyItem copyItem,
+			int batchId, String batchColumn, Pair<Object, Object> batchMarkersPair) {
+		super(pipeTaskContext, batchId, batchColumn, batchMarkersPair);
+		this.copyItem = copyItem;
+		this.batchId = batchId;
+	}
+
+	@Override
+	protected Boolean internalRun() throws Exception {
+		// retries keep the lease
+		if (!leased) {
+			if (!getPipeTaskContext().getTaskRepository().claimBatch(getPipeTaskContext().getContext(), copyItem,
+					batchId)) {
+				LOG.debug("Batch {} of table {} is leased by another node", batchId, getPipeTaskContext().getTable());
+				return Boolean.TRUE;
+			}
+			leased = true;
+		}
+		return super.internalRun();
+	}
+}
@@ -20,11 +20,21 @@ public final class CommercemigrationConstants extends GeneratedCommercemigration
 	public static final String MIGRATION_TARGET_MAX_STAGE_MIGRATIONS = "migration.ds.target.db.max.stage.migrations";
 	public static final String MIGRATION_SCHEMA_AUTOTRIGGER_ENABLED = "migration.schema.autotrigger.enabled";
 	public static final String MIGRATION_DATA_READER_BATCHSIZE = "migration.data.reader.batchsize";
+	public static final String MIGRATION_DATA_READER_BATCHSIZE_ADAPTIVE_ENABLED = "migration.data.reader.batchsize.adaptive.enabled";
+	public static final String MIGRATION_DATA_READER_BATCHSIZE_ADAPTIVE_TARGETBYTES = "migration.data.reader.batchsize.adaptive.targetbytes";
+	public static final String MIGRATION_DATA_READER_BATCHSIZE_ADAPTIVE_MIN = "migration.data.reader.batchsize.adaptive.min";
+	public static final String MIGRATION_DATA_READER_BATCHSIZE_ADAPTIVE_MAX = "migration.data.reader.batchsize.adaptive.max";
+	public static final String MIGRATION_DATA_READER_BATCHMARKERS_CHAINED_ENABLED = "migration.data.reader.batchmarkers.chained.enabled";
+	public static final String MIGRATION_DATA_READER_KEYSET_ENABLED = "migration.data.reader.keyset.enabled";
+	public static final String MIGRATION_DATA_WRITER_BULKCOPY_ENABLED = "migration.data.writer.bulkcopy.enabled";
+	public static final String MIGRATION_DATA_WRITER_BULKCOPY_TABLELOCK_ENABLED = "migration.data.writer.bulkcopy.tablelock.enabled";
+	public static final String MIGRATION_DATA_WRITER_INCREMENTAL_STAGING_ENABLED = "migration.data.writer.incremental.staging.enabled";
 	public static final String MIGRATION_DATA_TRUNCATE_ENABLED = "migration.data.truncate.enabled";
 	public static final String MIGRATION_DATA_TRUNCATE_EXCLUDED = "migration.data.truncate.excluded";
 	public static final String MIGRATION_DATA_WORKERS_READER_MAXTASKS = "migration.data.workers.reader.maxtasks";
 	public static final String MIGRATION_DATA_WORKERS_WRITER_MAXTASKS = "migration.data.workers.writer.maxtasks";
 	public static final String MIGRATION_DATA_WORKERS_RETRYATTEMPTS = "migration.data.workers.retryattempts";
+	public static final String MIGRATION_DATA_WORKERS_SHARED_ENABLED = "migration.data.workers.shared.enabled";
 	public static final String MIGRATION_DATA_MAXPRALLELTABLECOPY = "migration.data.maxparalleltablecopy";
 	public static final String MIGRATION_DATA_FAILONEERROR_ENABLED = "migration.data.failonerror.enabled";
 	public static final String MIGRATION_DATA_COLUMNS_EXCLUDED = "migration.data.columns.excluded";
@@ -32,21 +42,41 @@ public final class CommercemigrationConstants extends GeneratedCommercemigration
 	public static final String MIGRATION_DATA_INDICES_DROP_ENABLED = "migration.data.indices.drop.enabled";
 	public static final String MIGRATION_DATA_INDICES_DISABLE_ENABLED = "migration.data.indices.disable.enabled";
 	public static final String MIGRATION_DATA_INDICES_DISABLE_INCLUDED = "migration.data.indices.disable.included";
+	public static final String MIGRATION_DATA_INDICES_DROP_RECREATE_ENABLED = "migration.data.indices.drop.recreate.enabled";
+	public static final String MIGRATION_DATA_INDICES_MAXPARALLELBUILDS = "migration.data.indices.maxparallelbuilds";
+	public static final String MIGRATION_DATA_INDICES_ONLINE_ENABLED = "migration.data.indices.online.enabled";
+	public static final String MIGRATION_DATA_INDICES_MAXDOP = "migration.data.indices.maxdop";
 	public static final String MIGRATION_DATA_TABLES_AUDIT_ENABLED = "migration.data.tables.audit.enabled";
 	public static final String MIGRATION_DATA_TABLES_CUSTOM = "migration.data.tables.custom";
 	public static final String MIGRATION_DATA_TABLES_EXCLUDED = "migration.data.tables.excluded";
 	public static final String MIGRATION_DATA_TABLES_INCLUDED = "migration.data.tables.included";
 	public static final String MIGRATION_CLUSTER_ENABLED = "migration.cluster.enabled";
+	public static final String MIGRATION_CLUSTER_BATCHSHARING_ENABLED = "migration.cluster.batchsharing.enabled";
+	public static final String MIGRATION_CLUSTER_BATCHSHARING_LEASE_SECONDS = "migration.cluster.batchsharing.lease.seconds";
 	public static final String MIGRATION_DATA_INCREMENTAL_ENABLED = "migration.data.incremental.enabled";
 	public static final String MIGRATION_DATA_INCREMENTAL_TABLES = "migration.data.incremental.tables";
 	public static final String MIGRATION_DATA_INCREMENTAL_TIMESTAMP = "migration.data.incremental.timestamp";
+	public static final String MIGRATION_DATA_INCREMENTAL_WATERMARK_ENABLED = "migration.data.incremental.watermark.enabled";
+	public static final String MIGRATION_DATA_INCREMENTAL_WATERMARK_MARGIN = "migration.data.incremental.watermark.margin";
+	public static final String MIGRATION_DATA_INCREMENTAL_DELETIONS_ENABLED = "migration.data.incremental.deletions.enabled";
+	public static final String MIGRATION_DATA_INCREMENTAL_DELETIONS_BATCHSIZE = "migration.data.incremental.deletions.batchsize";
+	public static final String MIGRATION_DATA_INCREMENTAL_SYNC_ENABLED = "migration.data.incremental.sync.enabled";
+	public static final String MIGRATION_DATA_INCREMENTAL_SYNC_INTERVAL = "migration.data.incremental.sync.interval";
 	public static final String MIGRATION_DATA_PIPE_TIMEOUT = "migration.data.pipe.timeout";
 	public static final String MIGRATION_DATA_PIPE_CAPACITY = "migration.data.pipe.capacity";
+	public static final String MIGRATION_DATA_PIPE_CAPACITY_BYTES = "migration.data.pipe.capacity.bytes";
+	public static final String MIGRATION_DATA_PIPE_RINGBUFFER_ENABLED = "migration.data.pipe.ringbuffer.enabled";
+	public static final String MIGRATION_DATA_PIPE_COLUMNAR_ENABLED = "migration.data.pipe.columnar.enabled";
+	public static final String MIGRATION_DATA_LOB_STREAMING_ENABLED = "migration.data.lob.streaming.enabled";
+	public static final String MIGRATION_DATA_LOB_STREAMING_THRESHOLD = "migration.data.lob.streaming.threshold";
+	public static final String MIGRATION_DATA_VERIFICATION_ENABLED = "migration.data.verification.enabled";
+	public static final String MIGRATION_DATA_VERIFICATION_MAXTASKS = "migration.data.verification.maxtasks";
 	public static final String MIGRATION_STALLED_TIMEOUT = "migration.stalled.timeout";
 	public static final String MIGRATION_FILE_STORAGE_CONNECTIONSTRING = "migration.data.report.connectionstring";
 	public static final String MIGRATION_DATATYPE_CHECK = "migration.datatype.check";
 	public static final String MIGRATION_TABLESPREFIX = "MIGRATIONTOOLKIT_";
 	public static final String MIGRATION_SCHEDULER_RESUME_ENABLED = "migration.scheduler.resume.enabled";
+	public static final String MIGRATION_SCHEDULER_ROWCOUNT_ESTIMATE_ENABLED = "migration.scheduler.rowcount.estimate.enabled";
 	public static final String MIGRATION_LOG_SQL = "migration.log.sql";
 	public static final String MIGRATION_LOG_SQL_PARAMS_SOURCE = "migration.log.sql.source.showparameters";
 	public static final String MIGRATION_SQL_STORE_FLUSH_THRESHOLD = "migration.log.sql.memory.flush.threshold.nbentries";
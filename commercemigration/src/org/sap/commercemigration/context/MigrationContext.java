@@ -31,6 +31,24 @@ public interface MigrationContext {
 
 	int getReaderBatchSize();
 
+	boolean isAdaptiveReaderBatchSizeEnabled();
+
+	int getAdaptiveReaderBatchTargetBytes();
+
+	int getAdaptiveReaderBatchSizeMin();
+
+	int getAdaptiveReaderBatchSizeMax();
+
+	boolean isChainedBatchMarkersEnabled();
+
+	boolean isKeysetPaginationEnabled();
+
+	boolean isBulkCopyEnabled();
+
+	boolean isBulkCopyTableLockEnabled();
+
+	boolean isStagedUpsertEnabled();
+
 	boolean isTruncateEnabled();
 
 	boolean isAuditTableMigrationEnabled();
@@ -45,6 +63,8 @@ public interface MigrationContext {
 
 	int getMaxWorkerRetryAttempts();
 
+	boolean isSharedWorkerPoolEnabled();
+
 	boolean isFailOnErrorEnabled();
 
 	Map<String, Set<String>> getExcludedColumns();
@@ -63,18 +83,48 @@ public interface MigrationContext {
 
 	Set<String> getDisableAllIndexesIncludedTables();
 
+	boolean isRecreateDroppedIndexesEnabled();
+
+	int getMaxParallelIndexBuilds();
+
+	boolean isOnlineIndexBuildEnabled();
+
+	int getIndexBuildMaxDegreeOfParallelism();
+
 	boolean isClusterMode();
 
+	boolean isBatchSharingEnabled();
+
+	int getBatchLeaseSeconds();
+
 	boolean isIncrementalModeEnabled();
 
 	Set<String> getIncrementalTables();
 
 	Instant getIncrementalTimestamp();
 
+	boolean isIncrementalWatermarkEnabled();
+
+	int getIncrementalWatermarkMarginSeconds();
+
+	boolean isIncrementalDeletionsEnabled();
+
+	int getIncrementalDeletionsBatchSize();
+
+	boolean isIncrementalSyncEnabled();
+
+	int getIncrementalSyncIntervalSeconds();
+
 	int getDataPipeTimeout();
 
 	int getDataPipeCapacity();
 
+	long getDataPipeCapacityBytes();
+
+	boolean isRingBufferDataPipeEnabled();
+
+	boolean isColumnarDataSetEnabled();
+
 	int getStalledTimeout();
 
 	String getFileStorageConnectionString();
@@ -83,6 +133,12 @@ public interface MigrationContext {
 
 	boolean isSchedulerResumeEnabled();
 
+	boolean isRowCountEstimateEnabled();
+
+	boolean isDataVerificationEnabled();
+
+	int getMaxParallelVerificationWorkers();
+
 	boolean isLogSql();
 
 	boolean isLogSqlParamsForSource();
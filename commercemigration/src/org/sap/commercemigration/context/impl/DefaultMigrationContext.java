@@ -101,6 +101,51 @@ public final class DefaultMigrationContext implements MigrationContext {
 		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE);
 	}
 
+	@Override
+	public boolean isAdaptiveReaderBatchSizeEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE_ADAPTIVE_ENABLED);
+	}
+
+	@Override
+	public int getAdaptiveReaderBatchTargetBytes() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE_ADAPTIVE_TARGETBYTES);
+	}
+
+	@Override
+	public int getAdaptiveReaderBatchSizeMin() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE_ADAPTIVE_MIN);
+	}
+
+	@Override
+	public int getAdaptiveReaderBatchSizeMax() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHSIZE_ADAPTIVE_MAX);
+	}
+
+	@Override
+	public boolean isChainedBatchMarkersEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_READER_BATCHMARKERS_CHAINED_ENABLED);
+	}
+
+	@Override
+	public boolean isKeysetPaginationEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_READER_KEYSET_ENABLED);
+	}
+
+	@Override
+	public boolean isBulkCopyEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_WRITER_BULKCOPY_ENABLED);
+	}
+
+	@Override
+	public boolean isBulkCopyTableLockEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_WRITER_BULKCOPY_TABLELOCK_ENABLED);
+	}
+
+	@Override
+	public boolean isStagedUpsertEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_WRITER_INCREMENTAL_STAGING_ENABLED);
+	}
+
 	@Override
 	public boolean isTruncateEnabled() {
 		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_TRUNCATE_ENABLED);
@@ -131,6 +176,11 @@ public final class DefaultMigrationContext implements MigrationContext {
 		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_WORKERS_RETRYATTEMPTS);
 	}
 
+	@Override
+	public boolean isSharedWorkerPoolEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_WORKERS_SHARED_ENABLED);
+	}
+
 	@Override
 	public int getMaxParallelTableCopy() {
 		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_MAXPRALLELTABLECOPY);
@@ -180,11 +230,41 @@ public final class DefaultMigrationContext implements MigrationContext {
 		return getListProperty(CommercemigrationConstants.MIGRATION_DATA_INDICES_DISABLE_INCLUDED);
 	}
 
+	@Override
+	public boolean isRecreateDroppedIndexesEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_INDICES_DROP_RECREATE_ENABLED);
+	}
+
+	@Override
+	public int getMaxParallelIndexBuilds() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_INDICES_MAXPARALLELBUILDS);
+	}
+
+	@Override
+	public boolean isOnlineIndexBuildEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_INDICES_ONLINE_ENABLED);
+	}
+
+	@Override
+	public int getIndexBuildMaxDegreeOfParallelism() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_INDICES_MAXDOP);
+	}
+
 	@Override
 	public boolean isClusterMode() {
 		return getBooleanProperty(CommercemigrationConstants.MIGRATION_CLUSTER_ENABLED);
 	}
 
+	@Override
+	public boolean isBatchSharingEnabled() {
+		return isClusterMode() && getBooleanProperty(CommercemigrationConstants.MIGRATION_CLUSTER_BATCHSHARING_ENABLED);
+	}
+
+	@Override
+	public int getBatchLeaseSeconds() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_CLUSTER_BATCHSHARING_LEASE_SECONDS);
+	}
+
 	@Override
 	public boolean isIncrementalModeEnabled() {
 		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_ENABLED);
@@ -204,6 +284,36 @@ public final class DefaultMigrationContext implements MigrationContext {
 		return ZonedDateTime.parse(timeStamp, DateTimeFormatter.ISO_ZONED_DATE_TIME).toInstant();
 	}
 
+	@Override
+	public boolean isIncrementalWatermarkEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_WATERMARK_ENABLED);
+	}
+
+	@Override
+	public int getIncrementalWatermarkMarginSeconds() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_WATERMARK_MARGIN);
+	}
+
+	@Override
+	public boolean isIncrementalDeletionsEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_DELETIONS_ENABLED);
+	}
+
+	@Override
+	public int getIncrementalDeletionsBatchSize() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_DELETIONS_BATCHSIZE);
+	}
+
+	@Override
+	public boolean isIncrementalSyncEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_SYNC_ENABLED);
+	}
+
+	@Override
+	public int getIncrementalSyncIntervalSeconds() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_SYNC_INTERVAL);
+	}
+
 	@Override
 	public int getDataPipeTimeout() {
 		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_TIMEOUT);
@@ -214,6 +324,21 @@ public final class DefaultMigrationContext implements MigrationContext {
 		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_CAPACITY);
 	}
 
+	@Override
+	public long getDataPipeCapacityBytes() {
+		return getLongProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_CAPACITY_BYTES);
+	}
+
+	@Override
+	public boolean isRingBufferDataPipeEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_RINGBUFFER_ENABLED);
+	}
+
+	@Override
+	public boolean isColumnarDataSetEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_PIPE_COLUMNAR_ENABLED);
+	}
+
 	@Override
 	public String getFileStorageConnectionString() {
 		return getStringProperty(CommercemigrationConstants.MIGRATION_FILE_STORAGE_CONNECTIONSTRING);
@@ -229,6 +354,21 @@ public final class DefaultMigrationContext implements MigrationContext {
 		return getBooleanProperty(CommercemigrationConstants.MIGRATION_SCHEDULER_RESUME_ENABLED);
 	}
 
+	@Override
+	public boolean isRowCountEstimateEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_SCHEDULER_ROWCOUNT_ESTIMATE_ENABLED);
+	}
+
+	@Override
+	public boolean isDataVerificationEnabled() {
+		return getBooleanProperty(CommercemigrationConstants.MIGRATION_DATA_VERIFICATION_ENABLED);
+	}
+
+	@Override
+	public int getMaxParallelVerificationWorkers() {
+		return getNumericProperty(CommercemigrationConstants.MIGRATION_DATA_VERIFICATION_MAXTASKS);
+	}
+
 	@Override
 	public boolean isLogSql() {
 		return getBooleanProperty(CommercemigrationConstants.MIGRATION_LOG_SQL);
@@ -272,6 +412,10 @@ public final class DefaultMigrationContext implements MigrationContext {
 		return configuration.getInt(key);
 	}
 
+	private long getLongProperty(final String key) {
+		return configuration.getLong(key);
+	}
+
 	private String getStringProperty(final String key) {
 		return configuration.getString(key);
 	}
@@ -24,4 +24,26 @@ public interface DataSet {
 	boolean isNotEmpty();
 
 	boolean hasColumn(String column);
+
+	int getRowCount();
+
+	List<DataColumn> getColumnOrder();
+
+	/**
+	 * @return the index of the column (case-insensitive) or -1 if the column is not
+	 *         part of the result
+	 */
+	int getColumnIndex(String column);
+
+	Object getColumnValue(int columnIndex, int rowIndex);
+
+	boolean isNull(int columnIndex, int rowIndex);
+
+	long getLong(int columnIndex, int rowIndex);
+
+	int getInt(int columnIndex, int rowIndex);
+
+	double getDouble(int columnIndex, int rowIndex);
+
+	String getString(int columnIndex, int rowIndex);
 }
@@ -0,0 +1,305 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.dataset.impl;
+
+import org.sap.commercemigration.dataset.DataColumn;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Append-only storage of the values of a single column. Primitive types are
+ * kept unboxed, nulls are tracked in a bitmap.
+ */
+abstract class ColumnVector {
+
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+	// longest precision that is guaranteed to fit into a long
+	private static final int MAX_LONG_PRECISION = 18;
+
+	protected final BitSet nulls = new BitSet();
+	protected int size;
+
+	static ColumnVector forColumn(DataColumn column, boolean signed, int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 1);
+		switch (column.getColumnType()) {
+			case Types.BIGINT :
+				return signed ? new LongVector(capacity, false) : new ObjectVector(column.getColumnType(), capacity);
+			case Types.INTEGER :
+			case Types.SMALLINT :
+			case Types.TINYINT :
+				return signed ? new IntVector(capacity) : new ObjectVector(column.getColumnType(), capacity);
+			case Types.DECIMAL :
+			case Types.NUMERIC :
+				if (column.getScale() == 0 && column.getPrecision() > 0
+						&& column.getPrecision() <= MAX_LONG_PRECISION) {
+					// stored unboxed, but read as BigDecimal like the values of the row based data set
+					return new LongVector(capacity, true);
+				}
+				return new ObjectVector(column.getColumnType(), capacity);
+			case Types.DOUBLE :
+			case Types.FLOAT :
+				return new DoubleVector(capacity);
+			case Types.CHAR :
+			case Types.VARCHAR :
+			case Types.NCHAR :
+			case Types.NVARCHAR :
+			case Types.LONGVARCHAR :
+			case Types.LONGNVARCHAR :
+				return new StringVector(capacity);
+			default :
+				return new ObjectVector(column.getColumnType(), capacity);
+		}
+	}
+
+	static int grow(int currentCapacity, int minCapacity) {
+		if (minCapacity > MAX_CAPACITY) {
+			throw new IllegalStateException("Column vector exceeds maximum capacity");
+		}
+		int newCapacity = currentCapacity + (currentCapacity >> 1) + 1;
+		return Math.min(Math.max(newCapacity, minCapacity), MAX_CAPACITY);
+	}
+
+	/**
+	 * Reads the value at the given index of the current row and appends it.
+	 */
+	abstract void append(ResultSet resultSet, int resultSetIndex, ColumnarDataSetBuilder.ValueMapper valueMapper)
+			throws Exception;
+
+	abstract Object getValue(int row);
+
+	boolean isNull(int row) {
+		return nulls.get(row);
+	}
+
+	long getLong(int row) {
+		Object value = getValue(row);
+		return value == null ? 0L : ((Number) value).longValue();
+	}
+
+	int getInt(int row) {
+		Object value = getValue(row);
+		return value == null ? 0 : ((Number) value).intValue();
+	}
+
+	double getDouble(int row) {
+		Object value = getValue(row);
+		return value == null ? 0d : ((Number) value).doubleValue();
+	}
+
+	String getString(int row) {
+		Object value = getValue(row);
+		return value == null ? null : String.valueOf(value);
+	}
+
+	int size() {
+		return size;
+	}
+
+	static final class LongVector extends ColumnVector {
+
+		private final boolean decimal;
+		private long[] values;
+
+		LongVector(int capacity, boolean decimal) {
+			this.decimal = decimal;
+			this.values = new long[capacity];
+		}
+
+		@Override
+		void append(ResultSet resultSet, int resultSetIndex, ColumnarDataSetBuilder.ValueMapper valueMapper)
+				throws Exception {
+			long value = resultSet.getLong(resultSetIndex);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, grow(values.length, size + 1));
+			}
+			if (resultSet.wasNull()) {
+				nulls.set(size);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		Object getValue(int row) {
+			if (isNull(row)) {
+				return null;
+			}
+			return decimal ? BigDecimal.valueOf(values[row]) : values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return values[row];
+		}
+
+		@Override
+		int getInt(int row) {
+			return Math.toIntExact(values[row]);
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+	}
+
+	static final class IntVector extends ColumnVector {
+
+		private int[] values;
+
+		IntVector(int capacity) {
+			this.values = new int[capacity];
+		}
+
+		@Override
+		void append(ResultSet resultSet, int resultSetIndex, ColumnarDataSetBuilder.ValueMapper valueMapper)
+				throws Exception {
+			int value = resultSet.getInt(resultSetIndex);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, grow(values.length, size + 1));
+			}
+			if (resultSet.wasNull()) {
+				nulls.set(size);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		Object getValue(int row) {
+			return isNull(row) ? null : values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return values[row];
+		}
+
+		@Override
+		int getInt(int row) {
+			return values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+	}
+
+	static final class DoubleVector extends ColumnVector {
+
+		private double[] values;
+
+		DoubleVector(int capacity) {
+			this.values = new double[capacity];
+		}
+
+		@Override
+		void append(ResultSet resultSet, int resultSetIndex, ColumnarDataSetBuilder.ValueMapper valueMapper)
+				throws Exception {
+			double value = resultSet.getDouble(resultSetIndex);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, grow(values.length, size + 1));
+			}
+			if (resultSet.wasNull()) {
+				nulls.set(size);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		Object getValue(int row) {
+			return isNull(row) ? null : values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+	}
+
+	/**
+	 * Keeps all characters of the column in one shared buffer, addressed by
+	 * offsets.
+	 */
+	static final class StringVector extends ColumnVector {
+
+		// grown on demand, the length of the values is not known up front
+		private static final int INITIAL_CHARS = 1024;
+
+		private char[] chars;
+		private int[] offsets;
+
+		StringVector(int capacity) {
+			this.chars = new char[INITIAL_CHARS];
+			this.offsets = new int[capacity + 1];
+		}
+
+		@Override
+		void append(ResultSet resultSet, int resultSetIndex, ColumnarDataSetBuilder.ValueMapper valueMapper)
+				throws Exception {
+			String value = resultSet.getString(resultSetIndex);
+			if (size + 1 == offsets.length) {
+				offsets = Arrays.copyOf(offsets, grow(offsets.length, size + 2));
+			}
+			int start = offsets[size];
+			if (value == null) {
+				nulls.set(size);
+			} else {
+				int end = start + value.length();
+				if (end > chars.length) {
+					chars = Arrays.copyOf(chars, grow(chars.length, end));
+				}
+				value.getChars(0, value.length(), chars, start);
+				start = end;
+			}
+			offsets[++size] = start;
+		}
+
+		@Override
+		Object getValue(int row) {
+			return getString(row);
+		}
+
+		@Override
+		String getString(int row) {
+			if (isNull(row)) {
+				return null;
+			}
+			return new String(chars, offsets[row], offsets[row + 1] - offsets[row]);
+		}
+	}
+
+	static final class ObjectVector extends ColumnVector {
+
+		private final int jdbcType;
+		private Object[] values;
+
+		ObjectVector(int jdbcType, int capacity) {
+			this.jdbcType = jdbcType;
+			this.values = new Object[capacity];
+		}
+
+		@Override
+		void append(ResultSet resultSet, int resultSetIndex, ColumnarDataSetBuilder.ValueMapper valueMapper)
+				throws Exception {
+			Object value = valueMapper.map(resultSet.getObject(resultSetIndex), jdbcType);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, grow(values.length, size + 1));
+			}
+			if (value == null) {
+				nulls.set(size);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		Object getValue(int row) {
+			return values[row];
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.dataset.impl;
+
+import com.github.freva.asciitable.AsciiTable;
+import org.apache.commons.lang3.StringUtils;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Column oriented data set. Values are stored per column in primitive arrays
+ * where possible, which avoids boxing every cell while the page is waiting in
+ * the pipe. Use the index based accessors; {@link #getAllResults()} creates a
+ * row oriented copy on every call.
+ */
+@Immutable
+public class ColumnarDataSet implements DataSet {
+
+	private final int batchId;
+	private final List<DataColumn> columnOrder;
+	private final Map<String, Integer> columnIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final ColumnVector[] columns;
+	private final int rowCount;
+
+	ColumnarDataSet(int batchId, List<DataColumn> columnOrder, ColumnVector[] columns, int rowCount) {
+		this.batchId = batchId;
+		this.columnOrder = Collections.unmodifiableList(new ArrayList<>(columnOrder));
+		this.columns = columns;
+		this.rowCount = rowCount;
+		for (int i = 0; i < columnOrder.size(); i++) {
+			columnIndexes.putIfAbsent(columnOrder.get(i).getColumnName(), i);
+		}
+	}
+
+	@Override
+	public int getBatchId() {
+		return batchId;
+	}
+
+	@Override
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	@Override
+	public List<List<Object>> getAllResults() {
+		List<List<Object>> results = new ArrayList<>(rowCount);
+		for (int row = 0; row < rowCount; row++) {
+			List<Object> values = new ArrayList<>(columns.length);
+			for (ColumnVector column : columns) {
+				values.add(column.getValue(row));
+			}
+			results.add(Collections.unmodifiableList(values));
+		}
+		return Collections.unmodifiableList(results);
+	}
+
+	@Override
+	public Object getColumnValue(String columnName, List<Object> row) {
+		int idx = getColumnIndex(columnName);
+		if (idx < 0) {
+			throw new IllegalArgumentException(String.format("Column %s is not part of the result", columnName));
+		}
+		return row.get(idx);
+	}
+
+	@Override
+	public boolean isNotEmpty() {
+		return rowCount > 0;
+	}
+
+	@Override
+	public boolean hasColumn(String column) {
+		return getColumnIndex(column) >= 0;
+	}
+
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public List<DataColumn> getColumnOrder() {
+		return columnOrder;
+	}
+
+	@Override
+	public int getColumnIndex(String column) {
+		if (StringUtils.isEmpty(column)) {
+			return -1;
+		}
+		Integer idx = columnIndexes.get(column);
+		return idx == null ? -1 : idx;
+	}
+
+	@Override
+	public Object getColumnValue(int columnIndex, int rowIndex) {
+		return columns[columnIndex].getValue(checkRow(rowIndex));
+	}
+
+	@Override
+	public boolean isNull(int columnIndex, int rowIndex) {
+		return columns[columnIndex].isNull(checkRow(rowIndex));
+	}
+
+	@Override
+	public long getLong(int columnIndex, int rowIndex) {
+		return columns[columnIndex].getLong(checkRow(rowIndex));
+	}
+
+	@Override
+	public int getInt(int columnIndex, int rowIndex) {
+		return columns[columnIndex].getInt(checkRow(rowIndex));
+	}
+
+	@Override
+	public double getDouble(int columnIndex, int rowIndex) {
+		return columns[columnIndex].getDouble(checkRow(rowIndex));
+	}
+
+	@Override
+	public String getString(int columnIndex, int rowIndex) {
+		return columns[columnIndex].getString(checkRow(rowIndex));
+	}
+
+	private int checkRow(int rowIndex) {
+		if (rowIndex < 0 || rowIndex >= rowCount) {
+			throw new IndexOutOfBoundsException(String.format("Row %s is not part of the result", rowIndex));
+		}
+		return rowIndex;
+	}
+
+	public String toString() {
+		String[] headers = columnOrder.stream().map(DataColumn::getColumnName).toArray(String[]::new);
+		String[][] data = getAllResults().stream().map(l -> l.stream().map(String::valueOf).toArray(String[]::new))
+				.toArray(String[][]::new);
+		return AsciiTable.getTable(headers, data);
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.dataset.impl;
+
+import org.sap.commercemigration.dataset.DataColumn;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Reads rows from a result set straight into the column vectors of a
+ * {@link ColumnarDataSet}.
+ */
+public class ColumnarDataSetBuilder {
+
+	private final int batchId;
+	private final List<DataColumn> columnOrder;
+	private final int[] resultSetIndexes;
+	private final ValueMapper valueMapper;
+	private final ColumnVector[] columns;
+	private int rowCount;
+
+	/**
+	 * @param resultSetIndexes
+	 *            the result set index of each column in columnOrder
+	 * @param signedColumns
+	 *            whether the column at the same position holds signed numbers
+	 */
+	public ColumnarDataSetBuilder(int batchId, List<DataColumn> columnOrder, int[] resultSetIndexes,
+			boolean[] signedColumns, int initialCapacity, ValueMapper valueMapper) {
+		this.batchId = batchId;
+		this.columnOrder = columnOrder;
+		this.resultSetIndexes = resultSetIndexes;
+		this.valueMapper = valueMapper;
+		this.columns = new ColumnVector[columnOrder.size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = ColumnVector.forColumn(columnOrder.get(i), signedColumns[i], initialCapacity);
+		}
+	}
+
+	public ColumnarDataSetBuilder appendRow(ResultSet resultSet) throws Exception {
+		for (int i = 0; i < columns.length; i++) {
+			columns[i].append(resultSet, resultSetIndexes[i], valueMapper);
+		}
+		rowCount++;
+		return this;
+	}
+
+	public ColumnarDataSet build() {
+		return new ColumnarDataSet(batchId, columnOrder, columns, rowCount);
+	}
+
+	/**
+	 * Converts values that cannot be kept in a primitive column, e.g. LOBs.
+	 */
+	public interface ValueMapper {
+		Object map(Object value, int jdbcType) throws Exception;
+	}
+}
@@ -76,8 +76,57 @@ public class DefaultDataSet implements DataSet {
 		return AsciiTable.getTable(headers, data);
 	}
 
-	protected List<DataColumn> getColumnOrder() {
+	@Override
+	public int getRowCount() {
+		return result.size();
+	}
+
+	@Override
+	public List<DataColumn> getColumnOrder() {
 		return columnOrder;
 	}
 
+	@Override
+	public int getColumnIndex(String column) {
+		if (StringUtils.isEmpty(column)) {
+			return -1;
+		}
+		return IntStream.range(0, columnOrder.size())
+				.filter(i -> column.equalsIgnoreCase(columnOrder.get(i).getColumnName())).findFirst().orElse(-1);
+	}
+
+	@Override
+	public Object getColumnValue(int columnIndex, int rowIndex) {
+		return result.get(rowIndex).get(columnIndex);
+	}
+
+	@Override
+	public boolean isNull(int columnIndex, int rowIndex) {
+		return getColumnValue(columnIndex, rowIndex) == null;
+	}
+
+	@Override
+	public long getLong(int columnIndex, int rowIndex) {
+		Object value = getColumnValue(columnIndex, rowIndex);
+		return value == null ? 0L : ((Number) value).longValue();
+	}
+
+	@Override
+	public int getInt(int columnIndex, int rowIndex) {
+		Object value = getColumnValue(columnIndex, rowIndex);
+		return value == null ? 0 : ((Number) value).intValue();
+	}
+
+	@Override
+	public double getDouble(int columnIndex, int rowIndex) {
+		Object value = getColumnValue(columnIndex, rowIndex);
+		return value == null ? 0d : ((Number) value).doubleValue();
+	}
+
+	@Override
+	public String getString(int columnIndex, int rowIndex) {
+		Object value = getColumnValue(columnIndex, rowIndex);
+		return value == null ? null : String.valueOf(value);
+	}
+
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.dataset.impl;
+
+import org.apache.commons.io.IOUtils;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LOB value that has been written to a temporary file instead of being kept on
+ * the heap. Streams opened for binding stay open until the value is released,
+ * since drivers only consume them when the batch is executed.
+ */
+public final class SpilledLob {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SpilledLob.class);
+
+	private final Path file;
+	private final boolean character;
+	private final long length;
+	private final List<Closeable> openStreams = new ArrayList<>();
+
+	private SpilledLob(Path file, boolean character, long length) {
+		this.file = file;
+		this.character = character;
+		this.length = length;
+	}
+
+	public static SpilledLob spill(InputStream in, Path directory) throws IOException {
+		Path file = Files.createTempFile(directory, "blob", ".tmp");
+		try (InputStream source = in; OutputStream out = Files.newOutputStream(file)) {
+			return new SpilledLob(file, false, IOUtils.copyLarge(source, out));
+		} catch (IOException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+	}
+
+	public static SpilledLob spill(Reader in, Path directory) throws IOException {
+		Path file = Files.createTempFile(directory, "clob", ".tmp");
+		try (Reader source = in; Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			return new SpilledLob(file, true, IOUtils.copyLarge(source, out));
+		} catch (IOException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+	}
+
+	/**
+	 * Releases all spilled LOBs of the given data set.
+	 */
+	public static void release(DataSet dataSet) {
+		List<DataColumn> columns = dataSet.getColumnOrder();
+		for (int column = 0; column < columns.size(); column++) {
+			if (!isLobType(columns.get(column).getColumnType())) {
+				continue;
+			}
+			for (int row = 0; row < dataSet.getRowCount(); row++) {
+				Object value = dataSet.getColumnValue(column, row);
+				if (value instanceof SpilledLob) {
+					((SpilledLob) value).release();
+				}
+			}
+		}
+	}
+
+	private static boolean isLobType(int jdbcType) {
+		return jdbcType == Types.BLOB || jdbcType == Types.CLOB || jdbcType == Types.NCLOB;
+	}
+
+	public boolean isCharacter() {
+		return character;
+	}
+
+	/**
+	 * @return number of bytes for binary, number of characters for character LOBs
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	public synchronized InputStream openBinaryStream() throws IOException {
+		InputStream in = Files.newInputStream(file);
+		openStreams.add(in);
+		return in;
+	}
+
+	public synchronized Reader openCharacterStream() throws IOException {
+		Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+		openStreams.add(in);
+		return in;
+	}
+
+	public synchronized void release() {
+		openStreams.forEach(IOUtils::closeQuietly);
+		openStreams.clear();
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			LOG.warn("Could not delete spilled LOB {}", file, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s(%s %s)", getClass().getSimpleName(), length, character ? "chars" : "bytes");
+	}
+}
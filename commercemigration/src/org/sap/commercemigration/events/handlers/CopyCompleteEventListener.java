@@ -15,6 +15,7 @@ import org.sap.commercemigration.events.CopyCompleteEvent;
 import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.processors.MigrationPostProcessor;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +36,8 @@ public class CopyCompleteEventListener extends AbstractEventListener<CopyComplet
 
 	private List<MigrationPostProcessor> postProcessors;
 
+	private DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService;
+
 	@Override
 	protected void onEvent(CopyCompleteEvent event) {
 		final String migrationId = event.getMigrationId();
@@ -43,6 +46,8 @@ public class CopyCompleteEventListener extends AbstractEventListener<CopyComplet
 		CopyContext copyContext = new CopyContext(migrationId, migrationContext, new HashSet<>(), performanceProfiler);
 
 		executePostProcessors(copyContext);
+		// the event reaches every node, each one spills to its own directory
+		databaseMigrationDataTypeMapperService.releaseSpilledLobs();
 	}
 
 	/**
@@ -95,4 +100,9 @@ public class CopyCompleteEventListener extends AbstractEventListener<CopyComplet
 	public void setPostProcessors(List<MigrationPostProcessor> postProcessors) {
 		this.postProcessors = postProcessors;
 	}
+
+	public void setDatabaseMigrationDataTypeMapperService(
+			DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
+		this.databaseMigrationDataTypeMapperService = databaseMigrationDataTypeMapperService;
+	}
 }
@@ -19,7 +19,7 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 import java.io.Serializable;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -53,13 +53,17 @@ public class CopyDatabaseTableEventListener extends AbstractEventListener<CopyDa
 		try (MDC.MDCCloseable ignored = MDC.putCloseable(MDC_MIGRATIONID, migrationId);
 				MDC.MDCCloseable ignored2 = MDC.putCloseable(MDC_CLUSTERID,
 						String.valueOf(clusterService.getClusterId()))) {
-			CopyContext copyContext = new CopyContext(migrationId, migrationContext, new HashSet<>(),
+			// the schemas may have changed since the previous migration on this node
+			migrationContext.getDataSourceRepository().invalidateCatalogCache();
+			migrationContext.getDataTargetRepository().invalidateCatalogCache();
+			// the pending tasks are ordered by size, so the largest tables of this node are copied first
+			CopyContext copyContext = new CopyContext(migrationId, migrationContext, new LinkedHashSet<>(),
 					performanceProfiler);
 			Set<DatabaseCopyTask> copyTableTasks = databaseCopyTaskRepository.findPendingTasks(copyContext);
 			Set<CopyContext.DataCopyItem> items = copyTableTasks
 					.stream().map(task -> new CopyContext.DataCopyItem(task.getSourcetablename(),
 							task.getTargettablename(), task.getColumnmap(), task.getSourcerowcount()))
-					.collect(Collectors.toSet());
+					.collect(Collectors.toCollection(LinkedHashSet::new));
 			copyContext.getCopyItems().addAll(items);
 			databaseMigrationCopyService.copyAllAsync(copyContext);
 
@@ -0,0 +1,63 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.processors.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.sap.commercemigration.DeletionReport;
+import org.sap.commercemigration.TableDeletion;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.processors.MigrationPostProcessor;
+import org.sap.commercemigration.service.DatabaseMigrationDeletionService;
+import org.sap.commercemigration.service.DatabaseMigrationReportStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Deletes the rows deleted in the source from the tables of an incremental
+ * migration and stores the deleted row counts next to the migration report.
+ */
+public class DeletionMigrationPostProcessor implements MigrationPostProcessor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DeletionMigrationPostProcessor.class.getName());
+
+	private DatabaseMigrationDeletionService databaseMigrationDeletionService;
+	private DatabaseMigrationReportStorageService databaseMigrationReportStorageService;
+
+	@Override
+	public void process(CopyContext context) {
+		if (!context.getMigrationContext().isIncrementalModeEnabled()
+				|| !context.getMigrationContext().isIncrementalDeletionsEnabled()) {
+			return;
+		}
+		try {
+			DeletionReport report = databaseMigrationDeletionService.propagateDeletions(context);
+			Gson gson = new GsonBuilder().setPrettyPrinting().create();
+			InputStream is = new ByteArrayInputStream(gson.toJson(report).getBytes(StandardCharsets.UTF_8));
+			databaseMigrationReportStorageService.store(context.getMigrationId() + "-deletions.json", is);
+			long deletedRows = report.getTables().stream().mapToLong(TableDeletion::getDeletedRows).sum();
+			long failed = report.getTables().stream().filter(table -> table.getError() != null).count();
+			if (failed > 0) {
+				LOG.warn("Propagating deletions failed for {} of {} tables", failed, report.getTables().size());
+			}
+			LOG.info("Finished propagating deletions, deleted {} rows", deletedRows);
+		} catch (Exception e) {
+			LOG.error("Error executing post processor", e);
+		}
+	}
+
+	public void setDatabaseMigrationDeletionService(DatabaseMigrationDeletionService databaseMigrationDeletionService) {
+		this.databaseMigrationDeletionService = databaseMigrationDeletionService;
+	}
+
+	public void setDatabaseMigrationReportStorageService(
+			DatabaseMigrationReportStorageService databaseMigrationReportStorageService) {
+		this.databaseMigrationReportStorageService = databaseMigrationReportStorageService;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.processors.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.sap.commercemigration.TableVerification;
+import org.sap.commercemigration.VerificationReport;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.processors.MigrationPostProcessor;
+import org.sap.commercemigration.service.DatabaseMigrationReportStorageService;
+import org.sap.commercemigration.service.DatabaseMigrationVerificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Verifies the copied data and stores the verification report next to the
+ * migration report. Incremental migrations are not verified since the target
+ * holds rows the migration did not copy.
+ */
+public class VerificationMigrationPostProcessor implements MigrationPostProcessor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(VerificationMigrationPostProcessor.class.getName());
+
+	private DatabaseMigrationVerificationService databaseMigrationVerificationService;
+	private DatabaseMigrationReportStorageService databaseMigrationReportStorageService;
+
+	@Override
+	public void process(CopyContext context) {
+		if (!context.getMigrationContext().isDataVerificationEnabled()) {
+			return;
+		}
+		if (context.getMigrationContext().isIncrementalModeEnabled()) {
+			LOG.info("Skipping data verification of incremental migration");
+			return;
+		}
+		try {
+			VerificationReport report = databaseMigrationVerificationService.verify(context);
+			Gson gson = new GsonBuilder().setPrettyPrinting().create();
+			InputStream is = new ByteArrayInputStream(gson.toJson(report).getBytes(StandardCharsets.UTF_8));
+			databaseMigrationReportStorageService.store(context.getMigrationId() + "-verification.json", is);
+			long failed = report.getTables().stream().filter(table -> !table.isVerified()).count();
+			if (failed > 0) {
+				LOG.warn("Data verification failed for {} of {} tables: {}", failed, report.getTables().size(),
+						report.getTables().stream().filter(table -> !table.isVerified())
+								.map(TableVerification::getPipelinename).toArray());
+			} else {
+				LOG.info("Finished data verification of {} tables", report.getTables().size());
+			}
+		} catch (Exception e) {
+			LOG.error("Error executing post processor", e);
+		}
+	}
+
+	public void setDatabaseMigrationVerificationService(
+			DatabaseMigrationVerificationService databaseMigrationVerificationService) {
+		this.databaseMigrationVerificationService = databaseMigrationVerificationService;
+	}
+
+	public void setDatabaseMigrationReportStorageService(
+			DatabaseMigrationReportStorageService databaseMigrationReportStorageService) {
+		this.databaseMigrationReportStorageService = databaseMigrationReportStorageService;
+	}
+}
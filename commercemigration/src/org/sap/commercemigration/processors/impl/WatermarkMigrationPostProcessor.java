@@ -0,0 +1,39 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.processors.impl;
+
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.processors.MigrationPostProcessor;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the watermarks of the copied tables once the migration succeeded, so
+ * the next incremental migration continues where this one stopped.
+ */
+public class WatermarkMigrationPostProcessor implements MigrationPostProcessor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(WatermarkMigrationPostProcessor.class.getName());
+
+	private DatabaseCopyTaskRepository databaseCopyTaskRepository;
+
+	@Override
+	public void process(CopyContext context) {
+		if (!context.getMigrationContext().isIncrementalWatermarkEnabled()) {
+			return;
+		}
+		try {
+			databaseCopyTaskRepository.saveWatermarks(context);
+			LOG.info("Finished saving watermarks of the copied tables");
+		} catch (Exception e) {
+			LOG.error("Error executing post processor", e);
+		}
+	}
+
+	public void setDatabaseCopyTaskRepository(DatabaseCopyTaskRepository databaseCopyTaskRepository) {
+		this.databaseCopyTaskRepository = databaseCopyTaskRepository;
+	}
+}
@@ -8,8 +8,13 @@ import de.hybris.bootstrap.ddl.DataBaseProvider;
 import java.sql.Connection;
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Index;
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
+import org.sap.commercemigration.RangeDigest;
+import org.sap.commercemigration.RangeDigestQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
 import org.sap.commercemigration.TypeSystemTable;
 import org.sap.commercemigration.dataset.DataSet;
@@ -18,9 +23,13 @@ import org.sap.commercemigration.profile.DataSourceConfiguration;
 import org.springframework.core.io.Resource;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  *
@@ -50,10 +59,50 @@ public interface DataRepository {
 
 	DataSet getBatchMarkersOrderedByColumn(MarkersQueryDefinition queryDefinition) throws Exception;
 
+	DataSet getBatchOrderedByColumns(KeysetQueryDefinition queryDefinition) throws Exception;
+
+	/**
+	 * Reads a batch by comparing the values of several columns, for tables whose
+	 * only unique key is composite.
+	 */
+	DataSet getBatchOrderedByColumns(KeysetQueryDefinition queryDefinition, Instant time) throws Exception;
+
+	DataSet getNextKeysetMarker(KeysetMarkersQueryDefinition queryDefinition) throws Exception;
+
+	/**
+	 * Composite key counterpart of
+	 * {@link #getNextBatchMarker(MarkersQueryDefinition, Instant)}.
+	 *
+	 * @return the key values of the marker as single row, or an empty data set if
+	 *         there is none
+	 */
+	DataSet getNextKeysetMarker(KeysetMarkersQueryDefinition queryDefinition, Instant time) throws Exception;
+
 	long getRowCount(String table) throws Exception;
 
 	long getRowCountModifiedAfter(String table, Instant time) throws SQLException;
 
+	/**
+	 * @return the latest modification time of the rows of the table, or null if
+	 *         the table is empty
+	 */
+	Instant getMaxModifiedTimestamp(String table) throws SQLException;
+
+	/**
+	 * Estimates the row count based on catalog statistics, which may be outdated.
+	 * Unlike {@link #getRowCount(String)} this does not scan the table.
+	 *
+	 * @return the estimated row count or -1 if no statistics are available
+	 */
+	long getEstimatedRowCount(String table) throws Exception;
+
+	/**
+	 * Estimates the average row size in bytes based on catalog statistics.
+	 *
+	 * @return the average row size or 0 if no statistics are available
+	 */
+	long getAverageRowSize(String table) throws Exception;
+
 	DataSet getAll(String table) throws Exception;
 
 	DataSet getAllModifiedAfter(String table, Instant time) throws Exception;
@@ -68,12 +117,29 @@ public interface DataRepository {
 
 	int truncateTable(String table) throws Exception;
 
+	/**
+	 * Deletes the rows with the given values of the column, e.g. their keys.
+	 *
+	 * @return the number of deleted rows
+	 */
+	int deleteRows(String table, String column, List<Object> values) throws Exception;
+
 	void disableIndexesOfTable(String table) throws Exception;
 
+	/**
+	 * Rebuilds the disabled indexes of the table, online and with the degree of
+	 * parallelism configured if the database supports it.
+	 */
 	void enableIndexesOfTable(String table) throws SQLException;
 
 	void dropIndexesOfTable(String table) throws SQLException;
 
+	/**
+	 * Creates the indexes that do not exist in the table, with the options of
+	 * {@link #enableIndexesOfTable(String)}.
+	 */
+	void createIndexesOfTable(String table, List<Index> indexes) throws SQLException;
+
 	Platform asPlatform();
 
 	Platform asPlatform(boolean reload);
@@ -86,8 +152,61 @@ public interface DataRepository {
 
 	DataSet getBatchMarkersOrderedByColumn(MarkersQueryDefinition queryDefinition, Instant time) throws Exception;
 
+	DataSet getNextBatchMarker(MarkersQueryDefinition queryDefinition) throws Exception;
+
+	/**
+	 * Seeks the batch marker that follows the lower column boundary by batch size
+	 * rows, or the first value of the column if no lower boundary is set. Unlike
+	 * {@link #getBatchMarkersOrderedByColumn(MarkersQueryDefinition, Instant)}
+	 * this only touches the rows of a single batch.
+	 *
+	 * @return the marker as single row, or an empty data set if there is none
+	 */
+	DataSet getNextBatchMarker(MarkersQueryDefinition queryDefinition, Instant time) throws Exception;
+
 	DataSet getUniqueColumns(String table) throws Exception;
 
+	/**
+	 * Digests the rows of a range of the column, or of all rows if no column is
+	 * set, in the database: the row count and a hash independent of the order
+	 * of the rows. Digests of the database are only comparable between databases
+	 * of the same provider.
+	 *
+	 * @return the digest or null if the database cannot compute it
+	 */
+	RangeDigest getDatabaseRangeDigest(RangeDigestQueryDefinition queryDefinition) throws Exception;
+
+	/**
+	 * Digests the rows of a range like
+	 * {@link #getDatabaseRangeDigest(RangeDigestQueryDefinition)}, but hashes
+	 * the rows streamed to the client. These digests are comparable between all
+	 * databases.
+	 */
+	RangeDigest getStreamedRangeDigest(RangeDigestQueryDefinition queryDefinition) throws Exception;
+
+	/**
+	 * Hashes the rows of a range one by one like
+	 * {@link #getStreamedRangeDigest(RangeDigestQueryDefinition)}, to find the
+	 * rows that differ.
+	 *
+	 * @return the hashes by the value of the column, ordered by the column
+	 */
+	Map<String, Long> getRowDigests(RangeDigestQueryDefinition queryDefinition) throws Exception;
+
+	/**
+	 * Streams the values of the numeric column of a range, e.g. its keys, in
+	 * ascending order from an open cursor, so that the values of large ranges are
+	 * not held at once.
+	 *
+	 * @return the values, the stream has to be closed to release the cursor
+	 */
+	Stream<BigDecimal> getOrderedNumericValues(RangeDigestQueryDefinition queryDefinition) throws Exception;
+
+	/**
+	 * @return the names of the columns of the table that allow null values
+	 */
+	Set<String> getNullableColumns(String table) throws Exception;
+
 	boolean validateConnection() throws Exception;
 
 	/**
@@ -101,4 +220,10 @@ public interface DataRepository {
 	 * Clear the store of JDBC queries from all the entries it currently contains
 	 */
 	void clearJdbcQueriesStore();
+
+	/**
+	 * Discards the cached tables, columns, unique indexes and audit tables, i.e.
+	 * after the schema was changed. They are reloaded on next use.
+	 */
+	void invalidateCatalogCache();
 }
@@ -5,20 +5,27 @@
 package org.sap.commercemigration.repository.impl;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.AbstractIterator;
 import de.hybris.bootstrap.ddl.DatabaseSettings;
 import de.hybris.bootstrap.ddl.HybrisPlatformFactory;
 import de.hybris.bootstrap.ddl.tools.persistenceinfo.PersistenceInformation;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Index;
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
+import org.sap.commercemigration.RangeDigest;
+import org.sap.commercemigration.RangeDigestQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
 import org.sap.commercemigration.TypeSystemTable;
 import org.sap.commercemigration.constants.CommercemigrationConstants;
 import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.dataset.DataColumn;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.ColumnarDataSetBuilder;
 import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
 import org.sap.commercemigration.dataset.impl.DefaultDataSet;
 import org.sap.commercemigration.datasource.MigrationDataSourceFactory;
@@ -34,24 +41,34 @@ import org.springframework.core.io.Resource;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.sap.commercemigration.constants.CommercemigrationConstants.MIGRATION_TABLESPREFIX;
 
@@ -72,6 +89,8 @@ public abstract class AbstractDataRepository implements DataRepository {
 	private final MigrationContext migrationContext;
 	private Platform platform;
 	private Database database;
+	private final Object catalogLock = new Object();
+	private volatile DataRepositoryCatalog catalog;
 
 	protected AbstractDataRepository(MigrationContext migrationContext, DataSourceConfiguration dataSourceConfiguration,
 			DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
@@ -95,6 +114,10 @@ public abstract class AbstractDataRepository implements DataRepository {
 		return dataSourceConfiguration;
 	}
 
+	protected MigrationContext getMigrationContext() {
+		return migrationContext;
+	}
+
 	@Override
 	public DataSource getDataSource() {
 		return dataSourceHolder.computeIfAbsent("DATASOURCE",
@@ -135,6 +158,21 @@ public abstract class AbstractDataRepository implements DataRepository {
 		return executeUpdateAndCommit(String.format("truncate table %s", table));
 	}
 
+	@Override
+	public int deleteRows(String table, String column, List<Object> values) throws SQLException {
+		if (values.isEmpty()) {
+			return 0;
+		}
+		String sql = String.format("DELETE FROM %s WHERE %s IN (%s)", table, column,
+				String.join(", ", Collections.nCopies(values.size(), "?")));
+		try (Connection connection = getConnection(); PreparedStatement stmt = connection.prepareStatement(sql)) {
+			for (int i = 0; i < values.size(); i++) {
+				stmt.setObject(i + 1, values.get(i));
+			}
+			return stmt.executeUpdate();
+		}
+	}
+
 	@Override
 	public long getRowCount(String table) throws SQLException {
 		List<String> conditionsList = new ArrayList<>(1);
@@ -177,6 +215,76 @@ public abstract class AbstractDataRepository implements DataRepository {
 		}
 	}
 
+	@Override
+	public Instant getMaxModifiedTimestamp(String table) throws SQLException {
+		List<String> conditionsList = new ArrayList<>(1);
+		processDefaultConditions(table, conditionsList);
+		String[] conditions = null;
+		if (!conditionsList.isEmpty()) {
+			conditions = conditionsList.toArray(new String[conditionsList.size()]);
+		}
+		try (Connection connection = getConnection();
+				Statement stmt = connection.createStatement();
+				ResultSet resultSet = stmt.executeQuery(String.format("select max(modifiedts) from %s where %s",
+						table, expandConditions(conditions)))) {
+			Timestamp value = resultSet.next() ? resultSet.getTimestamp(1) : null;
+			return value == null ? null : value.toInstant();
+		}
+	}
+
+	@Override
+	public long getEstimatedRowCount(String table) throws Exception {
+		// tables never analyzed have no row count
+		return queryStatistic(table, createEstimatedRowCountQuery(table), "estimated row count", -1);
+	}
+
+	/**
+	 * @return a query selecting the row count from the catalog statistics or null
+	 *         if not supported
+	 */
+	protected String createEstimatedRowCountQuery(String table) {
+		return null;
+	}
+
+	@Override
+	public long getAverageRowSize(String table) throws Exception {
+		return queryStatistic(table, createAverageRowSizeQuery(table), "average row size", 0);
+	}
+
+	/**
+	 * Reads a single value from the catalog statistics.
+	 *
+	 * @param query
+	 *            the statistics query, null if not supported
+	 * @return the value, or the fallback if there is none or it cannot be read
+	 */
+	private long queryStatistic(String table, String query, String statistic, long fallback) throws Exception {
+		if (query == null) {
+			return fallback;
+		}
+		try (Connection connection = getConnection();
+				Statement stmt = connection.createStatement();
+				ResultSet resultSet = stmt.executeQuery(query)) {
+			if (resultSet.next()) {
+				long value = resultSet.getLong(1);
+				return resultSet.wasNull() ? fallback : value;
+			}
+			return fallback;
+		} catch (SQLException e) {
+			// statistics views are not necessarily accessible for the migration user
+			LOG.debug("Could not read {} of table {}: {}", statistic, table, e.getMessage());
+			return fallback;
+		}
+	}
+
+	/**
+	 * @return a query selecting the average row size in bytes from the catalog
+	 *         statistics or null if not supported
+	 */
+	protected String createAverageRowSizeQuery(String table) {
+		return null;
+	}
+
 	@Override
 	public DataSet getAll(String table) throws Exception {
 		List<String> conditionsList = new ArrayList<>(1);
@@ -211,43 +319,55 @@ public abstract class AbstractDataRepository implements DataRepository {
 		}
 	}
 
-	protected DefaultDataSet convertToDataSet(ResultSet resultSet) throws Exception {
+	protected DataSet convertToDataSet(ResultSet resultSet) throws Exception {
 		return convertToDataSet(resultSet, Collections.emptySet());
 	}
 
-	protected DefaultDataSet convertToDataSet(int batchId, ResultSet resultSet) throws Exception {
+	protected DataSet convertToDataSet(int batchId, ResultSet resultSet) throws Exception {
 		return convertToDataSet(batchId, resultSet, Collections.emptySet());
 	}
 
-	protected DefaultDataSet convertToDataSet(ResultSet resultSet, Set<String> ignoreColumns) throws Exception {
+	protected DataSet convertToDataSet(ResultSet resultSet, Set<String> ignoreColumns) throws Exception {
 		return convertToDataSet(0, resultSet, ignoreColumns);
 	}
 
-	protected DefaultDataSet convertToDataSet(int batchId, ResultSet resultSet, Set<String> ignoreColumns)
+	protected DataSet convertToDataSet(int batchId, ResultSet resultSet, Set<String> ignoreColumns)
 			throws Exception {
-		int realColumnCount = resultSet.getMetaData().getColumnCount();
+		ResultSetMetaData metaData = resultSet.getMetaData();
+		int realColumnCount = metaData.getColumnCount();
 		List<DataColumn> columnOrder = new ArrayList<>();
+		int[] resultSetIndexes = new int[realColumnCount];
+		boolean[] signedColumns = new boolean[realColumnCount];
 		int columnCount = 0;
 		for (int i = 1; i <= realColumnCount; i++) {
-			String columnName = resultSet.getMetaData().getColumnName(i);
-			int columnType = resultSet.getMetaData().getColumnType(i);
-			int precision = resultSet.getMetaData().getPrecision(i);
-			int scale = resultSet.getMetaData().getScale(i);
+			String columnName = metaData.getColumnName(i);
+			int columnType = metaData.getColumnType(i);
+			int precision = metaData.getPrecision(i);
+			int scale = metaData.getScale(i);
 			if (ignoreColumns.stream().anyMatch(columnName::equalsIgnoreCase)) {
 				continue;
 			}
+			resultSetIndexes[columnCount] = i;
+			signedColumns[columnCount] = metaData.isSigned(i);
 			columnCount += 1;
 			columnOrder.add(new DefaultDataColumn(columnName, columnType, precision, scale));
 		}
+		if (migrationContext.isColumnarDataSetEnabled()) {
+			ColumnarDataSetBuilder builder = new ColumnarDataSetBuilder(batchId, columnOrder,
+					Arrays.copyOf(resultSetIndexes, columnCount), Arrays.copyOf(signedColumns, columnCount),
+					migrationContext.getReaderBatchSize(), databaseMigrationDataTypeMapperService::dataTypeMapper);
+			while (resultSet.next()) {
+				builder.appendRow(resultSet);
+			}
+			return builder.build();
+		}
 		List<List<Object>> results = new ArrayList<>();
 		while (resultSet.next()) {
-			List<Object> row = new ArrayList<>();
-			for (DataColumn dataColumn : columnOrder) {
-				int idx = resultSet.findColumn(dataColumn.getColumnName());
-				Object object = resultSet.getObject(idx);
-				// TODO: improve CLOB/BLOB handling
+			List<Object> row = new ArrayList<>(columnCount);
+			for (int i = 0; i < columnCount; i++) {
+				Object object = resultSet.getObject(resultSetIndexes[i]);
 				Object mappedValue = databaseMigrationDataTypeMapperService.dataTypeMapper(object,
-						resultSet.getMetaData().getColumnType(idx));
+						columnOrder.get(i).getColumnType());
 				row.add(mappedValue);
 			}
 			results.add(row);
@@ -268,11 +388,12 @@ public abstract class AbstractDataRepository implements DataRepository {
 
 	@Override
 	public void enableIndexesOfTable(String table) throws SQLException {
+		String options = getIndexBuildOptions();
 		try (Connection connection = getConnection();
 				Statement stmt = connection.createStatement();
 				ResultSet resultSet = stmt.executeQuery(getEnableIndexesScript(table))) {
 			while (resultSet.next()) {
-				runIndexQuery(resultSet);
+				runIndexQuery(resultSet.getString(1) + options);
 			}
 		}
 	}
@@ -288,8 +409,19 @@ public abstract class AbstractDataRepository implements DataRepository {
 		}
 	}
 
+	@Override
+	public void createIndexesOfTable(String table, List<Index> indexes) throws SQLException {
+		String options = getIndexBuildOptions();
+		for (Index index : indexes) {
+			runIndexQuery(getCreateIndexStatement(table, index) + options);
+		}
+	}
+
 	private void runIndexQuery(ResultSet resultSet) throws SQLException {
-		String q = resultSet.getString(1);
+		runIndexQuery(resultSet.getString(1));
+	}
+
+	private void runIndexQuery(String q) throws SQLException {
 		LOG.debug("Running query: {}", q);
 		executeUpdateAndCommit(q);
 	}
@@ -306,6 +438,21 @@ public abstract class AbstractDataRepository implements DataRepository {
 		throw new UnsupportedOperationException();
 	}
 
+	/**
+	 * @return the statement creating the index unless it exists
+	 */
+	protected String getCreateIndexStatement(String table, Index index) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return the options appended to the statements rebuilding or creating an
+	 *         index, empty if the database has none
+	 */
+	protected String getIndexBuildOptions() throws SQLException {
+		return "";
+	}
+
 	@Override
 	public Platform asPlatform() {
 		return asPlatform(false);
@@ -340,6 +487,9 @@ public abstract class AbstractDataRepository implements DataRepository {
 	@Override
 	public Database asDatabase(boolean reload) {
 		if (this.database == null || reload) {
+			if (reload) {
+				invalidateCatalogCache();
+			}
 			this.database = getDatabase(reload);
 		}
 		return this.database;
@@ -350,20 +500,79 @@ public abstract class AbstractDataRepository implements DataRepository {
 		return asPlatform(reload).readModelFromDatabase(getDataSourceConfiguration().getProfile(), null, schema, null);
 	}
 
+	@Override
+	public void invalidateCatalogCache() {
+		synchronized (catalogLock) {
+			this.catalog = null;
+		}
+	}
+
+	/**
+	 * @return the catalog of the schema, loaded on first use, or null if the
+	 *         database has no set-based catalog queries
+	 */
+	private DataRepositoryCatalog getCatalog() throws SQLException {
+		DataRepositoryCatalog current = this.catalog;
+		if (current != null) {
+			return current;
+		}
+		String allColumnsQuery = createAllColumnsQuery();
+		String allUniqueColumnsQuery = createAllUniqueColumnsQuery();
+		if (allColumnsQuery == null || allUniqueColumnsQuery == null) {
+			return null;
+		}
+		synchronized (catalogLock) {
+			if (this.catalog == null) {
+				try (Connection connection = getConnection()) {
+					this.catalog = DataRepositoryCatalog.load(connection, createAllTableNamesQuery(), allColumnsQuery,
+							allUniqueColumnsQuery, createAuditTableNamesQuery());
+				}
+				LOG.debug("Loaded catalog of {} tables", this.catalog.getTableNames().size());
+			}
+			return this.catalog;
+		}
+	}
+
+	/**
+	 * @return a query selecting table name, column name and nullability of all
+	 *         columns of the schema or null if not supported
+	 */
+	protected String createAllColumnsQuery() {
+		return null;
+	}
+
+	/**
+	 * @return a query selecting table name, index name and column name of all
+	 *         unique indexes of the schema, ordered by table, index and column
+	 *         position, or null if not supported
+	 */
+	protected String createAllUniqueColumnsQuery() {
+		return null;
+	}
+
+	private String createAuditTableNamesQuery() {
+		return String.format("SELECT AuditTableName FROM %s%s WHERE AuditTableName IS NOT NULL",
+				StringUtils.defaultIfBlank(getDataSourceConfiguration().getTablePrefix(), ""),
+				CommercemigrationConstants.DEPLOYMENTS_TABLE);
+	}
+
 	@Override
 	public Set<String> getAllTableNames() throws SQLException {
 		Set<String> allTableNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-		String allTableNamesQuery = createAllTableNamesQuery();
-		try (Connection connection = getConnection();
-				Statement stmt = connection.createStatement();
-				ResultSet resultSet = stmt.executeQuery(allTableNamesQuery)) {
-			while (resultSet.next()) {
-				String tableName = resultSet.getString(1);
-				if (!StringUtils.startsWithIgnoreCase(tableName, MIGRATION_TABLESPREFIX)) {
+		DataRepositoryCatalog currentCatalog = getCatalog();
+		if (currentCatalog != null) {
+			allTableNames.addAll(currentCatalog.getTableNames());
+		} else {
+			String allTableNamesQuery = createAllTableNamesQuery();
+			try (Connection connection = getConnection();
+					Statement stmt = connection.createStatement();
+					ResultSet resultSet = stmt.executeQuery(allTableNamesQuery)) {
+				while (resultSet.next()) {
 					allTableNames.add(resultSet.getString(1));
 				}
 			}
 		}
+		allTableNames.removeIf(tableName -> StringUtils.startsWithIgnoreCase(tableName, MIGRATION_TABLESPREFIX));
 		return allTableNames;
 	}
 
@@ -426,6 +635,11 @@ public abstract class AbstractDataRepository implements DataRepository {
 	@Override
 	public boolean isAuditTable(String table) throws Exception {
 		String tablePrefix = getDataSourceConfiguration().getTablePrefix();
+		DataRepositoryCatalog currentCatalog = getCatalog();
+		if (currentCatalog != null) {
+			return currentCatalog.isAuditTable(StringUtils.removeStartIgnoreCase(table, tablePrefix))
+					|| currentCatalog.isAuditTable(table);
+		}
 		String query = String.format("SELECT count(*) from %s%s WHERE AuditTableName = ? OR AuditTableName = ?",
 				StringUtils.defaultIfBlank(tablePrefix, ""), CommercemigrationConstants.DEPLOYMENTS_TABLE);
 		try (Connection connection = getConnection(); PreparedStatement stmt = connection.prepareStatement(query)) {
@@ -447,8 +661,13 @@ public abstract class AbstractDataRepository implements DataRepository {
 
 	@Override
 	public Set<String> getAllColumnNames(String table) throws SQLException {
-		String allColumnNamesQuery = createAllColumnNamesQuery(table);
 		Set<String> allColumnNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		DataRepositoryCatalog currentCatalog = getCatalog();
+		if (currentCatalog != null && currentCatalog.containsColumnsOf(table)) {
+			allColumnNames.addAll(currentCatalog.getColumnNames(table));
+			return allColumnNames;
+		}
+		String allColumnNamesQuery = createAllColumnNamesQuery(table);
 		try (Connection connection = getConnection();
 				Statement stmt = connection.createStatement();
 				ResultSet resultSet = stmt.executeQuery(allColumnNamesQuery)) {
@@ -565,20 +784,336 @@ public abstract class AbstractDataRepository implements DataRepository {
 		}
 	}
 
+	@Override
+	public DataSet getNextBatchMarker(MarkersQueryDefinition queryDefinition) throws Exception {
+		return getNextBatchMarker(queryDefinition, null);
+	}
+
+	@Override
+	public DataSet getNextBatchMarker(MarkersQueryDefinition queryDefinition, Instant time) throws Exception {
+		List<String> conditionsList = new ArrayList<>(2);
+		processDefaultConditions(queryDefinition.getTable(), conditionsList);
+		if (time != null) {
+			conditionsList.add("modifiedts > ?");
+		}
+		long offset = 0;
+		if (queryDefinition.getLowerColumnBoundary() != null) {
+			conditionsList.add(
+					String.format("%s >= %s", queryDefinition.getColumn(), queryDefinition.getLowerColumnBoundary()));
+			offset = queryDefinition.getBatchSize();
+		}
+		String[] conditions = null;
+		if (!conditionsList.isEmpty()) {
+			conditions = conditionsList.toArray(new String[conditionsList.size()]);
+		}
+		try (Connection connection = getConnection();
+				PreparedStatement stmt = connection
+						.prepareStatement(buildNextBatchMarkerQuery(queryDefinition, offset, conditions))) {
+			if (time != null) {
+				stmt.setTimestamp(1, Timestamp.from(time));
+			}
+			ResultSet resultSet = stmt.executeQuery();
+			return convertToBatchDataSet(0, resultSet);
+		}
+	}
+
+	@Override
+	public DataSet getBatchOrderedByColumns(KeysetQueryDefinition queryDefinition) throws Exception {
+		return getBatchOrderedByColumns(queryDefinition, null);
+	}
+
+	@Override
+	public DataSet getBatchOrderedByColumns(KeysetQueryDefinition queryDefinition, Instant time) throws Exception {
+		List<String> conditionsList = new ArrayList<>(3);
+		processDefaultConditions(queryDefinition.getTable(), conditionsList);
+		if (time != null) {
+			conditionsList.add("modifiedts > ?");
+		}
+		List<String> columns = queryDefinition.getColumns();
+		if (queryDefinition.getLowerBoundary() != null) {
+			conditionsList.add(buildKeysetCondition(columns, ">", ">="));
+		}
+		if (queryDefinition.getUpperBoundary() != null) {
+			conditionsList.add(buildKeysetCondition(columns, "<", "<"));
+		}
+		String[] conditions = null;
+		if (!conditionsList.isEmpty()) {
+			conditions = conditionsList.toArray(new String[conditionsList.size()]);
+		}
+		try (Connection connection = getConnection();
+				PreparedStatement stmt = connection
+						.prepareStatement(buildKeysetBatchQuery(queryDefinition, conditions))) {
+			stmt.setFetchSize((int) queryDefinition.getBatchSize());
+			int paramIdx = 1;
+			if (time != null) {
+				stmt.setTimestamp(paramIdx++, Timestamp.from(time));
+			}
+			paramIdx = bindKeysetParameters(stmt, paramIdx, queryDefinition.getLowerBoundary());
+			bindKeysetParameters(stmt, paramIdx, queryDefinition.getUpperBoundary());
+			ResultSet resultSet = stmt.executeQuery();
+			return convertToBatchDataSet(queryDefinition.getBatchId(), resultSet);
+		}
+	}
+
+	@Override
+	public DataSet getNextKeysetMarker(KeysetMarkersQueryDefinition queryDefinition) throws Exception {
+		return getNextKeysetMarker(queryDefinition, null);
+	}
+
+	@Override
+	public DataSet getNextKeysetMarker(KeysetMarkersQueryDefinition queryDefinition, Instant time)
+			throws Exception {
+		List<String> conditionsList = new ArrayList<>(3);
+		processDefaultConditions(queryDefinition.getTable(), conditionsList);
+		if (time != null) {
+			conditionsList.add("modifiedts > ?");
+		}
+		long offset = 0;
+		if (queryDefinition.getLowerBoundary() != null) {
+			conditionsList.add(buildKeysetCondition(queryDefinition.getColumns(), ">", ">="));
+			offset = queryDefinition.getBatchSize();
+		}
+		String[] conditions = null;
+		if (!conditionsList.isEmpty()) {
+			conditions = conditionsList.toArray(new String[conditionsList.size()]);
+		}
+		try (Connection connection = getConnection();
+				PreparedStatement stmt = connection
+						.prepareStatement(buildNextKeysetMarkerQuery(queryDefinition, offset, conditions))) {
+			int paramIdx = 1;
+			if (time != null) {
+				stmt.setTimestamp(paramIdx++, Timestamp.from(time));
+			}
+			bindKeysetParameters(stmt, paramIdx, queryDefinition.getLowerBoundary());
+			ResultSet resultSet = stmt.executeQuery();
+			return convertToBatchDataSet(0, resultSet);
+		}
+	}
+
+	/**
+	 * Expands the row value comparison (c1, c2, c3) &gt;= (?, ?, ?) into
+	 * (c1 &gt; ?) OR (c1 = ? AND c2 &gt; ?) OR (c1 = ? AND c2 = ? AND c3 &gt;= ?),
+	 * since row value constructors are not supported by all databases.
+	 *
+	 * @param operator
+	 *            comparison used for all but the last column
+	 * @param lastOperator
+	 *            comparison used for the last column
+	 */
+	protected String buildKeysetCondition(List<String> columns, String operator, String lastOperator) {
+		List<String> terms = new ArrayList<>(columns.size());
+		for (int i = 0; i < columns.size(); i++) {
+			List<String> term = new ArrayList<>(i + 1);
+			for (int j = 0; j < i; j++) {
+				term.add(String.format("%s = ?", columns.get(j)));
+			}
+			term.add(String.format("%s %s ?", columns.get(i), i == columns.size() - 1 ? lastOperator : operator));
+			terms.add("(" + Joiner.on(" AND ").join(term) + ")");
+		}
+		return "(" + Joiner.on(" OR ").join(terms) + ")";
+	}
+
+	/**
+	 * Binds the parameters of a condition built by
+	 * {@link #buildKeysetCondition(List, String, String)}.
+	 *
+	 * @return the index of the next parameter
+	 */
+	private int bindKeysetParameters(PreparedStatement stmt, int paramIdx, List<Object> boundary)
+			throws SQLException {
+		if (boundary == null) {
+			return paramIdx;
+		}
+		for (int i = 0; i < boundary.size(); i++) {
+			for (int j = 0; j <= i; j++) {
+				stmt.setObject(paramIdx++, boundary.get(j));
+			}
+		}
+		return paramIdx;
+	}
+
+	@Override
+	public Set<String> getNullableColumns(String table) throws Exception {
+		Set<String> nullableColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		DataRepositoryCatalog currentCatalog = getCatalog();
+		if (currentCatalog != null && currentCatalog.containsColumnsOf(table)) {
+			nullableColumns.addAll(currentCatalog.getNullableColumns(table));
+			return nullableColumns;
+		}
+		try (Connection connection = getConnection();
+				Statement stmt = connection.createStatement();
+				ResultSet resultSet = stmt.executeQuery(String.format("select * from %s where 0 = 1", table))) {
+			ResultSetMetaData metaData = resultSet.getMetaData();
+			for (int i = 1; i <= metaData.getColumnCount(); i++) {
+				if (metaData.isNullable(i) != ResultSetMetaData.columnNoNulls) {
+					nullableColumns.add(metaData.getColumnName(i));
+				}
+			}
+		}
+		return nullableColumns;
+	}
+
 	@Override
 	public DataSet getUniqueColumns(String table) throws Exception {
+		DataRepositoryCatalog currentCatalog = getCatalog();
+		if (currentCatalog != null && currentCatalog.containsColumnsOf(table)) {
+			List<List<Object>> rows = currentCatalog.getUniqueColumns(table).stream()
+					.map(column -> Collections.<Object>singletonList(column)).collect(Collectors.toList());
+			return new DefaultDataSet(0, 1,
+					Collections.singletonList(new DefaultDataColumn("COLUMN_NAME", Types.VARCHAR, 0, 0)), rows);
+		}
 		try (Connection connection = getConnection(); Statement stmt = connection.createStatement()) {
 			ResultSet resultSet = stmt.executeQuery(createUniqueColumnsQuery(table));
 			return convertToDataSet(resultSet);
 		}
 	}
 
+	@Override
+	public RangeDigest getDatabaseRangeDigest(RangeDigestQueryDefinition queryDefinition) throws Exception {
+		String query = buildRangeDigestQuery(queryDefinition, createRangeConditions(queryDefinition));
+		if (query == null) {
+			return null;
+		}
+		try (Connection connection = getConnection();
+				Statement stmt = connection.createStatement();
+				ResultSet resultSet = stmt.executeQuery(query)) {
+			RangeDigest digest = new RangeDigest();
+			if (resultSet.next()) {
+				digest.setRowCount(resultSet.getLong(1));
+				digest.setDigest(StringUtils.defaultString(resultSet.getString(2)));
+			}
+			return digest;
+		}
+	}
+
+	@Override
+	public RangeDigest getStreamedRangeDigest(RangeDigestQueryDefinition queryDefinition) throws Exception {
+		long rowCount = 0;
+		long digest = 0;
+		try (Connection connection = getConnection(); Statement stmt = connection.createStatement()) {
+			stmt.setFetchSize((int) queryDefinition.getBatchSize());
+			try (ResultSet resultSet = stmt.executeQuery(buildRangeQuery(queryDefinition, false))) {
+				while (resultSet.next()) {
+					rowCount++;
+					// a sum does not depend on the order of the rows
+					digest += RowDigester.digest(resultSet, 1);
+				}
+			}
+		}
+		RangeDigest rangeDigest = new RangeDigest();
+		rangeDigest.setRowCount(rowCount);
+		rangeDigest.setDigest(Long.toString(digest));
+		return rangeDigest;
+	}
+
+	@Override
+	public Map<String, Long> getRowDigests(RangeDigestQueryDefinition queryDefinition) throws Exception {
+		Map<String, Long> digests = new LinkedHashMap<>();
+		try (Connection connection = getConnection(); Statement stmt = connection.createStatement()) {
+			stmt.setFetchSize((int) queryDefinition.getBatchSize());
+			try (ResultSet resultSet = stmt.executeQuery(buildRangeQuery(queryDefinition, true))) {
+				while (resultSet.next()) {
+					digests.put(RowDigester.canonicalValue(resultSet, 1), RowDigester.digest(resultSet, 2));
+				}
+			}
+		}
+		return digests;
+	}
+
+	@Override
+	public Stream<BigDecimal> getOrderedNumericValues(RangeDigestQueryDefinition queryDefinition)
+			throws SQLException {
+		Connection connection = getConnection();
+		try {
+			Statement stmt = connection.createStatement();
+			stmt.setFetchSize((int) queryDefinition.getBatchSize());
+			ResultSet resultSet = stmt.executeQuery(buildRangeQuery(queryDefinition, true));
+			Iterator<BigDecimal> values = new AbstractIterator<BigDecimal>() {
+				@Override
+				protected BigDecimal computeNext() {
+					try {
+						return resultSet.next() ? resultSet.getBigDecimal(1) : endOfData();
+					} catch (SQLException e) {
+						throw new IllegalStateException("Failed to read values of " + queryDefinition.getTable(), e);
+					}
+				}
+			};
+			// closing the connection closes the cursor
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(values, Spliterator.ORDERED), false)
+					.onClose(() -> closeQuietly(connection));
+		} catch (SQLException e) {
+			closeQuietly(connection);
+			throw e;
+		}
+	}
+
+	private void closeQuietly(Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			LOG.warn("Failed to close connection", e);
+		}
+	}
+
+	/**
+	 * @return query selecting the columns of a range, with the range column
+	 *         first if ordered
+	 */
+	private String buildRangeQuery(RangeDigestQueryDefinition queryDefinition, boolean ordered) {
+		String columns = Joiner.on(", ").join(queryDefinition.getColumns());
+		if (ordered) {
+			return String.format("SELECT %s, %s FROM %s WHERE %s ORDER BY %s", queryDefinition.getColumn(), columns,
+					queryDefinition.getTable(), expandConditions(createRangeConditions(queryDefinition)),
+					queryDefinition.getColumn());
+		}
+		return String.format("SELECT %s FROM %s WHERE %s", columns, queryDefinition.getTable(),
+				expandConditions(createRangeConditions(queryDefinition)));
+	}
+
+	private String[] createRangeConditions(RangeDigestQueryDefinition queryDefinition) {
+		List<String> conditionsList = new ArrayList<>(3);
+		processDefaultConditions(queryDefinition.getTable(), conditionsList);
+		if (queryDefinition.getLowerColumnBoundary() != null) {
+			conditionsList.add(
+					String.format("%s >= %s", queryDefinition.getColumn(), queryDefinition.getLowerColumnBoundary()));
+		}
+		if (queryDefinition.getUpperColumnBoundary() != null) {
+			conditionsList.add(
+					String.format("%s < %s", queryDefinition.getColumn(), queryDefinition.getUpperColumnBoundary()));
+		}
+		return conditionsList.toArray(new String[conditionsList.size()]);
+	}
+
+	/**
+	 * @return a query selecting the row count and a hash of the columns that does
+	 *         not depend on the order of the rows, or null if not supported
+	 */
+	protected String buildRangeDigestQuery(RangeDigestQueryDefinition queryDefinition, String... conditions) {
+		return null;
+	}
+
 	protected abstract String buildOffsetBatchQuery(OffsetQueryDefinition queryDefinition, String... conditions);
 
 	protected abstract String buildValueBatchQuery(SeekQueryDefinition queryDefinition, String... conditions);
 
 	protected abstract String buildBatchMarkersQuery(MarkersQueryDefinition queryDefinition, String... conditions);
 
+	/**
+	 * @return query selecting the column value of the row at the given offset,
+	 *         ordered by the marker column
+	 */
+	protected abstract String buildNextBatchMarkerQuery(MarkersQueryDefinition queryDefinition, long offset,
+			String... conditions);
+
+	protected abstract String buildKeysetBatchQuery(KeysetQueryDefinition queryDefinition, String... conditions);
+
+	/**
+	 * @return query selecting the key columns of the row at the given offset,
+	 *         ordered by the key columns
+	 */
+	protected abstract String buildNextKeysetMarkerQuery(KeysetMarkersQueryDefinition queryDefinition, long offset,
+			String... conditions);
+
 	protected abstract String createUniqueColumnsQuery(String tableName);
 
 	private void processDefaultConditions(String table, List<String> conditionsList) {
@@ -9,8 +9,12 @@ import de.hybris.bootstrap.ddl.DataBaseProvider;
 import de.hybris.bootstrap.ddl.DatabaseSettings;
 import de.hybris.bootstrap.ddl.HybrisPlatform;
 import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.model.Index;
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
+import org.sap.commercemigration.RangeDigestQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
 import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.profile.DataSourceConfiguration;
@@ -26,6 +30,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -34,6 +40,8 @@ public class AzureDataRepository extends AbstractDataRepository {
 
 	private static final Logger LOG = LoggerFactory.getLogger(AzureDataRepository.class);
 
+	private volatile Boolean onlineIndexBuildSupported;
+
 	public AzureDataRepository(MigrationContext migrationContext, DataSourceConfiguration dataSourceConfiguration,
 			DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
 		super(migrationContext, dataSourceConfiguration, databaseMigrationDataTypeMapperService);
@@ -77,12 +85,58 @@ public class AzureDataRepository extends AbstractDataRepository {
 				queryDefinition.getBatchSize(), column);
 	}
 
+	@Override
+	protected String buildNextBatchMarkerQuery(MarkersQueryDefinition queryDefinition, long offset,
+			String... conditions) {
+		return String.format("select %s from %s where %s order by %s offset %s rows fetch next 1 rows only",
+				queryDefinition.getColumn(), queryDefinition.getTable(), expandConditions(conditions),
+				queryDefinition.getColumn(), offset);
+	}
+
+	@Override
+	protected String buildKeysetBatchQuery(KeysetQueryDefinition queryDefinition, String... conditions) {
+		return String.format("select top %s * from %s where %s order by %s", queryDefinition.getBatchSize(),
+				queryDefinition.getTable(), expandConditions(conditions),
+				Joiner.on(',').join(queryDefinition.getColumns()));
+	}
+
+	@Override
+	protected String buildNextKeysetMarkerQuery(KeysetMarkersQueryDefinition queryDefinition, long offset,
+			String... conditions) {
+		String columns = Joiner.on(',').join(queryDefinition.getColumns());
+		return String.format("select %s from %s where %s order by %s offset %s rows fetch next 1 rows only", columns,
+				queryDefinition.getTable(), expandConditions(conditions), columns, offset);
+	}
+
+	@Override
+	protected String buildRangeDigestQuery(RangeDigestQueryDefinition queryDefinition, String... conditions) {
+		// BINARY_CHECKSUM ignores text, ntext and image columns
+		return String.format("SELECT COUNT_BIG(*), CHECKSUM_AGG(BINARY_CHECKSUM(%s)) FROM %s WHERE %s",
+				Joiner.on(", ").join(queryDefinition.getColumns()), queryDefinition.getTable(),
+				expandConditions(conditions));
+	}
+
 	@Override
 	protected String createAllTableNamesQuery() {
 		return String.format("SELECT DISTINCT TABLE_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = '%s'",
 				getDataSourceConfiguration().getSchema());
 	}
 
+	@Override
+	protected String createEstimatedRowCountQuery(String table) {
+		return String.format(
+				"SELECT SUM(row_count) FROM sys.dm_db_partition_stats WHERE object_id = OBJECT_ID('%s.%s') AND index_id < 2",
+				getDataSourceConfiguration().getSchema(), table);
+	}
+
+	@Override
+	protected String createAverageRowSizeQuery(String table) {
+		// in-row, row-overflow and lob pages of the heap or clustered index
+		return String.format(
+				"SELECT SUM(used_page_count) * 8192 / NULLIF(SUM(row_count), 0) FROM sys.dm_db_partition_stats WHERE object_id = OBJECT_ID('%s.%s') AND index_id < 2",
+				getDataSourceConfiguration().getSchema(), table);
+	}
+
 	@Override
 	protected String createAllColumnNamesQuery(String tableName) {
 		return String.format(
@@ -90,6 +144,23 @@ public class AzureDataRepository extends AbstractDataRepository {
 				getDataSourceConfiguration().getSchema(), tableName);
 	}
 
+	@Override
+	protected String createAllColumnsQuery() {
+		return String.format(
+				"SELECT TABLE_NAME, COLUMN_NAME, IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = '%s'",
+				getDataSourceConfiguration().getSchema());
+	}
+
+	@Override
+	protected String createAllUniqueColumnsQuery() {
+		return String.format("SELECT t.name, ind.name, col.name FROM sys.indexes ind "
+				+ "INNER JOIN sys.tables t ON ind.object_id = t.object_id "
+				+ "INNER JOIN sys.index_columns ic ON ind.object_id = ic.object_id AND ind.index_id = ic.index_id "
+				+ "INNER JOIN sys.columns col ON ic.object_id = col.object_id AND ic.column_id = col.column_id "
+				+ "WHERE SCHEMA_NAME(t.schema_id) = '%s' AND ind.is_unique = 1 "
+				+ "ORDER BY t.name, ind.name, ic.key_ordinal", getDataSourceConfiguration().getSchema());
+	}
+
 	@Override
 	protected String getDisableIndexesScript(String table) {
 		return String.format(
@@ -111,6 +182,55 @@ public class AzureDataRepository extends AbstractDataRepository {
 				table);
 	}
 
+	@Override
+	protected String getCreateIndexStatement(String table, Index index) {
+		String qualifiedTable = quote(getDataSourceConfiguration().getSchema()) + "." + quote(table);
+		String columns = Arrays.stream(index.getColumns()).map(column -> quote(column.getName()))
+				.collect(Collectors.joining(", "));
+		return String.format(
+				"IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID('%s') AND name = '%s') "
+						+ "CREATE %sNONCLUSTERED INDEX %s ON %s (%s)",
+				qualifiedTable.replace("'", "''"), index.getName().replace("'", "''"),
+				index.isUnique() ? "UNIQUE " : "", quote(index.getName()), qualifiedTable, columns);
+	}
+
+	@Override
+	protected String getIndexBuildOptions() throws SQLException {
+		List<String> options = new ArrayList<>();
+		if (getMigrationContext().isOnlineIndexBuildEnabled() && isOnlineIndexBuildSupported()) {
+			options.add("ONLINE = ON");
+		}
+		int maxDegreeOfParallelism = getMigrationContext().getIndexBuildMaxDegreeOfParallelism();
+		if (maxDegreeOfParallelism > 0) {
+			options.add("MAXDOP = " + maxDegreeOfParallelism);
+		}
+		return options.isEmpty() ? "" : " WITH (" + String.join(", ", options) + ")";
+	}
+
+	/**
+	 * Online index operations are available in the Enterprise edition, Azure SQL
+	 * Database and Azure SQL Managed Instance.
+	 */
+	private boolean isOnlineIndexBuildSupported() throws SQLException {
+		if (onlineIndexBuildSupported == null) {
+			try (Connection connection = getConnection();
+					Statement stmt = connection.createStatement();
+					ResultSet resultSet = stmt
+							.executeQuery("SELECT CAST(SERVERPROPERTY('EngineEdition') AS INT)")) {
+				int engineEdition = resultSet.next() ? resultSet.getInt(1) : 0;
+				onlineIndexBuildSupported = engineEdition == 3 || engineEdition == 5 || engineEdition == 8;
+			}
+			if (!onlineIndexBuildSupported) {
+				LOG.info("Online index operations are not supported by the target, indexes are built offline");
+			}
+		}
+		return onlineIndexBuildSupported;
+	}
+
+	private String quote(String identifier) {
+		return "[" + identifier.replace("]", "]]") + "]";
+	}
+
 	@Override
 	public float getDatabaseUtilization() throws SQLException {
 		String query = "SELECT TOP 1 end_time, (SELECT Max(v) FROM (VALUES (avg_cpu_percent),(avg_data_io_percent),(avg_log_write_percent)) AS value(v)) AS [avg_DTU_percent] FROM sys.dm_db_resource_stats ORDER by end_time DESC;";
@@ -0,0 +1,127 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.repository.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Snapshot of the tables, columns, unique indexes and audit tables of a schema,
+ * loaded with a few set-based queries instead of several queries per table.
+ * Tables created after the snapshot was loaded are not part of it.
+ */
+final class DataRepositoryCatalog {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DataRepositoryCatalog.class);
+
+	private final Set<String> tableNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+	private final Map<String, Set<String>> columnNames = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final Map<String, Set<String>> nullableColumns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final Map<String, List<String>> uniqueColumns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final Set<String> auditTableNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+	private DataRepositoryCatalog() {
+	}
+
+	/**
+	 * @param allColumnsQuery
+	 *            selecting table name, column name and nullability of all columns
+	 * @param allUniqueColumnsQuery
+	 *            selecting table name, index name and column name of all unique
+	 *            indexes, ordered by table, index and column position
+	 * @param auditTableNamesQuery
+	 *            selecting the audit table names of the deployments, may fail if
+	 *            there are none
+	 */
+	static DataRepositoryCatalog load(Connection connection, String allTableNamesQuery, String allColumnsQuery,
+			String allUniqueColumnsQuery, String auditTableNamesQuery) throws SQLException {
+		DataRepositoryCatalog catalog = new DataRepositoryCatalog();
+		try (Statement stmt = connection.createStatement()) {
+			try (ResultSet resultSet = stmt.executeQuery(allTableNamesQuery)) {
+				while (resultSet.next()) {
+					catalog.tableNames.add(resultSet.getString(1));
+				}
+			}
+			try (ResultSet resultSet = stmt.executeQuery(allColumnsQuery)) {
+				while (resultSet.next()) {
+					String table = resultSet.getString(1);
+					String column = resultSet.getString(2);
+					catalog.columnNames.computeIfAbsent(table, t -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER))
+							.add(column);
+					Set<String> nullable = catalog.nullableColumns.computeIfAbsent(table,
+							t -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER));
+					if (isNullable(resultSet.getString(3))) {
+						nullable.add(column);
+					}
+				}
+			}
+			Map<String, Map<String, List<String>>> uniqueIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+			try (ResultSet resultSet = stmt.executeQuery(allUniqueColumnsQuery)) {
+				while (resultSet.next()) {
+					uniqueIndexes.computeIfAbsent(resultSet.getString(1), t -> new LinkedHashMap<>())
+							.computeIfAbsent(resultSet.getString(2), i -> new ArrayList<>()).add(resultSet.getString(3));
+				}
+			}
+			// the unique index with the fewest columns
+			uniqueIndexes.forEach((table, indexes) -> indexes.values().stream()
+					.min((i1, i2) -> Integer.compare(i1.size(), i2.size()))
+					.ifPresent(columns -> catalog.uniqueColumns.put(table, columns)));
+			try (ResultSet resultSet = stmt.executeQuery(auditTableNamesQuery)) {
+				while (resultSet.next()) {
+					catalog.auditTableNames.add(resultSet.getString(1));
+				}
+			} catch (SQLException e) {
+				LOG.debug("No audit tables found: {}", e.getMessage());
+			}
+		}
+		return catalog;
+	}
+
+	private static boolean isNullable(String value) {
+		// YES/NO, Y/N or TRUE/FALSE depending on the database
+		return !("NO".equalsIgnoreCase(value) || "N".equalsIgnoreCase(value) || "FALSE".equalsIgnoreCase(value));
+	}
+
+	Set<String> getTableNames() {
+		return Collections.unmodifiableSet(tableNames);
+	}
+
+	boolean containsColumnsOf(String table) {
+		return columnNames.containsKey(table);
+	}
+
+	Set<String> getColumnNames(String table) {
+		return Collections.unmodifiableSet(columnNames.getOrDefault(table, Collections.emptySet()));
+	}
+
+	Set<String> getNullableColumns(String table) {
+		return Collections.unmodifiableSet(nullableColumns.getOrDefault(table, Collections.emptySet()));
+	}
+
+	/**
+	 * @return the columns of the unique index with the fewest columns, empty if
+	 *         the table has no unique index
+	 */
+	List<String> getUniqueColumns(String table) {
+		return Collections.unmodifiableList(uniqueColumns.getOrDefault(table, Collections.emptyList()));
+	}
+
+	boolean isAuditTable(String table) {
+		return auditTableNames.contains(table);
+	}
+}
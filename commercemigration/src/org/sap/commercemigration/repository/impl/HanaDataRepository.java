@@ -6,6 +6,8 @@ package org.sap.commercemigration.repository.impl;
 
 import com.google.common.base.Joiner;
 import de.hybris.bootstrap.ddl.DataBaseProvider;
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
@@ -54,6 +56,28 @@ public class HanaDataRepository extends AbstractDataRepository {
 				queryDefinition.getBatchSize(), column);
 	}
 
+	@Override
+	protected String buildNextBatchMarkerQuery(MarkersQueryDefinition queryDefinition, long offset,
+			String... conditions) {
+		return String.format("select %s from %s where %s order by %s limit 1 offset %s", queryDefinition.getColumn(),
+				queryDefinition.getTable(), expandConditions(conditions), queryDefinition.getColumn(), offset);
+	}
+
+	@Override
+	protected String buildKeysetBatchQuery(KeysetQueryDefinition queryDefinition, String... conditions) {
+		return String.format("select * from %s where %s order by %s limit %s", queryDefinition.getTable(),
+				expandConditions(conditions), Joiner.on(',').join(queryDefinition.getColumns()),
+				queryDefinition.getBatchSize());
+	}
+
+	@Override
+	protected String buildNextKeysetMarkerQuery(KeysetMarkersQueryDefinition queryDefinition, long offset,
+			String... conditions) {
+		String columns = Joiner.on(',').join(queryDefinition.getColumns());
+		return String.format("select %s from %s where %s order by %s limit 1 offset %s", columns,
+				queryDefinition.getTable(), expandConditions(conditions), columns, offset);
+	}
+
 	@Override
 	protected String createAllTableNamesQuery() {
 		return String.format(
@@ -61,6 +85,20 @@ public class HanaDataRepository extends AbstractDataRepository {
 				getDataSourceConfiguration().getSchema());
 	}
 
+	@Override
+	protected String createEstimatedRowCountQuery(String table) {
+		return String.format(
+				"select RECORD_COUNT from M_TABLES where lower(SCHEMA_NAME) = lower('%s') and lower(TABLE_NAME) = lower('%s')",
+				getDataSourceConfiguration().getSchema(), table);
+	}
+
+	@Override
+	protected String createAverageRowSizeQuery(String table) {
+		return String.format(
+				"select case when RECORD_COUNT > 0 then TABLE_SIZE / RECORD_COUNT else 0 end from M_TABLES where lower(SCHEMA_NAME) = lower('%s') and lower(TABLE_NAME) = lower('%s')",
+				getDataSourceConfiguration().getSchema(), table);
+	}
+
 	@Override
 	protected String createAllColumnNamesQuery(String table) {
 		return String.format(
@@ -68,6 +106,23 @@ public class HanaDataRepository extends AbstractDataRepository {
 				getDataSourceConfiguration().getSchema(), table);
 	}
 
+	@Override
+	protected String createAllColumnsQuery() {
+		return String.format(
+				"select table_name, column_name, is_nullable from table_columns where lower(schema_name) = lower('%s')",
+				getDataSourceConfiguration().getSchema());
+	}
+
+	@Override
+	protected String createAllUniqueColumnsQuery() {
+		return String.format("SELECT c.\"TABLE_NAME\", c.\"INDEX_NAME\", c.\"COLUMN_NAME\"\n" + "FROM INDEXES i\n"
+				+ "INNER JOIN INDEX_COLUMNS c\n"
+				+ "ON i.\"INDEX_NAME\" = c.\"INDEX_NAME\" AND i.\"SCHEMA_NAME\" = c.\"SCHEMA_NAME\" AND i.\"TABLE_NAME\" = c.\"TABLE_NAME\"\n"
+				+ "WHERE lower(i.\"SCHEMA_NAME\") = lower('%s')\n"
+				+ "AND (lower(i.\"CONSTRAINT\") = lower('UNIQUE') OR lower(i.\"CONSTRAINT\") = lower('PRIMARY KEY'))\n"
+				+ "ORDER BY c.\"TABLE_NAME\", c.\"INDEX_NAME\", c.\"POSITION\"", getDataSourceConfiguration().getSchema());
+	}
+
 	@Override
 	protected String createUniqueColumnsQuery(String tableName) {
 		return String.format("SELECT t2.\"COLUMN_NAME\"\n" + "FROM\n" + "(\n" + "  SELECT * FROM (\n"
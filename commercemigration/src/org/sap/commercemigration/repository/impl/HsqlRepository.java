@@ -4,7 +4,10 @@
 */
 package org.sap.commercemigration.repository.impl;
 
+import com.google.common.base.Joiner;
 import de.hybris.bootstrap.ddl.DataBaseProvider;
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
@@ -21,32 +24,97 @@ public class HsqlRepository extends AbstractDataRepository {
 
 	@Override
 	protected String buildOffsetBatchQuery(OffsetQueryDefinition queryDefinition, String... conditions) {
-		throw new UnsupportedOperationException("not implemented");
+		String orderBy = Joiner.on(',').join(queryDefinition.getAllColumns());
+		return String.format("SELECT * FROM %s WHERE %s ORDER BY %s OFFSET %s ROWS FETCH NEXT %s ROWS ONLY",
+				queryDefinition.getTable(), expandConditions(conditions), orderBy, queryDefinition.getOffset(),
+				queryDefinition.getBatchSize());
 	}
 
 	@Override
 	protected String buildValueBatchQuery(SeekQueryDefinition queryDefinition, String... conditions) {
-		throw new UnsupportedOperationException("not implemented");
+		return String.format("SELECT * FROM %s WHERE %s ORDER BY %s FETCH FIRST %s ROWS ONLY",
+				queryDefinition.getTable(), expandConditions(conditions), queryDefinition.getColumn(),
+				queryDefinition.getBatchSize());
 	}
 
 	@Override
 	protected String buildBatchMarkersQuery(MarkersQueryDefinition queryDefinition, String... conditions) {
-		throw new UnsupportedOperationException("not implemented");
+		// ROW_NUMBER() does not support ORDER BY, ROWNUM() numbers the rows of the ordered subquery
+		String column = queryDefinition.getColumn();
+		return String.format(
+				"SELECT t.%s, t.rownum FROM (SELECT %s, ROWNUM()-1 AS rownum FROM "
+						+ "(SELECT %s FROM %s WHERE %s ORDER BY %s)) AS t WHERE MOD(t.rownum, %s) = 0 ORDER BY t.%s",
+				column, column, column, queryDefinition.getTable(), expandConditions(conditions), column,
+				queryDefinition.getBatchSize(), column);
+	}
+
+	@Override
+	protected String buildNextBatchMarkerQuery(MarkersQueryDefinition queryDefinition, long offset,
+			String... conditions) {
+		return String.format("SELECT %s FROM %s WHERE %s ORDER BY %s OFFSET %s ROWS FETCH NEXT 1 ROWS ONLY",
+				queryDefinition.getColumn(), queryDefinition.getTable(), expandConditions(conditions),
+				queryDefinition.getColumn(), offset);
+	}
+
+	@Override
+	protected String buildKeysetBatchQuery(KeysetQueryDefinition queryDefinition, String... conditions) {
+		return String.format("SELECT * FROM %s WHERE %s ORDER BY %s FETCH FIRST %s ROWS ONLY",
+				queryDefinition.getTable(), expandConditions(conditions),
+				Joiner.on(',').join(queryDefinition.getColumns()), queryDefinition.getBatchSize());
+	}
+
+	@Override
+	protected String buildNextKeysetMarkerQuery(KeysetMarkersQueryDefinition queryDefinition, long offset,
+			String... conditions) {
+		String columns = Joiner.on(',').join(queryDefinition.getColumns());
+		return String.format("SELECT %s FROM %s WHERE %s ORDER BY %s OFFSET %s ROWS FETCH NEXT 1 ROWS ONLY", columns,
+				queryDefinition.getTable(), expandConditions(conditions), columns, offset);
 	}
 
 	@Override
 	protected String createAllTableNamesQuery() {
-		throw new UnsupportedOperationException();
+		return String.format(
+				"SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_SCHEMA) = UPPER('%s') AND TABLE_TYPE = 'BASE TABLE'",
+				getDataSourceConfiguration().getSchema());
+	}
+
+	@Override
+	protected String createEstimatedRowCountQuery(String table) {
+		return String.format(
+				"SELECT CARDINALITY FROM INFORMATION_SCHEMA.SYSTEM_TABLESTATS WHERE UPPER(TABLE_SCHEMA) = UPPER('%s') AND UPPER(TABLE_NAME) = UPPER('%s')",
+				getDataSourceConfiguration().getSchema(), table);
 	}
 
 	@Override
 	protected String createAllColumnNamesQuery(String table) {
-		throw new UnsupportedOperationException();
+		return String.format(
+				"SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE UPPER(TABLE_SCHEMA) = UPPER('%s') AND UPPER(TABLE_NAME) = UPPER('%s')",
+				getDataSourceConfiguration().getSchema(), table);
+	}
+
+	@Override
+	protected String createAllColumnsQuery() {
+		return String.format(
+				"SELECT TABLE_NAME, COLUMN_NAME, IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS WHERE UPPER(TABLE_SCHEMA) = UPPER('%s')",
+				getDataSourceConfiguration().getSchema());
+	}
+
+	@Override
+	protected String createAllUniqueColumnsQuery() {
+		return String.format("SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.SYSTEM_INDEXINFO "
+				+ "WHERE UPPER(TABLE_SCHEM) = UPPER('%s') AND NON_UNIQUE = FALSE "
+				+ "ORDER BY TABLE_NAME, INDEX_NAME, ORDINAL_POSITION", getDataSourceConfiguration().getSchema());
 	}
 
 	@Override
 	protected String createUniqueColumnsQuery(String tableName) {
-		throw new UnsupportedOperationException("not implemented");
+		return String.format("SELECT i.COLUMN_NAME FROM INFORMATION_SCHEMA.SYSTEM_INDEXINFO i INNER JOIN "
+				+ "(SELECT INDEX_NAME FROM INFORMATION_SCHEMA.SYSTEM_INDEXINFO "
+				+ "WHERE UPPER(TABLE_SCHEM) = UPPER('%1$s') AND UPPER(TABLE_NAME) = UPPER('%2$s') AND NON_UNIQUE = FALSE "
+				+ "GROUP BY INDEX_NAME ORDER BY COUNT(*), INDEX_NAME FETCH FIRST 1 ROWS ONLY) u "
+				+ "ON i.INDEX_NAME = u.INDEX_NAME "
+				+ "WHERE UPPER(i.TABLE_SCHEM) = UPPER('%1$s') AND UPPER(i.TABLE_NAME) = UPPER('%2$s') "
+				+ "ORDER BY i.ORDINAL_POSITION", getDataSourceConfiguration().getSchema(), tableName);
 	}
 
 	@Override
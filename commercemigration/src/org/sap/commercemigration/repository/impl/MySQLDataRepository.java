@@ -11,6 +11,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.Map;
 
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
@@ -58,6 +60,28 @@ public class MySQLDataRepository extends AbstractDataRepository {
 				queryDefinition.getBatchSize());
 	}
 
+	@Override
+	protected String buildNextBatchMarkerQuery(final MarkersQueryDefinition queryDefinition, final long offset,
+			final String... conditions) {
+		return String.format("select %s from %s where %s order by %s limit 1 offset %s", queryDefinition.getColumn(),
+				queryDefinition.getTable(), expandConditions(conditions), queryDefinition.getColumn(), offset);
+	}
+
+	@Override
+	protected String buildKeysetBatchQuery(final KeysetQueryDefinition queryDefinition, final String... conditions) {
+		return String.format("select * from %s where %s order by %s limit %s", queryDefinition.getTable(),
+				expandConditions(conditions), Joiner.on(',').join(queryDefinition.getColumns()),
+				queryDefinition.getBatchSize());
+	}
+
+	@Override
+	protected String buildNextKeysetMarkerQuery(final KeysetMarkersQueryDefinition queryDefinition, final long offset,
+			final String... conditions) {
+		final String columns = Joiner.on(',').join(queryDefinition.getColumns());
+		return String.format("select %s from %s where %s order by %s limit 1 offset %s", columns,
+				queryDefinition.getTable(), expandConditions(conditions), columns, offset);
+	}
+
 	@Override
 	protected String createAllTableNamesQuery() {
 		return String.format(
@@ -65,6 +89,21 @@ public class MySQLDataRepository extends AbstractDataRepository {
 				getDataSourceConfiguration().getSchema());
 	}
 
+	@Override
+	protected String createEstimatedRowCountQuery(final String tableName) {
+		// sampled by InnoDB, may be off by a considerable amount
+		return String.format(
+				"SELECT TABLE_ROWS FROM information_schema.tables WHERE table_schema = '%s' AND TABLE_NAME = '%s'",
+				getDataSourceConfiguration().getSchema(), tableName);
+	}
+
+	@Override
+	protected String createAverageRowSizeQuery(final String tableName) {
+		return String.format(
+				"SELECT AVG_ROW_LENGTH FROM information_schema.tables WHERE table_schema = '%s' AND TABLE_NAME = '%s'",
+				getDataSourceConfiguration().getSchema(), tableName);
+	}
+
 	@Override
 	protected String createAllColumnNamesQuery(final String tableName) {
 		return String.format(
@@ -72,6 +111,20 @@ public class MySQLDataRepository extends AbstractDataRepository {
 				getDataSourceConfiguration().getSchema(), tableName);
 	}
 
+	@Override
+	protected String createAllColumnsQuery() {
+		return String.format(
+				"SELECT TABLE_NAME, COLUMN_NAME, IS_NULLABLE from information_schema.columns where table_schema = '%s'",
+				getDataSourceConfiguration().getSchema());
+	}
+
+	@Override
+	protected String createAllUniqueColumnsQuery() {
+		return String.format("SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.STATISTICS\n"
+				+ "WHERE TABLE_SCHEMA = '%s' AND NON_UNIQUE = 0\n" + "ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX",
+				getDataSourceConfiguration().getSchema());
+	}
+
 	@Override
 	protected String createUniqueColumnsQuery(final String tableName) {
 		return String.format("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.STATISTICS t1\n" + "INNER JOIN \n" + "(\n"
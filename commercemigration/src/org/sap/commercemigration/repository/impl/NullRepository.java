@@ -7,8 +7,13 @@ package org.sap.commercemigration.repository.impl;
 import de.hybris.bootstrap.ddl.DataBaseProvider;
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Index;
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
+import org.sap.commercemigration.RangeDigest;
+import org.sap.commercemigration.RangeDigestQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
 import org.sap.commercemigration.TypeSystemTable;
 import org.sap.commercemigration.dataset.DataSet;
@@ -19,10 +24,14 @@ import org.sap.commercemigration.repository.DataRepository;
 import org.springframework.core.io.Resource;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Represents a dummy implementation of a data repository that always throws an
@@ -103,6 +112,21 @@ public class NullRepository implements DataRepository {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
 	}
 
+	@Override
+	public Instant getMaxModifiedTimestamp(String table) throws SQLException {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public long getEstimatedRowCount(String table) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public long getAverageRowSize(String table) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
 	@Override
 	public DataSet getAll(String table) throws Exception {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
@@ -138,6 +162,11 @@ public class NullRepository implements DataRepository {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
 	}
 
+	@Override
+	public int deleteRows(String table, String column, List<Object> values) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
 	@Override
 	public void disableIndexesOfTable(String table) throws Exception {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
@@ -153,6 +182,11 @@ public class NullRepository implements DataRepository {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
 	}
 
+	@Override
+	public void createIndexesOfTable(String table, List<Index> indexes) throws SQLException {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
 	@Override
 	public Platform asPlatform() {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
@@ -184,11 +218,67 @@ public class NullRepository implements DataRepository {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
 	}
 
+	@Override
+	public DataSet getNextBatchMarker(MarkersQueryDefinition queryDefinition) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public DataSet getNextBatchMarker(MarkersQueryDefinition queryDefinition, Instant time) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public DataSet getBatchOrderedByColumns(KeysetQueryDefinition queryDefinition) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public DataSet getBatchOrderedByColumns(KeysetQueryDefinition queryDefinition, Instant time) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public DataSet getNextKeysetMarker(KeysetMarkersQueryDefinition queryDefinition) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public DataSet getNextKeysetMarker(KeysetMarkersQueryDefinition queryDefinition, Instant time)
+			throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
 	@Override
 	public DataSet getUniqueColumns(String table) throws Exception {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
 	}
 
+	@Override
+	public Set<String> getNullableColumns(String table) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public RangeDigest getDatabaseRangeDigest(RangeDigestQueryDefinition queryDefinition) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public RangeDigest getStreamedRangeDigest(RangeDigestQueryDefinition queryDefinition) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public Map<String, Long> getRowDigests(RangeDigestQueryDefinition queryDefinition) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
+	@Override
+	public Stream<BigDecimal> getOrderedNumericValues(RangeDigestQueryDefinition queryDefinition) throws Exception {
+		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
+	}
+
 	@Override
 	public boolean validateConnection() throws Exception {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
@@ -203,6 +293,12 @@ public class NullRepository implements DataRepository {
 	public void clearJdbcQueriesStore() {
 		throw new InvalidDataSourceConfigurationException(this.message, this.dataSourceConfiguration);
 	}
+
+	@Override
+	public void invalidateCatalogCache() {
+		// nothing cached
+	}
+
 	@Override
 	public String getDatabaseTimezone() {
 
@@ -10,6 +10,8 @@ import de.hybris.bootstrap.ddl.DatabaseSettings;
 import de.hybris.bootstrap.ddl.HybrisOraclePlatform;
 import de.hybris.bootstrap.ddl.HybrisPlatform;
 import org.apache.ddlutils.Platform;
+import org.sap.commercemigration.KeysetMarkersQueryDefinition;
+import org.sap.commercemigration.KeysetQueryDefinition;
 import org.sap.commercemigration.MarkersQueryDefinition;
 import org.sap.commercemigration.OffsetQueryDefinition;
 import org.sap.commercemigration.SeekQueryDefinition;
@@ -72,12 +74,51 @@ public class OracleDataRepository extends AbstractDataRepository {
 				queryDefinition.getBatchSize(), column);
 	}
 
+	@Override
+	protected String buildNextBatchMarkerQuery(MarkersQueryDefinition queryDefinition, long offset,
+			String... conditions) {
+		return String.format("select %s from %s where %s order by %s offset %s rows fetch next 1 rows only",
+				queryDefinition.getColumn(), queryDefinition.getTable(), expandConditions(conditions),
+				queryDefinition.getColumn(), offset);
+	}
+
+	@Override
+	protected String buildKeysetBatchQuery(KeysetQueryDefinition queryDefinition, String... conditions) {
+		return String.format(
+				"select * " + " from ( " + " select /*+ first_rows(%s) */ " + "  t.*, " + "  row_number() "
+						+ "  over (order by %s) rn " + " from %s t where %s) " + "where rn <= %s " + "order by rn",
+				queryDefinition.getBatchSize(), Joiner.on(',').join(queryDefinition.getColumns()),
+				queryDefinition.getTable(), expandConditions(conditions), queryDefinition.getBatchSize());
+	}
+
+	@Override
+	protected String buildNextKeysetMarkerQuery(KeysetMarkersQueryDefinition queryDefinition, long offset,
+			String... conditions) {
+		String columns = Joiner.on(',').join(queryDefinition.getColumns());
+		return String.format("select %s from %s where %s order by %s offset %s rows fetch next 1 rows only", columns,
+				queryDefinition.getTable(), expandConditions(conditions), columns, offset);
+	}
+
 	@Override
 	protected String createAllTableNamesQuery() {
 		return String.format("select distinct TABLE_NAME from ALL_TAB_COLUMNS where lower(OWNER) = lower('%s')",
 				getDataSourceConfiguration().getSchema());
 	}
 
+	@Override
+	protected String createEstimatedRowCountQuery(String table) {
+		return String.format(
+				"select NUM_ROWS from ALL_TABLES where lower(OWNER) = lower('%s') AND lower(TABLE_NAME) = lower('%s')",
+				getDataSourceConfiguration().getSchema(), table);
+	}
+
+	@Override
+	protected String createAverageRowSizeQuery(String table) {
+		return String.format(
+				"select AVG_ROW_LEN from ALL_TABLES where lower(OWNER) = lower('%s') AND lower(TABLE_NAME) = lower('%s')",
+				getDataSourceConfiguration().getSchema(), table);
+	}
+
 	@Override
 	protected String createAllColumnNamesQuery(String table) {
 		return String.format(
@@ -85,6 +126,23 @@ public class OracleDataRepository extends AbstractDataRepository {
 				getDataSourceConfiguration().getSchema(), table);
 	}
 
+	@Override
+	protected String createAllColumnsQuery() {
+		return String.format(
+				"select TABLE_NAME, COLUMN_NAME, NULLABLE from ALL_TAB_COLUMNS where lower(OWNER) = lower('%s')",
+				getDataSourceConfiguration().getSchema());
+	}
+
+	@Override
+	protected String createAllUniqueColumnsQuery() {
+		return String.format("SELECT c.\"TABLE_NAME\", c.\"INDEX_NAME\", c.\"COLUMN_NAME\"\n" + "FROM ALL_INDEXES i\n"
+				+ "INNER JOIN ALL_IND_COLUMNS c\n"
+				+ "ON i.\"INDEX_NAME\" = c.\"INDEX_NAME\" AND i.\"OWNER\" = c.\"INDEX_OWNER\" AND i.\"TABLE_NAME\" = c.\"TABLE_NAME\"\n"
+				+ "WHERE lower(i.\"OWNER\") = lower('%s') AND lower(i.\"UNIQUENESS\") = lower('UNIQUE')\n"
+				+ "ORDER BY c.\"TABLE_NAME\", c.\"INDEX_NAME\", c.\"COLUMN_POSITION\"",
+				getDataSourceConfiguration().getSchema());
+	}
+
 	@Override
 	protected String createUniqueColumnsQuery(String tableName) {
 		return String.format("SELECT t2.\"COLUMN_NAME\"\n" + "FROM\n" + "(\n" + "  SELECT * FROM (\n"
@@ -0,0 +1,190 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.repository.impl;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Hashes rows read from different databases to the same value if their
+ * values are equal: the values are read in a canonical form by their JDBC
+ * type, e.g. numbers without trailing zeros and character LOBs like strings.
+ * LOB values are streamed into the hash.
+ */
+final class RowDigester {
+
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+	private static final byte NULL = 0;
+	private static final byte NUMBER = 1;
+	private static final byte TEXT = 2;
+	private static final byte BINARY = 3;
+	private static final byte TEMPORAL = 4;
+
+	private RowDigester() {
+	}
+
+	/**
+	 * @return the hash of the columns from the first column to the last column
+	 *         of the result set
+	 */
+	static long digest(ResultSet resultSet, int firstColumn) throws SQLException, IOException {
+		ResultSetMetaData metaData = resultSet.getMetaData();
+		Hasher hasher = HASH_FUNCTION.newHasher();
+		for (int column = firstColumn; column <= metaData.getColumnCount(); column++) {
+			hasher.putInt(column - firstColumn);
+			putValue(hasher, resultSet, column, metaData.getColumnType(column));
+		}
+		return hasher.hash().asLong();
+	}
+
+	/**
+	 * @return the value of the column in the canonical form, e.g. to compare
+	 *         keys of different databases
+	 */
+	static String canonicalValue(ResultSet resultSet, int column) throws SQLException {
+		Object value = resultSet.getObject(column);
+		if (value == null) {
+			return null;
+		}
+		if (value instanceof Number) {
+			return canonicalNumber(resultSet.getBigDecimal(column));
+		}
+		return String.valueOf(value);
+	}
+
+	private static void putValue(Hasher hasher, ResultSet resultSet, int column, int type)
+			throws SQLException, IOException {
+		switch (type) {
+		case Types.BIT:
+		case Types.BOOLEAN:
+			boolean flag = resultSet.getBoolean(column);
+			putText(hasher, resultSet.wasNull() ? null : flag ? "1" : "0", NUMBER);
+			break;
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+		case Types.BIGINT:
+		case Types.DECIMAL:
+		case Types.NUMERIC:
+			putText(hasher, canonicalNumber(resultSet.getBigDecimal(column)), NUMBER);
+			break;
+		case Types.REAL:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			double number = resultSet.getDouble(column);
+			putText(hasher, resultSet.wasNull() ? null : canonicalNumber(BigDecimal.valueOf(number)), NUMBER);
+			break;
+		case Types.DATE:
+		case Types.TIME:
+		case Types.TIMESTAMP:
+			Timestamp timestamp = resultSet.getTimestamp(column);
+			putText(hasher, timestamp == null ? null : timestamp.toLocalDateTime().toString(), TEMPORAL);
+			break;
+		case Types.BINARY:
+		case Types.VARBINARY:
+		case Types.LONGVARBINARY:
+		case Types.BLOB:
+			try (InputStream stream = resultSet.getBinaryStream(column)) {
+				if (stream == null) {
+					hasher.putByte(NULL);
+				} else {
+					hasher.putByte(BINARY);
+					ByteStreams.copy(stream, new HasherOutputStream(hasher));
+				}
+			}
+			break;
+		case Types.CLOB:
+		case Types.NCLOB:
+		case Types.LONGVARCHAR:
+		case Types.LONGNVARCHAR:
+			try (Reader reader = resultSet.getCharacterStream(column)) {
+				if (reader == null) {
+					hasher.putByte(NULL);
+				} else {
+					hasher.putByte(TEXT);
+					CharStreams.copy(reader, new HasherWriter(hasher));
+				}
+			}
+			break;
+		default:
+			putText(hasher, resultSet.getString(column), TEXT);
+		}
+	}
+
+	private static void putText(Hasher hasher, String value, byte kind) {
+		if (value == null) {
+			hasher.putByte(NULL);
+		} else {
+			hasher.putByte(kind);
+			hasher.putUnencodedChars(value);
+		}
+	}
+
+	private static String canonicalNumber(BigDecimal value) {
+		if (value == null) {
+			return null;
+		}
+		return value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+	}
+
+	private static final class HasherOutputStream extends OutputStream {
+		private final Hasher hasher;
+
+		private HasherOutputStream(Hasher hasher) {
+			this.hasher = hasher;
+		}
+
+		@Override
+		public void write(int b) {
+			hasher.putByte((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			hasher.putBytes(b, off, len);
+		}
+	}
+
+	private static final class HasherWriter extends Writer {
+		private final Hasher hasher;
+
+		private HasherWriter(Hasher hasher) {
+			this.hasher = hasher;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				hasher.putChar(cbuf[i]);
+			}
+		}
+
+		@Override
+		public void flush() {
+			// nothing buffered
+		}
+
+		@Override
+		public void close() {
+			// the hasher stays open
+		}
+	}
+}
@@ -13,5 +13,18 @@ public interface DatabaseCopySchedulerAlgorithm {
 
 	int next();
 
+	/**
+	 * Ignores the cost unless overridden, so algorithms that only implement
+	 * {@link #next()} keep working.
+	 *
+	 * @param cost
+	 *            estimated cost of the table to be assigned, the tables are
+	 *            assigned from the most to the least expensive one
+	 * @return the node the table is assigned to
+	 */
+	default int next(long cost) {
+		return next();
+	}
+
 	void reset();
 }
@@ -0,0 +1,26 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.scheduler;
+
+import org.sap.commercemigration.MigrationStatusEvent;
+
+/**
+ * Distributes the status changes of the migrations within this node, so the
+ * monitor and the status feeds do not have to poll the scheduler tables for
+ * them. Changes made by other cluster nodes are only seen in the scheduler
+ * tables.
+ */
+public interface MigrationStatusBus {
+
+	/**
+	 * Delivers the event to the listeners asynchronously, the publishing thread is
+	 * never blocked by a listener.
+	 */
+	void publish(MigrationStatusEvent event);
+
+	void subscribe(MigrationStatusListener listener);
+
+	void unsubscribe(MigrationStatusListener listener);
+}
@@ -0,0 +1,11 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.scheduler;
+
+import org.sap.commercemigration.MigrationStatusEvent;
+
+public interface MigrationStatusListener {
+	void onStatusEvent(MigrationStatusEvent event);
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.scheduler.impl;
+
+import de.hybris.platform.servicelayer.cluster.ClusterService;
+import org.sap.commercemigration.context.MigrationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns each table to the node with the least estimated work so far. As the
+ * tables are scheduled from the most to the least expensive one, this is the
+ * longest processing time first heuristic, so all nodes finish at about the
+ * same time.
+ */
+public class CostBasedClusterSchedulerAlgorithm extends RoundRobinClusterSchedulerAlgorithm {
+
+	private final Map<Integer, Long> nodeCosts = new HashMap<>();
+
+	public CostBasedClusterSchedulerAlgorithm(MigrationContext migrationContext, ClusterService clusterService) {
+		super(migrationContext, clusterService);
+	}
+
+	@Override
+	public int next(long cost) {
+		int selectedNodeId = getOwnNodeId();
+		long minCost = Long.MAX_VALUE;
+		for (Integer nodeId : getNodeIds()) {
+			long nodeCost = nodeCosts.getOrDefault(nodeId, 0L);
+			if (nodeCost < minCost) {
+				minCost = nodeCost;
+				selectedNodeId = nodeId;
+			}
+		}
+		nodeCosts.put(selectedNodeId, minCost + cost);
+		return selectedNodeId;
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		nodeCosts.clear();
+	}
+}
@@ -10,22 +10,30 @@ import de.hybris.platform.jalo.JaloSession;
 import de.hybris.platform.servicelayer.event.EventService;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.time.DurationFormatUtils;
-import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import org.sap.commercemigration.MigrationProgress;
 import org.sap.commercemigration.MigrationStatus;
+import org.sap.commercemigration.MigrationStatusEvent;
+import org.sap.commercemigration.MigrationStatusEventType;
 import org.sap.commercemigration.adapter.DataRepositoryAdapter;
 import org.sap.commercemigration.adapter.impl.ContextualDataRepositoryAdapter;
+import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
+import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
 import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.events.CopyCompleteEvent;
 import org.sap.commercemigration.events.CopyDatabaseTableEvent;
 import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
 import org.sap.commercemigration.scheduler.DatabaseCopySchedulerAlgorithm;
+import org.sap.commercemigration.scheduler.MigrationStatusBus;
+import org.sap.commercemigration.scheduler.MigrationStatusListener;
 import org.sap.commercemigration.service.DatabaseCopyTask;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -33,7 +41,9 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,12 +60,25 @@ public class CustomClusterDatabaseCopyScheduler implements DatabaseCopyScheduler
 
 	private static final Logger LOG = LoggerFactory.getLogger(CustomClusterDatabaseCopyScheduler.class);
 
+	// fixed cost of a row for reading, binding and writing it, independent of its size
+	private static final long ROW_OVERHEAD_BYTES = 64;
+	private static final long DEFAULT_ROW_SIZE_BYTES = 256;
+
+	// changes of other nodes are only seen in the scheduler tables
+	private static final long REMOTE_POLL_INTERVAL_MILLIS = 5000;
+	// changes of this node are published on the status bus, polling only detects stalls
+	private static final long LOCAL_POLL_INTERVAL_MILLIS = 60000;
+
 	private EventService eventService;
 
 	private DatabaseCopyTaskRepository databaseCopyTaskRepository;
 
 	private DatabaseCopySchedulerAlgorithm databaseCopySchedulerAlgorithm;
 
+	private MigrationStatusBus migrationStatusBus;
+
+	private DataThreadPoolFactory dataThreadPoolFactory;
+
 	/**
 	 * Schedules a Data Copy Task for each table across all the available nodes
 	 *
@@ -65,27 +88,35 @@ public class CustomClusterDatabaseCopyScheduler implements DatabaseCopyScheduler
 	@Override
 	public void schedule(CopyContext context) throws Exception {
 		databaseCopySchedulerAlgorithm.reset();
+		// read before the scheduler tables are recreated
+		Map<String, Double> throughputs = databaseCopyTaskRepository.findCompletedTaskThroughputs(context);
 		context.getMigrationContext().getDataTargetRepository()
 				.runSqlScript(new ClassPathResource("/sql/createSchedulerTables.sql"));
 		int ownNodeId = databaseCopySchedulerAlgorithm.getOwnNodeId();
 		if (!CollectionUtils.isEmpty(context.getCopyItems())) {
 			databaseCopyTaskRepository.createMigrationStatus(context);
+			MigrationContext migrationContext = context.getMigrationContext();
+			Map<String, Instant> watermarks = Collections.emptyMap();
+			if (migrationContext.isIncrementalModeEnabled() && migrationContext.isIncrementalWatermarkEnabled()) {
+				watermarks = databaseCopyTaskRepository.findWatermarks(context);
+			}
 			DataRepositoryAdapter dataRepositoryAdapter = new ContextualDataRepositoryAdapter(
-					context.getMigrationContext().getDataSourceRepository());
-			List<Pair<CopyContext.DataCopyItem, Long>> itemsToSchedule = generateSchedulerItemList(context,
-					dataRepositoryAdapter);
-			for (final Pair<CopyContext.DataCopyItem, Long> itemToSchedule : itemsToSchedule) {
+					migrationContext.getDataSourceRepository(), watermarks);
+			List<CopyContext.DataCopyItem> estimatedItems = new ArrayList<>();
+			List<Triple<CopyContext.DataCopyItem, Long, Long>> itemsToSchedule = generateSchedulerItemList(context,
+					dataRepositoryAdapter, throughputs, estimatedItems);
+			for (final Triple<CopyContext.DataCopyItem, Long, Long> itemToSchedule : itemsToSchedule) {
 				CopyContext.DataCopyItem dataCopyItem = itemToSchedule.getLeft();
-				final long sourceRowCount = itemToSchedule.getRight();
+				final long sourceRowCount = itemToSchedule.getMiddle();
 				if (sourceRowCount > 0) {
-					final int destinationNodeId = databaseCopySchedulerAlgorithm.next();
+					final int destinationNodeId = databaseCopySchedulerAlgorithm.next(itemToSchedule.getRight());
 					databaseCopyTaskRepository.scheduleTask(context, dataCopyItem, sourceRowCount, destinationNodeId);
 				} else {
 					databaseCopyTaskRepository.scheduleTask(context, dataCopyItem, sourceRowCount, ownNodeId);
 					databaseCopyTaskRepository.markTaskCompleted(context, dataCopyItem, "0");
 				}
 			}
-			startMonitorThread(context);
+			startMonitorThread(context, estimatedItems);
 			final CopyDatabaseTableEvent event = new CopyDatabaseTableEvent(ownNodeId, context.getMigrationId(),
 					context.getPropertyOverrideMap());
 			eventService.publishEvent(event);
@@ -102,33 +133,121 @@ public class CustomClusterDatabaseCopyScheduler implements DatabaseCopyScheduler
 					databaseCopySchedulerAlgorithm.next());
 		}
 		databaseCopyTaskRepository.resetMigration(copyContext);
-		startMonitorThread(copyContext);
+		startMonitorThread(copyContext, Collections.emptyList());
 		final CopyDatabaseTableEvent event = new CopyDatabaseTableEvent(ownNodeId, copyContext.getMigrationId(),
 				copyContext.getPropertyOverrideMap());
 		eventService.publishEvent(event);
 	}
 
-	private List<Pair<CopyContext.DataCopyItem, Long>> generateSchedulerItemList(CopyContext context,
-			DataRepositoryAdapter dataRepositoryAdapter) throws Exception {
-		List<Pair<CopyContext.DataCopyItem, Long>> pairs = new ArrayList<>();
+	/**
+	 * @param estimatedItems
+	 *            receives the items scheduled with the row count of the catalog
+	 *            statistics
+	 * @return the items with their row count and estimated cost, the most
+	 *         expensive first
+	 */
+	private List<Triple<CopyContext.DataCopyItem, Long, Long>> generateSchedulerItemList(CopyContext context,
+			DataRepositoryAdapter dataRepositoryAdapter, Map<String, Double> throughputs,
+			List<CopyContext.DataCopyItem> estimatedItems) throws Exception {
+		Map<CopyContext.DataCopyItem, Long> rowCounts = new HashMap<>();
+		Map<CopyContext.DataCopyItem, Long> sizes = new HashMap<>();
+		// bytes per second of the tables copied by the previous migration, to weigh their durations
+		double knownBytes = 0;
+		double knownSeconds = 0;
 		for (CopyContext.DataCopyItem copyItem : context.getCopyItems()) {
-			pairs.add(Pair.of(copyItem,
-					dataRepositoryAdapter.getRowCount(context.getMigrationContext(), copyItem.getSourceItem())));
+			long rowCount = -1;
+			if (context.getMigrationContext().isRowCountEstimateEnabled()) {
+				rowCount = dataRepositoryAdapter.getEstimatedRowCount(context.getMigrationContext(),
+						copyItem.getSourceItem());
+			}
+			// outdated statistics may report rows of an empty table, but not the other way round
+			if (rowCount > 0) {
+				estimatedItems.add(copyItem);
+			} else {
+				rowCount = dataRepositoryAdapter.getRowCount(context.getMigrationContext(), copyItem.getSourceItem());
+			}
+			long size = rowCount > 0 ? rowCount * (getAverageRowSize(context, copyItem) + ROW_OVERHEAD_BYTES) : 0;
+			rowCounts.put(copyItem, rowCount);
+			sizes.put(copyItem, size);
+			Double throughput = throughputs.get(copyItem.getPipelineName());
+			if (rowCount > 0 && throughput != null && throughput > 0) {
+				knownBytes += size;
+				knownSeconds += rowCount / throughput;
+			}
+		}
+		List<Triple<CopyContext.DataCopyItem, Long, Long>> items = new ArrayList<>();
+		for (CopyContext.DataCopyItem copyItem : context.getCopyItems()) {
+			long rowCount = rowCounts.get(copyItem);
+			long cost = sizes.get(copyItem);
+			Double throughput = throughputs.get(copyItem.getPipelineName());
+			if (rowCount > 0 && throughput != null && throughput > 0 && knownSeconds > 0) {
+				cost = (long) (rowCount / throughput * (knownBytes / knownSeconds));
+			}
+			items.add(Triple.of(copyItem, rowCount, cost));
 		}
-		// we sort the items to make sure big tables are assigned to nodes in a fair way
-		return pairs.stream().sorted((p1, p2) -> Long.compare(p1.getRight(), p2.getRight()))
+		// longest processing time first, so big tables are spread across the nodes
+		return items.stream().sorted((i1, i2) -> Long.compare(i2.getRight(), i1.getRight()))
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Replaces the estimated row counts of the tasks by exact ones for the progress
+	 * of the tables. The tables are counted in parallel while they are copied, the
+	 * ones finished before they are counted are skipped.
+	 *
+	 * @return the executor counting the rows, to be destroyed once the migration
+	 *         has finished, or null if there is nothing to count
+	 */
+	private ThreadPoolTaskExecutor countRowsInBackground(CopyContext context,
+			List<CopyContext.DataCopyItem> estimatedItems) {
+		if (estimatedItems.isEmpty()) {
+			return null;
+		}
+		int threads = Math.min(estimatedItems.size(), context.getMigrationContext().getMaxParallelTableCopy());
+		ThreadPoolTaskExecutor executor = dataThreadPoolFactory.create(context,
+				new DataThreadPoolConfigBuilder(context.getMigrationContext()).withPoolSize(Math.max(1, threads))
+						.build());
+		for (CopyContext.DataCopyItem copyItem : estimatedItems) {
+			executor.execute(() -> countRows(context, copyItem));
+		}
+		return executor;
+	}
+
+	private void countRows(CopyContext context, CopyContext.DataCopyItem copyItem) {
+		try {
+			if (databaseCopyTaskRepository.isTaskPending(context, copyItem)) {
+				long rowCount = context.getMigrationContext().getDataSourceRepository()
+						.getRowCount(copyItem.getSourceItem());
+				databaseCopyTaskRepository.updateTaskSourceRowCount(context, copyItem, rowCount);
+			}
+		} catch (Exception e) {
+			LOG.warn("Could not count rows of table {}, the progress is based on an estimated row count",
+					copyItem.getSourceItem(), e);
+		}
+	}
+
+	private long getAverageRowSize(CopyContext context, CopyContext.DataCopyItem copyItem) {
+		try {
+			long rowSize = context.getMigrationContext().getDataSourceRepository()
+					.getAverageRowSize(copyItem.getSourceItem());
+			return rowSize > 0 ? rowSize : DEFAULT_ROW_SIZE_BYTES;
+		} catch (Exception e) {
+			LOG.debug("No row size available for table {}", copyItem.getSourceItem(), e);
+			return DEFAULT_ROW_SIZE_BYTES;
+		}
+	}
+
 	/**
 	 * Starts a thread to monitor the migration
 	 *
 	 * @param context
+	 * @param estimatedItems
+	 *            items whose rows are counted while the migration runs
 	 */
-	private void startMonitorThread(CopyContext context) {
+	private void startMonitorThread(CopyContext context, List<CopyContext.DataCopyItem> estimatedItems) {
 		JaloSession jaloSession = JaloSession.getCurrentSession();
 
-		Thread monitor = new Thread(new MigrationMonitor(context, jaloSession), "MigrationMonitor");
+		Thread monitor = new Thread(new MigrationMonitor(context, jaloSession, estimatedItems), "MigrationMonitor");
 		monitor.start();
 	}
 
@@ -172,33 +291,53 @@ public class CustomClusterDatabaseCopyScheduler implements DatabaseCopyScheduler
 		this.eventService = eventService;
 	}
 
+	public void setMigrationStatusBus(MigrationStatusBus migrationStatusBus) {
+		this.migrationStatusBus = migrationStatusBus;
+	}
+
+	public void setDataThreadPoolFactory(DataThreadPoolFactory dataThreadPoolFactory) {
+		this.dataThreadPoolFactory = dataThreadPoolFactory;
+	}
+
 	/**
-	 * Thread to monitor the Migration
+	 * Thread to monitor the Migration. The state is read when a task of this node
+	 * completes or fails or the migration status changes, and periodically for the
+	 * updates of other nodes and to detect stalls.
 	 */
-	private class MigrationMonitor implements Runnable {
+	private class MigrationMonitor implements Runnable, MigrationStatusListener {
 		private final CopyContext context;
 		private final Map<String, String> contextMap;
 		private final Tenant tenant;
 		private final JaloSession jaloSession;
+		private final List<CopyContext.DataCopyItem> estimatedItems;
 		private OffsetDateTime lastUpdate = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+		// guarded by this
+		private boolean changed;
 
-		public MigrationMonitor(CopyContext context, JaloSession jaloSession) {
+		public MigrationMonitor(CopyContext context, JaloSession jaloSession,
+				List<CopyContext.DataCopyItem> estimatedItems) {
 			this.context = context;
 			this.contextMap = MDC.getCopyOfContextMap();
 			this.jaloSession = jaloSession;
 			this.tenant = jaloSession.getTenant();
-
+			this.estimatedItems = estimatedItems;
 		}
 
 		@Override
 		public void run() {
+			ThreadPoolTaskExecutor rowCounter = null;
 			try {
 				prepareThread();
+				rowCounter = countRowsInBackground(context, estimatedItems);
 				pollState();
 				notifyFinished();
 			} catch (Exception e) {
 				LOG.error("Failed getting current state", e);
 			} finally {
+				if (rowCounter != null) {
+					// the counts of tables that are no longer pending are skipped
+					dataThreadPoolFactory.destroy(rowCounter);
+				}
 				cleanupThread();
 			}
 		}
@@ -209,20 +348,71 @@ public class CustomClusterDatabaseCopyScheduler implements DatabaseCopyScheduler
 		 * @throws Exception
 		 */
 		private void pollState() throws Exception {
-			MigrationStatus currentState;
-			do {
-				currentState = getCurrentState(context, lastUpdate);
-				lastUpdate = OffsetDateTime.now(ZoneOffset.UTC);
-				logState(currentState);
-				Duration elapsedTillLastUpdate = Duration
-						.between(currentState.getLastUpdate().toInstant(ZoneOffset.UTC), Instant.now());
-				int stalledTimeout = context.getMigrationContext().getStalledTimeout();
-				if (elapsedTillLastUpdate.compareTo(Duration.of(stalledTimeout, ChronoUnit.SECONDS)) >= 0) {
-					LOG.error("Migration stalled!");
-					databaseCopyTaskRepository.setMigrationStatus(context, MigrationProgress.STALLED);
+			long pollInterval = context.getMigrationContext().isClusterMode() ? REMOTE_POLL_INTERVAL_MILLIS
+					: LOCAL_POLL_INTERVAL_MILLIS;
+			migrationStatusBus.subscribe(this);
+			try {
+				MigrationStatus currentState;
+				do {
+					currentState = getCurrentState(context, lastUpdate);
+					lastUpdate = OffsetDateTime.now(ZoneOffset.UTC);
+					logState(currentState);
+					publishRemoteUpdates(currentState);
+					Duration elapsedTillLastUpdate = Duration
+							.between(currentState.getLastUpdate().toInstant(ZoneOffset.UTC), Instant.now());
+					int stalledTimeout = context.getMigrationContext().getStalledTimeout();
+					if (elapsedTillLastUpdate.compareTo(Duration.of(stalledTimeout, ChronoUnit.SECONDS)) >= 0) {
+						LOG.error("Migration stalled!");
+						databaseCopyTaskRepository.setMigrationStatus(context, MigrationProgress.STALLED);
+					}
+					if (!currentState.isCompleted()) {
+						awaitStatusChange(pollInterval);
+					}
+				} while (!currentState.isCompleted());
+			} finally {
+				migrationStatusBus.unsubscribe(this);
+			}
+		}
+
+		@Override
+		public synchronized void onStatusEvent(MigrationStatusEvent event) {
+			if (context.getMigrationId().equals(event.getMigrationId())
+					&& event.getType() != MigrationStatusEventType.TASK_PROGRESS) {
+				changed = true;
+				notifyAll();
+			}
+		}
+
+		private synchronized void awaitStatusChange(long timeoutMillis) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + timeoutMillis;
+			long remaining;
+			while (!changed && (remaining = deadline - System.currentTimeMillis()) > 0) {
+				wait(remaining);
+			}
+			changed = false;
+		}
+
+		/**
+		 * Feeds the updates of other nodes read from the scheduler tables to the
+		 * listeners of this node
+		 */
+		private void publishRemoteUpdates(MigrationStatus status) {
+			int ownNodeId = databaseCopySchedulerAlgorithm.getOwnNodeId();
+			for (final DatabaseCopyTask copyTask : status.getStatusUpdates()) {
+				if (copyTask.getTargetnodeId() == ownNodeId) {
+					continue;
 				}
-				Thread.sleep(5000);
-			} while (!currentState.isCompleted());
+				MigrationStatusEvent event = new MigrationStatusEvent();
+				event.setMigrationId(context.getMigrationId());
+				event.setType(copyTask.isFailure() ? MigrationStatusEventType.TASK_FAILED
+						: copyTask.isCompleted() ? MigrationStatusEventType.TASK_COMPLETED
+								: MigrationStatusEventType.TASK_PROGRESS);
+				event.setPipelinename(copyTask.getPipelinename());
+				event.setTargetnodeId(copyTask.getTargetnodeId());
+				event.setTargetrowcount(copyTask.getTargetrowcount());
+				event.setTimestampEpoch(System.currentTimeMillis());
+				migrationStatusBus.publish(event);
+			}
 		}
 
 		/**
@@ -0,0 +1,70 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.scheduler.impl;
+
+import org.sap.commercemigration.MigrationStatusEvent;
+import org.sap.commercemigration.scheduler.MigrationStatusBus;
+import org.sap.commercemigration.scheduler.MigrationStatusListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches the events in publishing order on a single thread. If the
+ * listeners cannot keep up, events are dropped instead of slowing down the
+ * pipelines; the scheduler tables stay the source of truth.
+ */
+public class DefaultMigrationStatusBus implements MigrationStatusBus, DisposableBean {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DefaultMigrationStatusBus.class);
+
+	private static final int MAX_PENDING_EVENTS = 10000;
+
+	private final List<MigrationStatusListener> listeners = new CopyOnWriteArrayList<>();
+	private final ThreadPoolExecutor dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(MAX_PENDING_EVENTS), r -> {
+				Thread thread = new Thread(r, "MigrationStatusBus");
+				thread.setDaemon(true);
+				return thread;
+			}, (r, executor) -> LOG.debug("Dropped migration status event, too many pending events"));
+
+	@Override
+	public void publish(MigrationStatusEvent event) {
+		if (!listeners.isEmpty() && !dispatcher.isShutdown()) {
+			dispatcher.execute(() -> dispatch(event));
+		}
+	}
+
+	@Override
+	public void subscribe(MigrationStatusListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void unsubscribe(MigrationStatusListener listener) {
+		listeners.remove(listener);
+	}
+
+	private void dispatch(MigrationStatusEvent event) {
+		for (MigrationStatusListener listener : listeners) {
+			try {
+				listener.onStatusEvent(event);
+			} catch (Exception e) {
+				LOG.warn("Migration status listener failed", e);
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		dispatcher.shutdownNow();
+	}
+}
@@ -9,8 +9,11 @@ import org.sap.commercemigration.MigrationStatus;
 import org.sap.commercemigration.context.CopyContext;
 
 import java.sql.Connection;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -83,16 +86,73 @@ public interface DatabaseCopyTaskRepository {
 	void scheduleBatch(CopyContext context, CopyContext.DataCopyItem copyItem, int batchId, Object lowerBoundary,
 			Object upperBoundary) throws Exception;
 
+	/**
+	 * Registers the batches of a pipeline with batched inserts and a single
+	 * commit
+	 *
+	 * @param context
+	 * @param copyItem
+	 * @param batches
+	 * @throws Exception
+	 */
+	void scheduleBatches(CopyContext context, CopyContext.DataCopyItem copyItem, List<DatabaseCopyBatch> batches)
+			throws Exception;
+
 	void markBatchCompleted(CopyContext context, CopyContext.DataCopyItem copyItem, int batchId) throws Exception;
 
-	void markBatchCompleted(Connection connection, CopyContext context, CopyContext.DataCopyItem copyItem, int batchId)
-			throws Exception;
+	/**
+	 * Completes the batch in the transaction of its write.
+	 *
+	 * @return false if batches are shared, the lease of the batch has expired and
+	 *         the batch has been leased by another node, which writes it again;
+	 *         the write of this node has to be rolled back
+	 * @throws IllegalStateException
+	 *             if batches are not shared and the batch is not registered
+	 */
+	boolean markBatchCompleted(Connection connection, CopyContext context, CopyContext.DataCopyItem copyItem,
+			int batchId) throws Exception;
 
 	void resetPipelineBatches(CopyContext context, CopyContext.DataCopyItem copyItem) throws Exception;
 
 	Set<DatabaseCopyBatch> findPendingBatchesForPipeline(CopyContext context, CopyContext.DataCopyItem item)
 			throws Exception;
 
+	/**
+	 * Leases a batch to this node before it is read. A leased batch can only be
+	 * claimed after its lease has expired, also by the node that leased it, e.g.
+	 * after a restart.
+	 *
+	 * @param context
+	 * @param copyItem
+	 * @param batchId
+	 * @return false if the batch is leased by another node or already completed
+	 * @throws Exception
+	 */
+	boolean claimBatch(CopyContext context, CopyContext.DataCopyItem copyItem, int batchId) throws Exception;
+
+	/**
+	 * Leases the pending batches of a pipeline that are not leased or whose lease
+	 * has expired, starting with the last batch
+	 *
+	 * @param context
+	 * @param copyItem
+	 * @param maxBatches
+	 * @return the leased batches
+	 * @throws Exception
+	 */
+	Set<DatabaseCopyBatch> claimBatches(CopyContext context, CopyContext.DataCopyItem copyItem, int maxBatches)
+			throws Exception;
+
+	/**
+	 * Extends all batch leases held by this node
+	 *
+	 * @param context
+	 * @throws Exception
+	 */
+	void renewBatchLeases(CopyContext context) throws Exception;
+
+	boolean hasBatchesLeasedByOtherNodes(CopyContext context, CopyContext.DataCopyItem copyItem) throws Exception;
+
 	Optional<DatabaseCopyTask> findPipeline(CopyContext context, CopyContext.DataCopyItem dataCopyItem)
 			throws Exception;
 
@@ -107,6 +167,25 @@ public interface DatabaseCopyTaskRepository {
 
 	Set<DatabaseCopyTask> findFailedTasks(CopyContext context) throws Exception;
 
+	/**
+	 * Retrieves the pending tasks scheduled to the other cluster nodes
+	 *
+	 * @param context
+	 * @return
+	 * @throws Exception
+	 */
+	Set<DatabaseCopyTask> findPendingTasksOfOtherNodes(CopyContext context) throws Exception;
+
+	/**
+	 * Retrieves the writer throughput of the tasks completed by the previous
+	 * migration, as long as the scheduler tables have not been recreated
+	 *
+	 * @param context
+	 * @return rows per second by pipeline name
+	 * @throws Exception
+	 */
+	Map<String, Double> findCompletedTaskThroughputs(CopyContext context) throws Exception;
+
 	/**
 	 * Updates progress on a Task
 	 *
@@ -118,7 +197,19 @@ public interface DatabaseCopyTaskRepository {
 	void updateTaskProgress(CopyContext context, CopyContext.DataCopyItem copyItem, long itemCount) throws Exception;
 
 	/**
-	 * Marks the Task as Completed
+	 * Adds to the progress of a Task, regardless of the node it is scheduled to
+	 *
+	 * @param context
+	 * @param copyItem
+	 * @param itemCount
+	 *            the number of rows copied since the last update of this node
+	 * @throws Exception
+	 */
+	void incrementTaskProgress(CopyContext context, CopyContext.DataCopyItem copyItem, long itemCount)
+			throws Exception;
+
+	/**
+	 * Marks the Task as Completed, unless it has already completed or failed
 	 *
 	 * @param context
 	 * @param copyItem
@@ -145,6 +236,64 @@ public interface DatabaseCopyTaskRepository {
 	void updateTaskKeyColumns(CopyContext context, CopyContext.DataCopyItem copyItem, Collection<String> keyColumns)
 			throws Exception;
 
+	void updateTaskBatchSize(CopyContext context, CopyContext.DataCopyItem copyItem, long batchSize)
+			throws Exception;
+
+	/**
+	 * Sets the latest modification time of the source rows before the table is
+	 * read, unless the task has one already from before a resume.
+	 */
+	void updateTaskWatermark(CopyContext context, CopyContext.DataCopyItem copyItem, Instant watermark)
+			throws Exception;
+
+	/**
+	 * Keeps the watermarks of the successfully completed tasks of the migration
+	 * for the next incremental migration.
+	 */
+	void saveWatermarks(CopyContext context) throws Exception;
+
+	/**
+	 * @return the watermarks of previous migrations by source table
+	 */
+	Map<String, Instant> findWatermarks(CopyContext context) throws Exception;
+
+	/**
+	 * Records the progress of a synced table: the watermark the next read of its
+	 * modified rows starts from and the time up to which its modifications are
+	 * copied to the target.
+	 */
+	void updateTaskSync(CopyContext context, CopyContext.DataCopyItem copyItem, Instant watermark, Instant lastSync)
+			throws Exception;
+
+	/**
+	 * Asks the nodes of a running migration to copy the modified rows of the synced
+	 * tables a last time and to complete their tasks.
+	 *
+	 * @return false if the migration is not running
+	 */
+	boolean requestSyncStop(CopyContext context) throws Exception;
+
+	boolean isSyncStopRequested(CopyContext context) throws Exception;
+
+	/**
+	 * Keeps a migration whose tables are synced from being detected as stalled
+	 * while the tables are not modified.
+	 */
+	void updateMigrationStatusLastUpdate(CopyContext context) throws Exception;
+
+	/**
+	 * @return true if the task of the item is neither completed nor failed,
+	 *         regardless of the node it is scheduled to
+	 */
+	boolean isTaskPending(CopyContext context, CopyContext.DataCopyItem copyItem) throws Exception;
+
+	/**
+	 * Replaces the source row count the task was scheduled with, i.e. an estimated
+	 * one, regardless of the node it is scheduled to.
+	 */
+	void updateTaskSourceRowCount(CopyContext context, CopyContext.DataCopyItem copyItem, long sourceRowCount)
+			throws Exception;
+
 	/**
 	 * Gets all updated Tasks
 	 *
@@ -16,4 +16,11 @@ public interface DatabaseMigrationDataTypeMapperService {
 	 * Converts BLOB, CLOB and NCLOB Data
 	 */
 	Object dataTypeMapper(final Object sourceColumnValue, final int jdbcType) throws IOException, SQLException;
+
+	/**
+	 * Deletes the LOBs spilled to disk during a migration, including those of
+	 * pages that never reached a writer. Called once the migration has completed
+	 * or was aborted.
+	 */
+	void releaseSpilledLobs();
 }
@@ -0,0 +1,18 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.service;
+
+import org.sap.commercemigration.DeletionReport;
+import org.sap.commercemigration.context.CopyContext;
+
+/**
+ * Deletes the rows from the target that were deleted in the source, which an
+ * incremental migration does not copy.
+ */
+public interface DatabaseMigrationDeletionService {
+
+	DeletionReport propagateDeletions(CopyContext context) throws Exception;
+
+}
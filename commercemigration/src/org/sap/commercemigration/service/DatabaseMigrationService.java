@@ -10,6 +10,7 @@ import org.sap.commercemigration.context.LaunchOptions;
 import org.sap.commercemigration.context.MigrationContext;
 
 import java.time.OffsetDateTime;
+import java.util.Map;
 
 /**
  * Entry point to trigger a migration process and track the status
@@ -55,6 +56,32 @@ public interface DatabaseMigrationService {
 	 */
 	void stopMigration(MigrationContext context, String migrationID) throws Exception;
 
+	/**
+	 * Stops the sync of the copied tables of an incremental migration. The rows
+	 * modified since the last sync are copied a last time, then the migration
+	 * completes. The sync is stopped on all nodes, in case clustering is used.
+	 *
+	 * @param context
+	 *            Migration configuration
+	 * @param migrationID
+	 *            ID of the migration whose tables are synced
+	 * @return false if the migration is not running
+	 * @throws Exception
+	 *             if anything goes wrong
+	 */
+	boolean stopSync(MigrationContext context, String migrationID) throws Exception;
+
+	/**
+	 * Get the lag of the synced tables
+	 *
+	 * @param context
+	 * @param migrationID
+	 * @return the seconds since the modifications of each synced table have been
+	 *         copied, by pipeline
+	 * @throws Exception
+	 */
+	Map<String, Long> getSyncLags(MigrationContext context, String migrationID) throws Exception;
+
 	/**
 	 * Get current overall state without details
 	 *
@@ -0,0 +1,18 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.service;
+
+import org.sap.commercemigration.VerificationReport;
+import org.sap.commercemigration.context.CopyContext;
+
+/**
+ * Verifies the data of the copied tables by comparing digests of source and
+ * target.
+ */
+public interface DatabaseMigrationVerificationService {
+
+	VerificationReport verify(CopyContext context) throws Exception;
+
+}
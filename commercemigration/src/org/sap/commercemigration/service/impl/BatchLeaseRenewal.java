@@ -0,0 +1,66 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.service.impl;
+
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renews the batch leases of this node on a timer for as long as pipelines are
+ * running that may hold leased batches, so that batches waiting in a pipe or
+ * for a writer are not leased by other nodes. The leases are renewed three
+ * times per lease duration.
+ */
+final class BatchLeaseRenewal {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BatchLeaseRenewal.class);
+
+	private final CopyContext context;
+	private final DatabaseCopyTaskRepository taskRepository;
+	private int runningPipelines;
+	private ScheduledExecutorService timer;
+
+	BatchLeaseRenewal(CopyContext context, DatabaseCopyTaskRepository taskRepository) {
+		this.context = context;
+		this.taskRepository = taskRepository;
+	}
+
+	/**
+	 * Called before a pipeline starts, the timer runs while any pipeline runs.
+	 */
+	synchronized void pipelineStarted() {
+		if (runningPipelines++ == 0) {
+			long period = Math.max(1, context.getMigrationContext().getBatchLeaseSeconds() / 3);
+			timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "MigrationLeaseRenewal");
+				thread.setDaemon(true);
+				return thread;
+			});
+			timer.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.SECONDS);
+		}
+	}
+
+	synchronized void pipelineFinished() {
+		if (--runningPipelines == 0) {
+			timer.shutdownNow();
+			timer = null;
+		}
+	}
+
+	private void renew() {
+		try {
+			taskRepository.renewBatchLeases(context);
+		} catch (Exception e) {
+			// the next renewal is attempted before the leases expire
+			LOG.warn("Failed to renew batch leases", e);
+		}
+	}
+}
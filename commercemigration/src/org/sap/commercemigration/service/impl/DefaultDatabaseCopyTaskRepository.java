@@ -12,10 +12,13 @@ import de.hybris.platform.servicelayer.cluster.ClusterService;
 import org.apache.commons.lang3.StringUtils;
 import org.sap.commercemigration.MigrationProgress;
 import org.sap.commercemigration.MigrationStatus;
+import org.sap.commercemigration.MigrationStatusEvent;
+import org.sap.commercemigration.MigrationStatusEventType;
 import org.sap.commercemigration.context.CopyContext;
 import org.sap.commercemigration.performance.PerformanceCategory;
 import org.sap.commercemigration.performance.PerformanceRecorder;
 import org.sap.commercemigration.performance.PerformanceUnit;
+import org.sap.commercemigration.scheduler.MigrationStatusBus;
 import org.sap.commercemigration.service.DatabaseCopyBatch;
 import org.sap.commercemigration.service.DatabaseCopyTask;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
@@ -33,8 +36,9 @@ import java.time.OffsetDateTime;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -51,6 +55,8 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 
 	private ClusterService clusterService;
 
+	private MigrationStatusBus migrationStatusBus;
+
 	@Override
 	public void createMigrationStatus(CopyContext context) throws Exception {
 		String insert = "INSERT INTO MIGRATIONTOOLKIT_TABLECOPYSTATUS (migrationId, total) VALUES (?, ?)";
@@ -88,8 +94,13 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 			stmt.setObject(1, to.name());
 			stmt.setObject(2, from.name());
 			stmt.setObject(3, context.getMigrationId());
-			stmt.executeUpdate();
+			int updated = stmt.executeUpdate();
 			conn.commit();
+			if (updated > 0) {
+				MigrationStatusEvent event = createStatusEvent(context, MigrationStatusEventType.MIGRATION_STATUS);
+				event.setStatus(to);
+				migrationStatusBus.publish(event);
+			}
 		}
 	}
 
@@ -185,28 +196,54 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 		}
 	}
 
+	@Override
+	public void scheduleBatches(CopyContext context, CopyContext.DataCopyItem copyItem, List<DatabaseCopyBatch> batches)
+			throws Exception {
+		LOG.debug("Schedule {} Batches for {}", batches.size(), copyItem.getPipelineName());
+		String insert = "INSERT INTO MIGRATIONTOOLKIT_TABLECOPYBATCHES (migrationId, batchId, pipelinename, lowerBoundary, upperBoundary) VALUES (?, ?, ?, ?, ?)";
+		try (Connection conn = getConnection(context); PreparedStatement stmt = conn.prepareStatement(insert)) {
+			for (DatabaseCopyBatch batch : batches) {
+				stmt.setObject(1, context.getMigrationId());
+				stmt.setObject(2, Integer.parseInt(batch.getBatchId()));
+				stmt.setObject(3, copyItem.getPipelineName());
+				stmt.setObject(4, batch.getLowerBoundary());
+				stmt.setObject(5, batch.getUpperBoundary());
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+			conn.commit();
+		}
+	}
+
 	@Override
 	public void markBatchCompleted(CopyContext context, CopyContext.DataCopyItem copyItem, int batchId)
 			throws Exception {
 		try (Connection conn = getConnection(context)) {
-			markBatchCompleted(conn, context, copyItem, batchId);
+			if (!markBatchCompleted(conn, context, copyItem, batchId)) {
+				throw new IllegalStateException("No (exact) match for batch with id '" + batchId + "' found.");
+			}
 			conn.commit();
 		}
 	}
 
 	@Override
-	public void markBatchCompleted(Connection connection, CopyContext context, CopyContext.DataCopyItem copyItem,
+	public boolean markBatchCompleted(Connection connection, CopyContext context, CopyContext.DataCopyItem copyItem,
 			int batchId) throws Exception {
 		LOG.debug("Mark batch completed for {} with ID {}", copyItem.getPipelineName(), batchId);
-		String insert = "DELETE FROM MIGRATIONTOOLKIT_TABLECOPYBATCHES WHERE migrationId=? AND batchId=? AND pipelinename=?";
+		// a batch whose lease was taken over by another node must not be completed twice
+		String insert = "DELETE FROM MIGRATIONTOOLKIT_TABLECOPYBATCHES WHERE migrationId=? AND batchId=? AND pipelinename=? AND (leasedBy IS NULL OR leasedBy=?)";
 		try (PreparedStatement stmt = connection.prepareStatement(insert)) {
 			stmt.setObject(1, context.getMigrationId());
 			stmt.setObject(2, batchId);
 			stmt.setObject(3, copyItem.getPipelineName());
-			// exactly one batch record should be affected
-			if (stmt.executeUpdate() != 1) {
+			stmt.setObject(4, getTargetNodeId());
+			int deleted = stmt.executeUpdate();
+			// no batch record is affected if the batch has been leased by another node, which
+			// can only happen if batches are shared, otherwise exactly one record is affected
+			if (deleted > 1 || (deleted == 0 && !context.getMigrationContext().isBatchSharingEnabled())) {
 				throw new IllegalStateException("No (exact) match for batch with id '" + batchId + "' found.");
 			}
+			return deleted == 1;
 		}
 	}
 
@@ -235,6 +272,87 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 		}
 	}
 
+	@Override
+	public boolean claimBatch(CopyContext context, CopyContext.DataCopyItem copyItem, int batchId) throws Exception {
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYBATCHES SET leasedBy=?, leaseExpiry=DATEADD(SECOND, ?, SYSUTCDATETIME()) "
+				+ "WHERE migrationId=? AND batchId=? AND pipelinename=? "
+				+ "AND (leasedBy IS NULL OR leaseExpiry < SYSUTCDATETIME())";
+		try (Connection conn = getConnection(context); PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setObject(1, getTargetNodeId());
+			stmt.setObject(2, context.getMigrationContext().getBatchLeaseSeconds());
+			stmt.setObject(3, context.getMigrationId());
+			stmt.setObject(4, batchId);
+			stmt.setObject(5, copyItem.getPipelineName());
+			// expired leases of this node are claimed again too, e.g. after a restart
+			boolean claimed = stmt.executeUpdate() == 1;
+			conn.commit();
+			return claimed;
+		}
+	}
+
+	@Override
+	public Set<DatabaseCopyBatch> claimBatches(CopyContext context, CopyContext.DataCopyItem copyItem, int maxBatches)
+			throws Exception {
+		// READPAST skips the batches other nodes are claiming at the same time
+		String sql = "WITH claimable AS (SELECT TOP (?) * FROM MIGRATIONTOOLKIT_TABLECOPYBATCHES WITH (UPDLOCK, ROWLOCK, READPAST) "
+				+ "WHERE migrationId=? AND pipelinename=? "
+				+ "AND (leasedBy IS NULL OR leaseExpiry < SYSUTCDATETIME()) ORDER BY batchId DESC) "
+				+ "UPDATE claimable SET leasedBy=?, leaseExpiry=DATEADD(SECOND, ?, SYSUTCDATETIME()) OUTPUT inserted.*";
+		try (Connection conn = getConnection(context); PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setObject(1, maxBatches);
+			stmt.setObject(2, context.getMigrationId());
+			stmt.setObject(3, copyItem.getPipelineName());
+			stmt.setObject(4, getTargetNodeId());
+			stmt.setObject(5, context.getMigrationContext().getBatchLeaseSeconds());
+			Set<DatabaseCopyBatch> batches;
+			try (ResultSet resultSet = stmt.executeQuery()) {
+				batches = convertToBatch(resultSet);
+			}
+			conn.commit();
+			return batches;
+		}
+	}
+
+	@Override
+	public void renewBatchLeases(CopyContext context) throws Exception {
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYBATCHES SET leaseExpiry=DATEADD(SECOND, ?, SYSUTCDATETIME()) WHERE migrationId=? AND leasedBy=?";
+		try (Connection conn = getConnection(context); PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setObject(1, context.getMigrationContext().getBatchLeaseSeconds());
+			stmt.setObject(2, context.getMigrationId());
+			stmt.setObject(3, getTargetNodeId());
+			stmt.executeUpdate();
+			conn.commit();
+		}
+	}
+
+	@Override
+	public boolean hasBatchesLeasedByOtherNodes(CopyContext context, CopyContext.DataCopyItem copyItem)
+			throws Exception {
+		String sql = "SELECT COUNT(*) FROM MIGRATIONTOOLKIT_TABLECOPYBATCHES WHERE migrationId=? AND pipelinename=? AND leasedBy<>?";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setObject(1, context.getMigrationId());
+			stmt.setObject(2, copyItem.getPipelineName());
+			stmt.setObject(3, getTargetNodeId());
+			try (ResultSet resultSet = stmt.executeQuery()) {
+				return resultSet.next() && resultSet.getInt(1) > 0;
+			}
+		}
+	}
+
+	/**
+	 * Progress updates are not seen by the status trigger, so that concurrent
+	 * pipelines do not contend for the status row on every batch
+	 */
+	private void updateMigrationStatusLastUpdate(Connection connection, CopyContext context) throws Exception {
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYSTATUS SET lastUpdate=? WHERE migrationId=?";
+		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+			setTimestamp(stmt, 1, now());
+			stmt.setObject(2, context.getMigrationId());
+			stmt.executeUpdate();
+		}
+	}
+
 	private Timestamp now() {
 		Instant now = java.time.Instant.now();
 		Timestamp ts = new Timestamp(now.toEpochMilli());
@@ -267,7 +385,7 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 
 	@Override
 	public Set<DatabaseCopyTask> findPendingTasks(CopyContext context) throws Exception {
-		String sql = "SELECT * from MIGRATIONTOOLKIT_TABLECOPYTASKS WHERE targetnodeid=? AND migrationid=? AND duration IS NULL ORDER BY sourcerowcount";
+		String sql = "SELECT * from MIGRATIONTOOLKIT_TABLECOPYTASKS WHERE targetnodeid=? AND migrationid=? AND duration IS NULL ORDER BY sourcerowcount DESC";
 		try (Connection connection = getConnection(context);
 				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setObject(1, getTargetNodeId());
@@ -291,6 +409,39 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 		}
 	}
 
+	@Override
+	public Set<DatabaseCopyTask> findPendingTasksOfOtherNodes(CopyContext context) throws Exception {
+		String sql = "SELECT * from MIGRATIONTOOLKIT_TABLECOPYTASKS WHERE targetnodeid<>? AND migrationid=? AND duration IS NULL AND failure = '0' ORDER BY sourcerowcount DESC";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setObject(1, getTargetNodeId());
+			stmt.setObject(2, context.getMigrationId());
+			try (ResultSet resultSet = stmt.executeQuery()) {
+				return convertToTask(resultSet);
+			}
+		}
+	}
+
+	@Override
+	public Map<String, Double> findCompletedTaskThroughputs(CopyContext context) throws Exception {
+		String sql = "SELECT pipelinename, AVG(avgwriterrowthroughput) AS throughput FROM MIGRATIONTOOLKIT_TABLECOPYTASKS WHERE duration IS NOT NULL AND failure = '0' AND avgwriterrowthroughput > 0 GROUP BY pipelinename";
+		Map<String, Double> throughputs = new HashMap<>();
+		try (Connection connection = getConnection(context)) {
+			try (ResultSet tables = connection.getMetaData().getTables(null, null, "MIGRATIONTOOLKIT_TABLECOPYTASKS",
+					null)) {
+				if (!tables.next()) {
+					return throughputs;
+				}
+			}
+			try (PreparedStatement stmt = connection.prepareStatement(sql); ResultSet resultSet = stmt.executeQuery()) {
+				while (resultSet.next()) {
+					throughputs.put(resultSet.getString("pipelinename"), resultSet.getDouble("throughput"));
+				}
+			}
+		}
+		return throughputs;
+	}
+
 	@Override
 	public void updateTaskProgress(CopyContext context, CopyContext.DataCopyItem copyItem, long itemCount)
 			throws Exception {
@@ -307,8 +458,70 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 			stmt.setObject(6, context.getMigrationId());
 			stmt.setObject(7, copyItem.getPipelineName());
 			stmt.executeUpdate();
+			updateMigrationStatusLastUpdate(connection, context);
 			connection.commit();
 		}
+		publishTaskEvent(context, copyItem, MigrationStatusEventType.TASK_PROGRESS, itemCount);
+	}
+
+	@Override
+	public void incrementTaskProgress(CopyContext context, CopyContext.DataCopyItem copyItem, long itemCount)
+			throws Exception {
+		// the throughput is the one of the node the task is scheduled to
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYTASKS " + "SET targetrowcount=targetrowcount+?, "
+				+ "lastupdate=?, "
+				+ "avgwriterrowthroughput=CASE WHEN targetnodeid=? THEN ? ELSE avgwriterrowthroughput END, "
+				+ "avgreaderrowthroughput=CASE WHEN targetnodeid=? THEN ? ELSE avgreaderrowthroughput END "
+				+ "WHERE migrationid=? " + "AND pipelinename=?";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setObject(1, itemCount);
+			setTimestamp(stmt, 2, now());
+			stmt.setObject(3, getTargetNodeId());
+			stmt.setObject(4, getAvgPerformanceValue(context, PerformanceCategory.DB_WRITE, copyItem.getTargetItem()));
+			stmt.setObject(5, getTargetNodeId());
+			stmt.setObject(6, getAvgPerformanceValue(context, PerformanceCategory.DB_READ, copyItem.getSourceItem()));
+			stmt.setObject(7, context.getMigrationId());
+			stmt.setObject(8, copyItem.getPipelineName());
+			stmt.executeUpdate();
+			updateMigrationStatusLastUpdate(connection, context);
+			long targetRowCount = findTargetRowCount(connection, context, copyItem);
+			connection.commit();
+			publishTaskEvent(context, copyItem, MigrationStatusEventType.TASK_PROGRESS, targetRowCount);
+		}
+	}
+
+	/**
+	 * The row count incremented by all nodes writing to the task. An OUTPUT
+	 * clause is not possible, the tasks table has a trigger.
+	 */
+	private long findTargetRowCount(Connection connection, CopyContext context, CopyContext.DataCopyItem copyItem)
+			throws Exception {
+		String sql = "SELECT targetrowcount FROM MIGRATIONTOOLKIT_TABLECOPYTASKS WHERE migrationid=? AND pipelinename=?";
+		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setObject(1, context.getMigrationId());
+			stmt.setObject(2, copyItem.getPipelineName());
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? rs.getLong(1) : 0;
+			}
+		}
+	}
+
+	private void publishTaskEvent(CopyContext context, CopyContext.DataCopyItem copyItem,
+			MigrationStatusEventType type, long targetRowCount) {
+		MigrationStatusEvent event = createStatusEvent(context, type);
+		event.setPipelinename(copyItem.getPipelineName());
+		event.setTargetnodeId(getTargetNodeId());
+		event.setTargetrowcount(targetRowCount);
+		migrationStatusBus.publish(event);
+	}
+
+	private MigrationStatusEvent createStatusEvent(CopyContext context, MigrationStatusEventType type) {
+		MigrationStatusEvent event = new MigrationStatusEvent();
+		event.setMigrationId(context.getMigrationId());
+		event.setType(type);
+		event.setTimestampEpoch(System.currentTimeMillis());
+		return event;
 	}
 
 	protected void setTimestamp(PreparedStatement stmt, int i, Timestamp ts) throws SQLException {
@@ -331,8 +544,11 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 			stmt.setObject(5, getTargetNodeId());
 			stmt.setObject(6, context.getMigrationId());
 			stmt.setObject(7, copyItem.getPipelineName());
-			stmt.executeUpdate();
+			int updated = stmt.executeUpdate();
 			connection.commit();
+			if (updated > 0) {
+				publishTaskEvent(context, copyItem, MigrationStatusEventType.TASK_COMPLETED, -1);
+			}
 		}
 		mutePerformanceRecorder(context, copyItem);
 	}
@@ -354,8 +570,11 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 			stmt.setObject(3, getTargetNodeId());
 			stmt.setObject(4, context.getMigrationId());
 			stmt.setObject(5, copyItem.getPipelineName());
-			stmt.executeUpdate();
+			int updated = stmt.executeUpdate();
 			connection.commit();
+			if (updated > 0) {
+				publishTaskEvent(context, copyItem, MigrationStatusEventType.TASK_FAILED, -1);
+			}
 		}
 		mutePerformanceRecorder(context, copyItem);
 	}
@@ -406,6 +625,157 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 		}
 	}
 
+	@Override
+	public void updateTaskBatchSize(CopyContext context, CopyContext.DataCopyItem copyItem, long batchSize)
+			throws Exception {
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYTASKS " + "SET batchsize=? " + "WHERE targetnodeid=? "
+				+ "AND migrationId=? " + "AND pipelinename=? ";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setObject(1, batchSize);
+			stmt.setObject(2, getTargetNodeId());
+			stmt.setObject(3, context.getMigrationId());
+			stmt.setObject(4, copyItem.getPipelineName());
+			stmt.executeUpdate();
+			connection.commit();
+		}
+	}
+
+	@Override
+	public void updateTaskWatermark(CopyContext context, CopyContext.DataCopyItem copyItem, Instant watermark)
+			throws Exception {
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYTASKS " + "SET watermark=? " + "WHERE targetnodeid=? "
+				+ "AND migrationId=? " + "AND pipelinename=? " + "AND watermark IS NULL";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			// like the modification times of the source, the watermark is kept in the local time zone
+			stmt.setTimestamp(1, Timestamp.from(watermark));
+			stmt.setObject(2, getTargetNodeId());
+			stmt.setObject(3, context.getMigrationId());
+			stmt.setObject(4, copyItem.getPipelineName());
+			stmt.executeUpdate();
+			connection.commit();
+		}
+	}
+
+	@Override
+	public void saveWatermarks(CopyContext context) throws Exception {
+		String sql = "MERGE MIGRATIONTOOLKIT_TABLECOPYWATERMARKS AS w "
+				+ "USING (SELECT pipelinename, MAX(sourcetablename) AS sourcetablename, MAX(watermark) AS watermark "
+				+ "FROM MIGRATIONTOOLKIT_TABLECOPYTASKS WHERE migrationId=? AND watermark IS NOT NULL "
+				+ "AND duration IS NOT NULL AND failure = '0' GROUP BY pipelinename) AS t "
+				+ "ON w.pipelinename = t.pipelinename "
+				+ "WHEN MATCHED THEN UPDATE SET w.sourcetablename=t.sourcetablename, w.watermark=t.watermark, "
+				+ "w.migrationId=?, w.lastupdate=? "
+				+ "WHEN NOT MATCHED THEN INSERT (pipelinename, sourcetablename, watermark, migrationId, lastupdate) "
+				+ "VALUES (t.pipelinename, t.sourcetablename, t.watermark, ?, ?);";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			Timestamp now = now();
+			stmt.setObject(1, context.getMigrationId());
+			stmt.setObject(2, context.getMigrationId());
+			setTimestamp(stmt, 3, now);
+			stmt.setObject(4, context.getMigrationId());
+			setTimestamp(stmt, 5, now);
+			stmt.executeUpdate();
+			connection.commit();
+		}
+	}
+
+	@Override
+	public Map<String, Instant> findWatermarks(CopyContext context) throws Exception {
+		String sql = "SELECT sourcetablename, watermark FROM MIGRATIONTOOLKIT_TABLECOPYWATERMARKS";
+		Map<String, Instant> watermarks = new HashMap<>();
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql);
+				ResultSet resultSet = stmt.executeQuery()) {
+			while (resultSet.next()) {
+				watermarks.put(resultSet.getString("sourcetablename"),
+						resultSet.getTimestamp("watermark").toInstant());
+			}
+		}
+		return watermarks;
+	}
+
+	@Override
+	public void updateTaskSync(CopyContext context, CopyContext.DataCopyItem copyItem, Instant watermark,
+			Instant lastSync) throws Exception {
+		// the task is not touched otherwise, syncs are not reported as progress
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYTASKS " + "SET watermark=?, " + "lastsync=? "
+				+ "WHERE targetnodeid=? " + "AND migrationId=? " + "AND pipelinename=?";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setTimestamp(1, watermark == null ? null : Timestamp.from(watermark));
+			setTimestamp(stmt, 2, Timestamp.from(lastSync));
+			stmt.setObject(3, getTargetNodeId());
+			stmt.setObject(4, context.getMigrationId());
+			stmt.setObject(5, copyItem.getPipelineName());
+			stmt.executeUpdate();
+			connection.commit();
+		}
+	}
+
+	@Override
+	public boolean requestSyncStop(CopyContext context) throws Exception {
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYSTATUS SET syncstop='1' WHERE migrationId=? AND status=?";
+		try (Connection conn = getConnection(context); PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setObject(1, context.getMigrationId());
+			stmt.setObject(2, MigrationProgress.RUNNING.name());
+			boolean requested = stmt.executeUpdate() > 0;
+			conn.commit();
+			return requested;
+		}
+	}
+
+	@Override
+	public boolean isSyncStopRequested(CopyContext context) throws Exception {
+		String sql = "SELECT syncstop FROM MIGRATIONTOOLKIT_TABLECOPYSTATUS WHERE migrationId=?";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setObject(1, context.getMigrationId());
+			try (ResultSet resultSet = stmt.executeQuery()) {
+				return resultSet.next() && resultSet.getBoolean("syncstop");
+			}
+		}
+	}
+
+	@Override
+	public void updateMigrationStatusLastUpdate(CopyContext context) throws Exception {
+		try (Connection connection = getConnection(context)) {
+			updateMigrationStatusLastUpdate(connection, context);
+			connection.commit();
+		}
+	}
+
+	@Override
+	public boolean isTaskPending(CopyContext context, CopyContext.DataCopyItem copyItem) throws Exception {
+		String sql = "SELECT 1 FROM MIGRATIONTOOLKIT_TABLECOPYTASKS WHERE migrationid=? AND pipelinename=? "
+				+ "AND duration IS NULL AND failure = '0'";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setObject(1, context.getMigrationId());
+			stmt.setObject(2, copyItem.getPipelineName());
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next();
+			}
+		}
+	}
+
+	@Override
+	public void updateTaskSourceRowCount(CopyContext context, CopyContext.DataCopyItem copyItem, long sourceRowCount)
+			throws Exception {
+		String sql = "UPDATE MIGRATIONTOOLKIT_TABLECOPYTASKS " + "SET sourcerowcount=? " + "WHERE migrationId=? "
+				+ "AND pipelinename=? ";
+		try (Connection connection = getConnection(context);
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setObject(1, sourceRowCount);
+			stmt.setObject(2, context.getMigrationId());
+			stmt.setObject(3, copyItem.getPipelineName());
+			stmt.executeUpdate();
+			connection.commit();
+		}
+	}
+
 	@Override
 	public Set<DatabaseCopyTask> getUpdatedTasks(CopyContext context, OffsetDateTime since) throws Exception {
 		String sql = "select * from MIGRATIONTOOLKIT_TABLECOPYTASKS WHERE migrationid=? AND lastupdate >= ?";
@@ -443,8 +813,12 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 		this.clusterService = clusterService;
 	}
 
+	public void setMigrationStatusBus(MigrationStatusBus migrationStatusBus) {
+		this.migrationStatusBus = migrationStatusBus;
+	}
+
 	private Set<DatabaseCopyTask> convertToTask(ResultSet rs) throws Exception {
-		Set<DatabaseCopyTask> copyTasks = new HashSet<>();
+		Set<DatabaseCopyTask> copyTasks = new LinkedHashSet<>();
 		while (rs.next()) {
 			DatabaseCopyTask copyTask = new DatabaseCopyTask();
 			copyTask.setTargetnodeId(rs.getInt("targetnodeId"));
@@ -467,6 +841,10 @@ public class DefaultDatabaseCopyTaskRepository implements DatabaseCopyTaskReposi
 			copyTask.setCopyMethod(rs.getString("copymethod"));
 			copyTask.setKeyColumns(Splitter.on(",")
 					.splitToList(StringUtils.defaultIfEmpty(rs.getString("keycolumns"), StringUtils.EMPTY)));
+			copyTask.setBatchSize(rs.getLong("batchsize"));
+			Timestamp watermark = rs.getTimestamp("watermark");
+			copyTask.setWatermark(watermark == null ? null : watermark.toInstant());
+			copyTask.setLastSync(getDateTime(rs, "lastsync"));
 			copyTasks.add(copyTask);
 		}
 		return copyTasks;
@@ -4,19 +4,22 @@
 */
 package org.sap.commercemigration.service.impl;
 
-import com.google.common.io.ByteStreams;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.sap.commercemigration.constants.CommercemigrationConstants;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
 import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Blob;
 import java.sql.Clob;
-import java.sql.NClob;
 import java.sql.SQLException;
 import java.sql.Types;
 
@@ -27,28 +30,85 @@ public class DefaultDatabaseMigrationDataTypeMapperService implements DatabaseMi
 
 	private static final Logger LOG = LoggerFactory.getLogger(DefaultDatabaseMigrationDataTypeMapperService.class);
 
+	private static final long DEFAULT_INLINE_THRESHOLD = 1024 * 1024;
+
+	private ConfigurationService configurationService;
+	private volatile Path spillDirectory;
+	// read once per migration, Long.MAX_VALUE if LOBs are not spilled
+	private volatile Long inlineThreshold;
+
 	@Override
 	public Object dataTypeMapper(final Object sourceColumnValue, final int jdbcType) throws IOException, SQLException {
 		Object targetColumnValue = sourceColumnValue;
 		if (sourceColumnValue == null) {
 			// do nothing
 		} else if (jdbcType == Types.BLOB) {
-			targetColumnValue = new ByteArrayInputStream(
-					ByteStreams.toByteArray(((Blob) sourceColumnValue).getBinaryStream()));
-		} else if (jdbcType == Types.NCLOB) {
-			targetColumnValue = getValue((NClob) sourceColumnValue);
-		} else if (jdbcType == Types.CLOB) {
+			final Blob blob = (Blob) sourceColumnValue;
+			final long length = blob.length();
+			if (isSpillRequired(length)) {
+				targetColumnValue = SpilledLob.spill(blob.getBinaryStream(), getSpillDirectory());
+			} else {
+				// read once into an array of the exact size, the writers bind it directly and
+				// a retried batch reads it again, unlike a consumed stream
+				targetColumnValue = blob.getBytes(1, Math.toIntExact(length));
+			}
+		} else if (jdbcType == Types.NCLOB || jdbcType == Types.CLOB) {
 			targetColumnValue = getValue((Clob) sourceColumnValue);
 		}
 		return targetColumnValue;
 	}
 
-	private String getValue(final NClob nClob) throws SQLException, IOException {
-		return getValue(nClob.getCharacterStream());
+	private Object getValue(final Clob clob) throws SQLException, IOException {
+		if (isSpillRequired(clob.length())) {
+			return SpilledLob.spill(clob.getCharacterStream(), getSpillDirectory());
+		}
+		return getValue(clob.getCharacterStream());
 	}
 
-	private String getValue(final Clob clob) throws SQLException, IOException {
-		return getValue(clob.getCharacterStream());
+	private boolean isSpillRequired(final long length) {
+		Long threshold = inlineThreshold;
+		if (threshold == null) {
+			threshold = readInlineThreshold();
+			inlineThreshold = threshold;
+		}
+		return length > threshold;
+	}
+
+	private long readInlineThreshold() {
+		if (configurationService == null || !configurationService.getConfiguration()
+				.getBoolean(CommercemigrationConstants.MIGRATION_DATA_LOB_STREAMING_ENABLED, false)) {
+			return Long.MAX_VALUE;
+		}
+		return configurationService.getConfiguration()
+				.getLong(CommercemigrationConstants.MIGRATION_DATA_LOB_STREAMING_THRESHOLD, DEFAULT_INLINE_THRESHOLD);
+	}
+
+	private Path getSpillDirectory() throws IOException {
+		if (spillDirectory == null) {
+			synchronized (this) {
+				if (spillDirectory == null) {
+					spillDirectory = Files.createTempDirectory("commercemigration-lobs");
+					LOG.info("Spilling large LOBs to {}", spillDirectory);
+				}
+			}
+		}
+		return spillDirectory;
+	}
+
+	@Override
+	public synchronized void releaseSpilledLobs() {
+		inlineThreshold = null;
+		final Path directory = spillDirectory;
+		if (directory == null) {
+			return;
+		}
+		spillDirectory = null;
+		try {
+			FileUtils.deleteDirectory(directory.toFile());
+			LOG.info("Deleted spilled LOBs in {}", directory);
+		} catch (IOException e) {
+			LOG.warn("Could not delete spilled LOBs in {}", directory, e);
+		}
 	}
 
 	private String getValue(final Reader in) throws SQLException, IOException {
@@ -60,4 +120,12 @@ public class DefaultDatabaseMigrationDataTypeMapperService implements DatabaseMi
 		return value;
 	}
 
+	public ConfigurationService getConfigurationService() {
+		return configurationService;
+	}
+
+	public void setConfigurationService(ConfigurationService configurationService) {
+		this.configurationService = configurationService;
+	}
+
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.service.impl;
+
+import com.google.common.base.Stopwatch;
+import org.sap.commercemigration.DataThreadPoolConfig;
+import org.sap.commercemigration.DeletionReport;
+import org.sap.commercemigration.RangeDigest;
+import org.sap.commercemigration.RangeDigestQueryDefinition;
+import org.sap.commercemigration.TableDeletion;
+import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
+import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.repository.DataRepository;
+import org.sap.commercemigration.service.DatabaseCopyTask;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.sap.commercemigration.service.DatabaseMigrationDeletionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Finds the rows of the target whose keys are missing in the source. The key
+ * ranges of the source are compared by digests of their keys, in the database
+ * if source and target are of the same kind and by streaming the keys
+ * otherwise. The sorted keys of mismatching ranges are walked on both sides
+ * at once and the orphans are deleted from the target in batches. Keys missing in the target
+ * are left to the incremental copy.
+ */
+public class DefaultDatabaseMigrationDeletionService implements DatabaseMigrationDeletionService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DefaultDatabaseMigrationDeletionService.class);
+
+	private static final String KEY_COLUMN = "PK";
+	// SQL Server accepts at most 2100 parameters per statement
+	private static final int MAX_DELETE_BATCH_SIZE = 2000;
+
+	private DatabaseCopyTaskRepository databaseCopyTaskRepository;
+	private DataThreadPoolFactory deletionThreadPoolFactory;
+
+	@Override
+	public DeletionReport propagateDeletions(CopyContext context) throws Exception {
+		MigrationContext migrationContext = context.getMigrationContext();
+		DeletionReport report = new DeletionReport();
+		report.setMigrationID(context.getMigrationId());
+		List<TableDeletion> tables = new ArrayList<>();
+		DataThreadPoolConfig threadPoolConfig = new DataThreadPoolConfigBuilder(migrationContext)
+				.withPoolSize(migrationContext.getMaxParallelVerificationWorkers()).build();
+		ThreadPoolTaskExecutor executor = deletionThreadPoolFactory.create(context, threadPoolConfig);
+		try {
+			for (DatabaseCopyTask task : databaseCopyTaskRepository.getAllTasks(context)) {
+				if (task.isCompleted() && !task.isFailure()) {
+					tables.add(propagateDeletions(context, task, executor));
+				}
+			}
+		} finally {
+			deletionThreadPoolFactory.destroy(executor);
+		}
+		report.setTables(tables);
+		return report;
+	}
+
+	private TableDeletion propagateDeletions(CopyContext context, DatabaseCopyTask task,
+			ThreadPoolTaskExecutor executor) {
+		TableDeletion deletion = new TableDeletion();
+		deletion.setPipelinename(task.getPipelinename());
+		deletion.setSourcetablename(task.getSourcetablename());
+		deletion.setTargettablename(task.getTargettablename());
+		Stopwatch timer = Stopwatch.createStarted();
+		try {
+			MigrationContext migrationContext = context.getMigrationContext();
+			DataRepository source = migrationContext.getDataSourceRepository();
+			DataRepository target = migrationContext.getDataTargetRepository();
+			String sourceKeyColumn = findColumn(source.getAllColumnNames(task.getSourcetablename()));
+			String targetKeyColumn = findColumn(target.getAllColumnNames(task.getTargettablename()));
+			if (sourceKeyColumn == null || targetKeyColumn == null) {
+				throw new IllegalStateException("source or target has no " + KEY_COLUMN + " column");
+			}
+			deletion.setKeyColumn(targetKeyColumn);
+			long batchSize = migrationContext.getReaderBatchSize();
+			int deleteBatchSize = Math.min(migrationContext.getIncrementalDeletionsBatchSize(), MAX_DELETE_BATCH_SIZE);
+			boolean inDatabase = source.getDatabaseProvider() == target.getDatabaseProvider();
+
+			// all keys of the source, the incremental copy read the modified rows only
+			List<Object> boundaries = KeyRanges.getBoundaries(source, task.getSourcetablename(), sourceKeyColumn,
+					batchSize);
+			int rangeCount = boundaries.size() - 1;
+
+			for (int chunkStart = 0; chunkStart < rangeCount; chunkStart += KeyRanges.RANGES_PER_CHUNK) {
+				List<Future<RangeDeletion>> futures = new ArrayList<>();
+				for (int i = chunkStart; i < Math.min(rangeCount, chunkStart + KeyRanges.RANGES_PER_CHUNK); i++) {
+					RangeDigestQueryDefinition sourceDefinition = KeyRanges.createDefinition(
+							task.getSourcetablename(), sourceKeyColumn, Collections.singletonList(sourceKeyColumn),
+							boundaries.get(i), boundaries.get(i + 1), batchSize);
+					RangeDigestQueryDefinition targetDefinition = KeyRanges.createDefinition(
+							task.getTargettablename(), targetKeyColumn, Collections.singletonList(targetKeyColumn),
+							boundaries.get(i), boundaries.get(i + 1), batchSize);
+					futures.add(executor.submit(() -> deleteOrphans(source, target, sourceDefinition,
+							targetDefinition, inDatabase, deleteBatchSize)));
+				}
+				for (Future<RangeDeletion> future : futures) {
+					RangeDeletion rangeDeletion = future.get();
+					if (rangeDeletion.mismatching) {
+						deletion.setMismatchingRanges(deletion.getMismatchingRanges() + 1);
+						deletion.setDeletedRows(deletion.getDeletedRows() + rangeDeletion.deletedRows);
+					}
+				}
+			}
+			deletion.setRanges(rangeCount);
+		} catch (Exception e) {
+			LOG.error("Propagating deletions to table {} failed", task.getPipelinename(), e);
+			deletion.setError(e.getMessage());
+		}
+		deletion.setDuration(timer.stop().toString());
+		LOG.info("Deleted {} rows from table {} in {}", deletion.getDeletedRows(), task.getTargettablename(),
+				deletion.getDuration());
+		return deletion;
+	}
+
+	private RangeDeletion deleteOrphans(DataRepository source, DataRepository target,
+			RangeDigestQueryDefinition sourceDefinition, RangeDigestQueryDefinition targetDefinition,
+			boolean inDatabase, int deleteBatchSize) throws Exception {
+		RangeDeletion rangeDeletion = new RangeDeletion();
+		RangeDigest sourceDigest = inDatabase ? source.getDatabaseRangeDigest(sourceDefinition) : null;
+		RangeDigest targetDigest = sourceDigest != null ? target.getDatabaseRangeDigest(targetDefinition) : null;
+		if (sourceDigest == null || targetDigest == null) {
+			sourceDigest = source.getStreamedRangeDigest(sourceDefinition);
+			targetDigest = target.getStreamedRangeDigest(targetDefinition);
+		}
+		rangeDeletion.mismatching = sourceDigest.getRowCount() != targetDigest.getRowCount()
+				|| !Objects.equals(sourceDigest.getDigest(), targetDigest.getDigest());
+		if (!rangeDeletion.mismatching || targetDigest.getRowCount() == 0) {
+			return rangeDeletion;
+		}
+		// the markers bound the source keys of a range only, the target may hold any number of orphans
+		List<Object> orphans = new ArrayList<>();
+		try (Stream<BigDecimal> sourceKeys = source.getOrderedNumericValues(sourceDefinition);
+				Stream<BigDecimal> targetKeys = target.getOrderedNumericValues(targetDefinition)) {
+			Iterator<BigDecimal> sourceIterator = sourceKeys.iterator();
+			BigDecimal sourceKey = sourceIterator.hasNext() ? sourceIterator.next() : null;
+			Iterator<BigDecimal> targetIterator = targetKeys.iterator();
+			while (targetIterator.hasNext()) {
+				BigDecimal targetKey = targetIterator.next();
+				while (sourceKey != null && sourceKey.compareTo(targetKey) < 0) {
+					sourceKey = sourceIterator.hasNext() ? sourceIterator.next() : null;
+				}
+				if (sourceKey == null || sourceKey.compareTo(targetKey) > 0) {
+					orphans.add(targetKey);
+					if (orphans.size() == deleteBatchSize) {
+						rangeDeletion.deletedRows += deleteRows(target, targetDefinition, orphans);
+					}
+				}
+			}
+		}
+		rangeDeletion.deletedRows += deleteRows(target, targetDefinition, orphans);
+		return rangeDeletion;
+	}
+
+	/**
+	 * Deletes the orphans of a batch, the rows behind the target cursor.
+	 */
+	private int deleteRows(DataRepository target, RangeDigestQueryDefinition targetDefinition, List<Object> orphans)
+			throws Exception {
+		int deletedRows = target.deleteRows(targetDefinition.getTable(), targetDefinition.getColumn(), orphans);
+		orphans.clear();
+		return deletedRows;
+	}
+
+	private String findColumn(Set<String> columns) {
+		return columns.stream().filter(KEY_COLUMN::equalsIgnoreCase).findFirst().orElse(null);
+	}
+
+	public void setDatabaseCopyTaskRepository(DatabaseCopyTaskRepository databaseCopyTaskRepository) {
+		this.databaseCopyTaskRepository = databaseCopyTaskRepository;
+	}
+
+	public void setDeletionThreadPoolFactory(DataThreadPoolFactory deletionThreadPoolFactory) {
+		this.deletionThreadPoolFactory = deletionThreadPoolFactory;
+	}
+
+	private static class RangeDeletion {
+		private boolean mismatching;
+		private long deletedRows;
+	}
+}
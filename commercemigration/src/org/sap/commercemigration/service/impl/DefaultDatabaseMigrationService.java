@@ -15,6 +15,8 @@ import org.sap.commercemigration.context.validation.MigrationContextValidator;
 import org.sap.commercemigration.performance.PerformanceProfiler;
 import org.sap.commercemigration.provider.CopyItemProvider;
 import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
+import org.sap.commercemigration.service.DatabaseCopyTask;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.sap.commercemigration.service.DatabaseMigrationReportService;
 import org.sap.commercemigration.service.DatabaseMigrationService;
 import org.sap.commercemigration.service.DatabaseSchemaDifferenceService;
@@ -23,8 +25,13 @@ import org.slf4j.MDC;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import static org.sap.commercemigration.constants.CommercemigrationConstants.MDC_MIGRATIONID;
@@ -38,6 +45,7 @@ public class DefaultDatabaseMigrationService implements DatabaseMigrationService
 	private DatabaseSchemaDifferenceService schemaDifferenceService;
 	private MigrationContextValidator migrationContextValidator;
 	private TaskService taskService;
+	private DatabaseCopyTaskRepository databaseCopyTaskRepository;
 
 	@Override
 	public String startMigration(final MigrationContext context, LaunchOptions launchOptions) throws Exception {
@@ -66,6 +74,9 @@ public class DefaultDatabaseMigrationService implements DatabaseMigrationService
 			throw new Exception("Task engine is activated - migration is blocked");
 		}
 		performanceProfiler.reset();
+		// the schemas may have changed since the previous migration
+		context.getDataSourceRepository().invalidateCatalogCache();
+		context.getDataTargetRepository().invalidateCatalogCache();
 		if (context.isLogSql()) {
 			context.getDataSourceRepository().clearJdbcQueriesStore();
 			context.getDataTargetRepository().clearJdbcQueriesStore();
@@ -100,6 +111,26 @@ public class DefaultDatabaseMigrationService implements DatabaseMigrationService
 		databaseCopyScheduler.abort(copyContext);
 	}
 
+	@Override
+	public boolean stopSync(MigrationContext context, String migrationID) throws Exception {
+		CopyContext copyContext = buildIdContext(context, migrationID);
+		return databaseCopyTaskRepository.requestSyncStop(copyContext);
+	}
+
+	@Override
+	public Map<String, Long> getSyncLags(MigrationContext context, String migrationID) throws Exception {
+		CopyContext copyContext = buildIdContext(context, migrationID);
+		Map<String, Long> lags = new TreeMap<>();
+		Instant now = Instant.now();
+		for (DatabaseCopyTask task : databaseCopyTaskRepository.getAllTasks(copyContext)) {
+			if (task.getLastSync() != null && !task.isCompleted()) {
+				lags.put(task.getPipelinename(),
+						Duration.between(task.getLastSync().toInstant(ZoneOffset.UTC), now).getSeconds());
+			}
+		}
+		return lags;
+	}
+
 	private CopyContext buildCopyContext(MigrationContext context, String migrationID) throws Exception {
 		Set<CopyContext.DataCopyItem> dataCopyItems = copyItemProvider.get(context);
 		return new CopyContext(migrationID, context, dataCopyItems, performanceProfiler);
@@ -186,4 +217,8 @@ public class DefaultDatabaseMigrationService implements DatabaseMigrationService
 	public void setTaskService(TaskService taskService) {
 		this.taskService = taskService;
 	}
+
+	public void setDatabaseCopyTaskRepository(DatabaseCopyTaskRepository databaseCopyTaskRepository) {
+		this.databaseCopyTaskRepository = databaseCopyTaskRepository;
+	}
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.service.impl;
+
+import com.google.common.base.Stopwatch;
+import org.apache.commons.lang3.StringUtils;
+import org.sap.commercemigration.DataThreadPoolConfig;
+import org.sap.commercemigration.RangeDigest;
+import org.sap.commercemigration.RangeDigestQueryDefinition;
+import org.sap.commercemigration.TableVerification;
+import org.sap.commercemigration.VerificationReport;
+import org.sap.commercemigration.concurrent.DataCopyMethod;
+import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
+import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.repository.DataRepository;
+import org.sap.commercemigration.service.DatabaseCopyTask;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.sap.commercemigration.service.DatabaseMigrationVerificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the tables of source and target range by range. The ranges are
+ * those of the SEEK batches the table was copied with; tables copied
+ * otherwise are compared as a whole. The ranges are digested in parallel, in
+ * the database if source and target are of the same kind and by streaming
+ * the rows otherwise. Only the rows of mismatching ranges are
+ * compared one by one.
+ */
+public class DefaultDatabaseMigrationVerificationService implements DatabaseMigrationVerificationService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DefaultDatabaseMigrationVerificationService.class);
+
+	private static final String DIGEST_DATABASE = "DATABASE";
+	private static final String DIGEST_STREAMED = "STREAMED";
+	private static final int MAX_MISMATCHING_KEYS = 10;
+
+	private DatabaseCopyTaskRepository databaseCopyTaskRepository;
+	private DataThreadPoolFactory verificationThreadPoolFactory;
+
+	@Override
+	public VerificationReport verify(CopyContext context) throws Exception {
+		MigrationContext migrationContext = context.getMigrationContext();
+		VerificationReport report = new VerificationReport();
+		report.setMigrationID(context.getMigrationId());
+		List<TableVerification> tables = new ArrayList<>();
+		DataThreadPoolConfig threadPoolConfig = new DataThreadPoolConfigBuilder(migrationContext)
+				.withPoolSize(migrationContext.getMaxParallelVerificationWorkers()).build();
+		ThreadPoolTaskExecutor executor = verificationThreadPoolFactory.create(context, threadPoolConfig);
+		try {
+			for (DatabaseCopyTask task : databaseCopyTaskRepository.getAllTasks(context)) {
+				if (task.isCompleted() && !task.isFailure()) {
+					tables.add(verifyTable(context, task, executor));
+				}
+			}
+		} finally {
+			verificationThreadPoolFactory.destroy(executor);
+		}
+		report.setTables(tables);
+		return report;
+	}
+
+	private TableVerification verifyTable(CopyContext context, DatabaseCopyTask task,
+			ThreadPoolTaskExecutor executor) {
+		TableVerification verification = new TableVerification();
+		verification.setPipelinename(task.getPipelinename());
+		verification.setSourcetablename(task.getSourcetablename());
+		verification.setTargettablename(task.getTargettablename());
+		verification.setMismatchingKeys(new ArrayList<>());
+		Stopwatch timer = Stopwatch.createStarted();
+		try {
+			MigrationContext migrationContext = context.getMigrationContext();
+			DataRepository source = migrationContext.getDataSourceRepository();
+			DataRepository target = migrationContext.getDataTargetRepository();
+			Map<String, String> columns = getDigestColumns(migrationContext, task);
+			if (columns.isEmpty()) {
+				throw new IllegalStateException("source and target have no columns in common");
+			}
+			String keyColumn = getKeyColumn(task);
+			verification.setKeyColumn(keyColumn);
+			long batchSize = task.getBatchSize() > 0 ? task.getBatchSize() : migrationContext.getReaderBatchSize();
+			boolean inDatabase = source.getDatabaseProvider() == target.getDatabaseProvider();
+
+			List<Object> boundaries = KeyRanges.getBoundaries(source, task.getSourcetablename(), keyColumn,
+					batchSize);
+			int rangeCount = boundaries.size() - 1;
+
+			boolean streamed = false;
+			for (int chunkStart = 0; chunkStart < rangeCount; chunkStart += KeyRanges.RANGES_PER_CHUNK) {
+				List<Future<RangeVerification>> futures = new ArrayList<>();
+				for (int i = chunkStart; i < Math.min(rangeCount, chunkStart + KeyRanges.RANGES_PER_CHUNK); i++) {
+					Range range = new Range(boundaries.get(i), boundaries.get(i + 1));
+					futures.add(executor.submit(() -> verifyRange(task, source, target, columns, keyColumn, range,
+							batchSize, inDatabase)));
+				}
+				for (Future<RangeVerification> future : futures) {
+					RangeVerification rangeVerification = future.get();
+					streamed |= rangeVerification.streamed;
+					aggregate(verification, rangeVerification);
+				}
+			}
+			verification.setRanges(rangeCount);
+			verification.setDigestMethod(streamed ? DIGEST_STREAMED : DIGEST_DATABASE);
+			verification.setVerified(verification.getMismatchingRanges() == 0);
+		} catch (Exception e) {
+			LOG.error("Verification of table {} failed", task.getPipelinename(), e);
+			verification.setError(e.getMessage());
+		}
+		verification.setDuration(timer.stop().toString());
+		LOG.info("Verified table {} in {}: {} of {} ranges mismatching", task.getPipelinename(),
+				verification.getDuration(), verification.getMismatchingRanges(), verification.getRanges());
+		return verification;
+	}
+
+	private RangeVerification verifyRange(DatabaseCopyTask task, DataRepository source, DataRepository target,
+			Map<String, String> columns, String keyColumn, Range range, long batchSize, boolean inDatabase)
+			throws Exception {
+		RangeDigestQueryDefinition sourceDefinition = KeyRanges.createDefinition(task.getSourcetablename(),
+				keyColumn, new ArrayList<>(columns.keySet()), range.lower, range.upper, batchSize);
+		RangeDigestQueryDefinition targetDefinition = KeyRanges.createDefinition(task.getTargettablename(),
+				keyColumn, new ArrayList<>(columns.values()), range.lower, range.upper, batchSize);
+		RangeVerification verification = new RangeVerification();
+		RangeDigest sourceDigest = inDatabase ? source.getDatabaseRangeDigest(sourceDefinition) : null;
+		RangeDigest targetDigest = sourceDigest != null ? target.getDatabaseRangeDigest(targetDefinition) : null;
+		if (sourceDigest == null || targetDigest == null) {
+			sourceDigest = source.getStreamedRangeDigest(sourceDefinition);
+			targetDigest = target.getStreamedRangeDigest(targetDefinition);
+			verification.streamed = true;
+		}
+		verification.mismatching = sourceDigest.getRowCount() != targetDigest.getRowCount()
+				|| !Objects.equals(sourceDigest.getDigest(), targetDigest.getDigest());
+		if (verification.mismatching) {
+			if (keyColumn == null) {
+				long difference = sourceDigest.getRowCount() - targetDigest.getRowCount();
+				verification.missingRows = Math.max(difference, 0);
+				verification.unexpectedRows = Math.max(-difference, 0);
+				if (difference == 0) {
+					// without a key the table is a single range, its differing rows cannot be told apart
+					LOG.warn("Table {} has {} rows on both sides, but the digests of its only range differ",
+							task.getPipelinename(), sourceDigest.getRowCount());
+				}
+			} else {
+				compareRows(verification, source.getRowDigests(sourceDefinition),
+						target.getRowDigests(targetDefinition));
+				// digests of equal rows may differ by the types of the copied values
+				verification.mismatching = verification.missingRows + verification.unexpectedRows
+						+ verification.differentRows > 0;
+			}
+		}
+		return verification;
+	}
+
+	private void compareRows(RangeVerification verification, Map<String, Long> sourceRows,
+			Map<String, Long> targetRows) {
+		for (Map.Entry<String, Long> sourceRow : sourceRows.entrySet()) {
+			Long targetRow = targetRows.remove(sourceRow.getKey());
+			if (targetRow == null) {
+				verification.missingRows++;
+				addMismatchingKey(verification, sourceRow.getKey());
+			} else if (!targetRow.equals(sourceRow.getValue())) {
+				verification.differentRows++;
+				addMismatchingKey(verification, sourceRow.getKey());
+			}
+		}
+		for (String key : targetRows.keySet()) {
+			verification.unexpectedRows++;
+			addMismatchingKey(verification, key);
+		}
+	}
+
+	private void addMismatchingKey(RangeVerification verification, String key) {
+		if (verification.mismatchingKeys.size() < MAX_MISMATCHING_KEYS) {
+			verification.mismatchingKeys.add(key);
+		}
+	}
+
+	private void aggregate(TableVerification verification, RangeVerification rangeVerification) {
+		if (!rangeVerification.mismatching) {
+			return;
+		}
+		verification.setMismatchingRanges(verification.getMismatchingRanges() + 1);
+		verification.setMissingRows(verification.getMissingRows() + rangeVerification.missingRows);
+		verification.setUnexpectedRows(verification.getUnexpectedRows() + rangeVerification.unexpectedRows);
+		verification.setDifferentRows(verification.getDifferentRows() + rangeVerification.differentRows);
+		for (String key : rangeVerification.mismatchingKeys) {
+			if (verification.getMismatchingKeys().size() < MAX_MISMATCHING_KEYS) {
+				verification.getMismatchingKeys().add(key);
+			}
+		}
+	}
+
+	private String getKeyColumn(DatabaseCopyTask task) {
+		List<String> keyColumns = task.getKeyColumns();
+		if (DataCopyMethod.SEEK.toString().equals(task.getCopyMethod()) && keyColumns != null
+				&& keyColumns.size() == 1 && StringUtils.isNotEmpty(keyColumns.get(0))) {
+			return keyColumns.get(0);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the copied columns present on both sides, source column to target
+	 *         column in the order of their names
+	 */
+	private Map<String, String> getDigestColumns(MigrationContext migrationContext, DatabaseCopyTask task)
+			throws Exception {
+		Set<String> ignoredColumns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		ignoredColumns.addAll(
+				migrationContext.getExcludedColumns().getOrDefault(task.getTargettablename(), Collections.emptySet()));
+		ignoredColumns.addAll(
+				migrationContext.getNullifyColumns().getOrDefault(task.getTargettablename(), Collections.emptySet()));
+		Map<String, String> targetColumns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (String column : migrationContext.getDataTargetRepository().getAllColumnNames(task.getTargettablename())) {
+			targetColumns.put(column, column);
+		}
+		Map<String, String> columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (String column : migrationContext.getDataSourceRepository().getAllColumnNames(task.getSourcetablename())) {
+			if (!ignoredColumns.contains(column) && targetColumns.containsKey(column)) {
+				columns.put(column, targetColumns.get(column));
+			}
+		}
+		return columns;
+	}
+
+	public void setDatabaseCopyTaskRepository(DatabaseCopyTaskRepository databaseCopyTaskRepository) {
+		this.databaseCopyTaskRepository = databaseCopyTaskRepository;
+	}
+
+	public void setVerificationThreadPoolFactory(DataThreadPoolFactory verificationThreadPoolFactory) {
+		this.verificationThreadPoolFactory = verificationThreadPoolFactory;
+	}
+
+	private static class Range {
+		private final Object lower;
+		private final Object upper;
+
+		private Range(Object lower, Object upper) {
+			this.lower = lower;
+			this.upper = upper;
+		}
+	}
+
+	private static class RangeVerification {
+		private boolean streamed;
+		private boolean mismatching;
+		private long missingRows;
+		private long unexpectedRows;
+		private long differentRows;
+		private final List<String> mismatchingKeys = new ArrayList<>();
+	}
+}
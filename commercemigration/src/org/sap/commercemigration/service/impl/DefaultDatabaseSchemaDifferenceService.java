@@ -79,6 +79,8 @@ public class DefaultDatabaseSchemaDifferenceService implements DatabaseSchemaDif
 			throw new RuntimeException("Could not execute Schema Diff Script", e);
 		} finally {
 			platform.returnConnection(connection);
+			// also a partially executed script may have changed the schema
+			context.getDataTargetRepository().invalidateCatalogCache();
 		}
 	}
 
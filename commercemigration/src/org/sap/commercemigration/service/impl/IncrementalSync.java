@@ -0,0 +1,264 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.service.impl;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+import org.sap.commercemigration.DataThreadPoolConfig;
+import org.sap.commercemigration.adapter.impl.ContextualDataRepositoryAdapter;
+import org.sap.commercemigration.concurrent.DataCopyMethod;
+import org.sap.commercemigration.concurrent.DataPipe;
+import org.sap.commercemigration.concurrent.DataPipeFactory;
+import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
+import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.repository.DataRepository;
+import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
+import org.sap.commercemigration.service.DatabaseCopyTask;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.sap.commercemigration.strategy.PipeWriterStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.sap.commercemigration.constants.CommercemigrationConstants.MDC_PIPELINE;
+
+/**
+ * Keeps the tables copied by this node in sync with the source until the sync
+ * is stopped: every interval, the rows of each table modified after its
+ * watermark are read by its key column and upserted into the target. Tables
+ * join once their initial copy has succeeded. Their tasks are completed after
+ * the sync has been stopped and the modified rows have been copied a last time,
+ * so the migration completes as usual.
+ */
+final class IncrementalSync {
+
+	private static final Logger LOG = LoggerFactory.getLogger(IncrementalSync.class);
+
+	private static final String MODIFIEDTS = "MODIFIEDTS";
+
+	private final CopyContext context;
+	private final DataPipeFactory<DataSet> pipeFactory;
+	private final PipeWriterStrategy<DataSet> writerStrategy;
+	private final DataThreadPoolFactory dataWriteTaskFactory;
+	private final DatabaseCopyTaskRepository taskRepository;
+	private final DatabaseCopyScheduler scheduler;
+	private final Map<CopyContext.DataCopyItem, SyncedTable> tables = new ConcurrentHashMap<>();
+	private final AtomicInteger pendingCopies;
+
+	IncrementalSync(CopyContext context, DataPipeFactory<DataSet> pipeFactory,
+			PipeWriterStrategy<DataSet> writerStrategy, DataThreadPoolFactory dataWriteTaskFactory,
+			DatabaseCopyTaskRepository taskRepository, DatabaseCopyScheduler scheduler) {
+		this.context = context;
+		this.pipeFactory = pipeFactory;
+		this.writerStrategy = writerStrategy;
+		this.dataWriteTaskFactory = dataWriteTaskFactory;
+		this.taskRepository = taskRepository;
+		this.scheduler = scheduler;
+		this.pendingCopies = new AtomicInteger(context.getCopyItems().size());
+	}
+
+	/**
+	 * The modified rows are found by the watermarks, which are recorded in
+	 * incremental mode only.
+	 */
+	static boolean isEnabled(MigrationContext context) {
+		return context.isIncrementalModeEnabled() && context.isIncrementalWatermarkEnabled()
+				&& context.isIncrementalSyncEnabled();
+	}
+
+	/**
+	 * Adds a table whose initial copy has succeeded and whose indexes are built.
+	 * Tables whose task has failed meanwhile, e.g. by the index build, are not
+	 * synced.
+	 *
+	 * @param copyStart
+	 *            the time the initial copy has started, the rows modified before
+	 *            are copied
+	 * @param timer
+	 *            started with the initial copy, it is stopped once the task is
+	 *            completed
+	 * @return false if the table cannot be synced, its task has to be completed
+	 *         by the caller
+	 */
+	boolean add(CopyContext.DataCopyItem item, Instant copyStart, Stopwatch timer) throws Exception {
+		Optional<DatabaseCopyTask> task = taskRepository.findPipeline(context, item);
+		if (task.isPresent() && task.get().isFailure()) {
+			return false;
+		}
+		boolean hasModifiedTimestamp = context.getMigrationContext().getDataSourceRepository()
+				.getAllColumnNames(item.getSourceItem()).stream().anyMatch(MODIFIEDTS::equalsIgnoreCase);
+		if (!task.isPresent() || !DataCopyMethod.SEEK.toString().equals(task.get().getCopyMethod())
+				|| !hasModifiedTimestamp) {
+			LOG.info("Table {} has no key or modification time to find modified rows by, it is not synced",
+					item.getSourceItem());
+			return false;
+		}
+		SyncedTable table = new SyncedTable(item, task.get(), timer);
+		// tables without watermark were empty, all of their rows are new
+		table.watermark = task.get().getWatermark();
+		// the batches of synced tables are not shared with other nodes
+		taskRepository.updateTaskSync(context, item, table.watermark, copyStart);
+		tables.put(item, table);
+		return true;
+	}
+
+	/**
+	 * Called once the initial copy of a table has finished and its indexes are
+	 * built, whether the table is synced or not.
+	 */
+	void copyFinished() {
+		pendingCopies.decrementAndGet();
+	}
+
+	/**
+	 * Syncs the tables until the sync is stopped and the initial copies have
+	 * finished.
+	 */
+	Boolean run() {
+		DataThreadPoolConfig poolConfig = new DataThreadPoolConfigBuilder(context.getMigrationContext())
+				.withPoolSize(context.getMigrationContext().getMaxParallelTableCopy()).build();
+		ThreadPoolTaskExecutor executor = dataWriteTaskFactory.create(context, poolConfig);
+		try {
+			boolean stopped;
+			do {
+				if (scheduler.isAborted(context)) {
+					return Boolean.FALSE;
+				}
+				// read before the last tables are synced, their modified rows are copied once more
+				boolean copied = pendingCopies.get() == 0;
+				if (copied && tables.isEmpty()) {
+					return Boolean.TRUE;
+				}
+				stopped = copied && taskRepository.isSyncStopRequested(context);
+				syncTables(executor);
+				taskRepository.updateMigrationStatusLastUpdate(context);
+				if (!stopped) {
+					Thread.sleep(TimeUnit.SECONDS
+							.toMillis(context.getMigrationContext().getIncrementalSyncIntervalSeconds()));
+				}
+			} while (!stopped);
+			LOG.info("Sync of {} tables stopped", tables.size());
+			for (SyncedTable table : tables.values()) {
+				complete(table);
+			}
+		} catch (Exception e) {
+			LOG.error("Failed to sync tables", e);
+			for (SyncedTable table : tables.values()) {
+				fail(table, e);
+			}
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			return Boolean.FALSE;
+		} finally {
+			dataWriteTaskFactory.destroy(executor);
+		}
+		return Boolean.TRUE;
+	}
+
+	private void syncTables(ThreadPoolTaskExecutor executor) throws Exception {
+		List<Future<?>> futures = new ArrayList<>();
+		for (SyncedTable table : tables.values()) {
+			futures.add(executor.submit(() -> {
+				try (MDC.MDCCloseable ignored = MDC.putCloseable(MDC_PIPELINE, table.item.getPipelineName())) {
+					sync(table);
+				} catch (Exception e) {
+					LOG.error("Failed to sync table {}", table.item.getSourceItem(), e);
+					fail(table, e);
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	/**
+	 * Copies the rows modified after the watermark of the table, less the margin,
+	 * unless neither the latest modification time nor the number of these rows
+	 * has changed since they have been read.
+	 */
+	private void sync(SyncedTable table) throws Exception {
+		Instant syncStart = Instant.now();
+		MigrationContext migrationContext = context.getMigrationContext();
+		DataRepository source = migrationContext.getDataSourceRepository();
+		String sourceTable = table.item.getSourceItem();
+		Instant maxModified = source.getMaxModifiedTimestamp(sourceTable);
+		if (maxModified != null) {
+			Instant watermark = table.watermark == null ? Instant.EPOCH : table.watermark;
+			long modifiedRows = new ContextualDataRepositoryAdapter(source, ImmutableMap.of(sourceTable, watermark))
+					.getRowCount(migrationContext, sourceTable);
+			if (!maxModified.equals(table.readMaxModified) || modifiedRows != table.readRowCount) {
+				DataPipe<DataSet> pipe = null;
+				try {
+					pipe = pipeFactory.createForChanges(context, table.item, table.task, watermark);
+					writerStrategy.writeChanges(context, pipe, table.item);
+				} catch (Exception e) {
+					if (pipe != null) {
+						pipe.requestAbort(e);
+					}
+					throw e;
+				}
+			}
+			if (table.watermark == null || maxModified.isAfter(table.watermark)) {
+				// the rows of the margin are read again once the watermark has moved
+				table.watermark = maxModified;
+				table.readMaxModified = null;
+				table.readRowCount = -1;
+			} else {
+				table.readMaxModified = maxModified;
+				table.readRowCount = modifiedRows;
+			}
+		}
+		taskRepository.updateTaskSync(context, table.item, table.watermark, syncStart);
+	}
+
+	private void complete(SyncedTable table) {
+		tables.remove(table.item);
+		try {
+			taskRepository.markTaskCompleted(context, table.item, table.timer.stop().toString());
+		} catch (Exception e) {
+			LOG.error("Failed to update copy status", e);
+		}
+	}
+
+	private void fail(SyncedTable table, Exception error) {
+		try {
+			taskRepository.markTaskFailed(context, table.item, error);
+		} catch (Exception e) {
+			LOG.error("Failed to set failed status", e);
+		}
+		complete(table);
+	}
+
+	private static class SyncedTable {
+		private final CopyContext.DataCopyItem item;
+		private final DatabaseCopyTask task;
+		private final Stopwatch timer;
+		private Instant watermark;
+		private Instant readMaxModified;
+		private long readRowCount = -1;
+
+		private SyncedTable(CopyContext.DataCopyItem item, DatabaseCopyTask task, Stopwatch timer) {
+			this.item = item;
+			this.task = task;
+			this.timer = timer;
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.service.impl;
+
+import com.google.common.base.Stopwatch;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.NonUniqueIndex;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.model.UniqueIndex;
+import org.sap.commercemigration.DataThreadPoolConfig;
+import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
+import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.sap.commercemigration.constants.CommercemigrationConstants.MDC_PIPELINE;
+
+/**
+ * Builds the indexes of the copied tables in a pool of its own while the
+ * remaining tables are copied: the indexes disabled before the copy are
+ * rebuilt and the dropped indexes are created as defined in the source schema.
+ * The task of a table is completed once its indexes are built, so the
+ * migration completes with all indexes in place.
+ */
+final class IndexMaintenance {
+
+	private static final Logger LOG = LoggerFactory.getLogger(IndexMaintenance.class);
+
+	private final CopyContext context;
+	private final DataThreadPoolFactory dataWriteTaskFactory;
+	private final DatabaseCopyTaskRepository taskRepository;
+	private final AtomicInteger pendingCopies;
+	private ThreadPoolTaskExecutor executor;
+	private boolean shutdown;
+	private Database sourceModel;
+
+	IndexMaintenance(CopyContext context, DataThreadPoolFactory dataWriteTaskFactory,
+			DatabaseCopyTaskRepository taskRepository) {
+		this.context = context;
+		this.dataWriteTaskFactory = dataWriteTaskFactory;
+		this.taskRepository = taskRepository;
+		this.pendingCopies = new AtomicInteger(context.getCopyItems().size());
+	}
+
+	static boolean isEnabled(MigrationContext context) {
+		if (context.isDropAllIndexesEnabled()) {
+			return context.isRecreateDroppedIndexesEnabled();
+		}
+		return context.isDisableAllIndexesEnabled();
+	}
+
+	/**
+	 * Builds the indexes of a table whose copy has finished, whether it has
+	 * succeeded or not, as the indexes have been dropped or disabled by the
+	 * writer. Called once per table.
+	 * <p>
+	 * The completion also runs if the build has failed, as it counts the finished
+	 * copies for the sync. The task is then already marked as failed, which
+	 * {@link DatabaseCopyTaskRepository#markTaskCompleted} leaves unchanged.
+	 *
+	 * @param completion
+	 *            completes the task of the table once its indexes are built,
+	 *            receives false if the build has failed
+	 */
+	void build(CopyContext.DataCopyItem item, Consumer<Boolean> completion) {
+		boolean scheduled = false;
+		boolean rejected = false;
+		try {
+			if (isMaintained(item.getTargetItem())) {
+				getExecutor().submit(() -> {
+					boolean built = false;
+					try (MDC.MDCCloseable ignored = MDC.putCloseable(MDC_PIPELINE, item.getPipelineName())) {
+						buildIndexes(item);
+						built = true;
+					} catch (Exception e) {
+						LOG.error("Failed to build indexes of table {}", item.getTargetItem(), e);
+						markFailed(item, e);
+					} finally {
+						completion.accept(built);
+					}
+				});
+				scheduled = true;
+			}
+		} catch (TaskRejectedException e) {
+			LOG.error("Failed to schedule index build of table {}", item.getTargetItem(), e);
+			markFailed(item, e);
+			rejected = true;
+		} finally {
+			if (pendingCopies.decrementAndGet() == 0) {
+				shutdown();
+			}
+		}
+		if (!scheduled) {
+			completion.accept(!rejected);
+		}
+	}
+
+	/**
+	 * Shuts the pool down once all copies have finished or the migration has been
+	 * aborted, the scheduled builds still run. Builds requested afterwards are
+	 * rejected.
+	 */
+	synchronized void shutdown() {
+		if (!shutdown) {
+			shutdown = true;
+			if (executor != null) {
+				dataWriteTaskFactory.destroy(executor);
+			}
+		}
+	}
+
+	/**
+	 * The pool is created by the first build, none is needed if no table is
+	 * copied.
+	 */
+	private synchronized ThreadPoolTaskExecutor getExecutor() {
+		if (shutdown) {
+			throw new TaskRejectedException("Index builds have been shut down");
+		}
+		if (executor == null) {
+			DataThreadPoolConfig poolConfig = new DataThreadPoolConfigBuilder(context.getMigrationContext())
+					.withPoolSize(context.getMigrationContext().getMaxParallelIndexBuilds()).build();
+			executor = dataWriteTaskFactory.create(context, poolConfig);
+		}
+		return executor;
+	}
+
+	private boolean isMaintained(String targetTable) {
+		MigrationContext migrationContext = context.getMigrationContext();
+		if (migrationContext.isDropAllIndexesEnabled()) {
+			return true;
+		}
+		Set<String> includedTables = migrationContext.getDisableAllIndexesIncludedTables();
+		return includedTables.isEmpty() || includedTables.contains(targetTable);
+	}
+
+	private void buildIndexes(CopyContext.DataCopyItem item) throws Exception {
+		MigrationContext migrationContext = context.getMigrationContext();
+		String targetTable = item.getTargetItem();
+		Stopwatch timer = Stopwatch.createStarted();
+		if (migrationContext.isDropAllIndexesEnabled()) {
+			List<Index> indexes = toTargetIndexes(item, getSourceIndexes(item.getSourceItem()));
+			LOG.debug("Creating indexes for table '{}'", targetTable);
+			migrationContext.getDataTargetRepository().createIndexesOfTable(targetTable, indexes);
+		} else {
+			LOG.debug("Rebuilding indexes for table '{}'", targetTable);
+			migrationContext.getDataTargetRepository().enableIndexesOfTable(targetTable);
+		}
+		LOG.info("Built indexes of table {} in {}", targetTable, timer.stop());
+	}
+
+	/**
+	 * @return the indexes of the source table except the one of its primary key,
+	 *         which is kept in the target
+	 */
+	private List<Index> getSourceIndexes(String sourceTable) {
+		Table table = getSourceModel().findTable(sourceTable, false);
+		if (table == null) {
+			LOG.warn("Table {} not found in the source schema, its indexes are not created", sourceTable);
+			return Collections.emptyList();
+		}
+		Set<String> primaryKey = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		for (Column column : table.getPrimaryKeyColumns()) {
+			primaryKey.add(column.getName());
+		}
+		List<Index> indexes = new ArrayList<>();
+		for (Index index : table.getIndices()) {
+			Set<String> columns = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+			for (IndexColumn column : index.getColumns()) {
+				columns.add(column.getName());
+			}
+			if (!columns.equals(primaryKey)) {
+				indexes.add(index);
+			}
+		}
+		return indexes;
+	}
+
+	/**
+	 * Maps the columns of the source indexes to the columns of the target table.
+	 * The column map of the item also overrides column values, so only entries
+	 * naming a target column rename the column.
+	 */
+	private List<Index> toTargetIndexes(CopyContext.DataCopyItem item, List<Index> sourceIndexes) throws Exception {
+		Map<String, String> targetColumns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (String column : context.getMigrationContext().getDataTargetRepository()
+				.getAllColumnNames(item.getTargetItem())) {
+			targetColumns.put(column, column);
+		}
+		Map<String, String> columnMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		columnMap.putAll(item.getColumnMap());
+		List<Index> indexes = new ArrayList<>();
+		for (Index sourceIndex : sourceIndexes) {
+			Index index = sourceIndex.isUnique() ? new UniqueIndex() : new NonUniqueIndex();
+			index.setName(sourceIndex.getName());
+			for (IndexColumn sourceColumn : sourceIndex.getColumns()) {
+				String name = sourceColumn.getName();
+				String mappedName = columnMap.get(name);
+				if (mappedName != null && targetColumns.containsKey(mappedName)) {
+					name = mappedName;
+				}
+				IndexColumn column = new IndexColumn(targetColumns.getOrDefault(name, name));
+				column.setOrdinalPosition(sourceColumn.getOrdinalPosition());
+				column.setSize(sourceColumn.getSize());
+				index.addColumn(column);
+			}
+			indexes.add(index);
+		}
+		return indexes;
+	}
+
+	/**
+	 * The source schema is read once, by the first build.
+	 */
+	private synchronized Database getSourceModel() {
+		if (sourceModel == null) {
+			sourceModel = context.getMigrationContext().getDataSourceRepository().asDatabase();
+		}
+		return sourceModel;
+	}
+
+	private void markFailed(CopyContext.DataCopyItem item, Exception error) {
+		try {
+			taskRepository.markTaskFailed(context, item, error);
+		} catch (Exception e) {
+			LOG.error("Failed to set failed status", e);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.service.impl;
+
+import org.sap.commercemigration.MarkersQueryDefinition;
+import org.sap.commercemigration.RangeDigestQueryDefinition;
+import org.sap.commercemigration.repository.DataRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a table into the key ranges compared by the verification and the
+ * deletion propagation, one range per batch of the source table.
+ */
+final class KeyRanges {
+
+	// bounds the futures held at once for tables with many ranges
+	static final int RANGES_PER_CHUNK = 1000;
+
+	private KeyRanges() {
+	}
+
+	/**
+	 * The batch rows of a table are removed once it is copied, so the markers are
+	 * read again with the given batch size. The open first and last range find
+	 * target rows outside of the source keys.
+	 *
+	 * @param keyColumn
+	 *            null if the table has no key, it is then a single range
+	 * @return the boundaries of the ranges, starting and ending with null
+	 */
+	static List<Object> getBoundaries(DataRepository source, String table, String keyColumn, long batchSize)
+			throws Exception {
+		List<Object> boundaries = new ArrayList<>();
+		boundaries.add(null);
+		if (keyColumn != null) {
+			MarkersQueryDefinition queryDefinition = new MarkersQueryDefinition();
+			queryDefinition.setTable(table);
+			queryDefinition.setColumn(keyColumn);
+			queryDefinition.setBatchSize(batchSize);
+			for (List<Object> row : source.getBatchMarkersOrderedByColumn(queryDefinition).getAllResults()) {
+				boundaries.add(row.get(0));
+			}
+		}
+		boundaries.add(null);
+		return boundaries;
+	}
+
+	static RangeDigestQueryDefinition createDefinition(String table, String keyColumn, List<String> columns,
+			Object lower, Object upper, long batchSize) {
+		RangeDigestQueryDefinition definition = new RangeDigestQueryDefinition();
+		definition.setTable(table);
+		definition.setColumn(keyColumn);
+		definition.setColumns(columns);
+		definition.setLowerColumnBoundary(lower);
+		definition.setUpperColumnBoundary(upper);
+		definition.setBatchSize(batchSize);
+		return definition;
+	}
+}
@@ -7,6 +7,7 @@ package org.sap.commercemigration.service.impl;
 import com.google.common.base.Stopwatch;
 import org.apache.commons.lang3.tuple.Pair;
 import org.sap.commercemigration.DataThreadPoolConfig;
+import org.sap.commercemigration.concurrent.DataCopyMethod;
 import org.sap.commercemigration.concurrent.DataPipe;
 import org.sap.commercemigration.concurrent.DataPipeFactory;
 import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
@@ -14,6 +15,8 @@ import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
 import org.sap.commercemigration.context.CopyContext;
 import org.sap.commercemigration.dataset.DataSet;
 import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
+import org.sap.commercemigration.service.DatabaseCopyBatch;
+import org.sap.commercemigration.service.DatabaseCopyTask;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.sap.commercemigration.service.DatabaseMigrationCopyService;
 import org.sap.commercemigration.strategy.PipeWriterStrategy;
@@ -25,6 +28,7 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.backoff.BackOffExecution;
 import org.springframework.util.backoff.ExponentialBackOff;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.LinkedList;
@@ -43,6 +47,8 @@ import static org.sap.commercemigration.constants.CommercemigrationConstants.MDC
 public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopyService {
 	private static final Logger LOG = LoggerFactory.getLogger(PipeDatabaseMigrationCopyService.class);
 
+	private static final long SHARED_BATCHES_POLL_MILLIS = 5000;
+
 	private final DataPipeFactory<DataSet> pipeFactory;
 	private final PipeWriterStrategy<DataSet> writerStrategy;
 	private final DataThreadPoolFactory dataWriteTaskFactory;
@@ -62,9 +68,22 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
 	@Override
 	public void copyAllAsync(CopyContext context) {
 		Set<CopyContext.DataCopyItem> copyItems = context.getCopyItems();
+		IncrementalSync sync = null;
+		if (IncrementalSync.isEnabled(context.getMigrationContext())) {
+			sync = new IncrementalSync(context, pipeFactory, writerStrategy, dataWriteTaskFactory,
+					databaseCopyTaskRepository, scheduler);
+		}
+		IndexMaintenance indexMaintenance = null;
+		if (IndexMaintenance.isEnabled(context.getMigrationContext())) {
+			indexMaintenance = new IndexMaintenance(context, dataWriteTaskFactory, databaseCopyTaskRepository);
+		}
+		BatchLeaseRenewal leaseRenewal = null;
+		if (context.getMigrationContext().isBatchSharingEnabled()) {
+			leaseRenewal = new BatchLeaseRenewal(context, databaseCopyTaskRepository);
+		}
 		Deque<Pair<CopyContext.DataCopyItem, Callable<Boolean>>> tasksToSchedule = generateCopyTasks(context,
-				copyItems);
-		scheduleTasks(context, tasksToSchedule);
+				copyItems, sync, indexMaintenance, leaseRenewal);
+		scheduleTasks(context, tasksToSchedule, sync, indexMaintenance, leaseRenewal);
 	}
 
 	/**
@@ -72,35 +91,87 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
 	 *
 	 * @param context
 	 * @param copyItems
+	 * @param sync
+	 *            keeps the copied tables in sync, null unless enabled
+	 * @param indexMaintenance
+	 *            builds the indexes of the copied tables, null unless enabled
+	 * @param leaseRenewal
+	 *            renews the batch leases while tables are copied, null unless
+	 *            batches are shared
 	 * @return
 	 */
 	private Deque<Pair<CopyContext.DataCopyItem, Callable<Boolean>>> generateCopyTasks(CopyContext context,
-			Set<CopyContext.DataCopyItem> copyItems) {
+			Set<CopyContext.DataCopyItem> copyItems, IncrementalSync sync, IndexMaintenance indexMaintenance,
+			BatchLeaseRenewal leaseRenewal) {
 		return copyItems.stream().map(item -> Pair.of(item, (Callable<Boolean>) () -> {
 			final Stopwatch timer = Stopwatch.createStarted();
+			final Instant copyStart = Instant.now();
+			boolean copied = false;
 			try (MDC.MDCCloseable ignored = MDC.putCloseable(MDC_PIPELINE, item.getPipelineName())) {
 				try {
-					copy(context, item);
+					copy(context, item, leaseRenewal);
+					copied = true;
 				} catch (Exception e) {
 					LOG.error("Failed to copy item", e);
 					return Boolean.FALSE;
 				} finally {
-					silentlyUpdateCompletedState(context, item, timer.stop().toString());
+					final boolean succeeded = copied;
+					if (indexMaintenance != null) {
+						// the next table is copied while the indexes of this one are built
+						indexMaintenance.build(item,
+								built -> completeCopy(context, item, timer, copyStart, succeeded && built, sync));
+					} else {
+						completeCopy(context, item, timer, copyStart, succeeded, sync);
+					}
 				}
 			}
 			return Boolean.TRUE;
 		})).collect(Collectors.toCollection(LinkedList::new));
 	}
 
+	/**
+	 * Completes the task of a table once its copy has finished and its indexes
+	 * are built, unless the table is synced: the sync completes the task once it
+	 * has been stopped. A failed task keeps its state, only pending tasks are
+	 * completed.
+	 *
+	 * @param copied
+	 *            true if the copy and the index build have succeeded, only then
+	 *            the table is synced
+	 */
+	private void completeCopy(CopyContext context, CopyContext.DataCopyItem item, Stopwatch timer,
+			Instant copyStart, boolean copied, IncrementalSync sync) {
+		boolean synced = false;
+		if (copied && sync != null) {
+			try {
+				synced = sync.add(item, copyStart, timer);
+			} catch (Exception e) {
+				LOG.error("Failed to sync table {}, its task is completed", item.getSourceItem(), e);
+			}
+		}
+		if (!synced) {
+			silentlyUpdateCompletedState(context, item, timer.stop().toString());
+		}
+		if (sync != null) {
+			sync.copyFinished();
+		}
+	}
+
 	/**
 	 * Performs the actual copy of an item
 	 *
 	 * @param copyContext
 	 * @param item
+	 * @param leaseRenewal
+	 *            null unless batches are shared
 	 * @throws Exception
 	 */
-	private void copy(CopyContext copyContext, CopyContext.DataCopyItem item) throws Exception {
+	private void copy(CopyContext copyContext, CopyContext.DataCopyItem item, BatchLeaseRenewal leaseRenewal)
+			throws Exception {
 		DataPipe<DataSet> dataPipe = null;
+		if (leaseRenewal != null) {
+			leaseRenewal.pipelineStarted();
+		}
 		try {
 			dataPipe = pipeFactory.create(copyContext, item);
 			writerStrategy.write(copyContext, dataPipe, item);
@@ -109,6 +180,10 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
 				dataPipe.requestAbort(e);
 			}
 			throw e;
+		} finally {
+			if (leaseRenewal != null) {
+				leaseRenewal.pipelineFinished();
+			}
 		}
 	}
 
@@ -117,9 +192,17 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
 	 *
 	 * @param context
 	 * @param tasksToSchedule
+	 * @param sync
+	 *            keeps the copied tables in sync, null unless enabled
+	 * @param indexMaintenance
+	 *            builds the indexes of the copied tables, null unless enabled
+	 * @param leaseRenewal
+	 *            renews the batch leases while tables are copied, null unless
+	 *            batches are shared
 	 */
 	private void scheduleTasks(CopyContext context,
-			Deque<Pair<CopyContext.DataCopyItem, Callable<Boolean>>> tasksToSchedule) {
+			Deque<Pair<CopyContext.DataCopyItem, Callable<Boolean>>> tasksToSchedule, IncrementalSync sync,
+			IndexMaintenance indexMaintenance, BatchLeaseRenewal leaseRenewal) {
 		List<Pair<CopyContext.DataCopyItem, Future<Boolean>>> runningTasks = new ArrayList<>();
 		BackOffExecution backoff = null;
 		CopyContext.DataCopyItem previousReject = null;
@@ -147,6 +230,18 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
 
 				}
 			}
+			if (context.getMigrationContext().isBatchSharingEnabled()) {
+				// starts once a thread is no longer needed for the tables of this node
+				executor.submit(() -> copySharedBatches(context, leaseRenewal));
+			}
+			if (sync != null) {
+				// a thread of its own, the shared batches may occupy the table threads until
+				// the other nodes have copied their tables
+				ThreadPoolTaskExecutor syncExecutor = dataWriteTaskFactory.create(context,
+						new DataThreadPoolConfigBuilder(context.getMigrationContext()).withPoolSize(1).build());
+				syncExecutor.submit(sync::run);
+				dataWriteTaskFactory.destroy(syncExecutor);
+			}
 			// all tasks submitted, graceful shutdown
 			dataWriteTaskFactory.destroy(executor);
 		} catch (Exception e) {
@@ -163,6 +258,10 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
 			for (Pair<CopyContext.DataCopyItem, Callable<Boolean>> copyTask : tasksToSchedule) {
 				markAsCancelled(context, copyTask.getLeft());
 			}
+			if (indexMaintenance != null) {
+				// cancelled tables do not finish, so the pool is not shut down by the last copy
+				indexMaintenance.shutdown();
+			}
 			if (e instanceof InterruptedException) {
 				Thread.currentThread().interrupt();
 			}
@@ -171,6 +270,76 @@ public class PipeDatabaseMigrationCopyService implements DatabaseMigrationCopySe
 		LOG.debug("Running Tasks" + runningTasks.size());
 	}
 
+	/**
+	 * Leases the batches of the tables copied by other nodes, as long as there are
+	 * pending tables on other nodes that are not synced. Synced tables are pending
+	 * until the sync is stopped, but their batches are not shared.
+	 */
+	private Boolean copySharedBatches(CopyContext context, BatchLeaseRenewal leaseRenewal) {
+		try {
+			while (!scheduler.isAborted(context)) {
+				Set<DatabaseCopyTask> pendingTasks = databaseCopyTaskRepository.findPendingTasksOfOtherNodes(context);
+				if (pendingTasks.stream().allMatch(task -> task.getLastSync() != null)) {
+					break;
+				}
+				boolean copied = false;
+				for (DatabaseCopyTask task : pendingTasks) {
+					if (isShareable(context, task)) {
+						copied |= copySharedBatches(context, task, leaseRenewal);
+					}
+				}
+				if (!copied) {
+					Thread.sleep(SHARED_BATCHES_POLL_MILLIS);
+				}
+			}
+		} catch (Exception e) {
+			// the batches leased by this node are leased by other nodes after expiry
+			LOG.error("Failed to copy shared batches", e);
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			return Boolean.FALSE;
+		}
+		return Boolean.TRUE;
+	}
+
+	private boolean copySharedBatches(CopyContext context, DatabaseCopyTask task, BatchLeaseRenewal leaseRenewal)
+			throws Exception {
+		CopyContext.DataCopyItem item = new CopyContext.DataCopyItem(task.getSourcetablename(),
+				task.getTargettablename(), task.getColumnmap(), task.getSourcerowcount());
+		Set<DatabaseCopyBatch> batches = databaseCopyTaskRepository.claimBatches(context, item,
+				context.getMigrationContext().getMaxParallelReaderWorkers());
+		if (batches.isEmpty()) {
+			return false;
+		}
+		leaseRenewal.pipelineStarted();
+		try (MDC.MDCCloseable ignored = MDC.putCloseable(MDC_PIPELINE, item.getPipelineName())) {
+			DataPipe<DataSet> dataPipe = null;
+			try {
+				dataPipe = pipeFactory.createForSharedBatches(context, item, task, batches);
+				writerStrategy.writeSharedBatches(context, dataPipe, item);
+			} catch (Exception e) {
+				if (dataPipe != null) {
+					dataPipe.requestAbort(e);
+				}
+				throw e;
+			}
+		} finally {
+			leaseRenewal.pipelineFinished();
+		}
+		return true;
+	}
+
+	/**
+	 * Batches can be shared once the node of the task has registered them and
+	 * truncated the target table, but not once the table is synced.
+	 */
+	private boolean isShareable(CopyContext context, DatabaseCopyTask task) {
+		boolean prepared = task.isTruncated() || !context.getMigrationContext().isTruncateEnabled();
+		return prepared && DataCopyMethod.SEEK.toString().equals(task.getCopyMethod()) && task.getBatchSize() > 0
+				&& task.getLastSync() == null;
+	}
+
 	private void markAsCancelled(CopyContext context, CopyContext.DataCopyItem item) {
 		try {
 			databaseCopyTaskRepository.markTaskFailed(context, item, new RuntimeException("Execution cancelled"));
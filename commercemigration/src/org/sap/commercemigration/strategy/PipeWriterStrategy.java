@@ -25,4 +25,26 @@ public interface PipeWriterStrategy<T> {
 	 * @throws Exception
 	 */
 	void write(CopyContext context, DataPipe<T> pipe, CopyContext.DataCopyItem item) throws Exception;
+
+	/**
+	 * Writes the batches leased from a pipeline scheduled to another cluster node.
+	 * The target table is truncated and its indexes are maintained by that node.
+	 *
+	 * @param context
+	 * @param pipe
+	 * @param item
+	 * @throws Exception
+	 */
+	void writeSharedBatches(CopyContext context, DataPipe<T> pipe, CopyContext.DataCopyItem item) throws Exception;
+
+	/**
+	 * Writes the rows of a table modified after it has been copied by this node.
+	 * The target table is neither truncated nor are its indexes maintained again.
+	 *
+	 * @param context
+	 * @param pipe
+	 * @param item
+	 * @throws Exception
+	 */
+	void writeChanges(CopyContext context, DataPipe<T> pipe, CopyContext.DataCopyItem item) throws Exception;
 }
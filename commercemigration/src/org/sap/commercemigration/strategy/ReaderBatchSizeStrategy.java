@@ -0,0 +1,27 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy;
+
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.dataset.DataSet;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Determines the number of rows the readers fetch per batch for a table
+ */
+public interface ReaderBatchSizeStrategy {
+	/**
+	 * @param context
+	 * @param item
+	 * @param sampler
+	 *            reads a sample page of the table, may be null if the table cannot
+	 *            be sampled
+	 * @return the batch size in rows
+	 * @throws Exception
+	 */
+	long getBatchSize(CopyContext context, CopyContext.DataCopyItem item, Callable<DataSet> sampler)
+			throws Exception;
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
+import org.sap.commercemigration.performance.PerformanceCategory;
+import org.sap.commercemigration.performance.PerformanceProfiler;
+import org.sap.commercemigration.performance.PerformanceUnit;
+import org.sap.commercemigration.strategy.ReaderBatchSizeStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.util.Date;
+import java.util.concurrent.Callable;
+
+/**
+ * Sizes reader batches by bytes instead of rows. The average row size is taken
+ * from the catalog statistics of the source or estimated from a sample page.
+ * While the migration is running, the byte target is scaled down if the
+ * writers cannot keep up with the readers, to bound the memory held by the
+ * pipes.
+ */
+public class AdaptiveReaderBatchSizeStrategy implements ReaderBatchSizeStrategy {
+
+	private static final Logger LOG = LoggerFactory.getLogger(AdaptiveReaderBatchSizeStrategy.class);
+
+	public static final int SAMPLE_SIZE = 100;
+	private static final double MIN_THROUGHPUT_FACTOR = 0.25;
+
+	@Override
+	public long getBatchSize(CopyContext context, CopyContext.DataCopyItem item, Callable<DataSet> sampler)
+			throws Exception {
+		MigrationContext migrationContext = context.getMigrationContext();
+		long configuredBatchSize = migrationContext.getReaderBatchSize();
+		if (!migrationContext.isAdaptiveReaderBatchSizeEnabled()) {
+			return configuredBatchSize;
+		}
+		long rowSize = migrationContext.getDataSourceRepository().getAverageRowSize(item.getSourceItem());
+		if (rowSize <= 0 && sampler != null) {
+			rowSize = estimateRowSize(sampler.call());
+		}
+		if (rowSize <= 0) {
+			LOG.debug("No row size available for table {}. Using batch size {}", item.getSourceItem(),
+					configuredBatchSize);
+			return configuredBatchSize;
+		}
+		double throughputFactor = getThroughputFactor(context.getPerformanceProfiler());
+		long targetBytes = (long) (migrationContext.getAdaptiveReaderBatchTargetBytes() * throughputFactor);
+		long batchSize = Math.max(migrationContext.getAdaptiveReaderBatchSizeMin(),
+				Math.min(migrationContext.getAdaptiveReaderBatchSizeMax(), targetBytes / rowSize));
+		LOG.info("Using batch size {} for table {} (avg row size {} bytes, throughput factor {})", batchSize,
+				item.getSourceItem(), rowSize, String.format("%.2f", throughputFactor));
+		return batchSize;
+	}
+
+	/**
+	 * Ratio of the current write to read throughput of the running migration. A
+	 * value below 1 means pages are piling up in the pipes.
+	 */
+	private double getThroughputFactor(PerformanceProfiler profiler) {
+		double readThroughput = profiler.getAverageByCategoryAndUnit(PerformanceCategory.DB_READ,
+				PerformanceUnit.ROWS);
+		double writeThroughput = profiler.getAverageByCategoryAndUnit(PerformanceCategory.DB_WRITE,
+				PerformanceUnit.ROWS);
+		if (readThroughput <= 0 || writeThroughput <= 0) {
+			return 1;
+		}
+		return Math.max(MIN_THROUGHPUT_FACTOR, Math.min(1, writeThroughput / readThroughput));
+	}
+
+	private long estimateRowSize(DataSet sample) {
+		try {
+			if (sample.getRowCount() == 0) {
+				return 0;
+			}
+			long totalSize = 0;
+			for (int row = 0; row < sample.getRowCount(); row++) {
+				for (int column = 0; column < sample.getColumnCount(); column++) {
+					totalSize += estimateValueSize(sample.getColumnValue(column, row));
+				}
+			}
+			return Math.max(1, totalSize / sample.getRowCount());
+		} finally {
+			SpilledLob.release(sample);
+		}
+	}
+
+	private long estimateValueSize(Object value) {
+		if (value == null) {
+			return 1;
+		} else if (value instanceof Number || value instanceof Date) {
+			return 8;
+		} else if (value instanceof String) {
+			return ((String) value).length();
+		} else if (value instanceof byte[]) {
+			return ((byte[]) value).length;
+		} else if (value instanceof ByteArrayInputStream) {
+			return ((ByteArrayInputStream) value).available();
+		} else if (value instanceof SpilledLob) {
+			// not held in memory
+			return 0;
+		}
+		return 16;
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import de.hybris.bootstrap.ddl.DataBaseProvider;
+import org.sap.commercemigration.concurrent.DataWorkerExecutorFactory;
+import org.sap.commercemigration.concurrent.impl.task.RetriableTask;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+
+/**
+ * Writes to SQL Server targets with the bulk copy API of the driver if enabled.
+ * Incremental migrations can only be bulk copied through a staging table, and
+ * other targets have no bulk copy, so the remaining pages are written by the
+ * statement based writer.
+ */
+public class BulkCopyPipeWriterStrategy extends CopyPipeWriterStrategy {
+
+	public BulkCopyPipeWriterStrategy(DatabaseCopyTaskRepository taskRepository,
+			DataWorkerExecutorFactory dataWriteWorkerExecutorFactory) {
+		super(taskRepository, dataWriteWorkerExecutorFactory);
+	}
+
+	@Override
+	protected RetriableTask createWriterTask(CopyPipeWriterContext dwc, DataSet dataSet) {
+		if (isBulkCopyApplicable(dwc)) {
+			return new BulkCopyPipeWriterTask(dwc, dataSet);
+		}
+		return super.createWriterTask(dwc, dataSet);
+	}
+
+	private boolean isBulkCopyApplicable(CopyPipeWriterContext dwc) {
+		MigrationContext migrationContext = dwc.getContext().getMigrationContext();
+		return migrationContext.isBulkCopyEnabled()
+				&& (!migrationContext.isIncrementalModeEnabled() || StagingTableUpsert.isApplicable(dwc))
+				&& migrationContext.getDataTargetRepository().getDatabaseProvider() == DataBaseProvider.MSSQL;
+	}
+}
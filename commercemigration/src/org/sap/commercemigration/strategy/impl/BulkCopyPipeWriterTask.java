@@ -0,0 +1,129 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import com.google.common.base.Stopwatch;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+import com.microsoft.sqlserver.jdbc.SQLServerException;
+import org.sap.commercemigration.concurrent.impl.task.RetriableTask;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
+import org.sap.commercemigration.performance.PerformanceUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Writes a page with the bulk copy API of the SQL Server driver. The bulk copy
+ * runs in the transaction of the connection, so the batch is marked completed
+ * atomically with the written rows, as in {@link CopyPipeWriterTask}. Pages of
+ * incremental migrations are bulk copied into a staging table and merged from
+ * there.
+ */
+class BulkCopyPipeWriterTask extends RetriableTask {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BulkCopyPipeWriterTask.class);
+
+	private CopyPipeWriterContext ctx;
+	private DataSet dataSet;
+
+	public BulkCopyPipeWriterTask(CopyPipeWriterContext ctx, DataSet dataSet) {
+		super(ctx.getContext(), ctx.getCopyItem().getTargetItem());
+		this.ctx = ctx;
+		this.dataSet = dataSet;
+	}
+
+	@Override
+	public Boolean call() {
+		try {
+			return super.call();
+		} finally {
+			SpilledLob.release(dataSet);
+		}
+	}
+
+	@Override
+	protected Boolean internalRun() {
+		try {
+			if (dataSet.isNotEmpty()) {
+				process();
+			}
+			return Boolean.TRUE;
+		} catch (Exception e) {
+			throw new RuntimeException("Error processing bulk copy task for " + ctx.getCopyItem().getTargetItem(), e);
+		}
+	}
+
+	private SQLServerBulkCopyOptions createOptions(boolean staging) throws SQLServerException {
+		SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+		options.setBatchSize(dataSet.getRowCount());
+		options.setBulkCopyTimeout(0);
+		options.setUseInternalTransaction(false);
+		// replaces SET IDENTITY_INSERT of the statement based writer
+		options.setKeepIdentity(!staging && ctx.isRequiresIdentityInsert());
+		// write nulls instead of the column defaults, like the INSERT statement
+		options.setKeepNulls(true);
+		options.setTableLock(!staging && ctx.isTruncated()
+				&& ctx.getContext().getMigrationContext().isBulkCopyTableLockEnabled());
+		return options;
+	}
+
+	private void bulkCopy(Connection connection, String destinationTableName, boolean staging) throws Exception {
+		List<String> columnsToCopy = ctx.getColumnsToCopy();
+		try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(connection.unwrap(SQLServerConnection.class))) {
+			bulkCopy.setBulkCopyOptions(createOptions(staging));
+			bulkCopy.setDestinationTableName(destinationTableName);
+			for (int i = 0; i < columnsToCopy.size(); i++) {
+				bulkCopy.addColumnMapping(i + 1, columnsToCopy.get(i));
+			}
+			bulkCopy.writeToServer(new DataSetBulkRecord(columnsToCopy, ctx.getBindingPlan(), dataSet));
+		}
+	}
+
+	private void upsertThroughStagingTable(CopyPipeWriterSession session) throws Exception {
+		String targetTableName = ctx.getCopyItem().getTargetItem();
+		session.prepareStagingTable(ctx.getColumnsToCopy());
+		bulkCopy(session.getConnection(), StagingTableUpsert.getStagingTableName(targetTableName), true);
+		StagingTableUpsert.mergeStagingTable(session.getConnection(), targetTableName, ctx.getColumnsToCopy(),
+				ctx.getUpsertId());
+	}
+
+	private void process() throws Exception {
+		CopyPipeWriterSession session = ctx.getSessionPool().borrow(ctx);
+		boolean committed = false;
+		try {
+			ctx.getBindingPlan().checkCompatible(dataSet);
+			final Stopwatch timer = Stopwatch.createStarted();
+			if (StagingTableUpsert.isApplicable(ctx)) {
+				upsertThroughStagingTable(session);
+			} else {
+				bulkCopy(session.getConnection(), ctx.getCopyItem().getTargetItem(), false);
+			}
+			int batchCount = dataSet.getRowCount();
+			LOG.debug("Bulk copy written ({} items) for table '{}' in {}", batchCount,
+					ctx.getCopyItem().getTargetItem(), timer.stop());
+			ctx.getPerformanceRecorder().record(PerformanceUnit.ROWS, batchCount);
+			if (!ctx.getDatabaseCopyTaskRepository().markBatchCompleted(session.getConnection(), ctx.getContext(),
+					ctx.getCopyItem(), dataSet.getBatchId())) {
+				LOG.warn("Lease of batch {} of table {} has expired, the batch is written by the node leasing it",
+						dataSet.getBatchId(), ctx.getCopyItem().getTargetItem());
+				return;
+			}
+			session.getConnection().commit();
+			committed = true;
+			ctx.getProgressAggregator().add(batchCount);
+		} finally {
+			if (committed) {
+				ctx.getSessionPool().release(session);
+			} else {
+				ctx.getSessionPool().invalidate(session);
+			}
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import org.apache.commons.collections.MapUtils;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes how the columns of a source page are bound to the parameters of
+ * the writer statement. Created once per pipeline, so that writing a row is a
+ * plain walk over the binders.
+ */
+class ColumnBindingPlan {
+
+	private static final int NO_SOURCE = -1;
+
+	private final ColumnBinder[] binders;
+	private final DataColumn[] targetColumns;
+	private final int[] sourceIndexes;
+	private final Object[] constants;
+	private final int sourceColumnCount;
+
+	private ColumnBindingPlan(ColumnBinder[] binders, DataColumn[] targetColumns, int[] sourceIndexes,
+			Object[] constants, int sourceColumnCount) {
+		this.binders = binders;
+		this.targetColumns = targetColumns;
+		this.sourceIndexes = sourceIndexes;
+		this.constants = constants;
+		this.sourceColumnCount = sourceColumnCount;
+	}
+
+	/**
+	 * @param sample
+	 *            a page of the pipeline; all pages share its column layout
+	 * @param columnsToCopy
+	 *            the columns in the order of the statement parameters
+	 * @param targetColumns
+	 *            the columns of the target table (case-insensitive)
+	 */
+	static ColumnBindingPlan create(DataSet sample, List<String> columnsToCopy, Map<String, DataColumn> targetColumns,
+			Set<String> nullifyColumns, Map<String, Object> columnOverrides) {
+		ColumnBinder[] binders = new ColumnBinder[columnsToCopy.size()];
+		DataColumn[] planColumns = new DataColumn[columnsToCopy.size()];
+		int[] sourceIndexes = new int[columnsToCopy.size()];
+		Object[] constants = new Object[columnsToCopy.size()];
+		for (int i = 0; i < columnsToCopy.size(); i++) {
+			String column = columnsToCopy.get(i);
+			DataColumn targetColumn = targetColumns.get(column);
+			if (targetColumn == null) {
+				throw new IllegalStateException(String.format("Column %s does not exist in target table", column));
+			}
+			planColumns[i] = targetColumn;
+			sourceIndexes[i] = NO_SOURCE;
+			int targetType = targetColumn.getColumnType();
+			int paramIdx = i + 1;
+			if (nullifyColumns.contains(column)) {
+				binders[i] = nullBinder(paramIdx, targetType);
+			} else if (MapUtils.isNotEmpty(columnOverrides) && columnOverrides.containsKey(column)) {
+				constants[i] = columnOverrides.get(column);
+				binders[i] = constantBinder(paramIdx, constants[i], targetType);
+			} else {
+				int sourceIdx = sample.getColumnIndex(column);
+				if (sourceIdx < 0) {
+					throw new IllegalArgumentException(String.format("Column %s is not part of the result", column));
+				}
+				int sourceType = sample.getColumnOrder().get(sourceIdx).getColumnType();
+				sourceIndexes[i] = sourceIdx;
+				binders[i] = valueBinder(paramIdx, sourceIdx, sourceType, targetType);
+			}
+		}
+		return new ColumnBindingPlan(binders, planColumns, sourceIndexes, constants, sample.getColumnCount());
+	}
+
+	void bind(PreparedStatement statement, DataSet dataSet, int row) throws SQLException {
+		for (ColumnBinder binder : binders) {
+			binder.bind(statement, dataSet, row);
+		}
+	}
+
+	int getColumnCount() {
+		return targetColumns.length;
+	}
+
+	DataColumn getTargetColumn(int column) {
+		return targetColumns[column];
+	}
+
+	/**
+	 * The value of a column as it would be bound, for writers that do not use
+	 * statement parameters.
+	 */
+	Object getValue(DataSet dataSet, int row, int column) {
+		int sourceIdx = sourceIndexes[column];
+		return sourceIdx == NO_SOURCE ? constants[column] : dataSet.getColumnValue(sourceIdx, row);
+	}
+
+	/**
+	 * Guards against pages that do not match the layout the plan was built for.
+	 */
+	void checkCompatible(DataSet dataSet) {
+		if (dataSet.getColumnCount() != sourceColumnCount) {
+			throw new IllegalStateException(String.format("Page has %s columns but binding plan expects %s",
+					dataSet.getColumnCount(), sourceColumnCount));
+		}
+	}
+
+	private static ColumnBinder nullBinder(int paramIdx, int targetType) {
+		return (statement, dataSet, row) -> statement.setNull(paramIdx, targetType);
+	}
+
+	private static ColumnBinder constantBinder(int paramIdx, Object value, int targetType) {
+		return (statement, dataSet, row) -> statement.setObject(paramIdx, value, targetType);
+	}
+
+	/**
+	 * Binds primitive values without boxing if source and target column are of
+	 * the same kind, otherwise leaves the conversion to the driver.
+	 */
+	private static ColumnBinder valueBinder(int paramIdx, int sourceIdx, int sourceType, int targetType) {
+		if (isIntegerType(sourceType) && targetType == Types.BIGINT) {
+			return (statement, dataSet, row) -> {
+				if (dataSet.isNull(sourceIdx, row)) {
+					statement.setNull(paramIdx, targetType);
+				} else {
+					statement.setLong(paramIdx, dataSet.getLong(sourceIdx, row));
+				}
+			};
+		} else if (isIntegerType(sourceType) && isIntegerType(targetType)) {
+			return (statement, dataSet, row) -> {
+				if (dataSet.isNull(sourceIdx, row)) {
+					statement.setNull(paramIdx, targetType);
+				} else {
+					statement.setInt(paramIdx, dataSet.getInt(sourceIdx, row));
+				}
+			};
+		} else if (isFloatingType(sourceType) && isFloatingType(targetType)) {
+			return (statement, dataSet, row) -> {
+				if (dataSet.isNull(sourceIdx, row)) {
+					statement.setNull(paramIdx, targetType);
+				} else {
+					statement.setDouble(paramIdx, dataSet.getDouble(sourceIdx, row));
+				}
+			};
+		} else if (isCharacterType(sourceType) && isCharacterType(targetType)) {
+			return (statement, dataSet, row) -> {
+				if (dataSet.isNull(sourceIdx, row)) {
+					statement.setNull(paramIdx, targetType);
+				} else {
+					statement.setString(paramIdx, dataSet.getString(sourceIdx, row));
+				}
+			};
+		}
+		return (statement, dataSet, row) -> {
+			Object value = dataSet.getColumnValue(sourceIdx, row);
+			if (value == null) {
+				statement.setNull(paramIdx, targetType);
+			} else if (value instanceof SpilledLob) {
+				bindSpilledLob(statement, paramIdx, (SpilledLob) value);
+			} else {
+				statement.setObject(paramIdx, value, targetType);
+			}
+		};
+	}
+
+	private static void bindSpilledLob(PreparedStatement statement, int paramIdx, SpilledLob lob)
+			throws SQLException {
+		try {
+			if (lob.isCharacter()) {
+				statement.setCharacterStream(paramIdx, lob.openCharacterStream(), lob.getLength());
+			} else {
+				statement.setBinaryStream(paramIdx, lob.openBinaryStream(), lob.getLength());
+			}
+		} catch (IOException e) {
+			throw new SQLException("Could not open spilled LOB", e);
+		}
+	}
+
+	private static boolean isIntegerType(int jdbcType) {
+		return jdbcType == Types.BIGINT || jdbcType == Types.INTEGER || jdbcType == Types.SMALLINT
+				|| jdbcType == Types.TINYINT;
+	}
+
+	private static boolean isFloatingType(int jdbcType) {
+		return jdbcType == Types.DOUBLE || jdbcType == Types.FLOAT;
+	}
+
+	private static boolean isCharacterType(int jdbcType) {
+		return jdbcType == Types.CHAR || jdbcType == Types.VARCHAR || jdbcType == Types.NCHAR
+				|| jdbcType == Types.NVARCHAR || jdbcType == Types.LONGVARCHAR || jdbcType == Types.LONGNVARCHAR;
+	}
+
+	interface ColumnBinder {
+		void bind(PreparedStatement statement, DataSet dataSet, int row) throws SQLException;
+	}
+}
@@ -9,32 +9,36 @@ import org.sap.commercemigration.performance.PerformanceRecorder;
 import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
 
 class CopyPipeWriterContext {
 	private CopyContext context;
 	private CopyContext.DataCopyItem copyItem;
 	private List<String> columnsToCopy;
-	private Set<String> nullifyColumns;
+	private ColumnBindingPlan bindingPlan;
 	private PerformanceRecorder performanceRecorder;
-	private AtomicLong totalCount;
+	private TaskProgressAggregator progressAggregator;
 	private String upsertId;
 	private boolean requiresIdentityInsert;
+	private boolean truncated;
 	private DatabaseCopyTaskRepository databaseCopyTaskRepository;
+	private CopyPipeWriterSessionPool sessionPool;
 
 	public CopyPipeWriterContext(CopyContext context, CopyContext.DataCopyItem copyItem, List<String> columnsToCopy,
-			Set<String> nullifyColumns, PerformanceRecorder performanceRecorder, AtomicLong totalCount, String upsertId,
-			boolean requiresIdentityInsert, DatabaseCopyTaskRepository databaseCopyTaskRepository) {
+			ColumnBindingPlan bindingPlan, PerformanceRecorder performanceRecorder,
+			TaskProgressAggregator progressAggregator, String upsertId, boolean requiresIdentityInsert,
+			boolean truncated, DatabaseCopyTaskRepository databaseCopyTaskRepository,
+			CopyPipeWriterSessionPool sessionPool) {
 		this.context = context;
 		this.copyItem = copyItem;
 		this.columnsToCopy = columnsToCopy;
-		this.nullifyColumns = nullifyColumns;
+		this.bindingPlan = bindingPlan;
 		this.performanceRecorder = performanceRecorder;
-		this.totalCount = totalCount;
+		this.progressAggregator = progressAggregator;
 		this.upsertId = upsertId;
 		this.requiresIdentityInsert = requiresIdentityInsert;
+		this.truncated = truncated;
 		this.databaseCopyTaskRepository = databaseCopyTaskRepository;
+		this.sessionPool = sessionPool;
 	}
 
 	public CopyContext getContext() {
@@ -49,16 +53,16 @@ class CopyPipeWriterContext {
 		return columnsToCopy;
 	}
 
-	public Set<String> getNullifyColumns() {
-		return nullifyColumns;
+	public ColumnBindingPlan getBindingPlan() {
+		return bindingPlan;
 	}
 
 	public PerformanceRecorder getPerformanceRecorder() {
 		return performanceRecorder;
 	}
 
-	public AtomicLong getTotalCount() {
-		return totalCount;
+	public TaskProgressAggregator getProgressAggregator() {
+		return progressAggregator;
 	}
 
 	public String getUpsertId() {
@@ -69,7 +73,18 @@ class CopyPipeWriterContext {
 		return requiresIdentityInsert;
 	}
 
+	/**
+	 * @return true if the target table was truncated by this pipeline
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
 	public DatabaseCopyTaskRepository getDatabaseCopyTaskRepository() {
 		return databaseCopyTaskRepository;
 	}
+
+	public CopyPipeWriterSessionPool getSessionPool() {
+		return sessionPool;
+	}
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Target connection of a writer, kept open across the batches of a pipeline.
+ * Autocommit is switched off and identity insert is switched on once when the
+ * session is opened, prepared statements and the staging table are reused by
+ * the following batches. A session is used by one writer at a time.
+ */
+class CopyPipeWriterSession {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CopyPipeWriterSession.class);
+
+	private final Connection connection;
+	private final String targetTableName;
+	private final boolean originalAutoCommit;
+	private final Map<String, PreparedStatement> statements = new HashMap<>();
+	private boolean identityInsert;
+	private boolean stagingTableCreated;
+
+	private CopyPipeWriterSession(Connection connection, String targetTableName) throws SQLException {
+		this.connection = connection;
+		this.targetTableName = targetTableName;
+		this.originalAutoCommit = connection.getAutoCommit();
+	}
+
+	static CopyPipeWriterSession open(CopyPipeWriterContext ctx) throws Exception {
+		Connection connection = ctx.getContext().getMigrationContext().getDataTargetRepository().getConnection();
+		CopyPipeWriterSession session = null;
+		try {
+			session = new CopyPipeWriterSession(connection, ctx.getCopyItem().getTargetItem());
+			connection.setAutoCommit(false);
+			if (ctx.isRequiresIdentityInsert()) {
+				switchIdentityInsert(connection, session.targetTableName, true);
+				session.identityInsert = true;
+			}
+			return session;
+		} catch (Exception e) {
+			if (session != null) {
+				session.close();
+			} else {
+				connection.close();
+			}
+			throw e;
+		}
+	}
+
+	Connection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * @return the statement prepared for the given sql by a previous batch or a
+	 *         newly prepared one. The statement is closed with the session.
+	 */
+	PreparedStatement prepareStatement(String sql) throws SQLException {
+		PreparedStatement statement = statements.get(sql);
+		if (statement == null) {
+			statement = connection.prepareStatement(sql);
+			statements.put(sql, statement);
+		}
+		return statement;
+	}
+
+	/**
+	 * Creates the staging table for the first batch of the session and empties it
+	 * for the following ones.
+	 */
+	void prepareStagingTable(List<String> columns) throws SQLException {
+		if (stagingTableCreated) {
+			StagingTableUpsert.truncateStagingTable(connection, targetTableName);
+		} else {
+			StagingTableUpsert.createStagingTable(connection, targetTableName, columns);
+			stagingTableCreated = true;
+		}
+	}
+
+	/**
+	 * Resets the connection to the state it was borrowed in and closes it.
+	 * Uncommitted work is rolled back.
+	 */
+	void close() {
+		try {
+			for (PreparedStatement statement : statements.values()) {
+				statement.close();
+			}
+			statements.clear();
+			connection.rollback();
+			if (stagingTableCreated) {
+				StagingTableUpsert.dropStagingTable(connection, targetTableName);
+			}
+			if (identityInsert) {
+				switchIdentityInsert(connection, targetTableName, false);
+			}
+			connection.setAutoCommit(originalAutoCommit);
+		} catch (Exception e) {
+			LOG.warn("Could not reset writer session for table '{}'", targetTableName, e);
+		} finally {
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				LOG.warn("Could not close writer session for table '{}'", targetTableName, e);
+			}
+		}
+	}
+
+	private static void switchIdentityInsert(Connection connection, final String tableName, boolean on) {
+		try (Statement stmt = connection.createStatement()) {
+			String onOff = on ? "ON" : "OFF";
+			stmt.executeUpdate(String.format("SET IDENTITY_INSERT %s %s", tableName, onOff));
+		} catch (final Exception e) {
+			throw new RuntimeException("Could not switch identity insert", e);
+		}
+	}
+}
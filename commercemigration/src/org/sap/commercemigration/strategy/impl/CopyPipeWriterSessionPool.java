@@ -0,0 +1,48 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Idle writer sessions of a pipeline. The writer tasks of a table borrow a
+ * session per batch and give it back after the commit, so there are at most as
+ * many sessions as writer workers. Sessions of failed batches are discarded.
+ */
+class CopyPipeWriterSessionPool {
+
+	private final Queue<CopyPipeWriterSession> idleSessions = new ConcurrentLinkedQueue<>();
+	private volatile boolean closed;
+
+	CopyPipeWriterSession borrow(CopyPipeWriterContext ctx) throws Exception {
+		CopyPipeWriterSession session = idleSessions.poll();
+		return session != null ? session : CopyPipeWriterSession.open(ctx);
+	}
+
+	void release(CopyPipeWriterSession session) {
+		idleSessions.offer(session);
+		// a writer finishing after the pipeline has ended must not leak its session
+		if (closed) {
+			closeIdleSessions();
+		}
+	}
+
+	void invalidate(CopyPipeWriterSession session) {
+		session.close();
+	}
+
+	void close() {
+		closed = true;
+		closeIdleSessions();
+	}
+
+	private void closeIdleSessions() {
+		CopyPipeWriterSession session;
+		while ((session = idleSessions.poll()) != null) {
+			session.close();
+		}
+	}
+}
@@ -8,13 +8,14 @@ import org.sap.commercemigration.DataThreadPoolConfig;
 import org.sap.commercemigration.concurrent.DataPipe;
 import org.sap.commercemigration.concurrent.DataThreadPoolConfigBuilder;
 import org.sap.commercemigration.concurrent.DataWorkerExecutor;
-import org.sap.commercemigration.concurrent.DataThreadPoolFactory;
+import org.sap.commercemigration.concurrent.DataWorkerExecutorFactory;
 import org.sap.commercemigration.concurrent.MaybeFinished;
 import org.sap.commercemigration.concurrent.impl.task.RetriableTask;
-import org.sap.commercemigration.concurrent.impl.DefaultDataWorkerExecutor;
 import org.sap.commercemigration.constants.CommercemigrationConstants;
 import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.dataset.DataColumn;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
 import org.sap.commercemigration.performance.PerformanceCategory;
 import org.sap.commercemigration.performance.PerformanceRecorder;
 import org.sap.commercemigration.service.DatabaseCopyTask;
@@ -22,16 +23,18 @@ import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
 import org.sap.commercemigration.strategy.PipeWriterStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -40,16 +43,42 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
 
 	private final DatabaseCopyTaskRepository taskRepository;
 
-	private final DataThreadPoolFactory dataWriteWorkerPoolFactory;
+	private final DataWorkerExecutorFactory dataWriteWorkerExecutorFactory;
 
 	public CopyPipeWriterStrategy(DatabaseCopyTaskRepository taskRepository,
-			DataThreadPoolFactory dataWriteWorkerPoolFactory) {
+			DataWorkerExecutorFactory dataWriteWorkerExecutorFactory) {
 		this.taskRepository = taskRepository;
-		this.dataWriteWorkerPoolFactory = dataWriteWorkerPoolFactory;
+		this.dataWriteWorkerExecutorFactory = dataWriteWorkerExecutorFactory;
 	}
 
 	@Override
 	public void write(CopyContext context, DataPipe<DataSet> pipe, CopyContext.DataCopyItem item) throws Exception {
+		write(context, pipe, item, true, true);
+	}
+
+	@Override
+	public void writeSharedBatches(CopyContext context, DataPipe<DataSet> pipe, CopyContext.DataCopyItem item)
+			throws Exception {
+		write(context, pipe, item, false, true);
+	}
+
+	@Override
+	public void writeChanges(CopyContext context, DataPipe<DataSet> pipe, CopyContext.DataCopyItem item)
+			throws Exception {
+		write(context, pipe, item, false, false);
+	}
+
+	/**
+	 * @param owner
+	 *            false if the pipeline is scheduled to another node, which then
+	 *            prepares and completes the target table, or if the target table
+	 *            has been copied already
+	 * @param reportProgress
+	 *            false if the written rows are changes synced to a copied table,
+	 *            which are not reported as progress
+	 */
+	private void write(CopyContext context, DataPipe<DataSet> pipe, CopyContext.DataCopyItem item, boolean owner,
+			boolean reportProgress) throws Exception {
 		String targetTableName = item.getTargetItem();
 		PerformanceRecorder performanceRecorder = context.getPerformanceProfiler()
 				.createRecorder(PerformanceCategory.DB_WRITE, targetTableName);
@@ -66,17 +95,10 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
 		}
 
 		List<String> columnsToCopy = new ArrayList<>();
-		try (Connection sourceConnection = context.getMigrationContext().getDataSourceRepository().getConnection();
-				Statement stmt = sourceConnection.createStatement();
-				ResultSet metaResult = stmt
-						.executeQuery(String.format("select * from %s where 0 = 1", item.getSourceItem()))) {
-			ResultSetMetaData sourceMeta = metaResult.getMetaData();
-			int columnCount = sourceMeta.getColumnCount();
-			for (int i = 1; i <= columnCount; i++) {
-				String column = sourceMeta.getColumnName(i);
-				if (!excludedColumns.contains(column)) {
-					columnsToCopy.add(column);
-				}
+		for (String column : context.getMigrationContext().getDataSourceRepository()
+				.getAllColumnNames(item.getSourceItem())) {
+			if (!excludedColumns.contains(column)) {
+				columnsToCopy.add(column);
 			}
 		}
 
@@ -86,17 +108,21 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
 		}
 		DataThreadPoolConfig threadPoolConfig = new DataThreadPoolConfigBuilder(context.getMigrationContext())
 				.withPoolSize(context.getMigrationContext().getMaxParallelWriterWorkers()).build();
-		ThreadPoolTaskExecutor taskExecutor = dataWriteWorkerPoolFactory.create(context, threadPoolConfig);
-		DataWorkerExecutor<Boolean> workerExecutor = new DefaultDataWorkerExecutor<>(taskExecutor);
+		DataWorkerExecutor<Boolean> workerExecutor = dataWriteWorkerExecutorFactory.create(context, threadPoolConfig);
 		Connection targetConnection = null;
 		AtomicLong totalCount = new AtomicLong(
 				taskRepository.findPipeline(context, item).map(p -> p.getTargetrowcount()).orElseGet(() -> 0l));
 		String upsertId = null;
+		CopyPipeWriterSessionPool sessionPool = new CopyPipeWriterSessionPool();
+		TaskProgressAggregator progressAggregator = new TaskProgressAggregator(taskRepository, context, item,
+				totalCount, reportProgress);
 		try {
 			targetConnection = context.getMigrationContext().getDataTargetRepository().getConnection();
 			boolean requiresIdentityInsert = requiresIdentityInsert(item.getTargetItem(), targetConnection);
+			Map<String, DataColumn> targetColumns = getColumns(item.getTargetItem(), targetConnection);
 			MaybeFinished<DataSet> sourcePage;
 			boolean firstPage = true;
+			boolean truncated = false;
 			CopyPipeWriterContext copyPipeWriterContext = null;
 			do {
 				sourcePage = pipe.get();
@@ -104,20 +130,27 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
 					throw new IllegalStateException("Poison received; dying. Check the logs for further insights.");
 				}
 				DataSet dataSet = sourcePage.getValue();
-				if (firstPage) {
+				if (firstPage && owner) {
 					if (doTruncateIfNecessary(context, item)) {
+						truncated = true;
 						totalCount.set(0);
 						taskRepository.updateTaskProgress(context, item, totalCount.get());
 					}
-					doTurnOnOffIndicesIfNecessary(context, item.getTargetItem(), false);
-					if (context.getMigrationContext().isIncrementalModeEnabled()) {
-						upsertId = determineUpsertId(dataSet).orElse(null);
-					}
-					copyPipeWriterContext = new CopyPipeWriterContext(context, item, columnsToCopy, nullifyColumns,
-							performanceRecorder, totalCount, upsertId, requiresIdentityInsert, taskRepository);
+					doTurnOffIndicesIfNecessary(context, item.getTargetItem());
 					firstPage = false;
 				}
 				if (dataSet.isNotEmpty()) {
+					if (copyPipeWriterContext == null) {
+						// the binding plan is built once from the first page carrying data
+						if (context.getMigrationContext().isIncrementalModeEnabled()) {
+							upsertId = determineUpsertId(dataSet).orElse(null);
+						}
+						ColumnBindingPlan bindingPlan = ColumnBindingPlan.create(dataSet, columnsToCopy,
+								targetColumns, nullifyColumns, item.getColumnMap());
+						copyPipeWriterContext = new CopyPipeWriterContext(context, item, columnsToCopy, bindingPlan,
+								performanceRecorder, progressAggregator, upsertId, requiresIdentityInsert, truncated,
+								taskRepository, sessionPool);
+					}
 					RetriableTask writerTask = createWriterTask(copyPipeWriterContext, dataSet);
 					workerExecutor.safelyExecute(writerTask);
 				}
@@ -130,16 +163,12 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
 			}
 			throw e;
 		} finally {
-			if (taskExecutor != null) {
-				dataWriteWorkerPoolFactory.destroy(taskExecutor);
-			}
+			dataWriteWorkerExecutorFactory.destroy(workerExecutor);
+			sessionPool.close();
 			if (targetConnection != null) {
-				doTurnOnOffIndicesIfNecessary(context, item.getTargetItem(), true);
 				targetConnection.close();
 			}
-			if (taskRepository != null) {
-				taskRepository.updateTaskProgress(context, item, totalCount.get());
-			}
+			progressAggregator.flush();
 		}
 	}
 
@@ -171,13 +200,14 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
 		return false;
 	}
 
-	private void doTurnOnOffIndicesIfNecessary(CopyContext context, String targetTableName, boolean on)
-			throws Exception {
+	/**
+	 * The indexes are built again once the table is copied, by the index
+	 * maintenance of the copy service.
+	 */
+	private void doTurnOffIndicesIfNecessary(CopyContext context, String targetTableName) throws Exception {
 		if (context.getMigrationContext().isDropAllIndexesEnabled()) {
-			if (!on) {
-				LOG.debug("{} indexes for table '{}'", "Dropping", targetTableName);
-				context.getMigrationContext().getDataTargetRepository().dropIndexesOfTable(targetTableName);
-			}
+			LOG.debug("{} indexes for table '{}'", "Dropping", targetTableName);
+			context.getMigrationContext().getDataTargetRepository().dropIndexesOfTable(targetTableName);
 		} else {
 			if (context.getMigrationContext().isDisableAllIndexesEnabled()) {
 				if (!context.getMigrationContext().getDisableAllIndexesIncludedTables().isEmpty()) {
@@ -185,12 +215,8 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
 						return;
 					}
 				}
-				LOG.debug("{} indexes for table '{}'", on ? "Rebuilding" : "Disabling", targetTableName);
-				if (on) {
-					context.getMigrationContext().getDataTargetRepository().enableIndexesOfTable(targetTableName);
-				} else {
-					context.getMigrationContext().getDataTargetRepository().disableIndexesOfTable(targetTableName);
-				}
+				LOG.debug("{} indexes for table '{}'", "Disabling", targetTableName);
+				context.getMigrationContext().getDataTargetRepository().disableIndexesOfTable(targetTableName);
 			}
 		}
 	}
@@ -237,7 +263,20 @@ public class CopyPipeWriterStrategy implements PipeWriterStrategy<DataSet> {
 		}
 	}
 
-	private RetriableTask createWriterTask(CopyPipeWriterContext dwc, DataSet dataSet) {
+	private Map<String, DataColumn> getColumns(String tableName, Connection connection) throws SQLException {
+		Map<String, DataColumn> columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		try (Statement stmt = connection.createStatement();
+				ResultSet metaResult = stmt.executeQuery(String.format("select * from %s where 0 = 1", tableName))) {
+			ResultSetMetaData meta = metaResult.getMetaData();
+			for (int i = 1; i <= meta.getColumnCount(); i++) {
+				columns.put(meta.getColumnName(i), new DefaultDataColumn(meta.getColumnName(i), meta.getColumnType(i),
+						meta.getPrecision(i), meta.getScale(i)));
+			}
+		}
+		return columns;
+	}
+
+	protected RetriableTask createWriterTask(CopyPipeWriterContext dwc, DataSet dataSet) {
 		return new CopyPipeWriterTask(dwc, dataSet);
 	}
 
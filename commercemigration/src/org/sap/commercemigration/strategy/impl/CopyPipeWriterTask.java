@@ -6,21 +6,18 @@ package org.sap.commercemigration.strategy.impl;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Stopwatch;
-import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
 import org.sap.commercemigration.concurrent.impl.task.RetriableTask;
 import org.sap.commercemigration.context.CopyContext;
 import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
 import org.sap.commercemigration.performance.PerformanceRecorder;
 import org.sap.commercemigration.performance.PerformanceUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -38,10 +35,19 @@ class CopyPipeWriterTask extends RetriableTask {
 		this.dataSet = dataSet;
 	}
 
+	@Override
+	public Boolean call() {
+		try {
+			return super.call();
+		} finally {
+			SpilledLob.release(dataSet);
+		}
+	}
+
 	@Override
 	protected Boolean internalRun() {
 		try {
-			if (!dataSet.getAllResults().isEmpty()) {
+			if (dataSet.isNotEmpty()) {
 				process();
 			}
 			return Boolean.TRUE;
@@ -50,19 +56,6 @@ class CopyPipeWriterTask extends RetriableTask {
 		}
 	}
 
-	private boolean isColumnOverride(CopyContext.DataCopyItem item, String sourceColumnName) {
-		return MapUtils.isNotEmpty(item.getColumnMap()) && item.getColumnMap().containsKey(sourceColumnName);
-	}
-
-	private void switchIdentityInsert(Connection connection, final String tableName, boolean on) {
-		try (Statement stmt = connection.createStatement()) {
-			String onOff = on ? "ON" : "OFF";
-			stmt.executeUpdate(String.format("SET IDENTITY_INSERT %s %s", tableName, onOff));
-		} catch (final Exception e) {
-			throw new RuntimeException("Could not switch identity insert", e);
-		}
-	}
-
 	private String getBulkInsertStatement(String targetTableName, List<String> columnsToCopy,
 			List<String> columnsToCopyValues) {
 		return "INSERT INTO " + targetTableName + " "
@@ -107,17 +100,17 @@ class CopyPipeWriterTask extends RetriableTask {
 	}
 
 	private PreparedStatement createPreparedStatement(CopyContext context, String targetTableName,
-			List<String> columnsToCopy, String upsertId, Connection targetConnection) throws Exception {
+			List<String> columnsToCopy, String upsertId, CopyPipeWriterSession session) throws Exception {
 		if (context.getMigrationContext().isIncrementalModeEnabled()) {
 			if (StringUtils.isNotEmpty(upsertId)) {
-				return targetConnection
+				return session
 						.prepareStatement(getBulkUpsertStatement(targetTableName, columnsToCopy, upsertId));
 			} else {
 				throw new RuntimeException(
 						"The incremental approach can only be used on tables that have a valid identifier like PK or ID");
 			}
 		} else {
-			return targetConnection.prepareStatement(getBulkInsertStatement(targetTableName, columnsToCopy,
+			return session.prepareStatement(getBulkInsertStatement(targetTableName, columnsToCopy,
 					columnsToCopy.stream().map(column -> "?").collect(Collectors.toList())));
 		}
 	}
@@ -131,71 +124,62 @@ class CopyPipeWriterTask extends RetriableTask {
 		recorder.record(PerformanceUnit.ROWS, batchCount);
 	}
 
+	private void addRows(PreparedStatement statement) throws SQLException {
+		ColumnBindingPlan bindingPlan = ctx.getBindingPlan();
+		bindingPlan.checkCompatible(dataSet);
+		for (int row = 0; row < dataSet.getRowCount(); row++) {
+			bindingPlan.bind(statement, dataSet, row);
+			statement.addBatch();
+		}
+	}
+
+	private void upsertThroughStagingTable(CopyPipeWriterSession session) throws Exception {
+		String targetTableName = ctx.getCopyItem().getTargetItem();
+		List<String> columnsToCopy = ctx.getColumnsToCopy();
+		final Stopwatch timer = Stopwatch.createStarted();
+		session.prepareStagingTable(columnsToCopy);
+		PreparedStatement stagingStatement = session
+				.prepareStatement(getBulkInsertStatement(StagingTableUpsert.getStagingTableName(targetTableName),
+						columnsToCopy, columnsToCopy.stream().map(column -> "?").collect(Collectors.toList())));
+		addRows(stagingStatement);
+		stagingStatement.executeBatch();
+		stagingStatement.clearBatch();
+		StagingTableUpsert.mergeStagingTable(session.getConnection(), targetTableName, columnsToCopy,
+				ctx.getUpsertId());
+		LOG.debug("Batch merged ({} items) for table '{}' in {}", dataSet.getRowCount(), targetTableName,
+				timer.stop());
+		ctx.getPerformanceRecorder().record(PerformanceUnit.ROWS, dataSet.getRowCount());
+	}
+
 	private void process() throws Exception {
-		Connection connection = null;
-		Boolean originalAutoCommit = null;
-		boolean requiresIdentityInsert = ctx.isRequiresIdentityInsert();
+		CopyPipeWriterSession session = ctx.getSessionPool().borrow(ctx);
+		boolean committed = false;
 		try {
-			connection = ctx.getContext().getMigrationContext().getDataTargetRepository().getConnection();
-			originalAutoCommit = connection.getAutoCommit();
-			try (PreparedStatement bulkWriterStatement = createPreparedStatement(ctx.getContext(),
-					ctx.getCopyItem().getTargetItem(), ctx.getColumnsToCopy(), ctx.getUpsertId(), connection);
-					Statement tempStmt = connection.createStatement();
-					ResultSet tempTargetRs = tempStmt.executeQuery(
-							String.format("select * from %s where 0 = 1", ctx.getCopyItem().getTargetItem()))) {
-				connection.setAutoCommit(false);
-				if (requiresIdentityInsert) {
-					switchIdentityInsert(connection, ctx.getCopyItem().getTargetItem(), true);
-				}
-				for (List<Object> row : dataSet.getAllResults()) {
-					int paramIdx = 1;
-					for (String sourceColumnName : ctx.getColumnsToCopy()) {
-						int targetColumnIdx = tempTargetRs.findColumn(sourceColumnName);
-						int targetColumnType = tempTargetRs.getMetaData().getColumnType(targetColumnIdx);
-						if (ctx.getNullifyColumns().contains(sourceColumnName)) {
-							bulkWriterStatement.setNull(paramIdx, targetColumnType);
-							LOG.trace("Column {} is nullified. Setting NULL value...", sourceColumnName);
-						} else {
-							if (isColumnOverride(ctx.getCopyItem(), sourceColumnName)) {
-								bulkWriterStatement.setObject(paramIdx,
-										ctx.getCopyItem().getColumnMap().get(sourceColumnName), targetColumnType);
-							} else {
-								Object sourceColumnValue = dataSet.getColumnValue(sourceColumnName, row);
-								if (sourceColumnValue != null) {
-									bulkWriterStatement.setObject(paramIdx, sourceColumnValue, targetColumnType);
-								} else {
-									bulkWriterStatement.setNull(paramIdx, targetColumnType);
-								}
-							}
-						}
-						paramIdx += 1;
-					}
-					bulkWriterStatement.addBatch();
-				}
-				int batchCount = dataSet.getAllResults().size();
+			int batchCount = dataSet.getRowCount();
+			if (StagingTableUpsert.isApplicable(ctx)) {
+				upsertThroughStagingTable(session);
+			} else {
+				PreparedStatement bulkWriterStatement = createPreparedStatement(ctx.getContext(),
+						ctx.getCopyItem().getTargetItem(), ctx.getColumnsToCopy(), ctx.getUpsertId(), session);
+				addRows(bulkWriterStatement);
 				executeBatch(ctx.getCopyItem(), bulkWriterStatement, batchCount, ctx.getPerformanceRecorder());
 				bulkWriterStatement.clearParameters();
-				bulkWriterStatement.clearBatch();
-				ctx.getDatabaseCopyTaskRepository().markBatchCompleted(connection, ctx.getContext(), ctx.getCopyItem(),
-						dataSet.getBatchId());
-				connection.commit();
-				long totalCount = ctx.getTotalCount().addAndGet(batchCount);
-				ctx.getDatabaseCopyTaskRepository().updateTaskProgress(ctx.getContext(), ctx.getCopyItem(), totalCount);
 			}
-		} catch (Exception e) {
-			if (connection != null) {
-				connection.rollback();
+			if (!ctx.getDatabaseCopyTaskRepository().markBatchCompleted(session.getConnection(), ctx.getContext(),
+					ctx.getCopyItem(), dataSet.getBatchId())) {
+				LOG.warn("Lease of batch {} of table {} has expired, the batch is written by the node leasing it",
+						dataSet.getBatchId(), ctx.getCopyItem().getTargetItem());
+				return;
 			}
-			throw e;
+			session.getConnection().commit();
+			committed = true;
+			ctx.getProgressAggregator().add(batchCount);
 		} finally {
-			if (connection != null && originalAutoCommit != null) {
-				connection.setAutoCommit(originalAutoCommit);
-			}
-			if (connection != null && ctx != null) {
-				if (requiresIdentityInsert) {
-					switchIdentityInsert(connection, ctx.getCopyItem().getTargetItem(), false);
-				}
-				connection.close();
+			// the session of a failed or skipped batch is rolled back and discarded, a retry opens a new one
+			if (committed) {
+				ctx.getSessionPool().release(session);
+			} else {
+				ctx.getSessionPool().invalidate(session);
 			}
 		}
 	}
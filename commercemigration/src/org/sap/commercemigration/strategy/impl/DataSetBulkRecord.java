@@ -0,0 +1,239 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord;
+import com.microsoft.sqlserver.jdbc.SQLServerException;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Feeds the rows of a page to the SQL Server bulk copy. The column values and
+ * metadata are taken from the binding plan, so nullified and overridden columns
+ * are written the same way as by the statement based writer.
+ */
+class DataSetBulkRecord implements ISQLServerBulkRecord {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<String> columnNames;
+	private final transient ColumnBindingPlan bindingPlan;
+	private final transient DataSet dataSet;
+	private final Set<Integer> columnOrdinals = new LinkedHashSet<>();
+	private int row = -1;
+
+	DataSetBulkRecord(List<String> columnNames, ColumnBindingPlan bindingPlan, DataSet dataSet) {
+		this.columnNames = columnNames;
+		this.bindingPlan = bindingPlan;
+		this.dataSet = dataSet;
+		for (int i = 1; i <= bindingPlan.getColumnCount(); i++) {
+			columnOrdinals.add(i);
+		}
+	}
+
+	@Override
+	public Set<Integer> getColumnOrdinals() {
+		return columnOrdinals;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return columnNames.get(column - 1);
+	}
+
+	@Override
+	public int getColumnType(int column) {
+		return bindingPlan.getTargetColumn(column - 1).getColumnType();
+	}
+
+	@Override
+	public int getPrecision(int column) {
+		return bindingPlan.getTargetColumn(column - 1).getPrecision();
+	}
+
+	@Override
+	public int getScale(int column) {
+		return bindingPlan.getTargetColumn(column - 1).getScale();
+	}
+
+	@Override
+	public boolean isAutoIncrement(int column) {
+		return false;
+	}
+
+	@Override
+	public Object[] getRowData() throws SQLServerException {
+		Object[] values = new Object[bindingPlan.getColumnCount()];
+		for (int column = 0; column < values.length; column++) {
+			values[column] = toBulkValue(bindingPlan.getValue(dataSet, row, column),
+					bindingPlan.getTargetColumn(column));
+		}
+		return values;
+	}
+
+	@Override
+	public boolean next() {
+		return ++row < dataSet.getRowCount();
+	}
+
+	/**
+	 * The bulk copy casts each value to the Java class of the declared target
+	 * type instead of converting it like a statement parameter, so the values of
+	 * other source types are converted here, e.g. a NUMBER key of Oracle read as
+	 * BigDecimal for a bigint column.
+	 */
+	private Object toBulkValue(Object value, DataColumn targetColumn) throws SQLServerException {
+		if (value == null) {
+			return null;
+		}
+		if (value instanceof SpilledLob) {
+			SpilledLob lob = (SpilledLob) value;
+			try {
+				return lob.isCharacter() ? lob.openCharacterStream() : lob.openBinaryStream();
+			} catch (IOException e) {
+				throw new SQLServerException("Could not open spilled LOB", e);
+			}
+		}
+		try {
+			switch (targetColumn.getColumnType()) {
+			case Types.BIT:
+			case Types.BOOLEAN:
+				// numeric booleans, e.g. NUMBER(1) on Oracle
+				return value instanceof Boolean ? value : toBigDecimal(value).signum() != 0;
+			case Types.TINYINT:
+			case Types.SMALLINT:
+				return value instanceof Short ? value : toBigDecimal(value).shortValueExact();
+			case Types.INTEGER:
+				return value instanceof Integer ? value : toBigDecimal(value).intValueExact();
+			case Types.BIGINT:
+				return value instanceof Long ? value : toBigDecimal(value).longValueExact();
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return toBigDecimal(value);
+			case Types.REAL:
+				return value instanceof Float ? value : toBigDecimal(value).floatValue();
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				return value instanceof Double ? value : toBigDecimal(value).doubleValue();
+			case Types.DATE:
+				return toDate(value);
+			case Types.TIMESTAMP:
+				return toTimestamp(value);
+			default:
+				return value;
+			}
+		} catch (ArithmeticException | NumberFormatException e) {
+			throw new SQLServerException(String.format("Value %s does not fit column %s of type %s", value,
+					targetColumn.getColumnName(), targetColumn.getColumnType()), e);
+		}
+	}
+
+	private static BigDecimal toBigDecimal(Object value) {
+		if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		if (value instanceof BigInteger) {
+			return new BigDecimal((BigInteger) value);
+		}
+		if (value instanceof Double || value instanceof Float) {
+			return BigDecimal.valueOf(((Number) value).doubleValue());
+		}
+		if (value instanceof Number) {
+			return BigDecimal.valueOf(((Number) value).longValue());
+		}
+		if (value instanceof Boolean) {
+			return (Boolean) value ? BigDecimal.ONE : BigDecimal.ZERO;
+		}
+		return new BigDecimal(value.toString().trim());
+	}
+
+	private static Object toDate(Object value) {
+		if (value instanceof java.sql.Date) {
+			return value;
+		}
+		if (value instanceof LocalDate) {
+			return java.sql.Date.valueOf((LocalDate) value);
+		}
+		if (value instanceof Timestamp) {
+			return java.sql.Date.valueOf(((Timestamp) value).toLocalDateTime().toLocalDate());
+		}
+		if (value instanceof Date) {
+			return new java.sql.Date(((Date) value).getTime());
+		}
+		return value;
+	}
+
+	private static Object toTimestamp(Object value) {
+		if (value instanceof Timestamp) {
+			return value;
+		}
+		if (value instanceof LocalDateTime) {
+			return Timestamp.valueOf((LocalDateTime) value);
+		}
+		if (value instanceof LocalDate) {
+			return Timestamp.valueOf(((LocalDate) value).atStartOfDay());
+		}
+		if (value instanceof Date) {
+			return new Timestamp(((Date) value).getTime());
+		}
+		return value;
+	}
+
+	/*
+	 * The column metadata is taken from the binding plan and the values from the
+	 * data set, the methods below only configure file based records and are
+	 * ignored.
+	 */
+
+	@Override
+	public void addColumnMetadata(int positionInFile, String name, int jdbcType, int precision, int scale,
+			DateTimeFormatter dateTimeFormatter) {
+		// metadata comes from the binding plan
+	}
+
+	@Override
+	public void addColumnMetadata(int positionInFile, String name, int jdbcType, int precision, int scale) {
+		// metadata comes from the binding plan
+	}
+
+	@Override
+	public void setTimestampWithTimezoneFormat(String dateTimeFormat) {
+		// values come from the data set, they are not parsed
+	}
+
+	@Override
+	public void setTimestampWithTimezoneFormat(DateTimeFormatter dateTimeFormatter) {
+		// values come from the data set, they are not parsed
+	}
+
+	@Override
+	public void setTimeWithTimezoneFormat(String timeFormat) {
+		// values come from the data set, they are not parsed
+	}
+
+	@Override
+	public void setTimeWithTimezoneFormat(DateTimeFormatter dateTimeFormatter) {
+		// values come from the data set, they are not parsed
+	}
+
+	@Override
+	public DateTimeFormatter getColumnDateTimeFormatter(int column) {
+		return null;
+	}
+}
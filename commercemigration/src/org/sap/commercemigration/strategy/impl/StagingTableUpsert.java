@@ -0,0 +1,100 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import com.google.common.base.Joiner;
+import org.apache.commons.lang3.StringUtils;
+import org.sap.commercemigration.context.MigrationContext;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Set based upsert for incremental migrations on SQL Server: a page is first
+ * written into a session local staging table and then merged into the target
+ * with a single MERGE statement, instead of one MERGE per row.
+ */
+final class StagingTableUpsert {
+
+	private StagingTableUpsert() {
+	}
+
+	/**
+	 * Pages of incremental migrations are merged through a staging table if
+	 * enabled and the table has an identifier to merge on.
+	 */
+	static boolean isApplicable(CopyPipeWriterContext ctx) {
+		MigrationContext migrationContext = ctx.getContext().getMigrationContext();
+		return migrationContext.isIncrementalModeEnabled() && migrationContext.isStagedUpsertEnabled()
+				&& StringUtils.isNotEmpty(ctx.getUpsertId());
+	}
+
+	static String getStagingTableName(String targetTableName) {
+		return "#" + targetTableName + "_staging";
+	}
+
+	/**
+	 * Creates an empty staging table with the columns of the target. The UNION
+	 * prevents the identity property of the target column from being copied, so
+	 * the staging table can be written without IDENTITY_INSERT.
+	 */
+	static void createStagingTable(Connection connection, String targetTableName, List<String> columns)
+			throws SQLException {
+		String columnList = Joiner.on(", ").join(columns);
+		String stagingTableName = getStagingTableName(targetTableName);
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute(String.format("DROP TABLE IF EXISTS %s", stagingTableName));
+			stmt.execute(String.format(
+					"SELECT %s INTO %s FROM %s WHERE 1 = 0 UNION ALL SELECT %s FROM %s WHERE 1 = 0", columnList,
+					stagingTableName, targetTableName, columnList, targetTableName));
+		}
+	}
+
+	/**
+	 * @return the number of merged rows
+	 */
+	static int mergeStagingTable(Connection connection, String targetTableName, List<String> columns,
+			String columnId) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			return stmt.executeUpdate(getMergeStatement(targetTableName, columns, columnId));
+		}
+	}
+
+	static void truncateStagingTable(Connection connection, String targetTableName) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute(String.format("TRUNCATE TABLE %s", getStagingTableName(targetTableName)));
+		}
+	}
+
+	static void dropStagingTable(Connection connection, String targetTableName) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute(String.format("DROP TABLE IF EXISTS %s", getStagingTableName(targetTableName)));
+		}
+	}
+
+	private static String getMergeStatement(String targetTableName, List<String> columns, String columnId) {
+		StringBuilder sqlBuilder = new StringBuilder();
+		sqlBuilder.append(String.format("MERGE %s WITH (HOLDLOCK) AS t", targetTableName));
+		sqlBuilder.append("\n");
+		sqlBuilder.append(String.format("USING %s AS s ON t.%s = s.%s", getStagingTableName(targetTableName),
+				columnId, columnId));
+		sqlBuilder.append("\n");
+		List<String> updateColumns = columns.stream().filter(column -> !column.equalsIgnoreCase(columnId))
+				.collect(Collectors.toList());
+		if (!updateColumns.isEmpty()) {
+			sqlBuilder.append("WHEN MATCHED THEN UPDATE SET ");
+			sqlBuilder.append(updateColumns.stream().map(column -> String.format("%s = s.%s", column, column))
+					.collect(Collectors.joining(", ")));
+			sqlBuilder.append("\n");
+		}
+		sqlBuilder.append(String.format("WHEN NOT MATCHED THEN INSERT (%s) VALUES (%s)", Joiner.on(", ").join(columns),
+				columns.stream().map(column -> "s." + column).collect(Collectors.joining(", "))));
+		sqlBuilder.append(";");
+		return sqlBuilder.toString();
+	}
+}
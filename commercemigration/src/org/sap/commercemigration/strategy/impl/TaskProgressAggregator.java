@@ -0,0 +1,104 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects the rows written by the writer tasks of a pipeline and updates the
+ * progress of its task at most once per second. The writer completing a batch
+ * after the interval has passed flushes the rows of all writers, the others do
+ * not wait for it.
+ */
+class TaskProgressAggregator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TaskProgressAggregator.class);
+
+	private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+	private final DatabaseCopyTaskRepository taskRepository;
+	private final CopyContext context;
+	private final CopyContext.DataCopyItem copyItem;
+	private final AtomicLong totalCount;
+	private final boolean enabled;
+	private final AtomicLong pendingCount = new AtomicLong();
+	private final AtomicLong nextFlush = new AtomicLong();
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	/**
+	 * @param totalCount
+	 *            the rows of the pipeline written so far
+	 * @param enabled
+	 *            false to ignore the added rows, the progress is left alone
+	 */
+	TaskProgressAggregator(DatabaseCopyTaskRepository taskRepository, CopyContext context,
+			CopyContext.DataCopyItem copyItem, AtomicLong totalCount, boolean enabled) {
+		this.taskRepository = taskRepository;
+		this.context = context;
+		this.copyItem = copyItem;
+		this.totalCount = totalCount;
+		this.enabled = enabled;
+		this.nextFlush.set(System.currentTimeMillis() + FLUSH_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Adds the rows of a committed batch.
+	 */
+	void add(long rowCount) {
+		if (!enabled) {
+			return;
+		}
+		totalCount.addAndGet(rowCount);
+		pendingCount.addAndGet(rowCount);
+		long now = System.currentTimeMillis();
+		long next = nextFlush.get();
+		if (now >= next && nextFlush.compareAndSet(next, now + FLUSH_INTERVAL_MILLIS) && flushLock.tryLock()) {
+			try {
+				doFlush();
+			} finally {
+				flushLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Updates the progress with all rows added so far.
+	 */
+	void flush() {
+		if (!enabled) {
+			return;
+		}
+		flushLock.lock();
+		try {
+			doFlush();
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	private void doFlush() {
+		long rowCount = pendingCount.getAndSet(0);
+		try {
+			if (context.getMigrationContext().isBatchSharingEnabled()) {
+				// other nodes add the batches they write to the same task
+				if (rowCount > 0) {
+					taskRepository.incrementTaskProgress(context, copyItem, rowCount);
+				}
+			} else {
+				taskRepository.updateTaskProgress(context, copyItem, totalCount.get());
+			}
+		} catch (Exception e) {
+			// the rows are added by the next flush
+			pendingCount.addAndGet(rowCount);
+			LOG.warn("Could not update progress of pipeline {}", copyItem.getPipelineName(), e);
+		}
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sap.commercemigration.concurrent.DataPipe;
+import org.sap.commercemigration.concurrent.MaybeFinished;
+import org.sap.commercemigration.concurrent.PipeAbortedException;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test for {@link RingBufferDataPipe}.
+ */
+@UnitTest
+public class RingBufferDataPipeTest {
+
+	// a page of one 1000 byte value is estimated at 1040 bytes
+	private static final int VALUE_BYTES = 1000;
+
+	private CopyContext context;
+	private DatabaseCopyScheduler scheduler;
+	private DatabaseCopyTaskRepository taskRepository;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		context = new CopyContext("migration", mock(MigrationContext.class), Collections.emptySet(), null);
+		scheduler = mock(DatabaseCopyScheduler.class);
+		taskRepository = mock(DatabaseCopyTaskRepository.class);
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testPagesAreTakenInOrder() throws Exception {
+		DataPipe<Integer> pipe = createPipe(4, Long.MAX_VALUE);
+
+		pipe.put(MaybeFinished.of(1));
+		pipe.put(MaybeFinished.of(2));
+		pipe.put(MaybeFinished.finished(3));
+
+		assertEquals(3, pipe.size());
+		assertEquals(Integer.valueOf(1), pipe.get().getValue());
+		assertEquals(Integer.valueOf(2), pipe.get().getValue());
+		MaybeFinished<Integer> last = pipe.get();
+		assertEquals(Integer.valueOf(3), last.getValue());
+		assertTrue(last.isDone());
+		assertEquals(0, pipe.size());
+	}
+
+	@Test
+	public void testPutFailsWhenPageCapacityIsExhausted() throws Exception {
+		DataPipe<Integer> pipe = createPipe(2, Long.MAX_VALUE);
+		pipe.put(MaybeFinished.of(1));
+		pipe.put(MaybeFinished.of(2));
+
+		try {
+			pipe.put(MaybeFinished.of(3));
+			fail("page capacity exceeded");
+		} catch (RuntimeException e) {
+			assertEquals("cannot put new item in time", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testPutWaitsForByteCapacity() throws Exception {
+		DataPipe<DataSet> pipe = createPipe(8, 1500);
+		DataSet first = createPage(1);
+		DataSet second = createPage(2);
+		pipe.put(MaybeFinished.of(first));
+
+		Future<?> put = executor.submit(() -> {
+			pipe.put(MaybeFinished.of(second));
+			return null;
+		});
+		awaitWaiters(pipe, 1);
+		assertFalse(put.isDone());
+		assertEquals(1, pipe.size());
+
+		assertSame(first, pipe.get().getValue());
+		put.get(5, TimeUnit.SECONDS);
+		assertSame(second, pipe.get().getValue());
+	}
+
+	@Test
+	public void testOversizedPageIsAcceptedByEmptyPipe() throws Exception {
+		DataPipe<DataSet> pipe = createPipe(8, 10);
+		DataSet page = createPage(1);
+
+		pipe.put(MaybeFinished.of(page));
+
+		assertSame(page, pipe.get().getValue());
+	}
+
+	@Test
+	public void testAbortReleasesWaitingConsumer() throws Exception {
+		DataPipe<Integer> pipe = createPipe(4, Long.MAX_VALUE);
+		Future<MaybeFinished<Integer>> get = executor.submit(pipe::get);
+		Thread.sleep(50);
+		assertFalse(get.isDone());
+
+		pipe.requestAbort(new IllegalStateException("reader failed"));
+
+		assertAborted(get);
+		try {
+			pipe.put(MaybeFinished.of(1));
+			fail("pipe aborted");
+		} catch (PipeAbortedException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testAbortReleasesWaitingProducer() throws Exception {
+		DataPipe<Integer> pipe = createPipe(2, Long.MAX_VALUE);
+		pipe.put(MaybeFinished.of(1));
+		pipe.put(MaybeFinished.of(2));
+		Future<?> put = executor.submit(() -> {
+			pipe.put(MaybeFinished.of(3));
+			return null;
+		});
+		awaitWaiters(pipe, 1);
+
+		pipe.requestAbort(new IllegalStateException("writer failed"));
+
+		assertAborted(put);
+		assertEquals(0, pipe.size());
+	}
+
+	@Test
+	public void testConcurrentProducersAndConsumers() throws Exception {
+		int producers = 4;
+		int consumers = 2;
+		int pagesPerProducer = 5000;
+		DataPipe<Integer> pipe = createPipe(8, Long.MAX_VALUE);
+		Set<Integer> taken = ConcurrentHashMap.newKeySet();
+		List<Future<?>> futures = new ArrayList<>();
+		for (int producer = 0; producer < producers; producer++) {
+			int first = producer * pagesPerProducer;
+			futures.add(executor.submit(() -> {
+				for (int page = first; page < first + pagesPerProducer; page++) {
+					pipe.put(MaybeFinished.of(page));
+				}
+				return null;
+			}));
+		}
+		for (int consumer = 0; consumer < consumers; consumer++) {
+			futures.add(executor.submit(() -> {
+				for (int page = 0; page < producers * pagesPerProducer / consumers; page++) {
+					assertTrue("page taken twice", taken.add(pipe.get().getValue()));
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+
+		assertEquals(producers * pagesPerProducer, taken.size());
+		assertEquals(0, pipe.size());
+	}
+
+	private <T> DataPipe<T> createPipe(int capacity, long capacityBytes) {
+		return new RingBufferDataPipe<>(scheduler, taskRepository, context,
+				new CopyContext.DataCopyItem("source", "target"), 1, capacity, capacityBytes);
+	}
+
+	private DataSet createPage(int batchId) {
+		List<Object> row = new ArrayList<>();
+		row.add(new byte[VALUE_BYTES]);
+		return new DefaultDataSet(batchId, 1,
+				Collections.singletonList(new DefaultDataColumn("p_value", Types.VARBINARY, VALUE_BYTES, 0)),
+				Collections.singletonList(row));
+	}
+
+	private void awaitWaiters(DataPipe<?> pipe, int waiters) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (pipe.getWaitersCount() < waiters) {
+			assertTrue("no waiting producer", System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private void assertAborted(Future<?> future) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("pipe aborted");
+		} catch (ExecutionException e) {
+			assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof PipeAbortedException);
+		}
+	}
+}
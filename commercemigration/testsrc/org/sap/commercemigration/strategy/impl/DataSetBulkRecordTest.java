@@ -0,0 +1,179 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord;
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.dataset.impl.DefaultDataColumn;
+import org.sap.commercemigration.dataset.impl.DefaultDataSet;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for {@link DataSetBulkRecord}.
+ */
+@UnitTest
+public class DataSetBulkRecordTest {
+
+	@Test
+	public void testNumberKeyToBigint() throws Exception {
+		List<Object> values = write(Types.NUMERIC, 20, 0, Types.BIGINT, 19, 0, new BigDecimal("8796093054977"));
+
+		assertEquals(Collections.singletonList(8796093054977L), values);
+	}
+
+	@Test
+	public void testNumberToInteger() throws Exception {
+		List<Object> values = write(Types.NUMERIC, 10, 0, Types.INTEGER, 10, 0, new BigDecimal("42.0"));
+
+		assertEquals(Collections.singletonList(42), values);
+	}
+
+	@Test
+	public void testNumberToSmallint() throws Exception {
+		List<Object> values = write(Types.NUMERIC, 5, 0, Types.SMALLINT, 5, 0, new BigDecimal("7"));
+
+		assertEquals(Collections.singletonList((short) 7), values);
+	}
+
+	@Test
+	public void testLongToDecimal() throws Exception {
+		// columnar pages hold integer values as long
+		List<Object> values = write(Types.BIGINT, 19, 0, Types.DECIMAL, 18, 0, 123L);
+
+		assertEquals(Collections.singletonList(BigDecimal.valueOf(123)), values);
+	}
+
+	@Test
+	public void testIntegerToBigint() throws Exception {
+		List<Object> values = write(Types.INTEGER, 10, 0, Types.BIGINT, 19, 0, 5);
+
+		assertEquals(Collections.singletonList(5L), values);
+	}
+
+	@Test
+	public void testNumberToBit() throws Exception {
+		List<Object> values = write(Types.NUMERIC, 1, 0, Types.BIT, 1, 0, new BigDecimal("1"));
+
+		assertEquals(Collections.singletonList(Boolean.TRUE), values);
+	}
+
+	@Test
+	public void testNumberToDouble() throws Exception {
+		List<Object> values = write(Types.NUMERIC, 30, 8, Types.DOUBLE, 53, 0, new BigDecimal("1.5"));
+
+		assertEquals(Collections.singletonList(1.5d), values);
+	}
+
+	@Test
+	public void testDateToTimestamp() throws Exception {
+		Timestamp timestamp = Timestamp.valueOf(LocalDateTime.of(2021, 3, 4, 5, 6, 7));
+		List<Object> values = write(Types.DATE, 0, 0, Types.TIMESTAMP, 27, 7, new Date(timestamp.getTime()));
+
+		assertEquals(Collections.singletonList(timestamp), values);
+	}
+
+	@Test
+	public void testBytesToVarbinary() throws Exception {
+		byte[] bytes = { 1, 2, 3 };
+		List<Object> values = write(Types.BLOB, 0, 0, Types.VARBINARY, -1, 0, bytes);
+
+		assertSame(bytes, values.get(0));
+	}
+
+	@Test
+	public void testNull() throws Exception {
+		List<Object> values = write(Types.NUMERIC, 20, 0, Types.BIGINT, 19, 0, null);
+
+		assertEquals(Collections.singletonList(null), values);
+	}
+
+	@Test(expected = Exception.class)
+	public void testFractionToBigint() throws Exception {
+		write(Types.NUMERIC, 20, 2, Types.BIGINT, 19, 0, new BigDecimal("1.25"));
+	}
+
+	private List<Object> write(int sourceType, int sourcePrecision, int sourceScale, int targetType,
+			int targetPrecision, int targetScale, Object value) throws Exception {
+		List<DataColumn> sourceColumns = Collections
+				.singletonList(new DefaultDataColumn("p_value", sourceType, sourcePrecision, sourceScale));
+		DataSet dataSet = new DefaultDataSet(0, 1, sourceColumns,
+				Collections.singletonList(new ArrayList<>(Arrays.asList(value))));
+		Map<String, DataColumn> targetColumns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		targetColumns.put("p_value", new DefaultDataColumn("p_value", targetType, targetPrecision, targetScale));
+		ColumnBindingPlan bindingPlan = ColumnBindingPlan.create(dataSet, Collections.singletonList("p_value"),
+				targetColumns, Collections.emptySet(), Collections.emptyMap());
+		return new FakeBulkSink().write(
+				new DataSetBulkRecord(Collections.singletonList("p_value"), bindingPlan, dataSet));
+	}
+
+	/**
+	 * Reads the values of a record like the bulk copy of the JDBC driver, which
+	 * casts each value to the Java class of the declared column type.
+	 */
+	private static class FakeBulkSink {
+
+		List<Object> write(ISQLServerBulkRecord record) throws Exception {
+			List<Object> written = new ArrayList<>();
+			while (record.next()) {
+				Object[] row = record.getRowData();
+				for (int column : record.getColumnOrdinals()) {
+					written.add(cast(row[column - 1], record.getColumnType(column)));
+				}
+			}
+			return written;
+		}
+
+		private Object cast(Object value, int type) {
+			if (value == null) {
+				return null;
+			}
+			switch (type) {
+			case Types.BIT:
+				return (Boolean) value;
+			case Types.TINYINT:
+			case Types.SMALLINT:
+				return (Short) value;
+			case Types.INTEGER:
+				return (Integer) value;
+			case Types.BIGINT:
+				return (Long) value;
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return (BigDecimal) value;
+			case Types.REAL:
+				return (Float) value;
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				return (Double) value;
+			case Types.TIMESTAMP:
+				return (Timestamp) value;
+			case Types.BINARY:
+			case Types.VARBINARY:
+			case Types.LONGVARBINARY:
+				return value instanceof InputStream ? value : (byte[]) value;
+			default:
+				return value;
+			}
+		}
+	}
+}
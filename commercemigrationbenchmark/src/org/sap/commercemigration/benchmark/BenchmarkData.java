@@ -0,0 +1,104 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import org.sap.commercemigration.context.MigrationContext;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates pages shaped like the tables of a hybris schema: a PK column
+ * followed by a repeating mix of the column types of the type system. Every
+ * tenth value is null. The values are deterministic, so all runs measure the
+ * same data.
+ */
+public final class BenchmarkData {
+
+	private static final int[] COLUMN_TYPES = { Types.VARCHAR, Types.BIGINT, Types.INTEGER, Types.TIMESTAMP,
+			Types.DOUBLE, Types.DECIMAL, Types.NVARCHAR };
+	private static final long BASE_MILLIS = 1609459200000L;
+
+	private BenchmarkData() {
+	}
+
+	public static MigrationContext createMigrationContext(boolean columnarDataSetEnabled, int readerBatchSize) {
+		Map<String, Object> answers = new HashMap<>();
+		answers.put("isColumnarDataSetEnabled", columnarDataSetEnabled);
+		answers.put("getReaderBatchSize", readerBatchSize);
+		return BenchmarkStubs.stub(MigrationContext.class, answers);
+	}
+
+	/**
+	 * Creates an in-memory result set; call {@link CachedRowSet#beforeFirst()}
+	 * before reading it again.
+	 */
+	public static CachedRowSet createResultSet(int columnCount, int rowCount) throws SQLException {
+		RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(columnCount);
+		for (int column = 1; column <= columnCount; column++) {
+			int type = getColumnType(column);
+			metaData.setColumnName(column, column == 1 ? "PK" : "P_COLUMN" + column);
+			metaData.setColumnType(column, type);
+			metaData.setSigned(column, type != Types.VARCHAR && type != Types.NVARCHAR);
+			metaData.setPrecision(column, type == Types.DECIMAL ? 30 : 0);
+			metaData.setScale(column, type == Types.DECIMAL ? 8 : 0);
+		}
+		CachedRowSet resultSet = RowSetProvider.newFactory().createCachedRowSet();
+		resultSet.setMetaData(metaData);
+		for (int row = 0; row < rowCount; row++) {
+			resultSet.moveToInsertRow();
+			for (int column = 1; column <= columnCount; column++) {
+				if (column > 1 && (row + column) % 10 == 0) {
+					resultSet.updateNull(column);
+				} else {
+					resultSet.updateObject(column, createValue(getColumnType(column), row, column));
+				}
+			}
+			resultSet.insertRow();
+			resultSet.moveToCurrentRow();
+		}
+		resultSet.beforeFirst();
+		return resultSet;
+	}
+
+	private static int getColumnType(int column) {
+		return column == 1 ? Types.BIGINT : COLUMN_TYPES[(column - 2) % COLUMN_TYPES.length];
+	}
+
+	private static Object createValue(int type, int row, int column) {
+		switch (type) {
+		case Types.BIGINT:
+			return 8796093022208L + row * 64L + column;
+		case Types.INTEGER:
+			return row % 1000;
+		case Types.TIMESTAMP:
+			return new Timestamp(BASE_MILLIS + row * 1000L);
+		case Types.DOUBLE:
+			return row * 0.25d;
+		case Types.DECIMAL:
+			return BigDecimal.valueOf(row, 2);
+		case Types.NVARCHAR:
+			return "Beschreibung \u00e4\u00f6\u00fc " + row;
+		default:
+			return "code-" + column + "-" + row;
+		}
+	}
+
+	public static String createText(int length) {
+		StringBuilder text = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			text.append((char) ('a' + i % 26));
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Stubs of the collaborators the benchmarked classes need but do not call on
+ * the measured paths, such as the scheduler or the task repository. A stub
+ * answers by method name from the given map, all other methods return an
+ * empty value. An {@link Answer} in the map is called with the arguments of
+ * the invocation.
+ * <p>
+ * The proxies dispatch by reflection, so they must not be used on a hot path.
+ */
+public final class BenchmarkStubs {
+
+	private BenchmarkStubs() {
+	}
+
+	public static <T> T stub(Class<T> type) {
+		return stub(type, Collections.emptyMap());
+	}
+
+	public static <T> T stub(Class<T> type, Map<String, Object> answers) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					if (answers.containsKey(method.getName())) {
+						Object answer = answers.get(method.getName());
+						return answer instanceof Answer ? ((Answer) answer).answer(args) : answer;
+					}
+					switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "toString":
+						return type.getSimpleName() + "Stub";
+					default:
+						return emptyValue(method.getReturnType());
+					}
+				}));
+	}
+
+	private static Object emptyValue(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		}
+		if (type == int.class) {
+			return 0;
+		}
+		if (type == long.class) {
+			return 0L;
+		}
+		if (type == float.class) {
+			return 0f;
+		}
+		if (type == double.class) {
+			return 0d;
+		}
+		if (type == Set.class) {
+			return Collections.emptySet();
+		}
+		if (type == List.class || type == Collection.class) {
+			return Collections.emptyList();
+		}
+		if (type == Map.class) {
+			return Collections.emptyMap();
+		}
+		if (type == Optional.class) {
+			return Optional.empty();
+		}
+		return null;
+	}
+
+	@FunctionalInterface
+	public interface Answer {
+		Object answer(Object[] args) throws Throwable;
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tables shaped like those of a hybris schema, covering the ways the reader
+ * pages through a table: by the PK column, by a composite unique key and all
+ * rows at once for a table without a key. The row count of a table is its
+ * factor times the base row count of the run.
+ * <p>
+ * The values are deterministic, every tenth value of a column outside the key
+ * is null.
+ */
+public enum BenchmarkTable {
+
+	GENERICITEMS("genericitems", 1.0, Collections.singletonList("PK"), withSystemColumns(
+			column("p_code", ColumnType.VARCHAR), column("p_name", ColumnType.VARCHAR),
+			column("p_active", ColumnType.SMALLINT), column("p_sequence", ColumnType.INTEGER),
+			column("p_owner", ColumnType.BIGINT))),
+
+	PRODUCTS("products", 0.2, Collections.singletonList("PK"), withSystemColumns(attributes(50))),
+
+	MEDIAS("medias", 0.05, Collections.singletonList("PK"), withSystemColumns(column("p_code", ColumnType.VARCHAR),
+			column("p_mime", ColumnType.VARCHAR), column("p_size", ColumnType.BIGINT),
+			column("p_description", ColumnType.CLOB), column("p_data", ColumnType.BLOB))),
+
+	PROPS("props", 0.5, Arrays.asList("ITEMPK", "NAME", "LANGPK"), Arrays.asList(column("ITEMPK", ColumnType.BIGINT),
+			column("NAME", ColumnType.VARCHAR), column("LANGPK", ColumnType.BIGINT),
+			column("ITEMTYPEPK", ColumnType.BIGINT), column("REALNAME", ColumnType.VARCHAR),
+			column("TYPE1", ColumnType.INTEGER), column("VALUESTRING1", ColumnType.CLOB))),
+
+	PROCESSLOGS("processlogs", 0.01, Collections.emptyList(), Arrays.asList(column("p_process", ColumnType.BIGINT),
+			column("p_actionid", ColumnType.VARCHAR), column("p_returncode", ColumnType.VARCHAR),
+			column("p_logmessages", ColumnType.CLOB), column("createdTS", ColumnType.TIMESTAMP)));
+
+	private static final long BASE_PK = 8796093022208L;
+	private static final long BASE_MILLIS = 1609459200000L;
+	private static final int CLOB_LENGTH = 2048;
+	private static final int BLOB_LENGTH = 8192;
+	private static final int ROWS_PER_ITEM = 4;
+
+	private final String tableName;
+	private final double rowFactor;
+	private final List<String> keyColumns;
+	private final List<Column> columns;
+
+	BenchmarkTable(String tableName, double rowFactor, List<String> keyColumns, List<Column> columns) {
+		this.tableName = tableName;
+		this.rowFactor = rowFactor;
+		this.keyColumns = keyColumns;
+		this.columns = columns;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public long getRowCount(long baseRowCount) {
+		return Math.max(1, (long) (baseRowCount * rowFactor));
+	}
+
+	public String getCreateStatement() {
+		List<String> definitions = columns.stream()
+				.map(column -> column.name + " " + column.type.sqlType
+						+ (keyColumns.contains(column.name) ? " NOT NULL" : ""))
+				.collect(Collectors.toList());
+		if (!keyColumns.isEmpty()) {
+			definitions.add("PRIMARY KEY (" + String.join(", ", keyColumns) + ")");
+		}
+		return String.format("CREATE CACHED TABLE %s (%s)", tableName, String.join(", ", definitions));
+	}
+
+	public String getInsertStatement() {
+		return String.format("INSERT INTO %s (%s) VALUES (%s)", tableName,
+				columns.stream().map(column -> column.name).collect(Collectors.joining(", ")),
+				columns.stream().map(column -> "?").collect(Collectors.joining(", ")));
+	}
+
+	public void bindRow(PreparedStatement statement, long row) throws SQLException {
+		for (int index = 0; index < columns.size(); index++) {
+			Column column = columns.get(index);
+			int parameter = index + 1;
+			if (!keyColumns.contains(column.name) && (row + index) % 10 == 0) {
+				statement.setNull(parameter, column.type.jdbcType);
+			} else {
+				statement.setObject(parameter, createValue(column, row, index), column.type.jdbcType);
+			}
+		}
+	}
+
+	private Object createValue(Column column, long row, int index) {
+		// the composite key of the props table spreads the rows of an item over
+		// names and languages
+		if (this == PROPS && "ITEMPK".equals(column.name)) {
+			return BASE_PK + row / ROWS_PER_ITEM;
+		}
+		if (this == PROPS && "NAME".equals(column.name)) {
+			return "property" + row % ROWS_PER_ITEM;
+		}
+		if (this == PROPS && "LANGPK".equals(column.name)) {
+			return BASE_PK + row % 3;
+		}
+		if ("PK".equals(column.name)) {
+			return BASE_PK + row;
+		}
+		switch (column.type) {
+		case BIGINT:
+			return BASE_PK + row * 64 + index;
+		case INTEGER:
+			return (int) (row % 1000);
+		case SMALLINT:
+			return (short) (row % 2);
+		case TIMESTAMP:
+			return new Timestamp(BASE_MILLIS + row * 1000);
+		case DECIMAL:
+			return BigDecimal.valueOf(row, 2);
+		case CLOB:
+			return BenchmarkData.createText(CLOB_LENGTH);
+		case BLOB:
+			return new ByteArrayInputStream(
+					BenchmarkData.createText(BLOB_LENGTH).getBytes(StandardCharsets.US_ASCII));
+		default:
+			return column.name + "-" + row;
+		}
+	}
+
+	private static List<Column> withSystemColumns(Column... attributes) {
+		List<Column> columns = new ArrayList<>();
+		columns.add(column("hjmpTS", ColumnType.BIGINT));
+		columns.add(column("createdTS", ColumnType.TIMESTAMP));
+		columns.add(column("modifiedTS", ColumnType.TIMESTAMP));
+		columns.add(column("TypePkString", ColumnType.BIGINT));
+		columns.add(column("OwnerPkString", ColumnType.BIGINT));
+		columns.add(column("PK", ColumnType.BIGINT));
+		columns.add(column("aCLTS", ColumnType.BIGINT));
+		columns.add(column("propTS", ColumnType.BIGINT));
+		columns.addAll(Arrays.asList(attributes));
+		return columns;
+	}
+
+	private static Column[] attributes(int count) {
+		ColumnType[] types = { ColumnType.VARCHAR, ColumnType.BIGINT, ColumnType.INTEGER, ColumnType.TIMESTAMP,
+				ColumnType.DECIMAL, ColumnType.SMALLINT };
+		Column[] attributes = new Column[count];
+		for (int i = 0; i < count; i++) {
+			attributes[i] = column("p_attribute" + i, types[i % types.length]);
+		}
+		return attributes;
+	}
+
+	private static Column column(String name, ColumnType type) {
+		return new Column(name, type);
+	}
+
+	private enum ColumnType {
+		BIGINT("BIGINT", Types.BIGINT),
+		INTEGER("INTEGER", Types.INTEGER),
+		SMALLINT("SMALLINT", Types.SMALLINT),
+		VARCHAR("VARCHAR(255)", Types.VARCHAR),
+		TIMESTAMP("TIMESTAMP", Types.TIMESTAMP),
+		DECIMAL("DECIMAL(30,8)", Types.DECIMAL),
+		CLOB("CLOB", Types.CLOB),
+		BLOB("BLOB", Types.BLOB);
+
+		private final String sqlType;
+		private final int jdbcType;
+
+		ColumnType(String sqlType, int jdbcType) {
+			this.sqlType = sqlType;
+			this.jdbcType = jdbcType;
+		}
+	}
+
+	private static final class Column {
+		private final String name;
+		private final ColumnType type;
+
+		private Column(String name, ColumnType type) {
+			this.name = name;
+			this.type = type;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.repository.impl.BenchmarkDataRepository;
+import org.sap.commercemigration.service.impl.DefaultDatabaseMigrationDataTypeMapperService;
+
+import javax.sql.rowset.CachedRowSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a page from a result set into a data set, row-wise or columnar. The
+ * result set is kept in memory, so the measurement includes its accessors but
+ * no driver or network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConvertToDataSetBenchmark {
+
+	@Param({ "10", "50" })
+	private int columns;
+
+	@Param({ "1000" })
+	private int rows;
+
+	@Param({ "false", "true" })
+	private boolean columnar;
+
+	private BenchmarkDataRepository repository;
+	private CachedRowSet resultSet;
+
+	@Setup
+	public void setUp() throws Exception {
+		repository = new BenchmarkDataRepository(BenchmarkData.createMigrationContext(columnar, rows),
+				new DefaultDatabaseMigrationDataTypeMapperService());
+		resultSet = BenchmarkData.createResultSet(columns, rows);
+	}
+
+	@Benchmark
+	public DataSet convertToDataSet() throws Exception {
+		resultSet.beforeFirst();
+		return repository.toDataSet(resultSet);
+	}
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import com.github.freva.asciitable.AsciiTable;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.lang3.StringUtils;
+import org.sap.commercemigration.concurrent.DataPipe;
+import org.sap.commercemigration.concurrent.DataPipeFactory;
+import org.sap.commercemigration.concurrent.MDCTaskDecorator;
+import org.sap.commercemigration.concurrent.impl.DefaultDataPipeFactory;
+import org.sap.commercemigration.concurrent.impl.DefaultDataThreadPoolFactory;
+import org.sap.commercemigration.concurrent.impl.DefaultDataWorkerExecutorFactory;
+import org.sap.commercemigration.concurrent.impl.MeasuringDataPipe;
+import org.sap.commercemigration.constants.CommercemigrationConstants;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.context.impl.DefaultMigrationContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.performance.impl.DefaultPerformanceProfiler;
+import org.sap.commercemigration.profile.DataSourceConfigurationFactory;
+import org.sap.commercemigration.profile.impl.DefaultDataSourceConfigurationFactory;
+import org.sap.commercemigration.repository.impl.DataRepositoryFactory;
+import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.sap.commercemigration.service.impl.DefaultDatabaseMigrationDataTypeMapperService;
+import org.sap.commercemigration.strategy.impl.AdaptiveReaderBatchSizeStrategy;
+import org.sap.commercemigration.strategy.impl.CopyPipeWriterStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Copies generated tables between two embedded HSQLDB databases through the
+ * pipeline of a migration: the pipe created by {@link DefaultDataPipeFactory},
+ * its reader workers and the {@link CopyPipeWriterStrategy} with its writer
+ * workers. Only the scheduler and the task repository are stubs, so the
+ * figures include the JDBC work of both sides.
+ * <p>
+ * Every argument other than the options is a configuration to compare, a
+ * comma separated list of migration properties overriding the defaults of
+ * the commercemigration extension, e.g.
+ * {@code migration.data.reader.batchsize=500,migration.data.workers.writer.maxtasks=4}.
+ * Without configurations the defaults are measured. The options are
+ * <ul>
+ * <li>{@code --rows=<rows>} the base row count the table sizes are derived
+ * from, 1000000 by default</li>
+ * <li>{@code --source=mssql|oracle} the compatibility mode of the source
+ * database, mssql by default; the target always runs in mssql mode</li>
+ * <li>{@code --tables=<table>,...} the tables to copy, all by default</li>
+ * <li>{@code --dir=<directory>} the directory of the database files</li>
+ * </ul>
+ * The source database is generated once and reused by later runs with the
+ * same row count and mode. The tables are copied one after the other, so the
+ * figures of a table are not affected by the others.
+ */
+public final class CopyPipelineBenchmark {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CopyPipelineBenchmark.class);
+
+	private static final String PROPERTIES_FILE_PROPERTY = "commercemigration.properties";
+	private static final String DRIVER = "org.hsqldb.jdbc.JDBCDriver";
+	private static final String USER = "SA";
+	private static final int INSERT_BATCH_SIZE = 1000;
+	private static final long MEGABYTE = 1024 * 1024;
+
+	private final long baseRowCount;
+	private final String sourceMode;
+	private final Set<BenchmarkTable> tables;
+	private final String sourceUrl;
+	private final String targetUrl;
+	private final List<String[]> report = new ArrayList<>();
+
+	private CopyPipelineBenchmark(long baseRowCount, String sourceMode, Set<BenchmarkTable> tables, File directory) {
+		this.baseRowCount = baseRowCount;
+		this.sourceMode = sourceMode;
+		this.tables = tables;
+		// the source files carry their mode and size, so they can be reused by later runs
+		this.sourceUrl = String.format("jdbc:hsqldb:file:%s;sql.syntax_%s=true",
+				new File(directory, String.format("source-%s-%s/db", sourceMode, baseRowCount)).getAbsolutePath(),
+				sourceMode);
+		// the target is not recovered after a crash, its log would only slow down the writers
+		this.targetUrl = String.format("jdbc:hsqldb:file:%s;sql.syntax_mss=true;hsqldb.log_data=false",
+				new File(directory, "target/db").getAbsolutePath());
+	}
+
+	public static void main(String[] args) throws Exception {
+		long rows = 1000000;
+		String mode = "mssql";
+		Set<BenchmarkTable> tables = EnumSet.allOf(BenchmarkTable.class);
+		File directory = new File(System.getProperty("java.io.tmpdir"), "commercemigrationbenchmark");
+		List<String> configurations = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--rows=")) {
+				rows = Long.parseLong(StringUtils.substringAfter(arg, "="));
+			} else if (arg.startsWith("--source=")) {
+				mode = StringUtils.substringAfter(arg, "=").toLowerCase(Locale.ROOT);
+				if (!"mssql".equals(mode) && !"oracle".equals(mode)) {
+					throw new IllegalArgumentException("Unsupported source mode " + mode + ", use mssql or oracle");
+				}
+			} else if (arg.startsWith("--tables=")) {
+				tables = Arrays.stream(StringUtils.split(StringUtils.substringAfter(arg, "="), ','))
+						.map(table -> BenchmarkTable.valueOf(table.trim().toUpperCase(Locale.ROOT)))
+						.collect(Collectors.toCollection(() -> EnumSet.noneOf(BenchmarkTable.class)));
+			} else if (arg.startsWith("--dir=")) {
+				directory = new File(StringUtils.substringAfter(arg, "="));
+			} else if (arg.startsWith("--")) {
+				throw new IllegalArgumentException("Unknown option " + arg);
+			} else if (StringUtils.isNotBlank(arg)) {
+				configurations.add(arg);
+			}
+		}
+		if (configurations.isEmpty()) {
+			configurations.add("");
+		}
+		// the syntax property of hsqldb names the oracle mode ora
+		CopyPipelineBenchmark benchmark = new CopyPipelineBenchmark(rows, "oracle".equals(mode) ? "ora" : mode,
+				tables, directory);
+		benchmark.prepareSource();
+		benchmark.prepareTarget();
+		for (String configuration : configurations) {
+			benchmark.run(configuration);
+		}
+		benchmark.shutdown();
+		benchmark.printReport();
+	}
+
+	private void prepareSource() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(sourceUrl, USER, "")) {
+			for (BenchmarkTable table : tables) {
+				long rowCount = table.getRowCount(baseRowCount);
+				if (exists(connection, table) && count(connection, table) == rowCount) {
+					continue;
+				}
+				LOG.info("Generating {} rows of table {} in {} mode", rowCount, table.getTableName(), sourceMode);
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("DROP TABLE " + table.getTableName() + " IF EXISTS");
+					statement.execute(table.getCreateStatement());
+				}
+				populate(connection, table, rowCount);
+			}
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("CHECKPOINT");
+			}
+		}
+	}
+
+	private void populate(Connection connection, BenchmarkTable table, long rowCount) throws SQLException {
+		connection.setAutoCommit(false);
+		try (PreparedStatement statement = connection.prepareStatement(table.getInsertStatement())) {
+			for (long row = 0; row < rowCount; row++) {
+				table.bindRow(statement, row);
+				statement.addBatch();
+				if ((row + 1) % INSERT_BATCH_SIZE == 0 || row + 1 == rowCount) {
+					statement.executeBatch();
+					connection.commit();
+				}
+			}
+		} finally {
+			connection.setAutoCommit(true);
+		}
+	}
+
+	private void prepareTarget() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(targetUrl, USER, "");
+				Statement statement = connection.createStatement()) {
+			statement.execute("DROP SCHEMA sys IF EXISTS CASCADE");
+			// the writer asks sql server for identity columns, the generated tables have none
+			statement.execute("CREATE SCHEMA sys AUTHORIZATION DBA");
+			statement.execute("CREATE TABLE sys.columns (object_id INT, is_identity INT)");
+			statement.execute("CREATE FUNCTION object_id(name VARCHAR(255)) RETURNS INT RETURN 0");
+			for (BenchmarkTable table : tables) {
+				statement.execute("DROP TABLE " + table.getTableName() + " IF EXISTS");
+				statement.execute(table.getCreateStatement());
+			}
+		}
+	}
+
+	private void run(String overrides) throws Exception {
+		Configuration configuration = createConfiguration(overrides);
+		ConfigurationService configurationService = BenchmarkStubs.stub(ConfigurationService.class,
+				Collections.singletonMap("getConfiguration", configuration));
+		DefaultDatabaseMigrationDataTypeMapperService mapper = new DefaultDatabaseMigrationDataTypeMapperService();
+		mapper.setConfigurationService(configurationService);
+		DataSourceConfigurationFactory dataSourceConfigurationFactory = new DefaultDataSourceConfigurationFactory(
+				configurationService);
+		MigrationContext migrationContext = new DefaultMigrationContext(
+				new DataRepositoryFactory(dataSourceConfigurationFactory, mapper), dataSourceConfigurationFactory,
+				configuration);
+
+		Map<String, Object> answers = new LinkedHashMap<>();
+		PipelineMetrics[] metrics = new PipelineMetrics[1];
+		// the batch id is the last argument of both variants
+		answers.put("markBatchCompleted",
+				(BenchmarkStubs.Answer) arguments -> {
+					metrics[0].batchCompleted((Integer) arguments[arguments.length - 1]);
+					return Boolean.TRUE;
+				});
+		DatabaseCopyTaskRepository taskRepository = BenchmarkStubs.stub(DatabaseCopyTaskRepository.class, answers);
+		DatabaseCopyScheduler scheduler = BenchmarkStubs.stub(DatabaseCopyScheduler.class);
+
+		ThreadPoolTaskExecutor readTaskExecutor = new ThreadPoolTaskExecutor();
+		readTaskExecutor.setTaskDecorator(new MDCTaskDecorator());
+		readTaskExecutor.setThreadNamePrefix("MigrationRead-");
+		readTaskExecutor.setQueueCapacity(0);
+		readTaskExecutor.setKeepAliveSeconds(60);
+		readTaskExecutor.setAllowCoreThreadTimeOut(true);
+		readTaskExecutor.initialize();
+		DataPipeFactory<DataSet> pipeFactory = new DefaultDataPipeFactory(scheduler, taskRepository,
+				readTaskExecutor,
+				new DefaultDataWorkerExecutorFactory(new DefaultDataThreadPoolFactory(new MDCTaskDecorator(),
+						"MigrationReadWorker-", migrationContext.getMaxParallelReaderWorkers(), 60, false, false,
+						true)),
+				new AdaptiveReaderBatchSizeStrategy());
+		CopyPipeWriterStrategy writerStrategy = new CopyPipeWriterStrategy(taskRepository,
+				new DefaultDataWorkerExecutorFactory(new DefaultDataThreadPoolFactory(new MDCTaskDecorator(),
+						"MigrationWriteWorker-", migrationContext.getMaxParallelWriterWorkers(), 180, false, false,
+						false)));
+
+		String name = StringUtils.defaultIfEmpty(overrides, "defaults");
+		try {
+			for (BenchmarkTable table : tables) {
+				metrics[0] = new PipelineMetrics();
+				long rowCount = table.getRowCount(baseRowCount);
+				CopyContext.DataCopyItem item = new CopyContext.DataCopyItem(table.getTableName(),
+						table.getTableName(), Collections.emptyMap(), rowCount);
+				CopyContext context = new CopyContext("benchmark", migrationContext, Collections.singleton(item),
+						new DefaultPerformanceProfiler());
+				LOG.info("Copying {} rows of table {} with {}", rowCount, table.getTableName(), name);
+				resetPeakHeap();
+				long start = System.nanoTime();
+				DataPipe<DataSet> pipe = new MeasuringDataPipe(pipeFactory.create(context, item), metrics[0]);
+				writerStrategy.write(context, pipe, item);
+				double seconds = (System.nanoTime() - start) / 1e9;
+				long peakHeap = getPeakHeap();
+				long copied = countTarget(table);
+				if (copied != rowCount) {
+					throw new IllegalStateException(String.format("Copied %s of %s rows of table %s with %s", copied,
+							rowCount, table.getTableName(), name));
+				}
+				report.add(new String[] { name, table.getTableName(), String.valueOf(copied),
+						String.valueOf(metrics[0].getBatchCount()), format(seconds), format(copied / seconds),
+						format(metrics[0].getBytes() / seconds / MEGABYTE), format(metrics[0].getLatencyMillis(50)),
+						format(metrics[0].getLatencyMillis(99)), String.valueOf(peakHeap / MEGABYTE) });
+			}
+		} finally {
+			readTaskExecutor.shutdown();
+			close(migrationContext.getDataSourceRepository().getDataSource());
+			close(migrationContext.getDataTargetRepository().getDataSource());
+		}
+	}
+
+	private static void close(DataSource dataSource) throws IOException {
+		if (dataSource instanceof Closeable) {
+			((Closeable) dataSource).close();
+		}
+	}
+
+	private Configuration createConfiguration(String overrides) throws Exception {
+		String propertiesFile = System.getProperty(PROPERTIES_FILE_PROPERTY);
+		if (StringUtils.isEmpty(propertiesFile)) {
+			throw new IllegalStateException("Set the system property " + PROPERTIES_FILE_PROPERTY
+					+ " to the project.properties of the commercemigration extension");
+		}
+		// values are not split at commas, like the configuration of the platform
+		PropertiesConfiguration configuration = new PropertiesConfiguration();
+		configuration.setDelimiterParsingDisabled(true);
+		configuration.load(new File(propertiesFile));
+		setDataSource(configuration, "source", sourceUrl);
+		setDataSource(configuration, "target", targetUrl);
+		for (String override : StringUtils.split(overrides, ',')) {
+			if (!override.contains("=")) {
+				throw new IllegalArgumentException("Expected <property>=<value> but got " + override);
+			}
+			configuration.setProperty(StringUtils.substringBefore(override, "=").trim(),
+					StringUtils.substringAfter(override, "=").trim());
+		}
+		// features relying on the persisted task state or the indexes of sql server are out of scope
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_CLUSTER_BATCHSHARING_ENABLED, false);
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_SCHEDULER_RESUME_ENABLED, false);
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_DATA_INCREMENTAL_ENABLED, false);
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_DATA_INDICES_DROP_ENABLED, false);
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_DATA_INDICES_DISABLE_ENABLED, false);
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_DATA_TRUNCATE_ENABLED, true);
+		// one table at a time, so a shared worker pool has the size of the pool of one table
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_DATA_MAXPRALLELTABLECOPY, 1);
+		return configuration;
+	}
+
+	private static void setDataSource(Configuration configuration, String profile, String url) {
+		String prefix = "migration.ds." + profile + ".db.";
+		configuration.setProperty(prefix + "driver", DRIVER);
+		configuration.setProperty(prefix + "url", url);
+		configuration.setProperty(prefix + "username", USER);
+		configuration.setProperty(prefix + "password", "");
+		configuration.setProperty(prefix + "schema", "PUBLIC");
+		configuration.setProperty(prefix + "catalog", "PUBLIC");
+		configuration.setProperty(prefix + "tableprefix", "");
+		configuration.setProperty(prefix + "connection.pool.size.idle.min", 2);
+		configuration.setProperty(prefix + "connection.pool.size.active.max", 50);
+	}
+
+	private long countTarget(BenchmarkTable table) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(targetUrl, USER, "")) {
+			return count(connection, table);
+		}
+	}
+
+	private static boolean exists(Connection connection, BenchmarkTable table) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(
+				"SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ?")) {
+			statement.setString(1, table.getTableName().toUpperCase(Locale.ROOT));
+			try (ResultSet resultSet = statement.executeQuery()) {
+				return resultSet.next() && resultSet.getLong(1) > 0;
+			}
+		}
+	}
+
+	private static long count(Connection connection, BenchmarkTable table) throws SQLException {
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table.getTableName())) {
+			return resultSet.next() ? resultSet.getLong(1) : 0;
+		}
+	}
+
+	private void shutdown() throws SQLException {
+		for (String url : Arrays.asList(sourceUrl, targetUrl)) {
+			try (Connection connection = DriverManager.getConnection(url, USER, "");
+					Statement statement = connection.createStatement()) {
+				statement.execute("SHUTDOWN");
+			}
+		}
+	}
+
+	/**
+	 * The peak is the sum of the peaks of the heap pools, an upper bound of the
+	 * heap used at once.
+	 */
+	private static void resetPeakHeap() {
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	private static long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	private void printReport() {
+		String[] headers = { "Configuration", "Table", "Rows", "Batches", "Seconds", "Rows/s", "MB/s", "p50 ms",
+				"p99 ms", "Peak heap MB" };
+		System.out.println(AsciiTable.getTable(headers, report.toArray(new String[0][])));
+		System.out.println("MB/s is the estimated heap size of the pages handed to the writers per second");
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.1f", value);
+	}
+}
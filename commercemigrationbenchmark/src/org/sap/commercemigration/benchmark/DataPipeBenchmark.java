@@ -0,0 +1,112 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import org.sap.commercemigration.concurrent.DataPipe;
+import org.sap.commercemigration.concurrent.MaybeFinished;
+import org.sap.commercemigration.concurrent.impl.DefaultDataPipe;
+import org.sap.commercemigration.concurrent.impl.RingBufferDataPipe;
+import org.sap.commercemigration.context.CopyContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.repository.impl.BenchmarkDataRepository;
+import org.sap.commercemigration.scheduler.DatabaseCopyScheduler;
+import org.sap.commercemigration.service.DatabaseCopyTaskRepository;
+import org.sap.commercemigration.service.impl.DefaultDatabaseMigrationDataTypeMapperService;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand-over of pages between the reader workers putting them into the pipe
+ * and the writer taking them. The thread counts are given by the thread groups
+ * of the run, readers first, e.g. {@code -tg 4,1} for four readers and one
+ * writer.
+ * <p>
+ * The scheduler is a stub, so the abort checks of the default pipe cost a
+ * reflective call instead of a query.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataPipeBenchmark {
+
+	// short enough that threads blocked at the end of an iteration give up soon
+	private static final int TIMEOUT_IN_SECONDS = 1;
+
+	@Param({ "default", "ringbuffer" })
+	private String pipeType;
+
+	@Param({ "100" })
+	private int capacity;
+
+	private DataPipe<DataSet> pipe;
+	private MaybeFinished<DataSet> page;
+
+	@Setup
+	public void setUp() throws Exception {
+		DatabaseCopyScheduler scheduler = BenchmarkStubs.stub(DatabaseCopyScheduler.class);
+		DatabaseCopyTaskRepository taskRepository = BenchmarkStubs.stub(DatabaseCopyTaskRepository.class);
+		CopyContext context = new CopyContext("benchmark", BenchmarkData.createMigrationContext(false, 1000),
+				Collections.emptySet(), null);
+		CopyContext.DataCopyItem copyItem = new CopyContext.DataCopyItem("products", "products");
+		if ("ringbuffer".equals(pipeType)) {
+			// bounded by the number of pages only, as the default pipe
+			pipe = new RingBufferDataPipe<>(scheduler, taskRepository, context, copyItem, TIMEOUT_IN_SECONDS,
+					capacity, Long.MAX_VALUE);
+		} else {
+			pipe = new DefaultDataPipe<>(scheduler, taskRepository, context, copyItem, TIMEOUT_IN_SECONDS,
+					capacity);
+		}
+		page = MaybeFinished.of(new BenchmarkDataRepository(BenchmarkData.createMigrationContext(false, 1000),
+				new DefaultDatabaseMigrationDataTypeMapperService()).toDataSet(BenchmarkData.createResultSet(10, 1000)));
+	}
+
+	@Benchmark
+	@Group("pipe")
+	@GroupThreads(1)
+	public void read(Control control) throws Exception {
+		try {
+			pipe.put(page);
+		} catch (RuntimeException e) {
+			rethrowIfMeasuring(control, e);
+		}
+	}
+
+	@Benchmark
+	@Group("pipe")
+	@GroupThreads(1)
+	public MaybeFinished<DataSet> write(Control control) throws Exception {
+		try {
+			return pipe.get();
+		} catch (RuntimeException e) {
+			rethrowIfMeasuring(control, e);
+			return null;
+		}
+	}
+
+	private static void rethrowIfMeasuring(Control control, RuntimeException e) {
+		// the other side may have stopped already at the end of an iteration
+		if (!control.stopMeasurement) {
+			throw e;
+		}
+	}
+}
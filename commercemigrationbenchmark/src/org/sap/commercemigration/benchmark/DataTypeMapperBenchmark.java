@@ -0,0 +1,86 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sap.commercemigration.constants.CommercemigrationConstants;
+import org.sap.commercemigration.dataset.impl.SpilledLob;
+import org.sap.commercemigration.service.impl.DefaultDatabaseMigrationDataTypeMapperService;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping LOB values of the source to values the writer can bind, either
+ * inline or, with streaming enabled, spilled to a temporary file for values
+ * above 64 KB. Spilled values are released in the measured method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataTypeMapperBenchmark {
+
+	private static final long STREAMING_THRESHOLD = 64 * 1024;
+
+	@Param({ "CLOB", "BLOB" })
+	private String lobType;
+
+	@Param({ "1024", "65536", "1048576" })
+	private int size;
+
+	@Param({ "false", "true" })
+	private boolean streaming;
+
+	private DefaultDatabaseMigrationDataTypeMapperService mapper;
+	private Object value;
+	private int jdbcType;
+
+	@Setup
+	public void setUp() throws Exception {
+		BaseConfiguration configuration = new BaseConfiguration();
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_DATA_LOB_STREAMING_ENABLED, streaming);
+		configuration.setProperty(CommercemigrationConstants.MIGRATION_DATA_LOB_STREAMING_THRESHOLD,
+				STREAMING_THRESHOLD);
+		mapper = new DefaultDatabaseMigrationDataTypeMapperService();
+		mapper.setConfigurationService(BenchmarkStubs.stub(ConfigurationService.class,
+				Collections.singletonMap("getConfiguration", configuration)));
+		String text = BenchmarkData.createText(size);
+		if ("BLOB".equals(lobType)) {
+			jdbcType = Types.BLOB;
+			value = new SerialBlob(text.getBytes(StandardCharsets.UTF_8));
+		} else {
+			jdbcType = Types.CLOB;
+			value = new SerialClob(text.toCharArray());
+		}
+	}
+
+	@Benchmark
+	public Object map() throws Exception {
+		Object mapped = mapper.dataTypeMapper(value, jdbcType);
+		if (mapped instanceof SpilledLob) {
+			((SpilledLob) mapped).release();
+		}
+		return mapped;
+	}
+}
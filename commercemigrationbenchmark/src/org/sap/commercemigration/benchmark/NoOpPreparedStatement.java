@@ -0,0 +1,583 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * Statement that only consumes the bound parameters, so that binding can be
+ * measured without a driver. The values end up in fields the JIT cannot
+ * eliminate; batches are executed with an update count of 1 per row.
+ */
+public class NoOpPreparedStatement implements PreparedStatement {
+
+	private long checksum;
+	private Object lastValue;
+	private int batchSize;
+
+	public long getChecksum() {
+		return checksum + (lastValue == null ? 0 : 1);
+	}
+
+	private void consume(long value) {
+		checksum += value;
+	}
+
+	private void consume(double value) {
+		checksum += Double.doubleToRawLongBits(value);
+	}
+
+	private void consume(float value) {
+		checksum += Float.floatToRawIntBits(value);
+	}
+
+	private void consume(boolean value) {
+		checksum += value ? 1 : 0;
+	}
+
+	private void consume(Object value) {
+		lastValue = value;
+	}
+
+	@Override
+	public void setArray(int parameterIndex, Array x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		consume(x);
+		consume(length);
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		consume(x);
+		consume(length);
+	}
+
+	@Override
+	public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		consume(x);
+		consume(length);
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		consume(x);
+		consume(length);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, Blob x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+		consume(x);
+		consume(length);
+	}
+
+	@Override
+	public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setByte(int parameterIndex, byte x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+		consume(reader);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+		consume(reader);
+		consume(length);
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+		consume(reader);
+		consume(length);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader reader) throws SQLException {
+		consume(reader);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Clob x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+		consume(reader);
+		consume(length);
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+		consume(x);
+		consume(cal);
+	}
+
+	@Override
+	public void setDouble(int parameterIndex, double x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setFloat(int parameterIndex, float x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setInt(int parameterIndex, int x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setLong(int parameterIndex, long x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+		consume(reader);
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+		consume(reader);
+		consume(length);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+		consume(reader);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, NClob x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+		consume(reader);
+		consume(length);
+	}
+
+	@Override
+	public void setNString(int parameterIndex, String x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType) throws SQLException {
+		consume(sqlType);
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+		consume(sqlType);
+		consume(typeName);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+		consume(x);
+		consume(targetSqlType);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+		consume(x);
+		consume(targetSqlType);
+		consume(scaleOrLength);
+	}
+
+	@Override
+	public void setRef(int parameterIndex, Ref x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setRowId(int parameterIndex, RowId x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setShort(int parameterIndex, short x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setString(int parameterIndex, String x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+		consume(x);
+		consume(cal);
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+		consume(x);
+		consume(cal);
+	}
+
+	@Override
+	public void setURL(int parameterIndex, URL x) throws SQLException {
+		consume(x);
+	}
+
+	@Override
+	@Deprecated
+	public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		consume(x);
+		consume(length);
+	}
+
+	@Override
+	public void addBatch() throws SQLException {
+		batchSize++;
+	}
+
+	@Override
+	public void addBatch(String sql) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public void cancel() throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void clearBatch() throws SQLException {
+		batchSize = 0;
+	}
+
+	@Override
+	public void clearParameters() throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void close() throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void closeOnCompletion() throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void setCursorName(String name) throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void setEscapeProcessing(boolean enable) throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void setFetchDirection(int direction) throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void setMaxFieldSize(int max) throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void setMaxRows(int max) throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void setPoolable(boolean poolable) throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public void setQueryTimeout(int seconds) throws SQLException {
+		// nothing to do
+	}
+
+	@Override
+	public boolean execute() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean execute(String sql, String[] columnNames) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		int[] updateCounts = new int[batchSize];
+		Arrays.fill(updateCounts, 1);
+		batchSize = 0;
+		return updateCounts;
+	}
+
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int executeUpdate() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getFetchDirection() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getMaxFieldSize() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getMaxRows() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean getMoreResults(int current) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getResultSetHoldability() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getResultSetType() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int getUpdateCount() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean isPoolable() throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		throw new SQLFeatureNotSupportedException();
+	}
+}
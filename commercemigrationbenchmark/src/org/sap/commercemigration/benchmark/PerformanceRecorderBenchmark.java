@@ -0,0 +1,54 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sap.commercemigration.performance.PerformanceCategory;
+import org.sap.commercemigration.performance.PerformanceRecorder;
+import org.sap.commercemigration.performance.PerformanceUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording throughput into a recorder shared by all workers of a table,
+ * uncontended and with as many threads as there are processors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PerformanceRecorderBenchmark {
+
+	private PerformanceRecorder recorder;
+
+	@Setup
+	public void setUp() {
+		recorder = new PerformanceRecorder(PerformanceCategory.DB_READ, "products", true);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void record() {
+		recorder.record(PerformanceUnit.ROWS, 1000);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void recordContended() {
+		recorder.record(PerformanceUnit.ROWS, 1000);
+	}
+}
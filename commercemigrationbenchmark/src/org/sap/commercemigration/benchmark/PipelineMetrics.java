@@ -0,0 +1,71 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the pages of one table copy. The latency of a batch runs from the
+ * writer taking the page from the pipe until the writer marks the batch
+ * completed right before its commit.
+ */
+public class PipelineMetrics {
+
+	// pages with the same batch id, e.g. of a table without key, complete in the order they were taken
+	private final Map<Integer, Queue<Long>> takenNanos = new ConcurrentHashMap<>();
+	private final List<Long> latencyNanos = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicLong bytes = new AtomicLong();
+
+	public void pageTaken(int batchId, long estimatedBytes) {
+		bytes.addAndGet(estimatedBytes);
+		takenNanos.computeIfAbsent(batchId, id -> new ConcurrentLinkedQueue<>()).add(System.nanoTime());
+	}
+
+	public void batchCompleted(int batchId) {
+		Queue<Long> taken = takenNanos.get(batchId);
+		Long takenAt = taken == null ? null : taken.poll();
+		if (takenAt != null) {
+			latencyNanos.add(System.nanoTime() - takenAt);
+		}
+	}
+
+	/**
+	 * @return the estimated heap size of the pages handed to the writers
+	 */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	public int getBatchCount() {
+		return latencyNanos.size();
+	}
+
+	/**
+	 * @param percentile
+	 *            between 0 and 100
+	 * @return the batch latency in milliseconds, 0 without completed batches
+	 */
+	public double getLatencyMillis(double percentile) {
+		List<Long> sorted;
+		synchronized (latencyNanos) {
+			sorted = new ArrayList<>(latencyNanos);
+		}
+		if (sorted.isEmpty()) {
+			return 0;
+		}
+		Collections.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+		long nanos = sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
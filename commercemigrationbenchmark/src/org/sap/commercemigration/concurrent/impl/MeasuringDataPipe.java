@@ -0,0 +1,55 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.concurrent.impl;
+
+import org.sap.commercemigration.benchmark.PipelineMetrics;
+import org.sap.commercemigration.concurrent.DataPipe;
+import org.sap.commercemigration.concurrent.MaybeFinished;
+import org.sap.commercemigration.dataset.DataSet;
+
+/**
+ * Records the pages the writer takes from the pipe created by the pipe
+ * factory, sized like the pipe bounds its memory.
+ */
+public class MeasuringDataPipe implements DataPipe<DataSet> {
+
+	private final DataPipe<DataSet> delegate;
+	private final PipelineMetrics metrics;
+
+	public MeasuringDataPipe(DataPipe<DataSet> delegate, PipelineMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void requestAbort(Exception e) {
+		delegate.requestAbort(e);
+	}
+
+	@Override
+	public void put(MaybeFinished<DataSet> value) throws Exception {
+		delegate.put(value);
+	}
+
+	@Override
+	public MaybeFinished<DataSet> get() throws Exception {
+		MaybeFinished<DataSet> page = delegate.get();
+		DataSet dataSet = page.getValue();
+		if (!page.isPoison() && dataSet != null && dataSet.isNotEmpty()) {
+			metrics.pageTaken(dataSet.getBatchId(), DataSetSizeEstimator.estimate(dataSet));
+		}
+		return page;
+	}
+
+	@Override
+	public int size() {
+		return delegate.size();
+	}
+
+	@Override
+	public int getWaitersCount() {
+		return delegate.getWaitersCount();
+	}
+}
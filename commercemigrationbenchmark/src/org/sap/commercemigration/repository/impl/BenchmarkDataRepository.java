@@ -0,0 +1,33 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.repository.impl;
+
+import org.sap.commercemigration.benchmark.BenchmarkStubs;
+import org.sap.commercemigration.context.MigrationContext;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.profile.DataSourceConfiguration;
+import org.sap.commercemigration.service.DatabaseMigrationDataTypeMapperService;
+
+import java.sql.ResultSet;
+import java.util.Collections;
+
+/**
+ * Repository without a data source, exposing the conversion of result sets
+ * to the benchmarks.
+ */
+public class BenchmarkDataRepository extends HsqlRepository {
+
+	public BenchmarkDataRepository(MigrationContext migrationContext,
+			DatabaseMigrationDataTypeMapperService databaseMigrationDataTypeMapperService) {
+		super(migrationContext,
+				BenchmarkStubs.stub(DataSourceConfiguration.class,
+						Collections.singletonMap("getConnectionString", "jdbc:hsqldb:mem:benchmark")),
+				databaseMigrationDataTypeMapperService);
+	}
+
+	public DataSet toDataSet(ResultSet resultSet) throws Exception {
+		return convertToDataSet(resultSet);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package org.sap.commercemigration.strategy.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sap.commercemigration.benchmark.BenchmarkData;
+import org.sap.commercemigration.benchmark.NoOpPreparedStatement;
+import org.sap.commercemigration.dataset.DataColumn;
+import org.sap.commercemigration.dataset.DataSet;
+import org.sap.commercemigration.repository.impl.BenchmarkDataRepository;
+import org.sap.commercemigration.service.impl.DefaultDatabaseMigrationDataTypeMapperService;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Binding a page to the parameters of the writer statement the way
+ * {@link CopyPipeWriterTask} does, over a statement that discards the values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ColumnBindingPlanBenchmark {
+
+	@Param({ "10", "50" })
+	private int columns;
+
+	@Param({ "1000" })
+	private int rows;
+
+	@Param({ "false", "true" })
+	private boolean columnar;
+
+	private DataSet page;
+	private ColumnBindingPlan plan;
+	private NoOpPreparedStatement statement;
+
+	@Setup
+	public void setUp() throws Exception {
+		page = new BenchmarkDataRepository(BenchmarkData.createMigrationContext(columnar, rows),
+				new DefaultDatabaseMigrationDataTypeMapperService())
+						.toDataSet(BenchmarkData.createResultSet(columns, rows));
+		List<String> columnsToCopy = page.getColumnOrder().stream().map(DataColumn::getColumnName)
+				.collect(Collectors.toList());
+		Map<String, DataColumn> targetColumns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		page.getColumnOrder().forEach(column -> targetColumns.put(column.getColumnName(), column));
+		plan = ColumnBindingPlan.create(page, columnsToCopy, targetColumns, Collections.emptySet(),
+				Collections.emptyMap());
+		statement = new NoOpPreparedStatement();
+	}
+
+	@Benchmark
+	public long bindPage() throws SQLException {
+		plan.checkCompatible(page);
+		for (int row = 0; row < page.getRowCount(); row++) {
+			plan.bind(statement, page, row);
+			statement.addBatch();
+		}
+		return statement.executeBatch().length + statement.getChecksum();
+	}
+}
@@ -26,6 +26,11 @@
                 Incremental mode is enabled. Only rows changed after ${incrementalTimestamp} for specified tables will be copied.<BR>
             </hac:note>
         </c:if>
+        <c:if test="${isSync}">
+            <hac:note additionalCssClass="marginBottom">
+                Sync mode is enabled. The copied tables are kept in sync with the source until the sync is stopped, then the migration completes.<BR>
+            </hac:note>
+        </c:if>
         <c:if test="${!Timezone}">
             <hac:note additionalCssClass="marginBottom">
                 The timezone on source and target database are different. It could cause problem. Please take it into account and check components using timezone after migration.<BR>
@@ -35,6 +40,9 @@
         <div class="clearfix">
             <button id="buttonCopyData" class="control-button" data-url="<c:url value="/commercemigrationhac/copyData"/>">Start</button>
             <button id="buttonStopCopyData" class="control-button" data-url="<c:url value="/commercemigrationhac/abortCopy"/>">Stop</button>
+            <c:if test="${isSync}">
+                <button id="buttonStopSync" class="control-button" data-url="<c:url value="/commercemigrationhac/stopSync"/>">Stop Sync</button>
+            </c:if>
         </div>
         <div id="configPanel" class="prepend-top clearfix" data-configPanelDataUrl="<c:url value="/commercemigrationhac/configPanel"/>">
         </div>
@@ -59,7 +67,8 @@
             </div>
         </div>
         <div class="prepend-top clearfix status">
-            <div id="copyStatus" class="span-8" data-url="<c:url value="/commercemigrationhac/copyStatus"/>">
+            <div id="copyStatus" class="span-8" data-url="<c:url value="/commercemigrationhac/copyStatus"/>"
+                 data-stream-url="<c:url value="/commercemigrationhac/copyStatusStream"/>">
                 <dl>
                     <dt>ID</dt>
                     <dd><span class="placeholder">N/A</span></dd>
@@ -111,6 +120,14 @@
         <div class="prepend-top" style="visibility:hidden">
             <button id="buttonSwitchPrefix" data-url="<c:url value="/commercemigrationhac/switchPrefix?prefix=${tgtMigPrefix}"/>">Switch Synonym to Prefix ${tgtMigPrefix}</button>
         </div>
+        <c:if test="${isSync}">
+            <div class="prepend-top">
+                <h2>Replication Lag</h2>
+                <div id="syncLagContainer" data-url="<c:url value="/commercemigrationhac/syncLags"/>">
+                    <p><span class="placeholder">No table synced.</span></p>
+                </div>
+            </div>
+        </c:if>
         <div class="prepend-top">
             <h2>Migration Log</h2>
             <div id="copyLogContainer">
@@ -3,13 +3,16 @@
     function setupMigration() {
         const startButton = document.getElementById("buttonCopyData")
         const stopButton = document.getElementById("buttonStopCopyData")
+        const stopSyncButton = document.getElementById("buttonStopSync")
         const startUrl = startButton.dataset.url;
         const stopUrl = stopButton.dataset.url;
         const statusContainer = document.getElementById('copyStatus');
         const summaryContainer = document.getElementById('copySummary');
         const timeContainer = document.getElementById('copyTime');
         const statusUrl = statusContainer.dataset.url;
+        const statusStreamUrl = statusContainer.dataset.streamUrl;
         const logContainer = document.getElementById("copyLogContainer");
+        const syncLagContainer = document.getElementById("syncLagContainer");
         const reportButton = document.getElementById("buttonCopyReport")
         const dataSourceButton = document.getElementById("buttonDataSourceReport")
         const dataTargetButton = document.getElementById("buttonDataTargetReport")
@@ -18,6 +21,8 @@
         const switchPrefixButton = document.getElementById("buttonSwitchPrefix")
         let lastUpdateTime = Date.UTC(1970, 0, 1, 0, 0, 0);
         let pollInterval;
+        let statusStream;
+        let streamPollTimeout;
         let startButtonContentBefore;
         let currentMigrationID;
 
@@ -25,6 +30,10 @@
         startButton.addEventListener('click', copyData);
         stopButton.disabled = true;
         stopButton.addEventListener('click', stopCopy);
+        if (stopSyncButton) {
+            stopSyncButton.disabled = true;
+            stopSyncButton.addEventListener('click', stopSync);
+        }
         switchPrefixButton.disabled = true;
         switchPrefixButton.addEventListener('click', switchPrefix);
 
@@ -114,11 +123,13 @@
                                     === 'RUNNING');
                         }
                         stopButton.disabled = !(data.status === 'RUNNING');
+                        if (stopSyncButton) {
+                            stopSyncButton.disabled = !(data.status === 'RUNNING');
+                        }
                         currentMigrationID = data.migrationID;
                         empty(logContainer);
                         updateStatus(data);
-                        doPoll();
-                        pollInterval = setInterval(doPoll, 5000);
+                        startPolling();
                     } else {
                      if($('#timezoneCheckbox').val()){
                             $('#buttonCopyData').prop('disabled', true);
@@ -149,6 +160,9 @@
                 dataTargetButton.disabled = true;
             }
             stopButton.disabled = false;
+            if (stopSyncButton) {
+                stopSyncButton.disabled = false;
+            }
             $.ajax({
                 url: startUrl,
                 type: 'POST',
@@ -163,6 +177,9 @@
                      hac.global.error(data.customException);
 
                      stopButton.disabled = true;
+                     if (stopSyncButton) {
+                         stopSyncButton.disabled = true;
+                     }
                      startButton.innerHTML = startButtonContentBefore;
                      startButton.disabled = false;
                     }
@@ -171,8 +188,7 @@
                     currentMigrationID = data.migrationID;
                     empty(logContainer);
                     updateStatus(data);
-                    doPoll();
-                    pollInterval = setInterval(doPoll, 5000);
+                    startPolling();
                     }
 
                 },
@@ -180,6 +196,9 @@
 
                     hac.global.error("Data migration process failed, please check the logs ");
                     stopButton.disabled = true;
+                    if (stopSyncButton) {
+                        stopSyncButton.disabled = true;
+                    }
                      if($('#timezoneCheckbox').val()){
                             $('#buttonCopyData').prop('disabled', true);
                          }
@@ -212,6 +231,66 @@
             });
         }
 
+        // the tables are copied a last time, the migration completes afterwards
+        function stopSync() {
+            stopSyncButton.disabled = true;
+            $.ajax({
+                url: stopSyncButton.dataset.url,
+                type: 'PUT',
+                data: currentMigrationID,
+                headers: {
+                    'Accept': 'application/json',
+                    'X-CSRF-TOKEN': token
+                },
+                success: function (data) {
+                },
+                error: hac.global.err
+            });
+        }
+
+        function updateSyncLags() {
+            $.ajax({
+                url: syncLagContainer.dataset.url,
+                type: 'GET',
+                data: {
+                    migrationID: currentMigrationID
+                },
+                headers: {
+                    'Accept': 'application/json',
+                    'X-CSRF-TOKEN': token
+                },
+                success: function (lags) {
+                    empty(syncLagContainer);
+                    const pipelines = Object.keys(lags).sort(function (a, b) {
+                        return lags[b] - lags[a];
+                    });
+                    if (pipelines.length === 0) {
+                        syncLagContainer.innerHTML = "<p><span class=\"placeholder\">No table synced.</span></p>";
+                        return;
+                    }
+                    const table = document.createElement("table");
+                    table.innerHTML = "<thead><tr><th>Table</th><th>Lag</th></tr></thead>";
+                    const body = document.createElement("tbody");
+                    const now = Date.now();
+                    pipelines.forEach(function (pipeline) {
+                        const row = document.createElement("tr");
+                        const name = document.createElement("td");
+                        name.textContent = pipeline;
+                        row.appendChild(name);
+                        const lag = document.createElement("td");
+                        lag.innerHTML = formatDuration(now - lags[pipeline] * 1000, now);
+                        row.appendChild(lag);
+                        body.appendChild(row);
+                    });
+                    table.appendChild(body);
+                    syncLagContainer.appendChild(table);
+                },
+                error: function(xhr, status, error) {
+                    console.error('Could not get replication lag');
+                }
+            });
+        }
+
         function updateStatus(status) {
             const statusSummary = document.createElement('dl');
             statusSummary.classList.add("summary");
@@ -257,6 +336,45 @@
             timeContainer.appendChild(timeSummary);
         }
 
+        // status events of the server trigger the polls, the interval is a safety net for dropped events
+        function startPolling() {
+            doPoll();
+            if (window.EventSource && statusStreamUrl) {
+                statusStream = new EventSource(statusStreamUrl + '?migrationID=' + encodeURIComponent(currentMigrationID));
+                statusStream.onmessage = schedulePoll;
+                statusStream.onerror = function () {
+                    // the browser reconnects unless the stream is closed
+                    if (statusStream && statusStream.readyState === EventSource.CLOSED) {
+                        statusStream = undefined;
+                        clearInterval(pollInterval);
+                        pollInterval = setInterval(doPoll, 5000);
+                    }
+                };
+                pollInterval = setInterval(doPoll, 30000);
+            } else {
+                pollInterval = setInterval(doPoll, 5000);
+            }
+        }
+
+        function schedulePoll() {
+            if (!streamPollTimeout) {
+                streamPollTimeout = setTimeout(function () {
+                    streamPollTimeout = undefined;
+                    doPoll();
+                }, 1000);
+            }
+        }
+
+        function stopPolling() {
+            clearInterval(pollInterval);
+            clearTimeout(streamPollTimeout);
+            streamPollTimeout = undefined;
+            if (statusStream) {
+                statusStream.close();
+                statusStream = undefined;
+            }
+        }
+
         function doPoll() {
             console.log(new Date(lastUpdateTime).toISOString());
             $.ajax({
@@ -279,6 +397,9 @@
                         logContainer.scrollTop = logContainer.scrollHeight - logContainer.clientHeight
                     }
                     updateStatus(status);
+                    if (syncLagContainer) {
+                        updateSyncLags();
+                    }
                     if (status.completed) {
                      if($('#timezoneCheckbox').val()){
                             $('#buttonCopyData').prop('disabled', true);
@@ -289,6 +410,9 @@
                         startButton.disabled = false;
                         }
                         stopButton.disabled = true;
+                        if (stopSyncButton) {
+                            stopSyncButton.disabled = true;
+                        }
                         $(reportForm).children('input[name=migrationId]').val(currentMigrationID);
                         reportButton.disabled = false;
                         if (dataSourceButton) {
@@ -299,7 +423,7 @@
                             $(dataTargetButton).siblings('input[name=migrationId]').val(currentMigrationID);
                             dataTargetButton.disabled = false;
                         }
-                        clearInterval(pollInterval);
+                        stopPolling();
                     }
                 },
                 error: function(xhr, status, error) {
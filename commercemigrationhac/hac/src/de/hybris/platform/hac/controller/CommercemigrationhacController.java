@@ -32,6 +32,7 @@ import org.sap.commercemigration.context.LaunchOptions;
 import org.sap.commercemigration.context.MigrationContext;
 import org.sap.commercemigration.logging.JDBCQueriesStore;
 import org.sap.commercemigration.repository.DataRepository;
+import org.sap.commercemigration.scheduler.MigrationStatusBus;
 import org.sap.commercemigration.service.DatabaseMigrationService;
 import org.sap.commercemigration.service.DatabaseSchemaDifferenceService;
 import org.sap.commercemigration.service.impl.BlobDatabaseMigrationReportStorageService;
@@ -55,6 +56,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayInputStream;
@@ -81,6 +83,8 @@ public class CommercemigrationhacController {
 	private static final Logger LOG = LoggerFactory.getLogger(CommercemigrationhacController.class);
 	private static final SimpleDateFormat DATE_TIME_FORMATTER = new SimpleDateFormat("YYYY-MM-dd HH:mm",
 			Locale.ENGLISH);
+	// the browser reconnects after the timeout
+	private static final long STATUS_STREAM_TIMEOUT_MILLIS = 300000;
 	@Autowired
 	BlobDatabaseMigrationReportStorageService blobDatabaseMigrationReportStorageService;
 	@Autowired
@@ -95,6 +99,8 @@ public class CommercemigrationhacController {
 	private MigrationContext migrationContext;
 	@Autowired
 	private MetricService metricService;
+	@Autowired
+	private MigrationStatusBus migrationStatusBus;
 
 	@RequestMapping(value = {"/migrationSchema"}, method = {org.springframework.web.bind.annotation.RequestMethod.GET})
 	public String schema(final Model model) {
@@ -144,6 +150,8 @@ public class CommercemigrationhacController {
 		model.addAttribute("isLogSql",
 				BooleanUtils.toBooleanDefaultIfNull(migrationContext.isLogSql(), DEFAULT_BOOLEAN_VAL));
 		model.addAttribute("isSchedulerResumeEnabled", migrationContext.isSchedulerResumeEnabled());
+		model.addAttribute("isSync", migrationContext.isIncrementalModeEnabled()
+				&& migrationContext.isIncrementalWatermarkEnabled() && migrationContext.isIncrementalSyncEnabled());
 		return "dataCopy";
 	}
 
@@ -345,6 +353,23 @@ public class CommercemigrationhacController {
 		return "true";
 	}
 
+	@RequestMapping(value = "/stopSync", method = RequestMethod.PUT, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public String stopSync(@RequestBody String migrationID) throws Exception {
+		logAction("Stop sync executed");
+		return String.valueOf(databaseMigrationService.stopSync(migrationContext, migrationID));
+	}
+
+	/**
+	 * @return the seconds since the modifications of each synced table have been
+	 *         copied, by pipeline
+	 */
+	@RequestMapping(value = "/syncLags", method = RequestMethod.GET)
+	@ResponseBody
+	public Map<String, Long> syncLags(@RequestParam String migrationID) throws Exception {
+		return databaseMigrationService.getSyncLags(migrationContext, migrationID);
+	}
+
 	@RequestMapping(value = "/resumeRunning", method = RequestMethod.GET)
 	@ResponseBody
 	public MigrationStatus resumeRunning() throws Exception {
@@ -368,6 +393,16 @@ public class CommercemigrationhacController {
 		return migrationState;
 	}
 
+	/**
+	 * Streams the status events of the migration published on this node, including
+	 * the updates of other nodes read by the migration monitor. The events only
+	 * tell the client when to fetch the state from {@code /copyStatus}.
+	 */
+	@RequestMapping(value = "/copyStatusStream", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter copyStatusStream(@RequestParam String migrationID) {
+		return new MigrationStatusStream(migrationID, STATUS_STREAM_TIMEOUT_MILLIS, migrationStatusBus).open();
+	}
+
 	private void prepareStateForJsonSerialization(MigrationStatus migrationState) {
 		migrationState.setStartEpoch(convertToEpoch(migrationState.getStart()));
 		migrationState.setStart(null);
@@ -379,6 +414,9 @@ public class CommercemigrationhacController {
 		migrationState.getStatusUpdates().forEach(u -> {
 			u.setLastUpdateEpoch(convertToEpoch(u.getLastUpdate()));
 			u.setLastUpdate(null);
+			u.setLastSyncEpoch(convertToEpoch(u.getLastSync()));
+			u.setLastSync(null);
+			u.setWatermark(null);
 		});
 	}
 
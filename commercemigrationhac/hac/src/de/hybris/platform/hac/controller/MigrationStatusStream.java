@@ -0,0 +1,111 @@
+/*
+ * Copyright: 2021 SAP SE or an SAP affiliate company and commerce-migration-toolkit contributors.
+ * License: Apache-2.0
+*/
+package de.hybris.platform.hac.controller;
+
+import com.google.gson.Gson;
+import org.sap.commercemigration.MigrationStatusEvent;
+import org.sap.commercemigration.scheduler.MigrationStatusBus;
+import org.sap.commercemigration.scheduler.MigrationStatusListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Forwards the status events of a migration to a server-sent event stream.
+ * Every stream sends on a thread of its own, so a slow client never blocks the
+ * dispatcher of the {@link MigrationStatusBus}. A client that does not keep up,
+ * or whose send fails or hangs, is dropped; the browser reconnects and fetches
+ * the state.
+ */
+class MigrationStatusStream implements MigrationStatusListener {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MigrationStatusStream.class);
+
+	private static final Gson STATUS_EVENT_GSON = new Gson();
+	private static final int MAX_PENDING_EVENTS = 100;
+	private static final long SEND_TIMEOUT_MILLIS = 10000;
+
+	private final String migrationId;
+	private final SseEmitter emitter;
+	private final MigrationStatusBus migrationStatusBus;
+	private final ThreadPoolExecutor sender;
+	private final AtomicBoolean closed = new AtomicBoolean();
+	// 0 unless a send is running
+	private volatile long sendStarted;
+
+	MigrationStatusStream(String migrationId, long timeoutMillis, MigrationStatusBus migrationStatusBus) {
+		this.migrationId = migrationId;
+		this.emitter = new SseEmitter(timeoutMillis);
+		this.migrationStatusBus = migrationStatusBus;
+		this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(MAX_PENDING_EVENTS), r -> {
+					Thread thread = new Thread(r, "MigrationStatusStream");
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Subscribes to the status bus until the stream is completed, times out or
+	 * the client is dropped.
+	 */
+	SseEmitter open() {
+		emitter.onCompletion(this::close);
+		emitter.onTimeout(this::close);
+		migrationStatusBus.subscribe(this);
+		return emitter;
+	}
+
+	@Override
+	public void onStatusEvent(MigrationStatusEvent event) {
+		if (closed.get() || !migrationId.equals(event.getMigrationId())) {
+			return;
+		}
+		long started = sendStarted;
+		if (started > 0 && System.currentTimeMillis() - started > SEND_TIMEOUT_MILLIS) {
+			drop(new IllegalStateException("Status event not sent in time"));
+			return;
+		}
+		try {
+			sender.execute(() -> send(event));
+		} catch (RejectedExecutionException e) {
+			drop(e);
+		}
+	}
+
+	private void send(MigrationStatusEvent event) {
+		sendStarted = System.currentTimeMillis();
+		try {
+			emitter.send(SseEmitter.event().data(STATUS_EVENT_GSON.toJson(event)));
+		} catch (Exception e) {
+			// client gone
+			drop(e);
+		} finally {
+			sendStarted = 0;
+		}
+	}
+
+	private void drop(Exception cause) {
+		if (!closed.get()) {
+			LOG.debug("Dropping status stream of migration {}", migrationId, cause);
+			close();
+			emitter.completeWithError(cause);
+		}
+	}
+
+	private void close() {
+		if (closed.compareAndSet(false, true)) {
+			migrationStatusBus.unsubscribe(this);
+			// interrupts a hanging send
+			sender.shutdownNow();
+		}
+	}
+}